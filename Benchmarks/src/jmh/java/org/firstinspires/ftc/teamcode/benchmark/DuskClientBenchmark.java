@@ -0,0 +1,161 @@
+package org.firstinspires.ftc.teamcode.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.firstinspires.ftc.teamcode.dusk.DuskClient;
+import org.firstinspires.ftc.teamcode.logging.Log;
+import org.firstinspires.ftc.teamcode.logging.LoggerBackend;
+import org.firstinspires.ftc.teamcode.logging.LoggerProvider;
+import org.firstinspires.ftc.teamcode.matrix.Mat2;
+import org.firstinspires.ftc.teamcode.matrix.Mat3;
+import org.firstinspires.ftc.teamcode.matrix.Vec2;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks encoding logging data into Dusk packets.
+ * The client is never started, so packets are only encoded and queued. Queued packets are never
+ * sent, so each invocation encodes a batch of packets into a fresh client to keep the queue from
+ * growing without bound.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class DuskClientBenchmark {
+    /**
+     * The number of packets encoded per invocation.
+     */
+    static final int BATCH_SIZE = 1000;
+
+    /**
+     * The heading of the encoded transform in radians.
+     */
+    private static final double HEADING = 0.7;
+
+    /**
+     * The client under test.
+     */
+    private DuskClient client;
+
+    /**
+     * The encoded position.
+     */
+    private Vec2 position;
+
+    /**
+     * The encoded transform.
+     */
+    private Mat3 transform;
+
+    /**
+     * The encoded log message.
+     */
+    private Log log;
+
+    /**
+     * Constructs a DuskClientBenchmark.
+     */
+    public DuskClientBenchmark() { }
+
+    /**
+     * Creates the encoded data.
+     */
+    @Setup
+    public void setup() {
+        position = new Vec2(1, -1);
+        transform = Mat3.fromTransform(Mat2.fromAngle(HEADING), position);
+        // Log messages can only be created by loggers, so capture one from a logger
+        CapturingBackend capture = new CapturingBackend();
+        new LoggerProvider().addBackend(capture).getLogger("Benchmark")
+            .log("Forearm done at angle", HEADING);
+        log = capture.log;
+    }
+
+    /**
+     * Creates a fresh client with an empty queue.
+     */
+    @Setup(Level.Invocation)
+    public void resetClient() {
+        client = new DuskClient();
+    }
+
+    /**
+     * Encodes position packets.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void processPosition() {
+        for (int i = 0; i < BATCH_SIZE; ++i) {
+            client.processPosition("Benchmark", "position", position);
+        }
+    }
+
+    /**
+     * Encodes transform packets.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void processTransform() {
+        for (int i = 0; i < BATCH_SIZE; ++i) {
+            client.processTransform("Benchmark", "transform", null, transform);
+        }
+    }
+
+    /**
+     * Encodes log message packets.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void processLog() {
+        for (int i = 0; i < BATCH_SIZE; ++i) {
+            client.processLog(log);
+        }
+    }
+
+    /**
+     * A logger backend that keeps the last log message it was given.
+     */
+    private static final class CapturingBackend implements LoggerBackend {
+        /**
+         * The last log message, or null if none has been given.
+         */
+        private Log log;
+
+        /**
+         * Constructs a CapturingBackend.
+         */
+        CapturingBackend() {
+            log = null;
+        }
+
+        @Override
+        public void close() { }
+
+        @Override
+        public void processPosition(String loggerLabel, String itemLabel, Vec2 position) { }
+
+        @Override
+        public void processVector(String loggerLabel, String itemLabel, String attachLabel,
+            Vec2 vector) { }
+
+        @Override
+        public void processTransform(String loggerLabel, String itemLabel, String attachLabel,
+            Mat3 transform) { }
+
+        @Override
+        public void processUpdatableObject(String loggerLabel, String itemLabel, Object object) { }
+
+        @Override
+        public void processLog(Log message) {
+            log = message;
+        }
+    }
+}
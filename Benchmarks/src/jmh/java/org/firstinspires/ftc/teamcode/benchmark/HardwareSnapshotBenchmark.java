@@ -0,0 +1,207 @@
+package org.firstinspires.ftc.teamcode.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+import com.qualcomm.robotcore.hardware.TouchSensor;
+
+import org.firstinspires.ftc.teamcode.hardware.EncoderHandle;
+import org.firstinspires.ftc.teamcode.hardware.HardwareSnapshot;
+import org.firstinspires.ftc.teamcode.hardware.TouchSensorHandle;
+import org.firstinspires.ftc.teamcode.sim.SimHub;
+import org.firstinspires.ftc.teamcode.sim.SimRobot;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks the hub transactions a tick's sensor reads cost, with layers reading the drive
+ * encoders and lift switch of a simulated robot either directly or through a
+ * {@link HardwareSnapshot}.
+ * The simulated hub counts a transaction for every read while bulk caching is off and one per
+ * cleared cache otherwise. The hubTransactions and ticks secondary results count both over the
+ * measurement, so their ratio is the number of transactions per tick. The time per tick only
+ * reflects the simulated devices, not the milliseconds each real transaction takes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class HardwareSnapshotBenchmark {
+    /**
+     * The names of the drive motors in the hardware map.
+     */
+    private static final String[] DRIVE_MOTORS = {
+        "left_front_drive", "right_front_drive", "left_back_drive", "right_back_drive"
+    };
+
+    /**
+     * The number of layers reading every sensor each tick, as a drive, a localizer and a strategy
+     * might.
+     */
+    private static final int READERS = 3;
+
+    /**
+     * Whether sensors are read through a HardwareSnapshot instead of directly.
+     */
+    @Param({"false", "true"})
+    private boolean snapshot;
+
+    /**
+     * The simulated hub counting transactions.
+     */
+    private SimHub hub;
+
+    /**
+     * The drive motors, read directly.
+     */
+    private DcMotor[] motors;
+
+    /**
+     * The lift switch, read directly.
+     */
+    private TouchSensor liftSwitch;
+
+    /**
+     * The snapshot, or null if sensors are read directly.
+     */
+    private HardwareSnapshot hardwareSnapshot;
+
+    /**
+     * The drive motor encoders, read through the snapshot.
+     */
+    private EncoderHandle[] encoders;
+
+    /**
+     * The lift switch, read through the snapshot.
+     */
+    private TouchSensorHandle liftSwitchHandle;
+
+    /**
+     * Constructs a HardwareSnapshotBenchmark.
+     */
+    public HardwareSnapshotBenchmark() { }
+
+    /**
+     * Sets up the robot and, if enabled, the snapshot and its handles.
+     */
+    @Setup
+    public void setup() {
+        SimRobot robot = new SimRobot();
+        HardwareMap hardwareMap = robot.getHardwareMap();
+        hub = robot.getHub();
+        motors = new DcMotor[DRIVE_MOTORS.length];
+        for (int i = 0; i < motors.length; ++i) {
+            motors[i] = hardwareMap.get(DcMotor.class, DRIVE_MOTORS[i]);
+        }
+        liftSwitch = hardwareMap.get(TouchSensor.class, "lift_zero_switch");
+        if (!snapshot) {
+            hardwareSnapshot = null;
+            return;
+        }
+        hardwareSnapshot = new HardwareSnapshot(hardwareMap);
+        encoders = new EncoderHandle[motors.length];
+        for (int i = 0; i < motors.length; ++i) {
+            encoders[i] = hardwareSnapshot.getEncoder(motors[i]);
+        }
+        liftSwitchHandle = hardwareSnapshot.getTouchSensor(liftSwitch);
+    }
+
+    /**
+     * Runs one tick of sensor reads.
+     *
+     * @param counters - the counters reporting transactions and ticks.
+     * @return The sum of the values read, returned so they aren't optimized away.
+     */
+    @Benchmark
+    public long tick(TransactionCounters counters) {
+        long startTransactions = hub.getTransactionCount();
+        long sum = 0;
+        if (hardwareSnapshot != null) {
+            hardwareSnapshot.beginTick();
+            for (int reader = 0; reader < READERS; ++reader) {
+                for (EncoderHandle encoder : encoders) {
+                    sum += encoder.getPosition();
+                }
+                sum += liftSwitchHandle.isPressed() ? 1 : 0;
+            }
+        } else {
+            for (int reader = 0; reader < READERS; ++reader) {
+                for (DcMotor motor : motors) {
+                    sum += motor.getCurrentPosition();
+                }
+                sum += liftSwitch.isPressed() ? 1 : 0;
+            }
+        }
+        counters.countTick(hub.getTransactionCount() - startTransactions);
+        return sum;
+    }
+
+    /**
+     * Reports the hub transactions and ticks in each iteration, which JMH sums over the
+     * measurement.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class TransactionCounters {
+        /**
+         * The number of hub transactions in the iteration.
+         */
+        private long transactions;
+
+        /**
+         * The number of ticks run in the iteration.
+         */
+        private long ticks;
+
+        /**
+         * Constructs a TransactionCounters.
+         */
+        public TransactionCounters() { }
+
+        /**
+         * Restarts counting at the start of an iteration.
+         */
+        @Setup(Level.Iteration)
+        public void reset() {
+            transactions = 0;
+            ticks = 0;
+        }
+
+        /**
+         * Returns the number of hub transactions in the iteration.
+         *
+         * @return The number of transactions.
+         */
+        public long hubTransactions() {
+            return transactions;
+        }
+
+        /**
+         * Returns the number of ticks run in the iteration.
+         *
+         * @return The number of ticks.
+         */
+        public long ticks() {
+            return ticks;
+        }
+
+        /**
+         * Records that a tick ran.
+         *
+         * @param tickTransactions - the number of hub transactions the tick cost.
+         */
+        void countTick(long tickTransactions) {
+            transactions += tickTransactions;
+            ++ticks;
+        }
+    }
+}
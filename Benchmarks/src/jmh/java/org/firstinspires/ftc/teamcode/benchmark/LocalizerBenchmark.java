@@ -0,0 +1,130 @@
+package org.firstinspires.ftc.teamcode.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.firstinspires.ftc.teamcode.localization.LocalizationData;
+import org.firstinspires.ftc.teamcode.localization.LocalizationSource;
+import org.firstinspires.ftc.teamcode.localization.NewtonRobotLocalizer;
+import org.firstinspires.ftc.teamcode.localization.SqFalloffLocalizationData;
+import org.firstinspires.ftc.teamcode.matrix.Mat2;
+import org.firstinspires.ftc.teamcode.matrix.Mat3;
+import org.firstinspires.ftc.teamcode.matrix.Vec2;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks resolving the robot's transform from several localization sources, as done once per
+ * tick by layers that need it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class LocalizerBenchmark {
+    /**
+     * How far in meters each source's estimate is from the true position, at most.
+     */
+    private static final double POSITION_SPREAD = 0.05;
+
+    /**
+     * How far in radians each source's estimate is from the true heading, at most.
+     */
+    private static final double ROTATION_SPREAD = 0.05;
+
+    /**
+     * The accuracy of every source.
+     */
+    private static final double ACCURACY = 1;
+
+    /**
+     * The position and rotation precision of every source.
+     */
+    private static final double PRECISION = 10;
+
+    /**
+     * The number of localization sources registered with the localizer.
+     */
+    @Param({"1", "4", "16"})
+    private int sourceCount;
+
+    /**
+     * The localizer under test.
+     */
+    private NewtonRobotLocalizer localizer;
+
+    /**
+     * Constructs a LocalizerBenchmark.
+     */
+    public LocalizerBenchmark() { }
+
+    /**
+     * Registers sources whose estimates are spread evenly around a true transform.
+     */
+    @Setup
+    public void setup() {
+        localizer = new NewtonRobotLocalizer();
+        for (int i = 0; i < sourceCount; ++i) {
+            double spread = sourceCount == 1 ? 0 : (double)i / (sourceCount - 1) * 2 - 1;
+            localizer.registerSource(new FixedSource(new SqFalloffLocalizationData(
+                Mat3.fromTransform(
+                    Mat2.fromAngle(spread * ROTATION_SPREAD),
+                    new Vec2(spread * POSITION_SPREAD, -spread * POSITION_SPREAD)
+                ),
+                ACCURACY,
+                PRECISION,
+                PRECISION
+            )));
+        }
+    }
+
+    /**
+     * Resolves the transform from scratch, as on the first call in a tick.
+     *
+     * @return The resolved transform, returned so it isn't optimized away.
+     */
+    @Benchmark
+    public Mat3 resolveTransform() {
+        localizer.invalidateCache();
+        return localizer.resolveTransform();
+    }
+
+    /**
+     * A localization source that always reports the same data.
+     */
+    private static final class FixedSource implements LocalizationSource {
+        /**
+         * The data to report.
+         */
+        private final LocalizationData data;
+
+        /**
+         * Constructs a FixedSource.
+         *
+         * @param data - the data to report.
+         */
+        FixedSource(LocalizationData data) {
+            this.data = data;
+        }
+
+        @Override
+        public boolean canLocalizePosition() {
+            return true;
+        }
+
+        @Override
+        public boolean canLocalizeRotation() {
+            return true;
+        }
+
+        @Override
+        public LocalizationData collectData() {
+            return data;
+        }
+    }
+}
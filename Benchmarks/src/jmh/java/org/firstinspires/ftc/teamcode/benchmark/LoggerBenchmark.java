@@ -0,0 +1,90 @@
+package org.firstinspires.ftc.teamcode.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.firstinspires.ftc.teamcode.logging.Logger;
+import org.firstinspires.ftc.teamcode.logging.LoggerProvider;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks formatting log messages, separately from any backend's cost of delivering them.
+ * Every logger logs to the no-op backend a LoggerProvider uses when it has no backends.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class LoggerBenchmark {
+    /**
+     * A value logged alongside each message, like the layers' logged measurements.
+     */
+    private static final double VALUE = 0.125;
+
+    /**
+     * A logger with the default configuration, which timestamps messages.
+     */
+    private Logger defaultLogger;
+
+    /**
+     * A logger that neither timestamps messages nor reports their source locations.
+     */
+    private Logger plainLogger;
+
+    /**
+     * A logger that reports the source location of each message.
+     */
+    private Logger locationLogger;
+
+    /**
+     * Constructs a LoggerBenchmark.
+     */
+    public LoggerBenchmark() { }
+
+    /**
+     * Creates the loggers.
+     */
+    @Setup
+    public void setup() {
+        defaultLogger = new LoggerProvider().getLogger("Benchmark");
+        plainLogger = new LoggerProvider().timestamp(false).getLogger("Benchmark");
+        locationLogger = new LoggerProvider().timestamp(false).location(true).getLogger("Benchmark");
+    }
+
+    /**
+     * Logs a message with a timestamp.
+     */
+    @Benchmark
+    public void log() {
+        defaultLogger.log("Forearm done at angle", VALUE);
+    }
+
+    /**
+     * Logs a message without a timestamp.
+     */
+    @Benchmark
+    public void logPlain() {
+        plainLogger.log("Forearm done at angle", VALUE);
+    }
+
+    /**
+     * Logs a message with its source location.
+     */
+    @Benchmark
+    public void logWithLocation() {
+        locationLogger.log("Forearm done at angle", VALUE);
+    }
+
+    /**
+     * Updates an updatable field, as layers do every tick.
+     */
+    @Benchmark
+    public void update() {
+        defaultLogger.update("forearm angle", VALUE);
+    }
+}
@@ -0,0 +1,92 @@
+package org.firstinspires.ftc.teamcode.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.firstinspires.ftc.teamcode.matrix.Mat2;
+import org.firstinspires.ftc.teamcode.matrix.Mat3;
+import org.firstinspires.ftc.teamcode.matrix.Vec2;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks the 3x3 matrix operations used for robot transforms.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class MatrixBenchmark {
+    /**
+     * The heading of the benchmarked transform in radians.
+     */
+    private static final double HEADING = 0.7;
+
+    /**
+     * The x coordinate of the benchmarked transform in meters.
+     */
+    private static final double X = 1.5;
+
+    /**
+     * The y coordinate of the benchmarked transform in meters.
+     */
+    private static final double Y = -0.25;
+
+    /**
+     * A typical robot transform.
+     */
+    private Mat3 transform;
+
+    /**
+     * A point to transform.
+     */
+    private Vec2 point;
+
+    /**
+     * Constructs a MatrixBenchmark.
+     */
+    public MatrixBenchmark() { }
+
+    /**
+     * Creates the operands.
+     */
+    @Setup
+    public void setup() {
+        transform = Mat3.fromTransform(Mat2.fromAngle(HEADING), new Vec2(X, Y));
+        point = new Vec2(Y, X);
+    }
+
+    /**
+     * Inverts a transform.
+     *
+     * @return The inverse, returned so it isn't optimized away.
+     */
+    @Benchmark
+    public Mat3 inv() {
+        return transform.inv();
+    }
+
+    /**
+     * Composes two transforms.
+     *
+     * @return The product, returned so it isn't optimized away.
+     */
+    @Benchmark
+    public Mat3 mul() {
+        return transform.mul(transform);
+    }
+
+    /**
+     * Transforms a point.
+     *
+     * @return The transformed point, returned so it isn't optimized away.
+     */
+    @Benchmark
+    public Vec2 mulVec() {
+        return transform.mul(point);
+    }
+}
@@ -0,0 +1,188 @@
+package org.firstinspires.ftc.teamcode.benchmark;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+
+import org.firstinspires.ftc.teamcode.layer.Layer;
+import org.firstinspires.ftc.teamcode.layer.LayerSetupInfo;
+import org.firstinspires.ftc.teamcode.layer.MultiplexLayer;
+import org.firstinspires.ftc.teamcode.logging.LoggerProvider;
+import org.firstinspires.ftc.teamcode.task.IntakeTask;
+import org.firstinspires.ftc.teamcode.task.LiftTask;
+import org.firstinspires.ftc.teamcode.task.Task;
+import org.firstinspires.ftc.teamcode.task.TowerTask;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks one tick of a {@link MultiplexLayer} with three component layers, using mock layers
+ * that neither do work nor allocate of their own.
+ * Each tick routes one task to each component layer, then drains the multiplexed update, so the
+ * allocation rate reported by the GC profiler is the multiplexer's own.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class MultiplexLayerBenchmark {
+    /**
+     * The multiplexer under test.
+     */
+    private MultiplexLayer multiplex;
+
+    /**
+     * The tasks routed to the component layers every tick, one per component layer.
+     */
+    private Task[] tasks;
+
+    /**
+     * Constructs a MultiplexLayerBenchmark.
+     */
+    public MultiplexLayerBenchmark() { }
+
+    /**
+     * Sets up the multiplexer with its component layers.
+     */
+    @Setup
+    public void setup() {
+        multiplex = new MultiplexLayer(Arrays.asList(
+            new EchoLayer(TowerTask.class),
+            new EchoLayer(IntakeTask.class),
+            new EchoLayer(LiftTask.class)
+        ));
+        multiplex.setup(
+            new LayerSetupInfo(null, null, null, null, null, null, null, new LoggerProvider())
+        );
+        tasks = new Task[] {
+            new TowerTask(true, false),
+            new IntakeTask(true, false),
+            new LiftTask(0, true, false, false, false)
+        };
+    }
+
+    /**
+     * Routes one task to each component layer and drains the resulting update.
+     *
+     * @param blackhole - consumes the emitted tasks so they aren't optimized away.
+     */
+    @Benchmark
+    public void tick(Blackhole blackhole) {
+        for (Task task : tasks) {
+            multiplex.acceptTask(task);
+        }
+        Iterator<Task> emitted = multiplex.update(Collections.emptyList());
+        while (emitted.hasNext()) {
+            blackhole.consume(emitted.next());
+        }
+    }
+
+    /**
+     * A layer accepting one task type that passes each accepted task down unchanged on the next
+     * update, reusing its iterator.
+     */
+    private static final class EchoLayer implements Layer {
+        /**
+         * The task type this layer accepts.
+         */
+        private final Class<? extends Task> taskType;
+
+        /**
+         * The iterator returned by every update.
+         */
+        private final SingleTaskIterator emitted;
+
+        /**
+         * The last accepted task, or null if it has been emitted.
+         */
+        private Task pending;
+
+        /**
+         * Constructs an EchoLayer.
+         *
+         * @param taskType - the task type the layer accepts.
+         */
+        EchoLayer(Class<? extends Task> taskType) {
+            this.taskType = taskType;
+            emitted = new SingleTaskIterator();
+            pending = null;
+        }
+
+        @Override
+        public void setup(LayerSetupInfo setupInfo) { }
+
+        @Override
+        public boolean isTaskDone() {
+            return pending == null;
+        }
+
+        @Override
+        public Iterator<Task> update(Iterable<Task> completed) {
+            Task task = pending;
+            pending = null;
+            return emitted.reset(task);
+        }
+
+        @Override
+        public void acceptTask(Task task) {
+            pending = task;
+        }
+
+        @Override
+        public Collection<Class<? extends Task>> acceptedTaskTypes() {
+            return Collections.singleton(taskType);
+        }
+    }
+
+    /**
+     * A reusable iterator over a single task.
+     */
+    private static final class SingleTaskIterator implements Iterator<Task> {
+        /**
+         * The task to return, or null if it has been returned.
+         */
+        private Task task;
+
+        /**
+         * Constructs an exhausted SingleTaskIterator.
+         */
+        SingleTaskIterator() {
+            task = null;
+        }
+
+        /**
+         * Starts iterating over a task.
+         *
+         * @param newTask - the task to return.
+         * @return This SingleTaskIterator.
+         */
+        public SingleTaskIterator reset(Task newTask) {
+            task = newTask;
+            return this;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return task != null;
+        }
+
+        @Override
+        public Task next() {
+            if (task == null) {
+                throw new NoSuchElementException();
+            }
+            Task next = task;
+            task = null;
+            return next;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package org.firstinspires.ftc.teamcode.benchmark;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import org.firstinspires.ftc.teamcode.RobotController;
+import org.firstinspires.ftc.teamcode.layer.Layer;
+import org.firstinspires.ftc.teamcode.layer.LayerSetupInfo;
+import org.firstinspires.ftc.teamcode.layer.MultiplexLayer;
+import org.firstinspires.ftc.teamcode.layer.TaskSink;
+import org.firstinspires.ftc.teamcode.logging.LoggerProvider;
+import org.firstinspires.ftc.teamcode.task.IntakeTask;
+import org.firstinspires.ftc.teamcode.task.Task;
+import org.firstinspires.ftc.teamcode.task.TowerTask;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks one tick of a {@link MultiplexLayer} with two compute-heavy component layers that
+ * each spend 5 ms per update, updated serially or in parallel.
+ * Serial ticks take the sum of the component layers' update times, parallel ticks about the
+ * longest of them plus the cost of dispatching to and joining the pool.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class ParallelMultiplexLayerBenchmark {
+    /**
+     * How long each component layer spends per update, in nanoseconds.
+     */
+    private static final long UPDATE_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    /**
+     * The number of workers updating the component layers, or 0 to update them serially.
+     */
+    @Param({"0", "2"})
+    private int parallelism;
+
+    /**
+     * The controller the multiplexer registers its teardown with.
+     */
+    private RobotController controller;
+
+    /**
+     * The multiplexer under test.
+     */
+    private MultiplexLayer multiplex;
+
+    /**
+     * The sink the multiplexer emits into.
+     */
+    private BlackholeSink sink;
+
+    /**
+     * Constructs a ParallelMultiplexLayerBenchmark.
+     */
+    public ParallelMultiplexLayerBenchmark() { }
+
+    /**
+     * Sets up the multiplexer with its component layers.
+     */
+    @Setup
+    public void setup() {
+        controller = new RobotController();
+        multiplex = new MultiplexLayer(
+            Arrays.asList(
+                new BusyLayer(new TowerTask(true, false)),
+                new BusyLayer(new IntakeTask(true, false))
+            ),
+            parallelism
+        );
+        multiplex.setup(
+            new LayerSetupInfo(null, null, null, controller, null, null, null, new LoggerProvider())
+        );
+        sink = new BlackholeSink();
+    }
+
+    /**
+     * Tears down the multiplexer, shutting down its pool.
+     */
+    @TearDown
+    public void tearDown() {
+        controller.stop();
+    }
+
+    /**
+     * Updates the multiplexer once, delivering the emitted tasks to a blackhole.
+     *
+     * @param blackhole - consumes the emitted tasks so they aren't optimized away.
+     */
+    @Benchmark
+    public void tick(Blackhole blackhole) {
+        sink.blackhole = blackhole;
+        multiplex.update(Collections.emptyList(), sink);
+    }
+
+    /**
+     * A thread-safe layer that is never done and spins for {@link #UPDATE_NANOS} before emitting
+     * the same task every update, standing in for a planner or vision pipeline.
+     */
+    private static final class BusyLayer implements Layer {
+        /**
+         * The task emitted every update.
+         */
+        private final Task task;
+
+        /**
+         * Constructs a BusyLayer.
+         *
+         * @param task - the task to emit every update.
+         */
+        BusyLayer(Task task) {
+            this.task = task;
+        }
+
+        @Override
+        public void setup(LayerSetupInfo setupInfo) { }
+
+        @Override
+        public boolean isTaskDone() {
+            return false;
+        }
+
+        @Override
+        public Iterator<Task> update(Iterable<Task> completed) {
+            long end = System.nanoTime() + UPDATE_NANOS;
+            while (System.nanoTime() < end) {
+                // Busy-wait like a computation would, rather than yielding the thread
+                continue;
+            }
+            return Collections.singleton(task).iterator();
+        }
+
+        @Override
+        public void acceptTask(Task accepted) { }
+
+        @Override
+        public Collection<Class<? extends Task>> acceptedTaskTypes() {
+            return Collections.singleton(task.getClass());
+        }
+
+        @Override
+        public boolean isUpdateThreadSafe() {
+            return true;
+        }
+    }
+
+    /**
+     * A sink that always accepts and hands every task to a blackhole.
+     */
+    private static final class BlackholeSink implements TaskSink {
+        /**
+         * The blackhole of the current benchmark invocation.
+         */
+        private Blackhole blackhole;
+
+        /**
+         * Constructs a BlackholeSink.
+         */
+        BlackholeSink() {
+            blackhole = null;
+        }
+
+        @Override
+        public void accept(Task task) {
+            blackhole.consume(task);
+        }
+
+        @Override
+        public boolean canAccept() {
+            return true;
+        }
+
+        @Override
+        public boolean isTaskDone(Task task) {
+            return true;
+        }
+    }
+}
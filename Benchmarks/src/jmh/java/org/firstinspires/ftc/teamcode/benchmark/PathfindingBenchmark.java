@@ -0,0 +1,259 @@
+package org.firstinspires.ftc.teamcode.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.firstinspires.ftc.teamcode.RobotController;
+import org.firstinspires.ftc.teamcode.hardware.ActuatorWriteBuffer;
+import org.firstinspires.ftc.teamcode.hardware.HardwareSnapshot;
+import org.firstinspires.ftc.teamcode.layer.LayerSetupInfo;
+import org.firstinspires.ftc.teamcode.layer.pathfinding.PathfindingLayer;
+import org.firstinspires.ftc.teamcode.localization.LocalizationSource;
+import org.firstinspires.ftc.teamcode.localization.RobotLocalizer;
+import org.firstinspires.ftc.teamcode.logging.LoggerProvider;
+import org.firstinspires.ftc.teamcode.matrix.Mat2;
+import org.firstinspires.ftc.teamcode.matrix.Mat3;
+import org.firstinspires.ftc.teamcode.matrix.Vec2;
+import org.firstinspires.ftc.teamcode.sim.SimHardwareMap;
+import org.firstinspires.ftc.teamcode.task.MoveToFieldTask;
+import org.firstinspires.ftc.teamcode.task.Task;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the trajectory search of {@link PathfindingLayer} with varying numbers of obstacles,
+ * indexed by a grid or checked one by one, analytically or through a distance field, searching
+ * from coarse to fine or sweeping the whole search space, on the calling thread or on 1, 2, or 4
+ * worker threads. Exhaustive searches take minutes, so select parameters with -p to measure
+ * scaling in reasonable time.
+ * Each operation is one full search, triggered by giving the layer a new goal and updating it.
+ * Searches take long enough that each is timed on its own. The number of trajectories each search
+ * considered is reported as the candidates counter.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = PathfindingBenchmark.WARMUP_SEARCHES)
+@Measurement(iterations = PathfindingBenchmark.MEASURED_SEARCHES)
+@State(Scope.Thread)
+public class PathfindingBenchmark {
+    /**
+     * The number of searches run before measuring.
+     */
+    static final int WARMUP_SEARCHES = 2;
+
+    /**
+     * The number of searches measured.
+     */
+    static final int MEASURED_SEARCHES = 5;
+
+    /**
+     * The side length in meters of the square field obstacles are placed on.
+     */
+    private static final double FIELD_SIZE = 3.6;
+
+    /**
+     * The side length in meters of each obstacle.
+     */
+    private static final double OBSTACLE_SIZE = 0.2;
+
+    /**
+     * The distance in meters from the robot to the goal along each axis.
+     */
+    private static final double GOAL_DISTANCE = 1;
+
+    /**
+     * The number of static obstacles on the field.
+     */
+    @Param({"0", "4", "16", "64", "200"})
+    private int obstacleCount;
+
+    /**
+     * Whether the layer indexes obstacles by a grid instead of checking them one by one.
+     */
+    @Param({"true", "false"})
+    private boolean indexed;
+
+    /**
+     * The resolution in meters of the distance field static obstacles are rasterized into, or 0 to
+     * check them analytically.
+     */
+    @Param({"0", "0.02"})
+    private double fieldResolution;
+
+    /**
+     * Whether the layer sweeps the whole search space instead of searching from coarse to fine.
+     */
+    @Param({"false", "true"})
+    private boolean exhaustive;
+
+    /**
+     * The number of worker threads scoring trajectories, or 0 to score them on the calling thread.
+     */
+    @Param({"0", "1", "2", "4"})
+    private int parallelism;
+
+    /**
+     * The controller the layer registers its teardown with.
+     */
+    private RobotController controller;
+
+    /**
+     * The layer under test.
+     */
+    private PathfindingLayer layer;
+
+    /**
+     * The task giving the layer its goal.
+     */
+    private Task goalTask;
+
+    /**
+     * Constructs a PathfindingBenchmark.
+     */
+    public PathfindingBenchmark() { }
+
+    /**
+     * Sets up the layer with obstacles spread over the field in a grid, away from the robot at the
+     * origin.
+     */
+    @Setup
+    public void setup() {
+        SimHardwareMap hardwareMap = new SimHardwareMap();
+        controller = new RobotController();
+        layer = new PathfindingLayer(parallelism);
+        layer.setExhaustiveSearch(exhaustive);
+        layer.setObstacleIndexing(indexed);
+        layer.setStaticFieldResolution(fieldResolution);
+        layer.setup(new LayerSetupInfo(
+            hardwareMap,
+            new HardwareSnapshot(hardwareMap),
+            new ActuatorWriteBuffer(),
+            controller,
+            new FixedLocalizer(),
+            null,
+            null,
+            new LoggerProvider()
+        ));
+        int columns = (int)Math.ceil(Math.sqrt(obstacleCount));
+        for (int i = 0; i < obstacleCount; ++i) {
+            double x = ((double)(i % columns) + 1) / (columns + 1) * FIELD_SIZE - FIELD_SIZE / 2;
+            double y = ((double)(i / columns) + 1) / (columns + 1) * FIELD_SIZE - FIELD_SIZE / 2;
+            layer.addStaticObstacle(
+                Mat3.fromTransform(Mat2.fromAngle(0), new Vec2(x + OBSTACLE_SIZE, y)),
+                new Vec2(OBSTACLE_SIZE, OBSTACLE_SIZE)
+            );
+        }
+        goalTask = new MoveToFieldTask(Mat3.fromTransform(
+            Mat2.fromAngle(0),
+            new Vec2(GOAL_DISTANCE, GOAL_DISTANCE)
+        ));
+    }
+
+    /**
+     * Tears down the layer, shutting down its pool.
+     */
+    @TearDown
+    public void tearDown() {
+        controller.stop();
+    }
+
+    /**
+     * Runs one trajectory search.
+     *
+     * @param counters - the counters to report the number of considered trajectories in.
+     * @return The drive task chosen by the search, returned so it isn't optimized away.
+     */
+    @Benchmark
+    public Task calculatePath(SearchCounters counters) {
+        // Accepting a goal makes the next update search immediately
+        layer.acceptTask(goalTask);
+        Task task = layer.update(null).next();
+        counters.candidates += layer.getSearchedCandidates();
+        return task;
+    }
+
+    /**
+     * Counts the trajectories considered by the searches of each iteration.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class SearchCounters {
+        /**
+         * The number of trajectories checked against the dynamic window, each rolled out against
+         * every obstacle.
+         */
+        private long candidates;
+
+        /**
+         * Constructs a SearchCounters.
+         */
+        public SearchCounters() { }
+
+        /**
+         * Resets the counters before each iteration.
+         */
+        @Setup(Level.Iteration)
+        public void reset() {
+            candidates = 0;
+        }
+
+        /**
+         * Returns the number of trajectories considered in this iteration, read by JMH as the
+         * candidates counter.
+         *
+         * @return The number of trajectories considered.
+         */
+        public long candidates() {
+            return candidates;
+        }
+    }
+
+    /**
+     * A localizer that always reports the robot at the origin facing along the x axis.
+     */
+    private static final class FixedLocalizer implements RobotLocalizer {
+        /**
+         * The reported transform.
+         */
+        private final Mat3 transform;
+
+        /**
+         * Constructs a FixedLocalizer.
+         */
+        FixedLocalizer() {
+            transform = Mat3.fromTransform(Mat2.fromAngle(0), new Vec2(0, 0));
+        }
+
+        @Override
+        public void invalidateCache() { }
+
+        @Override
+        public void registerSource(LocalizationSource source) { }
+
+        @Override
+        public Mat3 resolveTransform() {
+            return transform;
+        }
+
+        @Override
+        public Vec2 resolvePosition() {
+            return transform.getTranslation();
+        }
+
+        @Override
+        public double resolveRotation() {
+            return transform.getDirection().getAngle();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package org.firstinspires.ftc.teamcode.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.firstinspires.ftc.teamcode.RobotController;
+import org.firstinspires.ftc.teamcode.layer.AbstractFunctionLayer;
+import org.firstinspires.ftc.teamcode.layer.Layer;
+import org.firstinspires.ftc.teamcode.layer.LayerSetupInfo;
+import org.firstinspires.ftc.teamcode.layer.TaskSink;
+import org.firstinspires.ftc.teamcode.logging.LoggerProvider;
+import org.firstinspires.ftc.teamcode.sim.SimHardwareMap;
+import org.firstinspires.ftc.teamcode.task.Task;
+import org.firstinspires.ftc.teamcode.task.UnsupportedTaskException;
+import org.firstinspires.ftc.teamcode.task.WinTask;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks the overhead of a {@link RobotController} tick, using mock layers that do no work of
+ * their own.
+ * The stack is a source layer emitting a task every tick, a number of layers passing the task down
+ * unchanged, and a sink layer that finishes every task immediately, so every layer is invoked on
+ * every tick the source layer is due.
+ * A depth of 3 makes the five-layer stack whose ticks should allocate nothing, which the gc.alloc
+ * rate of -prof gc reports as 0 B/op. A source tick divisor above 1 checks that ticks on which the
+ * source is not due leave the done function layers below it alone.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class RobotControllerBenchmark {
+    /**
+     * The number of layers between the source and the sink.
+     */
+    @Param({"1", "3", "4", "16"})
+    private int depth;
+
+    /**
+     * The number of ticks between invocations of the source layer.
+     */
+    @Param({"1", "4"})
+    private int sourceDivisor;
+
+    /**
+     * The controller under test.
+     */
+    private RobotController controller;
+
+    /**
+     * Constructs a RobotControllerBenchmark.
+     */
+    public RobotControllerBenchmark() { }
+
+    /**
+     * Sets up the controller with the mock stack.
+     */
+    @Setup
+    public void setup() {
+        List<Layer> layers = new ArrayList<>();
+        layers.add(new SinkLayer());
+        for (int i = 0; i < depth; ++i) {
+            layers.add(new PassLayer());
+        }
+        layers.add(new SourceLayer(sourceDivisor));
+        controller = new RobotController();
+        controller.setup(new SimHardwareMap(), null, layers, null, null, new LoggerProvider());
+    }
+
+    /**
+     * Runs one tick.
+     *
+     * @return Whether the stack finished, returned so it isn't optimized away.
+     */
+    @Benchmark
+    public boolean update() {
+        return controller.update();
+    }
+
+    /**
+     * A bottom layer that finishes every task as soon as it is accepted.
+     */
+    private static final class SinkLayer implements Layer {
+        /**
+         * Constructs a SinkLayer.
+         */
+        SinkLayer() { }
+
+        @Override
+        public void setup(LayerSetupInfo setupInfo) { }
+
+        @Override
+        public boolean isTaskDone() {
+            return true;
+        }
+
+        @Override
+        public Iterator<Task> update(Iterable<Task> completed) {
+            return null;
+        }
+
+        @Override
+        public void acceptTask(Task task) { }
+    }
+
+    /**
+     * A layer that passes every task down unchanged.
+     */
+    private static final class PassLayer extends AbstractFunctionLayer {
+        /**
+         * Constructs a PassLayer.
+         */
+        PassLayer() { }
+
+        @Override
+        public void setup(LayerSetupInfo setupInfo) { }
+
+        @Override
+        protected Task map(Task task) {
+            return task;
+        }
+    }
+
+    /**
+     * A top layer that never runs out of tasks.
+     */
+    private static final class SourceLayer implements Layer {
+        /**
+         * The task emitted every time.
+         */
+        private final Task emittedTask;
+
+        /**
+         * The number of ticks between invocations of the layer.
+         */
+        private final int divisor;
+
+        /**
+         * Constructs a SourceLayer.
+         *
+         * @param divisor - the number of ticks between invocations of the layer.
+         */
+        SourceLayer(int divisor) {
+            emittedTask = new WinTask();
+            this.divisor = divisor;
+        }
+
+        @Override
+        public void setup(LayerSetupInfo setupInfo) {
+            setupInfo.setTickDivisor(divisor);
+        }
+
+        @Override
+        public boolean isTaskDone() {
+            // A top layer that is done ends the stack
+            return false;
+        }
+
+        @Override
+        public Iterator<Task> update(Iterable<Task> completed) {
+            return Collections.singleton(emittedTask).iterator();
+        }
+
+        @Override
+        public void update(Iterable<Task> completed, TaskSink sink) {
+            sink.accept(emittedTask);
+        }
+
+        @Override
+        public void acceptTask(Task task) {
+            throw new UnsupportedTaskException(this, task);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package org.firstinspires.ftc.teamcode.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.qualcomm.robotcore.hardware.Gamepad;
+
+import org.firstinspires.ftc.teamcode.LayerGraph;
+import org.firstinspires.ftc.teamcode.RobotController;
+import org.firstinspires.ftc.teamcode.layer.Layer;
+import org.firstinspires.ftc.teamcode.layer.MultiplexLayer;
+import org.firstinspires.ftc.teamcode.layer.drive.MecanumDrive;
+import org.firstinspires.ftc.teamcode.layer.input.GamepadInputGenerator;
+import org.firstinspires.ftc.teamcode.layer.input.mapping.DpadTowerMapping;
+import org.firstinspires.ftc.teamcode.layer.input.mapping.JoystickHoloDriveMapping;
+import org.firstinspires.ftc.teamcode.layer.manipulator.IntakeLayer;
+import org.firstinspires.ftc.teamcode.layer.manipulator.TowerLayer;
+import org.firstinspires.ftc.teamcode.logging.LoggerProvider;
+import org.firstinspires.ftc.teamcode.sim.SimRobot;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks a steady-state tick of the
+ * {@link org.firstinspires.ftc.teamcode.opmode.DriveTowerTeleop} layer stack on a simulated robot,
+ * with the driver holding the left joystick forward and dpad up, or of the same layers connected
+ * as a {@link LayerGraph} without MultiplexLayers.
+ * Only the controller is ticked, so the allocation rate reported by the GC profiler is that of the
+ * layers and controller alone, which should be about 0 B/op in both configurations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class TeleopBenchmark {
+    /**
+     * How far forward the driver holds the left joystick.
+     */
+    private static final float STICK_FORWARD = 0.5f;
+
+    /**
+     * Whether the layers are connected as a graph instead of a stack.
+     */
+    @Param({"false", "true"})
+    private boolean graph;
+
+    /**
+     * The controller under test.
+     */
+    private RobotController controller;
+
+    /**
+     * Constructs a TeleopBenchmark.
+     */
+    public TeleopBenchmark() { }
+
+    /**
+     * Sets up the controller with the teleop layers and a driver holding the controls.
+     */
+    @Setup
+    public void setup() {
+        SimRobot robot = new SimRobot();
+        Gamepad gamepad0 = new Gamepad();
+        gamepad0.left_stick_y = -STICK_FORWARD;
+        gamepad0.dpad_up = true;
+        controller = new RobotController();
+        if (graph) {
+            GamepadInputGenerator input = new GamepadInputGenerator();
+            JoystickHoloDriveMapping driveMapping = new JoystickHoloDriveMapping();
+            DpadTowerMapping towerMapping = new DpadTowerMapping();
+            LayerGraph layerGraph = new LayerGraph()
+                .connect(input, driveMapping)
+                .connect(input, towerMapping)
+                .connect(driveMapping, new MecanumDrive())
+                .connect(towerMapping, new TowerLayer())
+                .add(new IntakeLayer());
+            controller.setup(robot.getHardwareMap(), null, layerGraph, gamepad0, null,
+                new LoggerProvider());
+            return;
+        }
+        List<Layer> layers = Arrays.asList(
+            new MultiplexLayer(Arrays.asList(
+                new MecanumDrive(),
+                new TowerLayer(),
+                new IntakeLayer()
+            )),
+            new MultiplexLayer(Arrays.asList(
+                new JoystickHoloDriveMapping(),
+                new DpadTowerMapping()
+            )),
+            new GamepadInputGenerator()
+        );
+        controller.setup(robot.getHardwareMap(), null, layers, gamepad0, null,
+            new LoggerProvider());
+    }
+
+    /**
+     * Runs one tick.
+     *
+     * @return Whether the stack finished, returned so it isn't optimized away.
+     */
+    @Benchmark
+    public boolean update() {
+        return controller.update();
+    }
+}
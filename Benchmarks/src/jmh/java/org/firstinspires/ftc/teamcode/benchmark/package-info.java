@@ -0,0 +1,6 @@
+/**
+ * JMH benchmarks for TeamCode's subsystems, run on a desktop JVM.
+ * Each benchmark reports throughput or time per operation, and the allocation rate when run with
+ * the gc profiler, which the Benchmarks build enables by default.
+ */
+package org.firstinspires.ftc.teamcode.benchmark;
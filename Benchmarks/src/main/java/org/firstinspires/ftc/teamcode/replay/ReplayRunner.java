@@ -0,0 +1,73 @@
+package org.firstinspires.ftc.teamcode.replay;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Locale;
+
+import org.firstinspires.ftc.teamcode.Units;
+import org.firstinspires.ftc.teamcode.journal.JournalReplayer;
+import org.firstinspires.ftc.teamcode.logging.LoggerProvider;
+import org.firstinspires.ftc.teamcode.sim.SimRobot;
+import org.firstinspires.ftc.teamcode.sim.SimulationRunner;
+
+/**
+ * Replays a tick journal on the layers of one of this project's opmodes as fast as the CPU allows
+ * and prints how long it took.
+ * The journal may have been recorded on the robot by an opmode with journaling enabled or by
+ * {@link SimulationRunner}. The layers are built by {@link SimulationRunner} and read the devices
+ * of a {@link SimRobot}, whose values the replayer discards in favor of the recorded ones. A layer
+ * stack that no longer behaves as recorded stops the replay with an IllegalStateException naming
+ * the tick it diverged at.
+ */
+public final class ReplayRunner {
+    /**
+     * Not instantiable.
+     */
+    private ReplayRunner() { }
+
+    /**
+     * Replays a journal and prints the result.
+     *
+     * @param args - the name of the opmode that recorded the journal, one of DriveTowerTeleop,
+     * TowerAutonomous, or RoombaAutonomous, followed by the path of the journal.
+     * @throws IOException - the journal could not be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: ReplayRunner <opmode> <journal>");
+        }
+        String opMode = args[0];
+        SimRobot robot = new SimRobot();
+        LoggerProvider loggerProvider = new LoggerProvider();
+        try (JournalReplayer replayer = new JournalReplayer(new FileInputStream(args[1]))) {
+            long start = System.nanoTime();
+            long ticks;
+            switch (opMode) {
+                case "DriveTowerTeleop":
+                    ticks = replayer.run(robot.getHardwareMap(), null,
+                        SimulationRunner.createDriveTowerTeleopLayers(), loggerProvider);
+                    break;
+                case "TowerAutonomous":
+                    ticks = replayer.run(robot.getHardwareMap(), null,
+                        SimulationRunner.createTowerAutonomousGraph(), loggerProvider);
+                    break;
+                case "RoombaAutonomous":
+                    ticks = replayer.run(robot.getHardwareMap(), null,
+                        SimulationRunner.createRoombaAutonomousLayers(), loggerProvider);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown opmode " + opMode + ".");
+            }
+            double seconds = Units.convert(System.nanoTime() - start, Units.Time.NANO,
+                Units.Time.SEC);
+            System.out.println(String.format(
+                Locale.US,
+                "%s: replayed %d ticks in %.3f s, %.0f ticks/s",
+                opMode,
+                ticks,
+                seconds,
+                ticks / seconds
+            ));
+        }
+    }
+}
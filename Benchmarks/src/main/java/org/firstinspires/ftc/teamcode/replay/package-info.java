@@ -0,0 +1,6 @@
+/**
+ * Desktop tools for tick journals recorded on the robot or by the simulator.
+ * {@link org.firstinspires.ftc.teamcode.replay.ReplayRunner} replays a journal on the layers of one
+ * of this project's opmodes as fast as the CPU allows, checking that they behave as recorded.
+ */
+package org.firstinspires.ftc.teamcode.replay;
@@ -0,0 +1,82 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import com.qualcomm.robotcore.hardware.HardwareDevice;
+
+/**
+ * Base class for simulated hardware devices.
+ * Implements the bookkeeping parts of {@link HardwareDevice} and adds a {@link #step} method
+ * advancing the device's physical state.
+ */
+public abstract class AbstractSimDevice implements HardwareDevice {
+    /**
+     * The name the device is registered under in the hardware map.
+     */
+    private final String name;
+
+    /**
+     * The hub counting the device's sensor reads, or null if it is not attached to one.
+     */
+    private SimHub hub;
+
+    /**
+     * Constructs an AbstractSimDevice.
+     *
+     * @param name - the name to register the device under in the hardware map.
+     */
+    protected AbstractSimDevice(String name) {
+        this.name = name;
+        hub = null;
+    }
+
+    /**
+     * Attaches the device to a hub, which counts the transactions its sensor reads cost.
+     *
+     * @param hub - the hub, or null to detach the device.
+     */
+    public final void setHub(SimHub hub) {
+        this.hub = hub;
+    }
+
+    /**
+     * Advances the device's physical state.
+     *
+     * @param dt - the simulated time to advance by, in seconds.
+     */
+    public abstract void step(double dt);
+
+    /**
+     * Counts a sensor read with the device's hub, if attached.
+     * Should be called by every method reading a sensor the hub would include in its bulk data.
+     */
+    protected final void readFromHub() {
+        if (hub != null) {
+            hub.read();
+        }
+    }
+
+    @Override
+    public final Manufacturer getManufacturer() {
+        return Manufacturer.Other;
+    }
+
+    @Override
+    public final String getDeviceName() {
+        return name;
+    }
+
+    @Override
+    public final String getConnectionInfo() {
+        return "simulated";
+    }
+
+    @Override
+    public final int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public final void resetDeviceConfigurationForOpMode() { }
+
+    @Override
+    public final void close() { }
+}
@@ -0,0 +1,19 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import com.qualcomm.robotcore.hardware.Gamepad;
+
+/**
+ * Scripted driver input for a {@link Simulation}.
+ */
+@FunctionalInterface
+public interface GamepadScript {
+    /**
+     * Writes the driver input for a point in the simulation to the gamepads.
+     * Called before every tick.
+     *
+     * @param time - the simulated time since the start of the simulation, in seconds.
+     * @param gamepad0 - the first gamepad given to the layers.
+     * @param gamepad1 - the second gamepad given to the layers.
+     */
+    void apply(double time, Gamepad gamepad0, Gamepad gamepad1);
+}
@@ -0,0 +1,143 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import org.firstinspires.ftc.teamcode.matrix.Mat2;
+import org.firstinspires.ftc.teamcode.matrix.Mat3;
+import org.firstinspires.ftc.teamcode.matrix.Vec2;
+
+/**
+ * A rigid-body mecanum chassis driven by four simulated motors.
+ * The robot space velocity is found from the wheels' surface speeds with the mecanum forward
+ * kinematics, assuming the wheels never slip and their rollers form an X when viewed from above,
+ * and integrated into a field space pose. In robot space, positive x is forward, positive y is to
+ * the left, and positive rotation is counterclockwise.
+ */
+public final class MecanumChassis {
+    /**
+     * The number of wheels the chassis velocity is averaged over.
+     */
+    private static final double WHEEL_COUNT = 4;
+
+    /**
+     * The motor driving the left front wheel.
+     */
+    private final SimMotor leftFront;
+
+    /**
+     * The motor driving the right front wheel.
+     */
+    private final SimMotor rightFront;
+
+    /**
+     * The motor driving the left back wheel.
+     */
+    private final SimMotor leftBack;
+
+    /**
+     * The motor driving the right back wheel.
+     */
+    private final SimMotor rightBack;
+
+    /**
+     * The radius of each wheel in meters.
+     */
+    private final double wheelRadius;
+
+    /**
+     * The distance in meters each wheel travels per radian the chassis turns.
+     */
+    private final double spanRadius;
+
+    /**
+     * The field space x coordinate of the robot in meters.
+     */
+    private double x;
+
+    /**
+     * The field space y coordinate of the robot in meters.
+     */
+    private double y;
+
+    /**
+     * The field space heading of the robot in radians.
+     */
+    private double heading;
+
+    /**
+     * Constructs a MecanumChassis at the field origin facing along the x axis.
+     *
+     * @param leftFront - the motor driving the left front wheel.
+     * @param rightFront - the motor driving the right front wheel.
+     * @param leftBack - the motor driving the left back wheel.
+     * @param rightBack - the motor driving the right back wheel.
+     * @param wheelRadius - the radius of each wheel in meters.
+     * @param spanRadius - the distance in meters each wheel travels per radian the chassis turns.
+     */
+    public MecanumChassis(
+        SimMotor leftFront,
+        SimMotor rightFront,
+        SimMotor leftBack,
+        SimMotor rightBack,
+        double wheelRadius,
+        double spanRadius
+    ) {
+        this.leftFront = leftFront;
+        this.rightFront = rightFront;
+        this.leftBack = leftBack;
+        this.rightBack = rightBack;
+        this.wheelRadius = wheelRadius;
+        this.spanRadius = spanRadius;
+        x = 0;
+        y = 0;
+        heading = 0;
+    }
+
+    /**
+     * Moves the chassis according to the current wheel speeds.
+     * Should be called after the motors have been stepped.
+     *
+     * @param dt - the simulated time to advance by, in seconds.
+     */
+    public void step(double dt) {
+        double lf = leftFront.getOutputVelocity() * wheelRadius;
+        double rf = rightFront.getOutputVelocity() * wheelRadius;
+        double lb = leftBack.getOutputVelocity() * wheelRadius;
+        double rb = rightBack.getOutputVelocity() * wheelRadius;
+        double axial = (lf + rf + lb + rb) / WHEEL_COUNT;
+        double lateral = (-lf + rf + lb - rb) / WHEEL_COUNT;
+        double yawRate = (-lf + rf - lb + rb) / WHEEL_COUNT / spanRadius;
+        // Integrate along the heading halfway through the step to reduce drift on curves
+        double midHeading = heading + yawRate * dt / 2;
+        double cos = Math.cos(midHeading);
+        double sin = Math.sin(midHeading);
+        x += (axial * cos - lateral * sin) * dt;
+        y += (axial * sin + lateral * cos) * dt;
+        heading += yawRate * dt;
+    }
+
+    /**
+     * Returns the field space position of the robot.
+     *
+     * @return The position in meters.
+     */
+    public Vec2 getPosition() {
+        return new Vec2(x, y);
+    }
+
+    /**
+     * Returns the field space heading of the robot.
+     *
+     * @return The heading in radians, counterclockwise from the x axis, not wrapped.
+     */
+    public double getHeading() {
+        return heading;
+    }
+
+    /**
+     * Returns the field space transform of the robot.
+     *
+     * @return The transform from robot space to field space.
+     */
+    public Mat3 getTransform() {
+        return Mat3.fromTransform(Mat2.fromAngle(heading), getPosition());
+    }
+}
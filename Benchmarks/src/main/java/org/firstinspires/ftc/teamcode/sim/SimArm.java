@@ -0,0 +1,70 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+/**
+ * A rigid arm swung by a simulated motor through a gear reduction.
+ * Gravity pulls the arm towards hanging straight down, which the motor sees as a load reduced by
+ * the gear ratio. Hard stops keep the arm within its travel from the rest position.
+ */
+public final class SimArm {
+    /**
+     * The motor swinging the arm.
+     */
+    private final SimMotor motor;
+
+    /**
+     * The number of revolutions of the arm per revolution of the motor output.
+     */
+    private final double gearRatio;
+
+    /**
+     * The angular acceleration gravity gives the arm when horizontal, in radians per second
+     * squared.
+     */
+    private final double gravity;
+
+    /**
+     * The angle of the arm above horizontal at rest, in radians.
+     */
+    private final double restAngle;
+
+    /**
+     * Constructs a SimArm and limits the travel of its motor.
+     *
+     * @param motor - the motor swinging the arm.
+     * @param gearRatio - the number of revolutions of the arm per revolution of the motor output.
+     * @param gravity - the angular acceleration gravity gives the arm when horizontal, in radians
+     * per second squared.
+     * @param restAngle - the angle of the arm above horizontal at rest, in radians.
+     * @param travel - how far the arm can swing away from rest, in radians.
+     */
+    public SimArm(
+        SimMotor motor,
+        double gearRatio,
+        double gravity,
+        double restAngle,
+        double travel
+    ) {
+        this.motor = motor;
+        this.gearRatio = gearRatio;
+        this.gravity = gravity;
+        this.restAngle = restAngle;
+        motor.setLimits(0, travel / gearRatio);
+    }
+
+    /**
+     * Applies the gravity load for the arm's current angle to the motor.
+     * Should be called before the motor is stepped.
+     */
+    public void applyLoad() {
+        motor.setLoadAcceleration(-gravity * Math.cos(getAngle()) * gearRatio);
+    }
+
+    /**
+     * Returns the angle of the arm.
+     *
+     * @return The angle of the arm above horizontal, in radians.
+     */
+    public double getAngle() {
+        return restAngle + motor.getOutputAngle() * gearRatio;
+    }
+}
@@ -0,0 +1,64 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import com.qualcomm.robotcore.hardware.CRServo;
+import com.qualcomm.robotcore.hardware.ServoController;
+
+/**
+ * A simulated continuous rotation servo.
+ * Only records the commanded power; mechanisms such as intakes are not simulated further.
+ */
+public final class SimCRServo extends AbstractSimDevice implements CRServo {
+    /**
+     * The direction of rotation relative to the commanded power.
+     */
+    private Direction direction;
+
+    /**
+     * The commanded power in the range [-1, 1].
+     */
+    private double power;
+
+    /**
+     * Constructs a SimCRServo.
+     *
+     * @param name - the name to register the servo under in the hardware map.
+     */
+    public SimCRServo(String name) {
+        super(name);
+        direction = Direction.FORWARD;
+        power = 0;
+    }
+
+    @Override
+    public void step(double dt) { }
+
+    @Override
+    public ServoController getController() {
+        return null;
+    }
+
+    @Override
+    public int getPortNumber() {
+        return 0;
+    }
+
+    @Override
+    public void setDirection(Direction direction) {
+        this.direction = direction;
+    }
+
+    @Override
+    public Direction getDirection() {
+        return direction;
+    }
+
+    @Override
+    public void setPower(double power) {
+        this.power = Math.max(-1, Math.min(1, power));
+    }
+
+    @Override
+    public double getPower() {
+        return power;
+    }
+}
@@ -0,0 +1,49 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.qualcomm.robotcore.hardware.HardwareMap;
+
+/**
+ * A HardwareMap of simulated devices that works without an Android context.
+ * Layers retrieve devices from it by name exactly as they would from the robot's configuration.
+ */
+public final class SimHardwareMap extends HardwareMap {
+    /**
+     * The devices added to the map, in the order they are stepped.
+     */
+    private final List<AbstractSimDevice> simDevices;
+
+    /**
+     * Constructs an empty SimHardwareMap.
+     */
+    public SimHardwareMap() {
+        super(null, null);
+        simDevices = new ArrayList<>();
+    }
+
+    /**
+     * Adds a device to the map under its device name.
+     *
+     * @param device - the device to add.
+     * @param <T> - the type of the device.
+     * @return The added device.
+     */
+    public <T extends AbstractSimDevice> T add(T device) {
+        put(device.getDeviceName(), device);
+        simDevices.add(device);
+        return device;
+    }
+
+    /**
+     * Advances the physical state of every device in the map.
+     *
+     * @param dt - the simulated time to advance by, in seconds.
+     */
+    public void step(double dt) {
+        for (int i = 0; i < simDevices.size(); ++i) {
+            simDevices.get(i).step(dt);
+        }
+    }
+}
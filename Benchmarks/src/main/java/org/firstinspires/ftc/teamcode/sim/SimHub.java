@@ -0,0 +1,70 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import org.firstinspires.ftc.teamcode.hardware.BulkCachedHub;
+
+/**
+ * A simulated Lynx hub that counts the transactions its devices' sensor reads would cost.
+ * Like a real hub, it starts with bulk caching off, so every sensor read is a transaction of its
+ * own. With manual bulk caching, the first read after the cache is cleared is one bulk transaction
+ * and later reads are free. Devices are attached to the hub with {@link AbstractSimDevice#setHub}.
+ */
+public final class SimHub extends AbstractSimDevice implements BulkCachedHub {
+    /**
+     * Whether manual bulk caching is on.
+     */
+    private boolean manualBulkCaching;
+
+    /**
+     * Whether the bulk cache holds values fetched since it was last cleared.
+     */
+    private boolean cacheFilled;
+
+    /**
+     * The number of transactions sensor reads have cost.
+     */
+    private long transactionCount;
+
+    /**
+     * Constructs a SimHub with bulk caching off.
+     *
+     * @param name - the name to register the hub under in the hardware map.
+     */
+    public SimHub(String name) {
+        super(name);
+        manualBulkCaching = false;
+        cacheFilled = false;
+        transactionCount = 0;
+    }
+
+    @Override
+    public void step(double dt) { }
+
+    @Override
+    public void setManualBulkCaching() {
+        manualBulkCaching = true;
+    }
+
+    @Override
+    public void clearBulkCache() {
+        cacheFilled = false;
+    }
+
+    /**
+     * Returns the number of transactions sensor reads of attached devices have cost.
+     *
+     * @return The number of transactions since construction.
+     */
+    public long getTransactionCount() {
+        return transactionCount;
+    }
+
+    /**
+     * Counts the transaction an attached device's sensor read costs, if any.
+     */
+    void read() {
+        if (!manualBulkCaching || !cacheFilled) {
+            ++transactionCount;
+            cacheFilled = manualBulkCaching;
+        }
+    }
+}
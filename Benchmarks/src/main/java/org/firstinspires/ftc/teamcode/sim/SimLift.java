@@ -0,0 +1,70 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+/**
+ * A linear lift raised by a simulated motor winding a string around a spool.
+ * Gravity pulls the carriage down, and hard stops keep it between fully retracted and fully
+ * extended.
+ */
+public final class SimLift {
+    /**
+     * How close in meters to fully retracted the carriage must be to count as retracted.
+     */
+    private static final double RETRACTED_TOLERANCE = 0.005;
+
+    /**
+     * The motor winding the spool.
+     */
+    private final SimMotor motor;
+
+    /**
+     * The radius of the spool in meters.
+     */
+    private final double spoolRadius;
+
+    /**
+     * The acceleration gravity gives the carriage, in meters per second squared.
+     */
+    private final double gravity;
+
+    /**
+     * Constructs a SimLift and limits the travel of its motor.
+     *
+     * @param motor - the motor winding the spool.
+     * @param spoolRadius - the radius of the spool in meters.
+     * @param gravity - the acceleration gravity gives the carriage, in meters per second squared.
+     * @param maxExtension - the height of the carriage above fully retracted when fully extended,
+     * in meters.
+     */
+    public SimLift(SimMotor motor, double spoolRadius, double gravity, double maxExtension) {
+        this.motor = motor;
+        this.spoolRadius = spoolRadius;
+        this.gravity = gravity;
+        motor.setLimits(0, maxExtension / spoolRadius);
+    }
+
+    /**
+     * Applies the gravity load on the carriage to the motor.
+     * Should be called before the motor is stepped.
+     */
+    public void applyLoad() {
+        motor.setLoadAcceleration(-gravity / spoolRadius);
+    }
+
+    /**
+     * Returns the height of the carriage.
+     *
+     * @return The height of the carriage above fully retracted, in meters.
+     */
+    public double getExtension() {
+        return motor.getOutputAngle() * spoolRadius;
+    }
+
+    /**
+     * Returns whether the carriage is fully retracted, as a zero switch would report.
+     *
+     * @return Whether the carriage is fully retracted.
+     */
+    public boolean isRetracted() {
+        return getExtension() <= RETRACTED_TOLERANCE;
+    }
+}
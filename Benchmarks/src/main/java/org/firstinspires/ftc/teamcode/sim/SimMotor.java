@@ -0,0 +1,338 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.DcMotorController;
+import com.qualcomm.robotcore.hardware.MotorConfigurationType;
+
+import org.firstinspires.ftc.teamcode.Units;
+
+/**
+ * A simulated DC motor with an encoder.
+ * The shaft's angular velocity follows the commanded power times the free speed with a first-order
+ * lag, faster when driven or braking than when floating. Mechanisms attached to the motor can apply
+ * a load acceleration, such as gravity, and hard stops limiting the shaft's travel.
+ *
+ * <p>Angles are tracked twice: the shaft angle is the physical rotation, which is reversed relative
+ * to the commanded power by {@link DcMotor.Direction#REVERSE} just like a real motor, and the output
+ * angle is the shaft angle as seen by the mechanism, which is reversed again if the motor is
+ * mounted reversed. {@link #setMountedReversed} lets a simulated robot mount its motors so the
+ * direction settings its layers use move mechanisms the intended way.
+ */
+public final class SimMotor extends AbstractSimDevice implements DcMotor {
+    /**
+     * The number of seconds in a minute, to convert RPM to radians per second.
+     */
+    private static final double SECONDS_PER_MINUTE = 60;
+
+    /**
+     * The time constant in seconds of the shaft's response while driven or braking.
+     */
+    private static final double RESPONSE_TIME_CONSTANT = 0.05;
+
+    /**
+     * The time constant in seconds of the shaft coasting down while floating.
+     */
+    private static final double COAST_TIME_CONSTANT = 0.5;
+
+    /**
+     * How far in ticks the encoder may be from the target position in
+     * {@link DcMotor.RunMode#RUN_TO_POSITION} before the motor stops.
+     */
+    private static final int TARGET_POSITION_TOLERANCE = 10;
+
+    /**
+     * The configuration reported by {@link #getMotorType}.
+     */
+    private MotorConfigurationType motorType;
+
+    /**
+     * The direction of the shaft relative to the commanded power.
+     */
+    private Direction direction;
+
+    /**
+     * What the motor does when commanded zero power.
+     */
+    private ZeroPowerBehavior zeroPowerBehavior;
+
+    /**
+     * The current run mode.
+     */
+    private RunMode mode;
+
+    /**
+     * The commanded power in the range [-1, 1].
+     */
+    private double power;
+
+    /**
+     * The target encoder position in {@link DcMotor.RunMode#RUN_TO_POSITION}.
+     */
+    private int targetPosition;
+
+    /**
+     * Whether the output is reversed relative to the shaft.
+     */
+    private boolean mountedReversed;
+
+    /**
+     * The physical shaft angle in radians.
+     */
+    private double angle;
+
+    /**
+     * The physical shaft angular velocity in radians per second.
+     */
+    private double velocity;
+
+    /**
+     * The shaft angle at which the encoder was last reset.
+     */
+    private double zeroAngle;
+
+    /**
+     * The angular acceleration of the output applied by the attached mechanism, in radians per
+     * second squared.
+     */
+    private double loadAcceleration;
+
+    /**
+     * The lowest output angle the mechanism allows, in radians.
+     */
+    private double minOutputAngle;
+
+    /**
+     * The highest output angle the mechanism allows, in radians.
+     */
+    private double maxOutputAngle;
+
+    /**
+     * Constructs a SimMotor.
+     *
+     * @param name - the name to register the motor under in the hardware map.
+     * @param ticksPerRev - the number of encoder ticks per revolution of the output shaft.
+     * @param maxRpm - the free speed of the output shaft in revolutions per minute.
+     */
+    public SimMotor(String name, double ticksPerRev, double maxRpm) {
+        super(name);
+        motorType = MotorConfigurationType.getUnspecifiedMotorType().clone();
+        motorType.setTicksPerRev(ticksPerRev);
+        motorType.setMaxRPM(maxRpm);
+        direction = Direction.FORWARD;
+        zeroPowerBehavior = ZeroPowerBehavior.BRAKE;
+        mode = RunMode.RUN_WITHOUT_ENCODER;
+        power = 0;
+        targetPosition = 0;
+        mountedReversed = false;
+        angle = 0;
+        velocity = 0;
+        zeroAngle = 0;
+        loadAcceleration = 0;
+        minOutputAngle = Double.NEGATIVE_INFINITY;
+        maxOutputAngle = Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Sets whether the output is reversed relative to the shaft.
+     *
+     * @param mountedReversed - whether the mechanism sees the shaft's rotation reversed.
+     */
+    public void setMountedReversed(boolean mountedReversed) {
+        this.mountedReversed = mountedReversed;
+    }
+
+    /**
+     * Sets the acceleration the attached mechanism applies to the output.
+     *
+     * @param loadAcceleration - the angular acceleration of the output in radians per second
+     * squared.
+     */
+    public void setLoadAcceleration(double loadAcceleration) {
+        this.loadAcceleration = loadAcceleration;
+    }
+
+    /**
+     * Sets hard stops limiting the output's travel.
+     *
+     * @param min - the lowest output angle in radians.
+     * @param max - the highest output angle in radians.
+     */
+    public void setLimits(double min, double max) {
+        minOutputAngle = min;
+        maxOutputAngle = max;
+    }
+
+    /**
+     * Returns the angle of the output as seen by the attached mechanism.
+     *
+     * @return The output angle in radians.
+     */
+    public double getOutputAngle() {
+        return mountedReversed ? -angle : angle;
+    }
+
+    /**
+     * Returns the angular velocity of the output as seen by the attached mechanism.
+     *
+     * @return The output angular velocity in radians per second.
+     */
+    public double getOutputVelocity() {
+        return mountedReversed ? -velocity : velocity;
+    }
+
+    @Override
+    public void step(double dt) {
+        double freeSpeed = Units.convert(motorType.getMaxRPM(), Units.Angle.REV, Units.Angle.RAD)
+            / SECONDS_PER_MINUTE;
+        double effectivePower = getEffectivePower();
+        double targetVelocity = effectivePower * freeSpeed * getDirectionSign();
+        double timeConstant = effectivePower == 0 && zeroPowerBehavior == ZeroPowerBehavior.FLOAT
+            ? COAST_TIME_CONSTANT : RESPONSE_TIME_CONSTANT;
+        velocity += (targetVelocity - velocity) * (1 - Math.exp(-dt / timeConstant));
+        velocity += (mountedReversed ? -loadAcceleration : loadAcceleration) * dt;
+        angle += velocity * dt;
+        double outputAngle = getOutputAngle();
+        if (outputAngle < minOutputAngle || outputAngle > maxOutputAngle) {
+            double clamped = Math.max(minOutputAngle, Math.min(maxOutputAngle, outputAngle));
+            angle = mountedReversed ? -clamped : clamped;
+            velocity = 0;
+        }
+    }
+
+    @Override
+    public MotorConfigurationType getMotorType() {
+        return motorType;
+    }
+
+    @Override
+    public void setMotorType(MotorConfigurationType motorType) {
+        this.motorType = motorType;
+    }
+
+    @Override
+    public DcMotorController getController() {
+        return null;
+    }
+
+    @Override
+    public int getPortNumber() {
+        return 0;
+    }
+
+    @Override
+    public void setZeroPowerBehavior(ZeroPowerBehavior zeroPowerBehavior) {
+        this.zeroPowerBehavior = zeroPowerBehavior;
+    }
+
+    @Override
+    public ZeroPowerBehavior getZeroPowerBehavior() {
+        return zeroPowerBehavior;
+    }
+
+    @Deprecated
+    @Override
+    public void setPowerFloat() {
+        zeroPowerBehavior = ZeroPowerBehavior.FLOAT;
+        power = 0;
+    }
+
+    @Override
+    public boolean getPowerFloat() {
+        return zeroPowerBehavior == ZeroPowerBehavior.FLOAT && power == 0;
+    }
+
+    @Override
+    public void setTargetPosition(int position) {
+        targetPosition = position;
+    }
+
+    @Override
+    public int getTargetPosition() {
+        return targetPosition;
+    }
+
+    @Override
+    public boolean isBusy() {
+        return mode == RunMode.RUN_TO_POSITION
+            && Math.abs(targetPosition - getEncoderPosition()) > TARGET_POSITION_TOLERANCE;
+    }
+
+    @Override
+    public int getCurrentPosition() {
+        readFromHub();
+        return getEncoderPosition();
+    }
+
+    @Override
+    public void setMode(RunMode mode) {
+        if (mode == RunMode.STOP_AND_RESET_ENCODER) {
+            zeroAngle = angle;
+            power = 0;
+        }
+        this.mode = mode;
+    }
+
+    @Override
+    public RunMode getMode() {
+        return mode;
+    }
+
+    @Override
+    public void setDirection(Direction direction) {
+        this.direction = direction;
+    }
+
+    @Override
+    public Direction getDirection() {
+        return direction;
+    }
+
+    @Override
+    public void setPower(double power) {
+        this.power = Math.max(-1, Math.min(1, power));
+    }
+
+    @Override
+    public double getPower() {
+        return power;
+    }
+
+    /**
+     * Gets the encoder position without counting a read with the hub.
+     *
+     * @return The encoder position in ticks.
+     */
+    private int getEncoderPosition() {
+        double revs = Units.convert(angle - zeroAngle, Units.Angle.RAD, Units.Angle.REV);
+        return (int)Math.round(revs * motorType.getTicksPerRev() * getDirectionSign());
+    }
+
+    /**
+     * Gets the sign relating commanded power to shaft rotation.
+     *
+     * @return 1 if the motor runs forward, -1 if reversed.
+     */
+    private int getDirectionSign() {
+        return direction == Direction.FORWARD ? 1 : -1;
+    }
+
+    /**
+     * Gets the power the motor actually applies in its current run mode.
+     *
+     * @return The applied power in the range [-1, 1].
+     */
+    private double getEffectivePower() {
+        switch (mode) {
+            case STOP_AND_RESET_ENCODER:
+                return 0;
+            case RUN_TO_POSITION:
+                int remaining = targetPosition - getEncoderPosition();
+                if (Math.abs(remaining) <= TARGET_POSITION_TOLERANCE) {
+                    return 0;
+                }
+                return Math.abs(power) * Math.signum(remaining);
+            default:
+                return power;
+        }
+    }
+}
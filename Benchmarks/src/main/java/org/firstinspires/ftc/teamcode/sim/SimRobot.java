@@ -0,0 +1,214 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import org.firstinspires.ftc.teamcode.Units;
+
+/**
+ * A simulated robot with every device the layers in this project retrieve from the hardware map.
+ * Motors are mounted so that the direction each layer sets on them moves its mechanism the intended
+ * way, as on the real robot. Physical constants are copied from or consistent with the constants
+ * in the corresponding layers and should be kept in sync with them.
+ */
+public final class SimRobot {
+    /**
+     * The number of encoder ticks per output revolution of every motor.
+     * Matches what the 20:1 HD Hex motors report through their MotorConfigurationTypes.
+     */
+    private static final double TICKS_PER_REV = 28 * 20;
+
+    /**
+     * The free speed of every motor in revolutions per minute.
+     */
+    private static final double MAX_RPM = 300;
+
+    /**
+     * The radius of the drive wheels in meters.
+     * See {@link org.firstinspires.ftc.teamcode.layer.drive.MecanumDrive}.
+     */
+    private static final double WHEEL_RADIUS = Units.convert(4.25, Units.Distance.CM,
+        Units.Distance.M);
+
+    /**
+     * Half the distance between the driving wheels in meters.
+     * See {@link org.firstinspires.ftc.teamcode.layer.drive.MecanumDrive}.
+     */
+    private static final double WHEEL_SPAN_RADIUS = Units.convert(34.2 / 2, Units.Distance.CM,
+        Units.Distance.M);
+
+    /**
+     * The number of revolutions of the tower per revolution of its motor.
+     * See {@link org.firstinspires.ftc.teamcode.layer.manipulator.TowerLayer}.
+     */
+    private static final double TOWER_GEAR_RATIO = 45.0 / 125.0;
+
+    /**
+     * The number of revolutions of the forearm per revolution of its motor.
+     * See {@link org.firstinspires.ftc.teamcode.layer.manipulator.TowerLayer}.
+     */
+    private static final double FOREARM_GEAR_RATIO = 1.0 / 480.0 * 8.0 * 140.0 / 90.0;
+
+    /**
+     * The number of revolutions of the lift swing arm per revolution of its motor.
+     */
+    private static final double LIFT_SWING_GEAR_RATIO = 1.0 / 20.0;
+
+    /**
+     * The angular acceleration gravity gives each arm when horizontal, in radians per second
+     * squared. Kept small so the simulated motors can hold the arms like the real ones.
+     */
+    private static final double ARM_GRAVITY = 2;
+
+    /**
+     * How far each arm can swing away from rest, in radians.
+     */
+    private static final double ARM_TRAVEL = Units.convert(0.5, Units.Angle.REV, Units.Angle.RAD);
+
+    /**
+     * The radius of the lift spool in meters.
+     */
+    private static final double LIFT_SPOOL_RADIUS = 0.02;
+
+    /**
+     * The acceleration gravity gives the lift carriage, in meters per second squared.
+     */
+    private static final double LIFT_GRAVITY = 0.1;
+
+    /**
+     * The height of the lift carriage when fully extended, in meters.
+     */
+    private static final double LIFT_MAX_EXTENSION = 0.75;
+
+    /**
+     * The hardware map holding all devices.
+     */
+    private final SimHardwareMap hardwareMap;
+
+    /**
+     * The hub every motor and sensor is attached to.
+     */
+    private final SimHub hub;
+
+    /**
+     * The drive base.
+     */
+    private final MecanumChassis chassis;
+
+    /**
+     * The tower swung by tower_swing.
+     */
+    private final SimArm tower;
+
+    /**
+     * The forearm swung by forearm_swing.
+     */
+    private final SimArm forearm;
+
+    /**
+     * The lift arm swung by swing_motor.
+     */
+    private final SimArm liftSwing;
+
+    /**
+     * The lift raised by lift_motor.
+     */
+    private final SimLift lift;
+
+    /**
+     * Constructs a SimRobot at the field origin with all mechanisms at rest.
+     */
+    public SimRobot() {
+        hardwareMap = new SimHardwareMap();
+        hub = hardwareMap.add(new SimHub("Control Hub"));
+        SimMotor leftFront = addMotor("left_front_drive", true);
+        SimMotor rightFront = addMotor("right_front_drive", true);
+        SimMotor leftBack = addMotor("left_back_drive", false);
+        SimMotor rightBack = addMotor("right_back_drive", true);
+        chassis = new MecanumChassis(leftFront, rightFront, leftBack, rightBack, WHEEL_RADIUS,
+            WHEEL_SPAN_RADIUS);
+        tower = new SimArm(addMotor("tower_swing", false), TOWER_GEAR_RATIO, ARM_GRAVITY, 0,
+            ARM_TRAVEL);
+        forearm = new SimArm(addMotor("forearm_swing", true), FOREARM_GEAR_RATIO, ARM_GRAVITY,
+            -Math.PI / 2, ARM_TRAVEL);
+        liftSwing = new SimArm(addMotor("swing_motor", false), LIFT_SWING_GEAR_RATIO, ARM_GRAVITY,
+            0, ARM_TRAVEL);
+        lift = new SimLift(addMotor("lift_motor", false), LIFT_SPOOL_RADIUS, LIFT_GRAVITY,
+            LIFT_MAX_EXTENSION);
+        hardwareMap.add(new SimCRServo("intake"));
+        hardwareMap.add(new SimServo("claw"));
+        hardwareMap.add(new SimTouchSensor("lift_zero_switch", lift::isRetracted)).setHub(hub);
+    }
+
+    /**
+     * Returns the hardware map holding all devices, to set up layers with.
+     *
+     * @return The simulated hardware map.
+     */
+    public SimHardwareMap getHardwareMap() {
+        return hardwareMap;
+    }
+
+    /**
+     * Returns the hub every motor and sensor is attached to, to count sensor transactions with.
+     *
+     * @return The simulated hub.
+     */
+    public SimHub getHub() {
+        return hub;
+    }
+
+    /**
+     * Returns the drive base, to read the robot's pose from.
+     *
+     * @return The simulated chassis.
+     */
+    public MecanumChassis getChassis() {
+        return chassis;
+    }
+
+    /**
+     * Returns the tower swung by tower_swing.
+     *
+     * @return The simulated tower.
+     */
+    public SimArm getTower() {
+        return tower;
+    }
+
+    /**
+     * Returns the forearm swung by forearm_swing.
+     *
+     * @return The simulated forearm.
+     */
+    public SimArm getForearm() {
+        return forearm;
+    }
+
+    /**
+     * Advances the physical state of the robot.
+     *
+     * @param dt - the simulated time to advance by, in seconds.
+     */
+    public void step(double dt) {
+        tower.applyLoad();
+        forearm.applyLoad();
+        liftSwing.applyLoad();
+        lift.applyLoad();
+        hardwareMap.step(dt);
+        chassis.step(dt);
+    }
+
+    /**
+     * Creates a motor, adds it to the hardware map, and attaches it to the hub.
+     *
+     * @param name - the name of the motor in the hardware map.
+     * @param mountedReversed - whether the motor is mounted so its mechanism sees the shaft's
+     * rotation reversed, i.e. whether the layer driving it sets it to
+     * {@link com.qualcomm.robotcore.hardware.DcMotorSimple.Direction#REVERSE}.
+     * @return The added motor.
+     */
+    private SimMotor addMotor(String name, boolean mountedReversed) {
+        SimMotor motor = hardwareMap.add(new SimMotor(name, TICKS_PER_REV, MAX_RPM));
+        motor.setMountedReversed(mountedReversed);
+        motor.setHub(hub);
+        return motor;
+    }
+}
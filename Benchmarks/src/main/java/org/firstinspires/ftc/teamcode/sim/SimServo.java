@@ -0,0 +1,111 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import com.qualcomm.robotcore.hardware.Servo;
+import com.qualcomm.robotcore.hardware.ServoController;
+
+/**
+ * A simulated positional servo.
+ * The horn moves towards the commanded position at a fixed speed, after applying the direction and
+ * range scaling like a real servo.
+ */
+public final class SimServo extends AbstractSimDevice implements Servo {
+    /**
+     * How fast the horn moves, in fractions of its full range per second.
+     */
+    private static final double SPEED = 2.0;
+
+    /**
+     * The direction of the horn relative to the commanded position.
+     */
+    private Direction direction;
+
+    /**
+     * The commanded position in the range [0, 1], before scaling.
+     */
+    private double position;
+
+    /**
+     * The lower end of the range commanded positions are scaled to.
+     */
+    private double rangeMin;
+
+    /**
+     * The upper end of the range commanded positions are scaled to.
+     */
+    private double rangeMax;
+
+    /**
+     * The physical position of the horn in the range [0, 1] of its full travel.
+     */
+    private double hornPosition;
+
+    /**
+     * Constructs a SimServo.
+     *
+     * @param name - the name to register the servo under in the hardware map.
+     */
+    public SimServo(String name) {
+        super(name);
+        direction = Direction.FORWARD;
+        position = 0;
+        rangeMin = MIN_POSITION;
+        rangeMax = MAX_POSITION;
+        hornPosition = 0;
+    }
+
+    /**
+     * Returns the physical position of the horn, which lags behind the commanded position.
+     *
+     * @return The horn position in the range [0, 1] of its full travel.
+     */
+    public double getHornPosition() {
+        return hornPosition;
+    }
+
+    @Override
+    public void step(double dt) {
+        double scaled = rangeMin + (rangeMax - rangeMin) * position;
+        double goal = direction == Direction.FORWARD ? scaled : MAX_POSITION - scaled;
+        double maxMove = SPEED * dt;
+        hornPosition += Math.max(-maxMove, Math.min(maxMove, goal - hornPosition));
+    }
+
+    @Override
+    public ServoController getController() {
+        return null;
+    }
+
+    @Override
+    public int getPortNumber() {
+        return 0;
+    }
+
+    @Override
+    public void setDirection(Direction direction) {
+        this.direction = direction;
+    }
+
+    @Override
+    public Direction getDirection() {
+        return direction;
+    }
+
+    @Override
+    public void setPosition(double position) {
+        this.position = Math.max(MIN_POSITION, Math.min(MAX_POSITION, position));
+    }
+
+    @Override
+    public double getPosition() {
+        return position;
+    }
+
+    @Override
+    public void scaleRange(double min, double max) {
+        if (min < MIN_POSITION || max > MAX_POSITION || min >= max) {
+            throw new IllegalArgumentException("Servo range must be within [0, 1] and non-empty.");
+        }
+        rangeMin = min;
+        rangeMax = max;
+    }
+}
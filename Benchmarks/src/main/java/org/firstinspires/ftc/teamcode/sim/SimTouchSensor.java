@@ -0,0 +1,40 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import java.util.function.BooleanSupplier;
+
+import com.qualcomm.robotcore.hardware.TouchSensor;
+
+/**
+ * A simulated touch sensor pressed whenever a condition on the simulated robot holds.
+ */
+public final class SimTouchSensor extends AbstractSimDevice implements TouchSensor {
+    /**
+     * Whether the sensor is currently pressed.
+     */
+    private final BooleanSupplier pressed;
+
+    /**
+     * Constructs a SimTouchSensor.
+     *
+     * @param name - the name to register the sensor under in the hardware map.
+     * @param pressed - returns whether the sensor is currently pressed.
+     */
+    public SimTouchSensor(String name, BooleanSupplier pressed) {
+        super(name);
+        this.pressed = pressed;
+    }
+
+    @Override
+    public void step(double dt) { }
+
+    @Override
+    public double getValue() {
+        return isPressed() ? 1 : 0;
+    }
+
+    @Override
+    public boolean isPressed() {
+        readFromHub();
+        return pressed.getAsBoolean();
+    }
+}
@@ -0,0 +1,197 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import java.util.List;
+
+import com.qualcomm.robotcore.hardware.Gamepad;
+
+import org.firstinspires.ftc.teamcode.LayerGraph;
+import org.firstinspires.ftc.teamcode.RobotController;
+import org.firstinspires.ftc.teamcode.Units;
+import org.firstinspires.ftc.teamcode.journal.TickJournal;
+import org.firstinspires.ftc.teamcode.layer.Layer;
+import org.firstinspires.ftc.teamcode.localization.RobotLocalizer;
+import org.firstinspires.ftc.teamcode.logging.LoggerProvider;
+
+/**
+ * Runs a layer stack or {@link LayerGraph} on a {@link SimRobot} as fast as possible.
+ * Each tick advances a virtual clock by a fixed period, which is what the layers see as the tick
+ * time, then steps the robot's physics by the same period. Nothing waits on real time, so a stack
+ * runs many times faster than it would on the robot while behaving as if it ran at the given tick
+ * rate.
+ */
+public final class Simulation {
+    /**
+     * The robot to run the layers on.
+     */
+    private final SimRobot robot;
+
+    /**
+     * The layer stack to run, or null if a layer graph is run instead.
+     */
+    private final List<Layer> layers;
+
+    /**
+     * The layer graph to run, or null if a layer stack is run instead.
+     */
+    private final LayerGraph graph;
+
+    /**
+     * The simulated time between ticks, in seconds.
+     */
+    private final double period;
+
+    /**
+     * The driver input, or null if the gamepads are left untouched.
+     */
+    private GamepadScript gamepadScript;
+
+    /**
+     * The localizer given to the layers, or null if they need none.
+     */
+    private RobotLocalizer localizer;
+
+    /**
+     * The logger provider given to the layers.
+     */
+    private LoggerProvider loggerProvider;
+
+    /**
+     * The journal the run is recorded to, or null if it is not journaled.
+     */
+    private TickJournal journal;
+
+    /**
+     * The current simulated time in nanoseconds, read by the controller's clock.
+     */
+    private long simTime;
+
+    /**
+     * Constructs a Simulation.
+     *
+     * @param robot - the robot to run the layers on. Should be freshly constructed.
+     * @param layers - the layer stack to run. Should be freshly constructed.
+     * @param tickRate - the simulated rate in hertz at which the layers are ticked.
+     */
+    public Simulation(SimRobot robot, List<Layer> layers, double tickRate) {
+        this(robot, layers, null, tickRate);
+    }
+
+    /**
+     * Constructs a Simulation of a layer graph.
+     *
+     * @param robot - the robot to run the layers on. Should be freshly constructed.
+     * @param graph - the layer graph to run. Its layers should be freshly constructed.
+     * @param tickRate - the simulated rate in hertz at which the layers are ticked.
+     */
+    public Simulation(SimRobot robot, LayerGraph graph, double tickRate) {
+        this(robot, null, graph, tickRate);
+    }
+
+    /**
+     * Constructs a Simulation of either a layer stack or a layer graph.
+     *
+     * @param robot - the robot to run the layers on.
+     * @param layers - the layer stack to run, or null if graph is given.
+     * @param graph - the layer graph to run, or null if layers is given.
+     * @param tickRate - the simulated rate in hertz at which the layers are ticked.
+     */
+    private Simulation(SimRobot robot, List<Layer> layers, LayerGraph graph, double tickRate) {
+        if (tickRate <= 0) {
+            throw new IllegalArgumentException("Tick rate must be positive.");
+        }
+        this.robot = robot;
+        this.layers = layers;
+        this.graph = graph;
+        period = 1 / tickRate;
+        gamepadScript = null;
+        localizer = null;
+        loggerProvider = new LoggerProvider();
+        journal = null;
+        simTime = 0;
+    }
+
+    /**
+     * Sets the driver input.
+     *
+     * @param gamepadScript - the script writing the gamepads before each tick.
+     */
+    public void setGamepadScript(GamepadScript gamepadScript) {
+        this.gamepadScript = gamepadScript;
+    }
+
+    /**
+     * Sets the localizer given to the layers.
+     *
+     * @param localizer - the localizer, or null if the layers need none.
+     */
+    public void setLocalizer(RobotLocalizer localizer) {
+        this.localizer = localizer;
+    }
+
+    /**
+     * Sets the logger provider given to the layers.
+     * By default, layers log nowhere.
+     *
+     * @param loggerProvider - the logger provider.
+     */
+    public void setLoggerProvider(LoggerProvider loggerProvider) {
+        this.loggerProvider = loggerProvider;
+    }
+
+    /**
+     * Sets the journal the run is recorded to.
+     * The simulation does not close the journal.
+     *
+     * @param journal - the journal, or null if the run is not journaled.
+     */
+    public void setJournal(TickJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Runs the layer stack until it finishes or the time limit passes.
+     * A Simulation can only be run once, since the robot and layers keep their state.
+     *
+     * @param maxSeconds - the maximum simulated time to run for, in seconds.
+     * @return The outcome and performance of the run.
+     */
+    public SimulationResult run(double maxSeconds) {
+        long periodNanos = (long)Units.convert(period, Units.Time.SEC, Units.Time.NANO);
+        long maxTime = (long)Units.convert(maxSeconds, Units.Time.SEC, Units.Time.NANO);
+        Gamepad gamepad0 = new Gamepad();
+        Gamepad gamepad1 = new Gamepad();
+        RobotController controller = new RobotController();
+        controller.setClock(() -> simTime);
+        controller.setJournal(journal);
+        long wallStart = System.nanoTime();
+        if (graph != null) {
+            controller.setup(robot.getHardwareMap(), localizer, graph, gamepad0, gamepad1,
+                loggerProvider);
+        } else {
+            controller.setup(robot.getHardwareMap(), localizer, layers, gamepad0, gamepad1,
+                loggerProvider);
+        }
+        long ticks = 0;
+        boolean finished = false;
+        while (!finished && simTime < maxTime) {
+            if (gamepadScript != null) {
+                gamepadScript.apply(Units.convert(simTime, Units.Time.NANO, Units.Time.SEC),
+                    gamepad0, gamepad1);
+            }
+            finished = controller.update();
+            ++ticks;
+            robot.step(period);
+            simTime += periodNanos;
+        }
+        long wallEnd = System.nanoTime();
+        return new SimulationResult(
+            ticks,
+            Units.convert(simTime, Units.Time.NANO, Units.Time.SEC),
+            Units.convert(wallEnd - wallStart, Units.Time.NANO, Units.Time.SEC),
+            finished,
+            robot.getHub().getTransactionCount(),
+            robot.getChassis().getPosition(),
+            robot.getChassis().getHeading()
+        );
+    }
+}
@@ -0,0 +1,185 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import java.util.Locale;
+
+import org.firstinspires.ftc.teamcode.matrix.Vec2;
+
+/**
+ * The outcome and performance of a {@link Simulation} run.
+ */
+public final class SimulationResult {
+    /**
+     * The number of ticks run.
+     */
+    private final long ticks;
+
+    /**
+     * The simulated time the run covered, in seconds.
+     */
+    private final double simulatedSeconds;
+
+    /**
+     * The real time the run took, in seconds.
+     */
+    private final double wallSeconds;
+
+    /**
+     * Whether the layer stack finished before the time limit.
+     */
+    private final boolean finished;
+
+    /**
+     * The number of hub transactions sensor reads cost over the run.
+     */
+    private final long hubTransactions;
+
+    /**
+     * The field space position of the robot at the end of the run, in meters.
+     */
+    private final Vec2 finalPosition;
+
+    /**
+     * The field space heading of the robot at the end of the run, in radians.
+     */
+    private final double finalHeading;
+
+    /**
+     * Constructs a SimulationResult.
+     *
+     * @param ticks - the number of ticks run.
+     * @param simulatedSeconds - the simulated time the run covered, in seconds.
+     * @param wallSeconds - the real time the run took, in seconds.
+     * @param finished - whether the layer stack finished before the time limit.
+     * @param hubTransactions - the number of hub transactions sensor reads cost over the run.
+     * @param finalPosition - the field space position of the robot at the end of the run.
+     * @param finalHeading - the field space heading of the robot at the end of the run.
+     */
+    public SimulationResult(
+        long ticks,
+        double simulatedSeconds,
+        double wallSeconds,
+        boolean finished,
+        long hubTransactions,
+        Vec2 finalPosition,
+        double finalHeading
+    ) {
+        this.ticks = ticks;
+        this.simulatedSeconds = simulatedSeconds;
+        this.wallSeconds = wallSeconds;
+        this.finished = finished;
+        this.hubTransactions = hubTransactions;
+        this.finalPosition = finalPosition;
+        this.finalHeading = finalHeading;
+    }
+
+    /**
+     * Returns the number of ticks run, which is the number of ticks to completion if the stack
+     * finished.
+     *
+     * @return The number of ticks run.
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Returns the simulated time the run covered, which is how long the stack took on the robot if
+     * it finished.
+     *
+     * @return The simulated duration in seconds.
+     */
+    public double getSimulatedSeconds() {
+        return simulatedSeconds;
+    }
+
+    /**
+     * Returns the real time the run took.
+     *
+     * @return The real duration in seconds.
+     */
+    public double getWallSeconds() {
+        return wallSeconds;
+    }
+
+    /**
+     * Returns how many ticks were run per second of real time.
+     *
+     * @return The throughput in ticks per second.
+     */
+    public double getThroughput() {
+        return ticks / wallSeconds;
+    }
+
+    /**
+     * Returns how many times faster than real time the run was.
+     *
+     * @return The ratio of simulated time to real time.
+     */
+    public double getSpeedup() {
+        return simulatedSeconds / wallSeconds;
+    }
+
+    /**
+     * Returns whether the layer stack finished before the time limit.
+     *
+     * @return Whether the stack finished.
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Returns the number of hub transactions sensor reads cost over the run.
+     *
+     * @return The number of hub transactions.
+     */
+    public long getHubTransactions() {
+        return hubTransactions;
+    }
+
+    /**
+     * Returns how many hub transactions sensor reads cost per tick on average.
+     *
+     * @return The number of hub transactions per tick.
+     */
+    public double getHubTransactionsPerTick() {
+        return (double)hubTransactions / ticks;
+    }
+
+    /**
+     * Returns the field space position of the robot at the end of the run.
+     *
+     * @return The final position in meters.
+     */
+    public Vec2 getFinalPosition() {
+        return finalPosition;
+    }
+
+    /**
+     * Returns the field space heading of the robot at the end of the run.
+     *
+     * @return The final heading in radians.
+     */
+    public double getFinalHeading() {
+        return finalHeading;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            Locale.US,
+            "%s after %d ticks (%.3f s simulated, %.3f s real): %.0f ticks/s, %.1fx real time, "
+                + "%.2f hub transactions/tick, final pose (%.3f m, %.3f m, %.1f deg)",
+            finished ? "Finished" : "Timed out",
+            ticks,
+            simulatedSeconds,
+            wallSeconds,
+            getThroughput(),
+            getSpeedup(),
+            getHubTransactionsPerTick(),
+            finalPosition.getX(),
+            finalPosition.getY(),
+            Math.toDegrees(finalHeading)
+        );
+    }
+}
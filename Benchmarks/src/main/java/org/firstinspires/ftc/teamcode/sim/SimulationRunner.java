@@ -0,0 +1,248 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import com.qualcomm.robotcore.hardware.Gamepad;
+
+import org.firstinspires.ftc.teamcode.LayerGraph;
+import org.firstinspires.ftc.teamcode.journal.JournalRecorder;
+import org.firstinspires.ftc.teamcode.journal.TickJournal;
+import org.firstinspires.ftc.teamcode.layer.Layer;
+import org.firstinspires.ftc.teamcode.layer.MultiplexLayer;
+import org.firstinspires.ftc.teamcode.layer.TopLayerSequence;
+import org.firstinspires.ftc.teamcode.layer.WinLayer;
+import org.firstinspires.ftc.teamcode.layer.drive.MecanumDrive;
+import org.firstinspires.ftc.teamcode.layer.input.GamepadInputGenerator;
+import org.firstinspires.ftc.teamcode.layer.input.mapping.DpadTowerMapping;
+import org.firstinspires.ftc.teamcode.layer.input.mapping.JoystickHoloDriveMapping;
+import org.firstinspires.ftc.teamcode.layer.manipulator.IntakeLayer;
+import org.firstinspires.ftc.teamcode.layer.manipulator.TowerLayer;
+import org.firstinspires.ftc.teamcode.layer.strategy.PathlessStrategy;
+import org.firstinspires.ftc.teamcode.layer.strategy.TowerStrategy;
+
+/**
+ * Runs the layer stacks of this project's opmodes in simulation and prints their performance.
+ * OpModes can't be constructed off the robot, so the stacks are built here and must be kept in sync
+ * with the getLayers and getLayerGraph implementations of the opmodes they mirror.
+ *
+ * <p>Run with {@code --record <directory>} to also record a tick journal of each scenario to
+ * {@code <directory>/<opmode>.journal}, which the Benchmarks replayJournal task can replay.
+ */
+public final class SimulationRunner {
+    /**
+     * The simulated rate in hertz at which layers are ticked, roughly that of the FTC event loop.
+     */
+    private static final double TICK_RATE = 50;
+
+    /**
+     * How long the scripted teleop period lasts, in simulated seconds.
+     */
+    private static final double TELEOP_DURATION = 10;
+
+    /**
+     * How long each step of the scripted teleop input lasts, in simulated seconds.
+     */
+    private static final double TELEOP_STEP_DURATION = 2;
+
+    /**
+     * The longest an autonomous stack may run before it is considered stuck, in simulated seconds.
+     * The autonomous period of a match is 30 seconds.
+     */
+    private static final double AUTONOMOUS_TIMEOUT = 30;
+
+    /**
+     * Not instantiable.
+     */
+    private SimulationRunner() { }
+
+    /**
+     * Runs every scenario and prints the results.
+     *
+     * @param args - either empty, or {@code --record} followed by the directory to record
+     * journals to.
+     * @throws IOException - a journal could not be written.
+     */
+    public static void main(String[] args) throws IOException {
+        File journalDir = null;
+        if (args.length == 2 && args[0].equals("--record")) {
+            journalDir = new File(args[1]);
+            if (!journalDir.isDirectory() && !journalDir.mkdirs()) {
+                throw new IOException("Could not create " + journalDir + ".");
+            }
+        } else if (args.length != 0) {
+            throw new IllegalArgumentException(
+                "Usage: SimulationRunner [--record <journal directory>]"
+            );
+        }
+        runScenario("DriveTowerTeleop", SimulationRunner::runDriveTowerTeleop, journalDir);
+        runScenario("TowerAutonomous", SimulationRunner::runTowerAutonomous, journalDir);
+        runScenario("RoombaAutonomous", SimulationRunner::runRoombaAutonomous, journalDir);
+    }
+
+    /**
+     * Drives the stack of {@link org.firstinspires.ftc.teamcode.opmode.DriveTowerTeleop} with a
+     * scripted driver that drives forward, strafes, turns, and swings the tower and forearm.
+     *
+     * @param journal - the journal to record the run to, or null if it is not journaled.
+     * @return The result of the run.
+     */
+    public static SimulationResult runDriveTowerTeleop(TickJournal journal) {
+        Simulation simulation = new Simulation(new SimRobot(), createDriveTowerTeleopLayers(),
+            TICK_RATE);
+        simulation.setGamepadScript(SimulationRunner::scriptTeleop);
+        simulation.setJournal(journal);
+        return simulation.run(TELEOP_DURATION);
+    }
+
+    /**
+     * Runs the graph of {@link org.firstinspires.ftc.teamcode.opmode.TowerAutonomous} to
+     * completion.
+     *
+     * @param journal - the journal to record the run to, or null if it is not journaled.
+     * @return The result of the run.
+     */
+    public static SimulationResult runTowerAutonomous(TickJournal journal) {
+        Simulation simulation = new Simulation(new SimRobot(), createTowerAutonomousGraph(),
+            TICK_RATE);
+        simulation.setJournal(journal);
+        return simulation.run(AUTONOMOUS_TIMEOUT);
+    }
+
+    /**
+     * Runs the stack of {@link org.firstinspires.ftc.teamcode.opmode.RoombaAutonomous} to
+     * completion.
+     *
+     * @param journal - the journal to record the run to, or null if it is not journaled.
+     * @return The result of the run.
+     */
+    public static SimulationResult runRoombaAutonomous(TickJournal journal) {
+        Simulation simulation = new Simulation(new SimRobot(), createRoombaAutonomousLayers(),
+            TICK_RATE);
+        simulation.setJournal(journal);
+        return simulation.run(AUTONOMOUS_TIMEOUT);
+    }
+
+    /**
+     * Creates the layer stack of {@link org.firstinspires.ftc.teamcode.opmode.DriveTowerTeleop}.
+     *
+     * @return The layers, from lowest to highest.
+     */
+    public static List<Layer> createDriveTowerTeleopLayers() {
+        return Arrays.asList(
+            new MultiplexLayer(Arrays.asList(
+                new MecanumDrive(),
+                new TowerLayer(),
+                new IntakeLayer()
+            )),
+            new MultiplexLayer(Arrays.asList(
+                new JoystickHoloDriveMapping(),
+                new DpadTowerMapping()
+            )),
+            new GamepadInputGenerator()
+        );
+    }
+
+    /**
+     * Creates the layer graph of {@link org.firstinspires.ftc.teamcode.opmode.TowerAutonomous}.
+     *
+     * @return The layer graph.
+     */
+    public static LayerGraph createTowerAutonomousGraph() {
+        TowerLayer towerLayer = new TowerLayer();
+        TowerStrategy strategy = new TowerStrategy();
+        return new LayerGraph()
+            .connect(new TopLayerSequence(Arrays.asList(
+                towerLayer.new InitLayer(),
+                new WinLayer()
+            )), strategy)
+            .connect(strategy, new MecanumDrive())
+            .connect(strategy, new IntakeLayer())
+            .connect(strategy, towerLayer);
+    }
+
+    /**
+     * Creates the layer stack of {@link org.firstinspires.ftc.teamcode.opmode.RoombaAutonomous}.
+     *
+     * @return The layers, from lowest to highest.
+     */
+    public static List<Layer> createRoombaAutonomousLayers() {
+        return Arrays.asList(
+            new MecanumDrive(),
+            new PathlessStrategy(),
+            new WinLayer()
+        );
+    }
+
+    /**
+     * Runs a scenario, recording it to a journal if requested, and prints the result.
+     *
+     * @param name - the name of the opmode the scenario mirrors.
+     * @param scenario - runs the scenario, recording to the given journal if it is not null.
+     * @param journalDir - the directory to record the journal to, or null if it is not journaled.
+     * @throws IOException - the journal could not be written.
+     */
+    private static void runScenario(
+        String name,
+        Function<TickJournal, SimulationResult> scenario,
+        File journalDir
+    ) throws IOException {
+        if (journalDir == null) {
+            System.out.println(name + ": " + scenario.apply(null));
+            return;
+        }
+        File file = new File(journalDir, name + ".journal");
+        try (JournalRecorder journal = new JournalRecorder(new FileOutputStream(file))) {
+            System.out.println(name + ": " + scenario.apply(journal));
+        }
+        System.out.println("Recorded " + file);
+    }
+
+    /**
+     * Writes the scripted teleop driver input.
+     *
+     * @param time - the simulated time since the start of the simulation, in seconds.
+     * @param gamepad0 - the driver's gamepad.
+     * @param gamepad1 - the unused second gamepad.
+     */
+    private static void scriptTeleop(double time, Gamepad gamepad0, Gamepad gamepad1) {
+        TeleopStep[] steps = TeleopStep.values();
+        TeleopStep step = steps[(int)(time / TELEOP_STEP_DURATION) % steps.length];
+        // The input generator negates the y axis, so pushing the stick forward is negative
+        gamepad0.left_stick_y = step == TeleopStep.FORWARD ? -1 : 0;
+        gamepad0.left_stick_x = step == TeleopStep.STRAFE ? 1 : 0;
+        gamepad0.right_stick_x = step == TeleopStep.TURN ? 1 : 0;
+        gamepad0.dpad_up = step == TeleopStep.SWING_TOWER;
+        gamepad0.dpad_right = step == TeleopStep.SWING_FOREARM;
+    }
+
+    /**
+     * The steps of the scripted teleop input, in order.
+     */
+    private enum TeleopStep {
+        /**
+         * Drive forward at full speed.
+         */
+        FORWARD,
+        /**
+         * Strafe right at full speed.
+         */
+        STRAFE,
+        /**
+         * Turn at full speed.
+         */
+        TURN,
+        /**
+         * Swing the tower with the dpad.
+         */
+        SWING_TOWER,
+        /**
+         * Swing the forearm with the dpad.
+         */
+        SWING_FOREARM
+    }
+}
@@ -0,0 +1,10 @@
+/**
+ * A headless physics simulation of the robot for running whole layer stacks off the robot.
+ * {@link org.firstinspires.ftc.teamcode.sim.SimRobot} builds a
+ * {@link org.firstinspires.ftc.teamcode.sim.SimHardwareMap} of fake motors, servos, and sensors
+ * under the names the layers expect, backed by a rigid-body mecanum chassis and simple arm and lift
+ * dynamics. {@link org.firstinspires.ftc.teamcode.sim.Simulation} steps the robot and a
+ * {@link org.firstinspires.ftc.teamcode.RobotController} on a virtual clock, so stacks run as fast
+ * as the CPU allows, and reports throughput and how long the stack took in simulated time.
+ */
+package org.firstinspires.ftc.teamcode.sim;
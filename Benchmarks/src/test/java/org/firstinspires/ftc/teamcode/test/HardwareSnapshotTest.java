@@ -0,0 +1,126 @@
+package org.firstinspires.ftc.teamcode.test;
+
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+import com.qualcomm.robotcore.hardware.TouchSensor;
+
+import org.firstinspires.ftc.teamcode.hardware.EncoderHandle;
+import org.firstinspires.ftc.teamcode.hardware.HardwareSnapshot;
+import org.firstinspires.ftc.teamcode.hardware.TouchSensorHandle;
+import org.firstinspires.ftc.teamcode.sim.SimHub;
+import org.firstinspires.ftc.teamcode.sim.SimRobot;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks the hub transactions a tick's sensor reads cost, with the readers of
+ * HardwareSnapshotBenchmark reading the drive encoders and lift switch of a simulated robot either
+ * directly or through a {@link HardwareSnapshot}.
+ * The simulated hub counts a transaction for every read while bulk caching is off and one per
+ * cleared cache otherwise, so a snapshot must bring every tick down to a single transaction.
+ */
+public final class HardwareSnapshotTest {
+    /**
+     * The names of the drive motors in the hardware map.
+     */
+    private static final String[] DRIVE_MOTORS = {
+        "left_front_drive", "right_front_drive", "left_back_drive", "right_back_drive"
+    };
+
+    /**
+     * The number of layers reading every sensor each tick, as a drive, a localizer and a strategy
+     * might.
+     */
+    private static final int READERS = 3;
+
+    /**
+     * The number of ticks checked.
+     */
+    private static final int TICKS = 10;
+
+    /**
+     * The hardware map of the simulated robot.
+     */
+    private HardwareMap hardwareMap;
+
+    /**
+     * The simulated hub counting transactions.
+     */
+    private SimHub hub;
+
+    /**
+     * The drive motors, read directly.
+     */
+    private DcMotor[] motors;
+
+    /**
+     * The lift switch, read directly.
+     */
+    private TouchSensor liftSwitch;
+
+    /**
+     * Constructs a HardwareSnapshotTest.
+     */
+    public HardwareSnapshotTest() { }
+
+    /**
+     * Sets up the robot and looks up its sensors.
+     */
+    @Before
+    public void setup() {
+        SimRobot robot = new SimRobot();
+        hardwareMap = robot.getHardwareMap();
+        hub = robot.getHub();
+        motors = new DcMotor[DRIVE_MOTORS.length];
+        for (int i = 0; i < motors.length; ++i) {
+            motors[i] = hardwareMap.get(DcMotor.class, DRIVE_MOTORS[i]);
+        }
+        liftSwitch = hardwareMap.get(TouchSensor.class, "lift_zero_switch");
+    }
+
+    /**
+     * Checks that every direct read is its own transaction.
+     */
+    @Test
+    public void directReadsCostOneTransactionEach() {
+        for (int tick = 0; tick < TICKS; ++tick) {
+            long startTransactions = hub.getTransactionCount();
+            for (int reader = 0; reader < READERS; ++reader) {
+                for (DcMotor motor : motors) {
+                    motor.getCurrentPosition();
+                }
+                liftSwitch.isPressed();
+            }
+            Assert.assertEquals("Transactions in tick " + tick,
+                READERS * (motors.length + 1), hub.getTransactionCount() - startTransactions);
+        }
+    }
+
+    /**
+     * Checks that reads through a snapshot cost one bulk transaction per tick, however many
+     * readers there are.
+     */
+    @Test
+    public void snapshotReadsCostOneTransactionPerTick() {
+        HardwareSnapshot hardwareSnapshot = new HardwareSnapshot(hardwareMap);
+        EncoderHandle[] encoders = new EncoderHandle[motors.length];
+        for (int i = 0; i < motors.length; ++i) {
+            encoders[i] = hardwareSnapshot.getEncoder(motors[i]);
+        }
+        TouchSensorHandle liftSwitchHandle = hardwareSnapshot.getTouchSensor(liftSwitch);
+        for (int tick = 0; tick < TICKS; ++tick) {
+            long startTransactions = hub.getTransactionCount();
+            hardwareSnapshot.beginTick();
+            for (int reader = 0; reader < READERS; ++reader) {
+                for (EncoderHandle encoder : encoders) {
+                    encoder.getPosition();
+                }
+                liftSwitchHandle.isPressed();
+            }
+            Assert.assertEquals("Transactions in tick " + tick,
+                1, hub.getTransactionCount() - startTransactions);
+        }
+    }
+}
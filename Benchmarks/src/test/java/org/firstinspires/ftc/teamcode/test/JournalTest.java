@@ -0,0 +1,179 @@
+package org.firstinspires.ftc.teamcode.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.firstinspires.ftc.teamcode.RobotController;
+import org.firstinspires.ftc.teamcode.journal.JournalRecorder;
+import org.firstinspires.ftc.teamcode.journal.JournalReplayer;
+import org.firstinspires.ftc.teamcode.layer.Layer;
+import org.firstinspires.ftc.teamcode.layer.LayerSetupInfo;
+import org.firstinspires.ftc.teamcode.layer.TaskSink;
+import org.firstinspires.ftc.teamcode.logging.LoggerProvider;
+import org.firstinspires.ftc.teamcode.sim.SimHardwareMap;
+import org.firstinspires.ftc.teamcode.task.TankDriveTask;
+import org.firstinspires.ftc.teamcode.task.Task;
+import org.firstinspires.ftc.teamcode.task.UnsupportedTaskException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks that a tick journal replays the stack that recorded it and catches a stack handing down
+ * tasks with different values than when it was recorded.
+ * The stack is a layer driving with a fixed power on top of a layer that finishes every task
+ * immediately.
+ */
+public final class JournalTest {
+    /**
+     * The number of ticks recorded.
+     */
+    private static final int TICKS = 100;
+
+    /**
+     * The power driven with when recording.
+     */
+    private static final double RECORDED_POWER = 0.5;
+
+    /**
+     * Constructs a JournalTest.
+     */
+    public JournalTest() { }
+
+    /**
+     * Checks that the recording stack replays every recorded tick.
+     *
+     * @throws IOException - the journal could not be written or read.
+     */
+    @Test
+    public void sameValuesReplay() throws IOException {
+        byte[] journal = recordJournal();
+        try (JournalReplayer replayer = new JournalReplayer(new ByteArrayInputStream(journal))) {
+            long ticks = replayer.run(new SimHardwareMap(), null, createStack(RECORDED_POWER),
+                new LoggerProvider());
+            Assert.assertEquals(TICKS, ticks);
+        }
+    }
+
+    /**
+     * Checks that replay stops at the first tick handing down a task with different values.
+     *
+     * @throws IOException - the journal could not be written or read.
+     */
+    @Test
+    public void differentValuesDiverge() throws IOException {
+        byte[] journal = recordJournal();
+        try (JournalReplayer replayer = new JournalReplayer(new ByteArrayInputStream(journal))) {
+            replayer.run(new SimHardwareMap(), null, createStack(-RECORDED_POWER),
+                new LoggerProvider());
+            Assert.fail("Replay did not diverge");
+        } catch (IllegalStateException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().startsWith(
+                "Replay diverged at tick 1: layer 0 accepted " + TankDriveTask.class.getName()
+                    + " with value 0 -0.5, but it was 0.5 in the recording"));
+        }
+    }
+
+    /**
+     * Records a journal of the stack driving with {@link #RECORDED_POWER}.
+     *
+     * @return The journal.
+     */
+    private static byte[] recordJournal() {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        RobotController controller = new RobotController();
+        try (JournalRecorder recorder = new JournalRecorder(stream)) {
+            controller.setJournal(recorder);
+            controller.setup(new SimHardwareMap(), null, createStack(RECORDED_POWER), null, null,
+                new LoggerProvider());
+            for (int i = 0; i < TICKS; ++i) {
+                controller.update();
+            }
+            controller.stop();
+        }
+        return stream.toByteArray();
+    }
+
+    /**
+     * Creates the layer stack.
+     *
+     * @param power - the power the top layer drives with.
+     * @return The layers, from lowest to highest.
+     */
+    private static List<Layer> createStack(double power) {
+        return Arrays.asList(new SinkLayer(), new DriveLayer(power));
+    }
+
+    /**
+     * A bottom layer that finishes every task as soon as it is accepted.
+     */
+    private static final class SinkLayer implements Layer {
+        /**
+         * Constructs a SinkLayer.
+         */
+        SinkLayer() { }
+
+        @Override
+        public void setup(LayerSetupInfo setupInfo) { }
+
+        @Override
+        public boolean isTaskDone() {
+            return true;
+        }
+
+        @Override
+        public Iterator<Task> update(Iterable<Task> completed) {
+            return null;
+        }
+
+        @Override
+        public void acceptTask(Task task) { }
+    }
+
+    /**
+     * A top layer driving with a fixed power forever.
+     */
+    private static final class DriveLayer implements Layer {
+        /**
+         * The task emitted every time.
+         */
+        private final TankDriveTask emittedTask;
+
+        /**
+         * Constructs a DriveLayer.
+         *
+         * @param power - the power to drive both sides with.
+         */
+        DriveLayer(double power) {
+            emittedTask = new TankDriveTask(power, power);
+        }
+
+        @Override
+        public void setup(LayerSetupInfo setupInfo) { }
+
+        @Override
+        public boolean isTaskDone() {
+            return false;
+        }
+
+        @Override
+        public Iterator<Task> update(Iterable<Task> completed) {
+            return Collections.<Task>singleton(emittedTask).iterator();
+        }
+
+        @Override
+        public void update(Iterable<Task> completed, TaskSink sink) {
+            sink.accept(emittedTask);
+        }
+
+        @Override
+        public void acceptTask(Task task) {
+            throw new UnsupportedTaskException(this, task);
+        }
+    }
+}
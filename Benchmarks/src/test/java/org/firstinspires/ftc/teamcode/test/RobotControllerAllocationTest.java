@@ -0,0 +1,171 @@
+package org.firstinspires.ftc.teamcode.test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+
+import org.firstinspires.ftc.teamcode.RobotController;
+import org.firstinspires.ftc.teamcode.layer.AbstractFunctionLayer;
+import org.firstinspires.ftc.teamcode.layer.Layer;
+import org.firstinspires.ftc.teamcode.layer.LayerSetupInfo;
+import org.firstinspires.ftc.teamcode.layer.TaskSink;
+import org.firstinspires.ftc.teamcode.logging.LoggerProvider;
+import org.firstinspires.ftc.teamcode.sim.SimHardwareMap;
+import org.firstinspires.ftc.teamcode.task.Task;
+import org.firstinspires.ftc.teamcode.task.UnsupportedTaskException;
+import org.firstinspires.ftc.teamcode.task.WinTask;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks that a steady-state {@link RobotController} tick allocates nothing, so the garbage
+ * collector never pauses the robot because of the controller itself.
+ * The stack is the five-layer stack of RobotControllerBenchmark: a source layer emitting a task
+ * every tick, three layers passing it down unchanged, and a sink layer that finishes every task
+ * immediately. The bytes the ticking thread allocates are read from the JVM's ThreadMXBean, which
+ * counts every allocation exactly, so any allocation per tick fails the test.
+ */
+public final class RobotControllerAllocationTest {
+    /**
+     * The number of ticks run before measuring, enough for the JIT to compile the tick path.
+     */
+    private static final int WARMUP_TICKS = 50_000;
+
+    /**
+     * The number of ticks measured.
+     */
+    private static final int MEASURED_TICKS = 10_000;
+
+    /**
+     * Constructs a RobotControllerAllocationTest.
+     */
+    public RobotControllerAllocationTest() { }
+
+    /**
+     * Checks that ticks of the five-layer stack allocate nothing once warmed up.
+     */
+    @Test
+    public void steadyStateTicksDoNotAllocate() {
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+        Assert.assertTrue("Thread allocation counting unsupported",
+            threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        RobotController controller = new RobotController();
+        controller.setup(
+            new SimHardwareMap(),
+            null,
+            Arrays.asList(
+                new SinkLayer(),
+                new PassLayer(),
+                new PassLayer(),
+                new PassLayer(),
+                new SourceLayer()
+            ),
+            null,
+            null,
+            new LoggerProvider()
+        );
+        for (int i = 0; i < WARMUP_TICKS; ++i) {
+            controller.update();
+        }
+        long threadId = Thread.currentThread().getId();
+        // Reading the counter may itself allocate, so measure that and leave it out
+        long calibrationStart = threads.getThreadAllocatedBytes(threadId);
+        long calibrationEnd = threads.getThreadAllocatedBytes(threadId);
+        long start = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_TICKS; ++i) {
+            controller.update();
+        }
+        long end = threads.getThreadAllocatedBytes(threadId);
+        long allocated = end - start - (calibrationEnd - calibrationStart);
+        Assert.assertEquals("Bytes allocated over " + MEASURED_TICKS + " ticks", 0, allocated);
+    }
+
+    /**
+     * A bottom layer that finishes every task as soon as it is accepted.
+     */
+    private static final class SinkLayer implements Layer {
+        /**
+         * Constructs a SinkLayer.
+         */
+        SinkLayer() { }
+
+        @Override
+        public void setup(LayerSetupInfo setupInfo) { }
+
+        @Override
+        public boolean isTaskDone() {
+            return true;
+        }
+
+        @Override
+        public Iterator<Task> update(Iterable<Task> completed) {
+            return null;
+        }
+
+        @Override
+        public void acceptTask(Task task) { }
+    }
+
+    /**
+     * A layer that passes every task down unchanged.
+     */
+    private static final class PassLayer extends AbstractFunctionLayer {
+        /**
+         * Constructs a PassLayer.
+         */
+        PassLayer() { }
+
+        @Override
+        public void setup(LayerSetupInfo setupInfo) { }
+
+        @Override
+        protected Task map(Task task) {
+            return task;
+        }
+    }
+
+    /**
+     * A top layer that never runs out of tasks.
+     */
+    private static final class SourceLayer implements Layer {
+        /**
+         * The task emitted every time.
+         */
+        private final Task emittedTask;
+
+        /**
+         * Constructs a SourceLayer.
+         */
+        SourceLayer() {
+            emittedTask = new WinTask();
+        }
+
+        @Override
+        public void setup(LayerSetupInfo setupInfo) { }
+
+        @Override
+        public boolean isTaskDone() {
+            // A top layer that is done ends the stack
+            return false;
+        }
+
+        @Override
+        public Iterator<Task> update(Iterable<Task> completed) {
+            return Collections.singleton(emittedTask).iterator();
+        }
+
+        @Override
+        public void update(Iterable<Task> completed, TaskSink sink) {
+            sink.accept(emittedTask);
+        }
+
+        @Override
+        public void acceptTask(Task task) {
+            throw new UnsupportedTaskException(this, task);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * Tests for TeamCode's subsystems, run on a desktop JVM as part of the Benchmarks build's checks.
+ * They guard properties the benchmarks only report, such as a tick allocating nothing, so that a
+ * regression fails the build instead of showing up as a slower number.
+ */
+package org.firstinspires.ftc.teamcode.test;
@@ -0,0 +1,196 @@
+package org.firstinspires.ftc.teamcode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.firstinspires.ftc.teamcode.layer.Layer;
+
+/**
+ * Describes layers connected as a directed acyclic graph rather than a stack, for execution by a
+ * {@link RobotController}.
+ * Each edge connects an upper layer to a lower layer that accepts some of its subtasks. Edges are
+ * typed by the task types the lower layer declares in {@link Layer#acceptedTaskTypes}: every
+ * subtask an upper layer emits is routed to each lower layer connected to it that declares a type
+ * the subtask is an instance of. An upper layer can therefore fan out to several mechanisms, such as
+ * a drive, tower, and intake, without a {@link org.firstinspires.ftc.teamcode.layer.MultiplexLayer}
+ * in between, and a lower layer can take tasks from several upper layers.
+ *
+ * <p>The graph is sorted topologically the first time its layers are requested after a change, so
+ * the controller can walk it in a fixed order every tick.
+ */
+public final class LayerGraph {
+    /**
+     * The layers in the order they were first added.
+     */
+    private final ArrayList<Layer> added;
+
+    /**
+     * The lower layers connected to each layer, indexed like {@link #added}, in the order they were
+     * connected.
+     */
+    private final ArrayList<List<Integer>> edges;
+
+    /**
+     * The index in {@link #added} of each layer.
+     * Layers are compared by identity, since the same layer may not appear twice.
+     */
+    private final Map<Layer, Integer> indices;
+
+    /**
+     * The layers sorted so that every layer comes after the layers below it, or null if the graph
+     * has changed since it was last sorted.
+     */
+    private List<Layer> sorted;
+
+    /**
+     * The indices in {@link #sorted} of the lower layers connected to each layer, indexed like
+     * sorted, or null if the graph has changed since it was last sorted.
+     */
+    private int[][] sortedEdges;
+
+    /**
+     * Constructs an empty LayerGraph.
+     */
+    public LayerGraph() {
+        added = new ArrayList<>();
+        edges = new ArrayList<>();
+        indices = new IdentityHashMap<>();
+        sorted = null;
+        sortedEdges = null;
+    }
+
+    /**
+     * Adds a layer to the graph if it is not already in it.
+     * Only needed for layers that are not connected to any other layer.
+     *
+     * @param layer - the layer to add.
+     * @return This LayerGraph.
+     */
+    public LayerGraph add(Layer layer) {
+        indexOf(layer);
+        return this;
+    }
+
+    /**
+     * Connects an upper layer to a lower layer, adding either to the graph if it is not already in
+     * it.
+     * Subtasks of the upper layer are routed to the lower layer if it declares their type.
+     *
+     * @param upper - the layer emitting subtasks.
+     * @param lower - the layer accepting them.
+     * @return This LayerGraph.
+     */
+    public LayerGraph connect(Layer upper, Layer lower) {
+        int upperIndex = indexOf(upper);
+        int lowerIndex = indexOf(lower);
+        List<Integer> lowerLayers = edges.get(upperIndex);
+        if (!lowerLayers.contains(lowerIndex)) {
+            lowerLayers.add(lowerIndex);
+        }
+        sorted = null;
+        sortedEdges = null;
+        return this;
+    }
+
+    /**
+     * Returns the layers of the graph, sorted so that every layer comes after the layers below it.
+     * Among layers that could come in either order, those added first come first.
+     *
+     * @return The sorted layers.
+     * @throws IllegalArgumentException - the graph contains a cycle.
+     */
+    public List<Layer> getLayers() {
+        sort();
+        return sorted;
+    }
+
+    /**
+     * Returns the lower layers connected to a layer.
+     *
+     * @param index - the index of the layer in {@link #getLayers}.
+     * @return The indices in {@link #getLayers} of the lower layers connected to the layer, in the
+     * order they were connected. Must not be modified.
+     * @throws IllegalArgumentException - the graph contains a cycle.
+     */
+    public int[] getLowerLayers(int index) {
+        sort();
+        return sortedEdges[index];
+    }
+
+    /**
+     * Returns the index of a layer, adding it to the graph if it is not already in it.
+     *
+     * @param layer - the layer.
+     * @return The index of the layer in {@link #added}.
+     */
+    private int indexOf(Layer layer) {
+        Integer index = indices.get(layer);
+        if (index != null) {
+            return index;
+        }
+        added.add(layer);
+        edges.add(new ArrayList<>());
+        indices.put(layer, added.size() - 1);
+        sorted = null;
+        sortedEdges = null;
+        return added.size() - 1;
+    }
+
+    /**
+     * Sorts the graph topologically if it has changed since it was last sorted.
+     * Repeatedly takes the first added layer whose lower layers have all been taken, which takes
+     * every layer exactly when there is no cycle.
+     *
+     * @throws IllegalArgumentException - the graph contains a cycle.
+     */
+    private void sort() {
+        if (sorted != null) {
+            return;
+        }
+        int[] sortedIndices = new int[added.size()];
+        boolean[] taken = new boolean[added.size()];
+        for (int count = 0; count < added.size(); ++count) {
+            int next = -1;
+            for (int i = 0; i < added.size() && next == -1; ++i) {
+                if (!taken[i] && allTaken(edges.get(i), taken)) {
+                    next = i;
+                }
+            }
+            if (next == -1) {
+                throw new IllegalArgumentException("Layer graph contains a cycle.");
+            }
+            taken[next] = true;
+            sortedIndices[next] = count;
+        }
+        Layer[] layers = new Layer[added.size()];
+        int[][] lowerLayers = new int[added.size()][];
+        for (int i = 0; i < added.size(); ++i) {
+            layers[sortedIndices[i]] = added.get(i);
+            lowerLayers[sortedIndices[i]] = edges.get(i).stream()
+                .mapToInt(lower -> sortedIndices[lower])
+                .toArray();
+        }
+        sorted = Collections.unmodifiableList(Arrays.asList(layers));
+        sortedEdges = lowerLayers;
+    }
+
+    /**
+     * Returns whether every layer in a list has been taken by {@link #sort}.
+     *
+     * @param layerIndices - the indices in {@link #added} of the layers.
+     * @param taken - whether each layer has been taken, indexed like {@link #added}.
+     * @return Whether every listed layer has been taken.
+     */
+    private static boolean allTaken(List<Integer> layerIndices, boolean[] taken) {
+        for (int index : layerIndices) {
+            if (!taken[index]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
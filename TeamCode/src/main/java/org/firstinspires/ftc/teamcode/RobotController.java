@@ -1,21 +1,32 @@
 package org.firstinspires.ftc.teamcode;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.ListIterator;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 
 import com.qualcomm.robotcore.hardware.Gamepad;
 import com.qualcomm.robotcore.hardware.HardwareMap;
 
+import org.firstinspires.ftc.teamcode.hardware.ActuatorWriteBuffer;
+import org.firstinspires.ftc.teamcode.hardware.HardwareSnapshot;
+import org.firstinspires.ftc.teamcode.journal.TickJournal;
 import org.firstinspires.ftc.teamcode.layer.Layer;
 import org.firstinspires.ftc.teamcode.layer.LayerSetupInfo;
+import org.firstinspires.ftc.teamcode.layer.TaskSink;
 import org.firstinspires.ftc.teamcode.localization.RobotLocalizer;
 import org.firstinspires.ftc.teamcode.logging.Logger;
 import org.firstinspires.ftc.teamcode.logging.LoggerProvider;
+import org.firstinspires.ftc.teamcode.task.ContinuousTask;
 import org.firstinspires.ftc.teamcode.task.Task;
+import org.firstinspires.ftc.teamcode.task.TaskPool;
 import org.firstinspires.ftc.teamcode.task.UnsupportedTaskException;
 
 /**
@@ -26,30 +37,71 @@ import org.firstinspires.ftc.teamcode.task.UnsupportedTaskException;
  * <ul>
  * <li>Finds the bottommost layer whose {@link Layer#isTaskDone} method returns false, indicating
  * that it has more subtasks to emit.
- * <li>Requests a new subtask from it with the {@link Layer#update} method, which is then given to
- * the layer below it in the stack with {@link Layer#acceptTask} method. A layer may supply more
- * than one subtask in this step, in which case the layer below it is offered each of the emitted
- * subtasks while its isTaskDone method still returns true. If the lower layer's isTaskDone method
- * returns false while there are still tasks to be consumed, an exception is thrown.
+ * <li>Requests a new subtask from it with the {@link Layer#update(Iterable, TaskSink)} method,
+ * which pushes it into a {@link TaskSink} that gives it to the layer below it in the stack with
+ * the {@link Layer#acceptTask} method. A layer may supply more than one subtask in this step, in
+ * which case the layer below it is offered each of the emitted subtasks while its isTaskDone method
+ * still returns true. If the lower layer's isTaskDone method returns false when another task is
+ * pushed, an exception is thrown. {@link ContinuousTask}s are exempt: they are posted to a mailbox
+ * holding the latest one of each type and delivered once the layer is done pushing, as soon as the
+ * layer below is ready for them.
  * <li>Applies the preceeding step to each lower layer in turn, "trickling down" the new subtasks.
- * The return value of the bottommost layer's update method is ignored; this is assumed to be a
- * drive layer that does not produce any tasks to delegate.
+ * If a layer pushes no subtasks, there is nothing for the layers below it to do and the walk stops
+ * there.
+ * <li>Updates the bottommost layer, whether or not the walk reached it, since it may have work of
+ * its own such as waiting for a mechanism to finish. The return value of its update method is
+ * ignored; this is assumed to be a drive layer that does not produce any tasks to delegate.
  * </ul>
  * Through creative Layer implementations such as
  * {@link org.firstinspires.ftc.teamcode.layer.MultiplexLayer}, this system enables complex logic to
  * be described modularly and with loose coupling.
+ *
+ * <p>Layers may instead be connected as a {@link LayerGraph}, whose edges route each subtask to the
+ * lower layers declaring its type. The graph is sorted topologically at setup, and each tick is
+ * processed in two passes over the sorted layers:
+ * <ul>
+ * <li>From the bottom up, each layer that is due is asked whether it is done if it has no lower
+ * layers or at least one of its lower layers is done, mirroring how the walk up a stack passes a
+ * MultiplexLayer as soon as any of its component layers is done. Layers above only busy layers
+ * are not visited.
+ * <li>From the top down, each layer that reported it is not done or accepted a task during the
+ * pass is updated, pushing its subtasks into the lower layers they are routed to.
+ * </ul>
+ * The graph is finished once every layer reports it is done in the same tick.
+ *
+ * <p>Layers may request to be invoked only every few ticks with
+ * {@link LayerSetupInfo#setTickDivisor}. When the walk up the stack reaches a layer that is not yet
+ * due, every layer below it has just reported it is done, so only the bottommost layer is updated
+ * while the layer and everything above it wait.
+ *
+ * <p>When timing is enabled with {@link #setTimingEnabled}, every call into a layer and every update
+ * listener is timed and recorded in a {@link TimingHistogram}, which can be queried with
+ * {@link #getLayerTiming} and {@link #getUpdateListenerTiming} or periodically published to the
+ * logger.
+ *
+ * <p>When a tick budget is set with {@link #setTickBudget}, every tick that takes longer than the
+ * budget is reported to the logger along with the layer or update listener that took the longest
+ * during the tick. The controller then sheds load according to its {@link OverrunPolicy}, either
+ * skipping update listeners registered with {@link #addLowPriorityUpdateListener} or reusing the
+ * last tasks emitted by the offending layer instead of updating it, for a configured number of
+ * ticks.
+ *
+ * <p>When a {@link TickJournal} is set with {@link #setJournal}, the layer stack, the gamepad state
+ * at the start of every tick, the tick time and sensor reads made through the
+ * {@link HardwareSnapshot}, and every task accepted by a layer pass through it. Replaying the
+ * journal reproduces the recorded run exactly as long as no load was shed by the watchdog and the
+ * layers take no other inputs, such as the RobotLocalizer or direct device reads.
  */
 public class RobotController {
     /**
-     * The number of unconsumed tasks by a layer to report in the exception message.
-     * Prevents an infinite loop if a layer's update method returns an non-terminating iterator.
+     * The completed tasks passed to the bottommost layer, which never emits any.
      */
-    private static final int MAX_UNCONSUMED_REPORT_TASKS = 4;
+    private static final List<Task> NO_TASKS = Collections.emptyList();
 
     /**
      * Listeners to fire at the start of each {@link #update}.
      */
-    private ArrayList<Runnable> updateListeners;
+    private ArrayList<UpdateListenerInfo> updateListeners;
 
     /**
      * Listeners to fire during the first {@link #update} the layer stack finishes executing.
@@ -57,9 +109,123 @@ public class RobotController {
     private ArrayList<Runnable> teardownListeners;
 
     /**
-     * The current stack of layers and some metadata needed to execute them.
+     * The task pools created by layers, recycled at the start of every tick.
+     */
+    private ArrayList<TaskPool<?>> taskPools;
+
+    /**
+     * The current stack of layers and some metadata needed to execute them, from lowest to highest,
+     * or the layers of a {@link LayerGraph} in sorted order. Null before setup and after the layers
+     * finish executing.
+     */
+    private LayerInfo[] layers;
+
+    /**
+     * The edges and per-tick state of each layer when executing a {@link LayerGraph}, indexed like
+     * {@link #layers}, or null when executing a stack.
+     */
+    private GraphNode[] graphNodes;
+
+    /**
+     * The layers of the stack indexed by {@link LayerInfo#getName}.
+     * Unlike {@link #layers}, retained after the stack finishes executing so timings can still be
+     * queried.
+     */
+    private Map<String, LayerInfo> layersByName;
+
+    /**
+     * Whether timing was enabled with {@link #setTimingEnabled}.
+     */
+    private boolean timingEnabled;
+
+    /**
+     * Whether calls into layers and update listeners are timed, either because timing is enabled
+     * or because the watchdog needs the timings to attribute overruns.
+     */
+    private boolean measuring;
+
+    /**
+     * The longest a tick may take in nanoseconds before it is considered an overrun, or 0 if ticks
+     * are not checked for overruns.
+     */
+    private long tickBudget;
+
+    /**
+     * How the controller sheds load after an overrun.
+     */
+    private OverrunPolicy overrunPolicy;
+
+    /**
+     * The number of ticks to shed load for after an overrun.
+     */
+    private int shedTicks;
+
+    /**
+     * The remaining number of ticks for which low-priority update listeners are skipped.
+     */
+    private int listenerShedTicksLeft;
+
+    /**
+     * The number of ticks that overran the tick budget.
+     */
+    private long overrunCount;
+
+    /**
+     * The interval in nanoseconds between publishing timings to the logger, or 0 if timings should
+     * not be published.
+     */
+    private long timingReportInterval;
+
+    /**
+     * The timestamp in nanoseconds of when timings were last published to the logger.
+     */
+    private long lastTimingReport;
+
+    /**
+     * The snapshot of robot sensors refreshed at the start of every tick, or null before setup.
+     */
+    private HardwareSnapshot hardwareSnapshot;
+
+    /**
+     * The buffer of actuator writes flushed at the end of every tick.
+     */
+    private ActuatorWriteBuffer actuatorWriteBuffer;
+
+    /**
+     * The number of ticks that have done work on layers.
+     */
+    private long tickCount;
+
+    /**
+     * The clock the {@link HardwareSnapshot} reads tick times from, or null to use the system
+     * clock.
+     */
+    private LongSupplier clock;
+
+    /**
+     * The journal inputs and tasks pass through, or null if they are not journaled.
+     */
+    private TickJournal journal;
+
+    /**
+     * The first gamepad given to the layers, or null if there is none.
+     */
+    private Gamepad layerGamepad0;
+
+    /**
+     * The second gamepad given to the layers, or null if there is none.
+     */
+    private Gamepad layerGamepad1;
+
+    /**
+     * The sink layers push their subtasks into, reused for every layer on every tick.
+     */
+    private final LayerSink sink;
+
+    /**
+     * The sink layers of a graph push their subtasks into, reused for every layer on every tick.
      */
-    private List<LayerInfo> layers;
+    private final GraphSink graphSink;
 
     /**
      * The logger.
@@ -71,7 +237,27 @@ public class RobotController {
      */
     public RobotController() {
         updateListeners = new ArrayList<>();
+        teardownListeners = new ArrayList<>();
+        taskPools = new ArrayList<>();
         layers = null;
+        graphNodes = null;
+        layersByName = new HashMap<>();
+        timingEnabled = false;
+        measuring = false;
+        tickBudget = 0;
+        overrunPolicy = OverrunPolicy.REPORT;
+        shedTicks = 0;
+        listenerShedTicksLeft = 0;
+        overrunCount = 0;
+        timingReportInterval = 0;
+        lastTimingReport = 0;
+        hardwareSnapshot = null;
+        actuatorWriteBuffer = new ActuatorWriteBuffer();
+        tickCount = 0;
+        clock = null;
+        journal = null;
+        sink = new LayerSink();
+        graphSink = new GraphSink();
     }
 
     /**
@@ -92,104 +278,177 @@ public class RobotController {
         Gamepad gamepad0,
         Gamepad gamepad1,
         LoggerProvider loggerProvider
+    ) {
+        setupLayers(hardwareMap, robotLocalizer, layerStack, gamepad0, gamepad1, loggerProvider);
+        graphNodes = null;
+    }
+
+    /**
+     * Initializes the controller with the given layer graph.
+     * Every layer below another layer must declare its accepted task types.
+     *
+     * @param hardwareMap - HardwareMap used to retrieve interfaces for robot hardware.
+     * @param robotLocalizer - the RobotLocalizer to get robot transformation info from during the
+     * execution.
+     * @param layerGraph - the layer graph to use. Layers are named and journaled in the order of
+     * {@link LayerGraph#getLayers}.
+     * @param gamepad0 - the first connected Gamepad, or null if none is connected or available.
+     * @param gamepad1 - the second connected Gamepad, or null if none is connected or available.
+     * @param loggerProvider - the base LoggerProvider whose clones should be passed to the layers.
+     * @throws IllegalArgumentException - the graph contains a cycle, or a layer below another does
+     * not declare its accepted task types.
+     */
+    public void setup(
+        HardwareMap hardwareMap,
+        RobotLocalizer robotLocalizer,
+        LayerGraph layerGraph,
+        Gamepad gamepad0,
+        Gamepad gamepad1,
+        LoggerProvider loggerProvider
+    ) {
+        List<Layer> sortedLayers = layerGraph.getLayers();
+        setupLayers(hardwareMap, robotLocalizer, sortedLayers, gamepad0, gamepad1, loggerProvider);
+        graphNodes = new GraphNode[layers.length];
+        for (int i = 0; i < layers.length; ++i) {
+            int[] lowerLayers = layerGraph.getLowerLayers(i);
+            List<Collection<Class<? extends Task>>> lowerTypes = new ArrayList<>();
+            for (int lower : lowerLayers) {
+                Layer lowerLayer = sortedLayers.get(lower);
+                Collection<Class<? extends Task>> types = lowerLayer.acceptedTaskTypes();
+                if (types == null) {
+                    throw new IllegalArgumentException("Layer '" + layers[lower].getName()
+                        + "' is below another layer but does not declare its accepted task types.");
+                }
+                lowerTypes.add(types);
+            }
+            graphNodes[i] = new GraphNode(lowerLayers, lowerTypes);
+        }
+    }
+
+    /**
+     * Sets up the given layers and wraps them for execution.
+     *
+     * @param hardwareMap - HardwareMap used to retrieve interfaces for robot hardware.
+     * @param robotLocalizer - the RobotLocalizer to get robot transformation info from during the
+     * execution.
+     * @param layerStack - the layers, with every layer after the layers below it.
+     * @param gamepad0 - the first connected Gamepad, or null if none is connected or available.
+     * @param gamepad1 - the second connected Gamepad, or null if none is connected or available.
+     * @param loggerProvider - the base LoggerProvider whose clones should be passed to the layers.
+     */
+    private void setupLayers(
+        HardwareMap hardwareMap,
+        RobotLocalizer robotLocalizer,
+        List<Layer> layerStack,
+        Gamepad gamepad0,
+        Gamepad gamepad1,
+        LoggerProvider loggerProvider
     ) {
         logger = loggerProvider.getLogger("RobotController");
-        LayerSetupInfo setupInfo = new LayerSetupInfo(
-            hardwareMap,
-            this,
-            robotLocalizer,
-            gamepad0,
-            gamepad1,
-            loggerProvider
-        );
-        this.layers = layerStack.stream().map(layer -> {
+        layerGamepad0 = gamepad0;
+        layerGamepad1 = gamepad1;
+        if (journal != null) {
+            journal.syncSetup(layerStack, gamepad0, gamepad1);
+        }
+        hardwareSnapshot = new HardwareSnapshot(hardwareMap);
+        if (clock != null) {
+            hardwareSnapshot.setClock(clock);
+        }
+        hardwareSnapshot.setJournal(journal);
+        layers = new LayerInfo[layerStack.size()];
+        Map<String, Integer> nameCounts = new HashMap<>();
+        for (Layer layer : layerStack) {
+            nameCounts.merge(layer.getClass().getSimpleName(), 1, Integer::sum);
+        }
+        for (int i = 0; i < layers.length; ++i) {
+            Layer layer = layerStack.get(i);
+            // Each layer gets its own setup info so per-layer settings like the tick divisor can
+            // be read back
+            LayerSetupInfo setupInfo = new LayerSetupInfo(
+                hardwareMap,
+                hardwareSnapshot,
+                actuatorWriteBuffer,
+                this,
+                robotLocalizer,
+                gamepad0,
+                gamepad1,
+                loggerProvider
+            );
             layer.setup(setupInfo);
-            return new LayerInfo(layer);
-        }).collect(Collectors.toList());
+            String name = layer.getClass().getSimpleName();
+            if (nameCounts.get(name) > 1) {
+                // Disambiguate layers of the same class by their position in the stack
+                name += "@" + i;
+            }
+            layers[i] = new LayerInfo(layer, name, setupInfo.getTickDivisor());
+            layers[i].setTimed(measuring);
+            layersByName.put(name, layers[i]);
+        }
     }
 
     /**
      * Performs incremental work and returns whether layers have completed all tasks.
      * Performs incremental work on the bottommost layer of the configured stack, invoking upper
-     * layers as necessary when lower layers complete their current tasks.
+     * layers as necessary when lower layers complete their current tasks. The
+     * {@link HardwareSnapshot} given to layers is refreshed before any other work, and the
+     * {@link ActuatorWriteBuffer} is flushed after all other work.
      *
      * @return whether the topmost layer (and by extension, the whole stack of layers) is exhausted
      * of tasks. When this happens, update listeners are notified and then unregistered.
      */
     public boolean update() {
-        // Call all update listeners
-        for (Runnable listener : updateListeners) {
-            listener.run();
+        long tickStart = measuring ? System.nanoTime() : 0;
+        if (hardwareSnapshot != null) {
+            hardwareSnapshot.beginTick();
+            if (journal != null) {
+                journal.syncGamepads(layerGamepad0, layerGamepad1);
+            }
         }
 
-        // Do work on layers
-        if (layers == null) {
-            return true;
+        // Call all update listeners. Indexed loops are used throughout this method to avoid
+        // allocating iterators every tick.
+        boolean shedListeners = listenerShedTicksLeft > 0;
+        if (shedListeners) {
+            --listenerShedTicksLeft;
         }
-        LayerInfo layer = null;
-        ListIterator<LayerInfo> layerIter = layers.listIterator();
-        while (true) {
-            layer = layerIter.next();
-            if (!layer.isTaskDone()) {
-                logger.update("Highest updated layer", layer.getName());
-                break;
+        int slowestListener = -1;
+        long slowestListenerNanos = 0;
+        for (int i = 0; i < updateListeners.size(); ++i) {
+            UpdateListenerInfo listener = updateListeners.get(i);
+            if (shedListeners && listener.isLowPriority()) {
+                continue;
             }
-            if (!layerIter.hasNext()) {
-                // No tasks left in any layer, inform all listeners of completion
-                for (Runnable listener : teardownListeners) {
-                    listener.run();
+            if (measuring) {
+                long start = System.nanoTime();
+                listener.run();
+                long elapsed = System.nanoTime() - start;
+                listener.getTiming().add(elapsed);
+                if (elapsed > slowestListenerNanos) {
+                    slowestListener = i;
+                    slowestListenerNanos = elapsed;
                 }
-                updateListeners.clear();
-                layers = null;
-                return true;
+            } else {
+                listener.run();
             }
         }
-        layerIter.previous(); // Throw away current layer
-        Iterator<Task> tasks;
-        while (true) {
-            if (!layerIter.hasPrevious()) {
-                // Discard bottommost layer's return value
-                layer.update(Collections.emptyList());
-                break;
-            }
-            LayerInfo oldLayer = layer;
-            layer = layerIter.previous();
-            tasks = oldLayer.update(layer.getLastTasks());
-            if (tasks == null) {
-                throw new NullPointerException(
-                    String.format(
-                        "Layer '%s' returned null from update.",
-                        oldLayer.getName()
-                    )
-                );
-            }
-            if (!tasks.hasNext()) {
-                break; // Nothing to do for now. TODO: hacky fix
-            }
-            while (tasks.hasNext() && layer.isTaskDone()) {
-                Task task = tasks.next();
-                if (task == null) {
-                    throw new NullPointerException(
-                        String.format(
-                            "Layer '%s' returned null as a subtask.",
-                            oldLayer.getName()
-                        )
-                    );
-                }
-                layer.acceptTask(task);
-            }
-            if (tasks.hasNext()) {
-                String errMsg = "Layer '" + layer.getName() + "' did not consume all"
-                    + " tasks from upper layer. Remaining tasks: ";
-                for (int i = 0; i < MAX_UNCONSUMED_REPORT_TASKS && tasks.hasNext(); ++i) {
-                    errMsg += tasks.next().getClass().getSimpleName() + (tasks.hasNext() ? ", " : "");
-                }
-                if (tasks.hasNext()) {
-                    errMsg += " (and more)";
-                }
-                throw new UnsupportedTaskException(errMsg);
+        if (timingEnabled && timingReportInterval > 0) {
+            long now = System.nanoTime();
+            if (now - lastTimingReport >= timingReportInterval) {
+                lastTimingReport = now;
+                reportTimings();
             }
         }
+
+        // Do work on layers
+        recycleTaskPools();
+        boolean finished = updateLayers();
+        actuatorWriteBuffer.flush();
+        if (finished) {
+            return true;
+        }
+        if (tickBudget > 0) {
+            checkOverrun(System.nanoTime() - tickStart, slowestListener, slowestListenerNanos);
+        }
         return false;
     }
 
@@ -202,13 +461,25 @@ public class RobotController {
      * @param listener - the function to be registered as an update listener.
      */
     public void addUpdateListener(Runnable listener) {
-        updateListeners.add(listener);
+        updateListeners.add(new UpdateListenerInfo(listener, false));
+    }
+
+    /**
+     * Registers a function to be called on every update that may be skipped to shed load.
+     * Behaves like {@link #addUpdateListener}, except that the listener is not called for a number
+     * of ticks after a tick overruns the budget set with {@link #setTickBudget}, if the overrun
+     * policy calls for it. Use this for work such as telemetry that can tolerate missing ticks.
+     *
+     * @param listener - the function to be registered as an update listener.
+     */
+    public void addLowPriorityUpdateListener(Runnable listener) {
+        updateListeners.add(new UpdateListenerInfo(listener, true));
     }
 
     /**
      * Registers a function to be called when the layer stack finishes executing.
-     * On the first update after the topmost layer runs out of tasks, the
-     * listeners are called in registration order, then unregistered.
+     * On the first update after the topmost layer runs out of tasks, or on {@link #stop} if that
+     * comes first, the listeners are called in registration order, then unregistered.
      *
      * @param listener - the function to be registered as an update listener.
      */
@@ -217,87 +488,1615 @@ public class RobotController {
     }
 
     /**
-     * Thinly wraps a Layer while storing its last accepted task.
+     * Tears down the layers before they finish executing, such as when the opmode is stopped.
+     * Teardown listeners are called as if the layers had finished, so layers can release the
+     * threads they started. Does nothing if the layers have already been torn down. Must not be
+     * called while {@link #update} is running.
      */
-    private static class LayerInfo {
-        /**
-         * The contained Layer.
-         */
-        private Layer layer;
+    public void stop() {
+        tearDown();
+    }
 
-        /**
-         * The last tasks the contained Layer accepted at once.
-         */
-        private ArrayList<Task> lastTasks;
+    /**
+     * Creates a pool of tasks recycled at the start of every tick.
+     * Pools are not recycled while the last tasks of a layer are being reused to shed load, since
+     * the reused tasks may have come from a pool.
+     *
+     * @param <T> - the type of task pooled.
+     * @param factory - creates a new task when none are free.
+     * @return The new TaskPool.
+     */
+    public <T extends Task> TaskPool<T> createTaskPool(Supplier<T> factory) {
+        TaskPool<T> pool = new TaskPool<>(factory);
+        taskPools.add(pool);
+        return pool;
+    }
 
-        /**
-         * Whether the previous accepted task satisfied the Layer's need for new tasks.
-         */
-        private boolean lastTaskSaturated;
+    /**
+     * Sets the difference in power below which actuator writes are skipped as unchanged.
+     *
+     * @param epsilon - the non-negative power difference.
+     * @see ActuatorWriteBuffer#setEpsilon
+     */
+    public void setActuatorWriteEpsilon(double epsilon) {
+        actuatorWriteBuffer.setEpsilon(epsilon);
+    }
 
-        /**
-         * Constructs a LayerInfo.
-         *
-         * @param layer - the Layer to contain.
-         */
-        LayerInfo(Layer layer) {
-            this.layer = layer;
-            lastTasks = new ArrayList<>();
-            lastTaskSaturated = true;
+    /**
+     * Sets the clock layers read tick times from.
+     * Should be called before {@link #setup}. Only the time layers see is affected; timings and the
+     * tick budget are always measured with {@link System#nanoTime}.
+     *
+     * @param clock - the clock, returning a time in nanoseconds that never decreases.
+     * @see HardwareSnapshot#setClock
+     */
+    public void setClock(LongSupplier clock) {
+        this.clock = clock;
+        if (hardwareSnapshot != null) {
+            hardwareSnapshot.setClock(clock);
         }
+    }
 
-        /**
-         * Returns the implementing class name of the contained Layer.
-         *
-         * @return the contained Layer's concrete class name.
-         */
-        public String getName() {
-            return layer.getClass().getSimpleName();
+    /**
+     * Sets the journal inputs and tasks pass through.
+     * Should be called before {@link #setup} so that the whole run is journaled. The controller
+     * does not close the journal.
+     *
+     * @param journal - the journal, or null to stop journaling.
+     */
+    public void setJournal(TickJournal journal) {
+        this.journal = journal;
+        if (hardwareSnapshot != null) {
+            hardwareSnapshot.setJournal(journal);
         }
+    }
 
-        /**
-         * Calls {@link Layer#isTaskDone} on the contained Layer.
-         *
-         * @return whether the contained Layer is finished processing its last accepted task.
-         */
-        public boolean isTaskDone() {
-            return layer.isTaskDone();
-        }
+    /**
+     * Sets whether calls into layers and update listeners are timed.
+     * Timing adds two calls to {@link System#nanoTime} and a constant-time histogram update to each
+     * timed call. Disabled by default.
+     *
+     * @param enable - whether calls should be timed.
+     */
+    public void setTimingEnabled(boolean enable) {
+        timingEnabled = enable;
+        updateMeasuring();
+    }
 
-        /**
-         * Calls {@link Layer#update} on the contained Layer.
-         *
-         * @param completed - an iterable of the tasks emitted by this Layer that have been
-         * completed since the last call to this method.
-         * @return an iterator of the tasks for the layer below to accept.
-         */
-        public Iterator<Task> update(Iterable<Task> completed) {
-            return layer.update(completed);
+    /**
+     * Sets the tick budget and how to shed load when a tick overruns it.
+     * Checking for overruns times every call into layers and update listeners as if timing were
+     * enabled, so that overruns can be attributed.
+     *
+     * @param seconds - the longest a tick may take in seconds before it is considered an overrun,
+     * or 0 to stop checking for overruns.
+     * @param policy - how to shed load after an overrun.
+     * @param ticks - the number of ticks to shed load for after an overrun.
+     */
+    public void setTickBudget(double seconds, OverrunPolicy policy, int ticks) {
+        if (seconds < 0 || ticks < 0) {
+            throw new IllegalArgumentException("Tick budget and shed ticks must be non-negative.");
         }
+        tickBudget = (long)Units.convert(seconds, Units.Time.SEC, Units.Time.NANO);
+        overrunPolicy = policy;
+        shedTicks = ticks;
+        updateMeasuring();
+    }
 
-        /**
-         * Calls {@link Layer#acceptTask} on the contained Layer.
-         * Must not be called if {@link #isTaskDone} returns false.
-         *
-         * @param task - the task the contained layer should be offered.
-         */
-        public void acceptTask(Task task) {
-            if (lastTaskSaturated) {
-                lastTasks.clear();
+    /**
+     * Returns the number of ticks that overran the tick budget.
+     *
+     * @return The number of overrunning ticks since the controller was constructed.
+     */
+    public long getOverrunCount() {
+        return overrunCount;
+    }
+
+    /**
+     * Sets how often timings are published to the logger while timing is enabled.
+     * Each layer call histogram and update listener histogram is published as an updatable field.
+     *
+     * @param seconds - the interval in seconds between publishing timings, or 0 to disable
+     * publishing.
+     */
+    public void setTimingReportInterval(double seconds) {
+        timingReportInterval = (long)Units.convert(seconds, Units.Time.SEC, Units.Time.NANO);
+    }
+
+    /**
+     * Discards all recorded timings.
+     */
+    public void resetTimings() {
+        for (LayerInfo layer : layersByName.values()) {
+            for (LayerCall call : LayerCall.values()) {
+                layer.getTiming(call).reset();
             }
-            lastTasks.add(task);
-            layer.acceptTask(task);
-            lastTaskSaturated = !layer.isTaskDone();
         }
+        for (UpdateListenerInfo listener : updateListeners) {
+            listener.getTiming().reset();
+        }
+    }
 
-        /**
-         * Returns the layer's last accepted tasks.
-         *
-         * @return an iterable of the tasks last accepted by the layer.
-         * @see #acceptTask
-         */
-        public Iterable<Task> getLastTasks() {
-            return lastTasks;
+    /**
+     * Returns the names of the layers in the stack, as used to identify them in timings.
+     * Names are the simple class name of each layer, suffixed with "@" and the layer's index in
+     * the stack if more than one layer in the stack shares the same class. The layers of a
+     * {@link LayerGraph} are indexed in the order of {@link LayerGraph#getLayers}.
+     *
+     * @return The names of the layers in the stack.
+     */
+    public List<String> getLayerNames() {
+        return new ArrayList<>(layersByName.keySet());
+    }
+
+    /**
+     * Returns the timing histogram for calls of a kind into a layer.
+     * Histograms are recorded into only while timing is enabled.
+     *
+     * @param layerName - the name of the layer, as returned by {@link #getLayerNames}.
+     * @param call - the kind of call whose timings to return.
+     * @return The histogram of durations of the given kind of call into the layer.
+     * @throws IllegalArgumentException - no layer in the stack has the given name.
+     */
+    public TimingHistogram getLayerTiming(String layerName, LayerCall call) {
+        LayerInfo layer = layersByName.get(layerName);
+        if (layer == null) {
+            throw new IllegalArgumentException("No layer named '" + layerName + "' in the stack.");
+        }
+        return layer.getTiming(call);
+    }
+
+    /**
+     * Returns the timing histogram for an update listener.
+     * Histograms are recorded into only while timing is enabled.
+     *
+     * @param index - the index of the update listener, in registration order.
+     * @return The histogram of durations of calls to the update listener.
+     */
+    public TimingHistogram getUpdateListenerTiming(int index) {
+        return updateListeners.get(index).getTiming();
+    }
+
+    /**
+     * Performs the layer work of a tick, walking the layer stack as described in the class
+     * documentation.
+     *
+     * @return whether the whole stack of layers is exhausted of tasks.
+     */
+    private boolean updateLayers() {
+        if (layers == null) {
+            return true;
+        }
+        ++tickCount;
+        if (graphNodes != null) {
+            return updateGraph();
+        }
+        int idx = 0;
+        while (true) {
+            LayerInfo candidate = layers[idx];
+            if (!candidate.isDue(tickCount)) {
+                // Leave the layer and those above it for a later tick. The layers below it are all
+                // done, so updating them would ask for subtasks they don't have, but the
+                // bottommost layer may still have work of its own
+                if (idx > 0) {
+                    updateBottommostLayer();
+                }
+                return false;
+            }
+            candidate.markInvoked(tickCount);
+            if (!candidate.isTaskDone()) {
+                break;
+            }
+            ++idx;
+            if (idx == layers.length) {
+                tearDown();
+                return true;
+            }
+        }
+        LayerInfo layer = layers[idx];
+        logger.update("Highest updated layer", layer.getName());
+        while (idx > 0) {
+            LayerInfo oldLayer = layer;
+            layer = layers[--idx];
+            sink.reset(oldLayer, layer, idx);
+            if (oldLayer.isReusingTasks()) {
+                Iterator<Task> tasks = oldLayer.reuseTasks(layer.lastTasks);
+                if (!tasks.hasNext()) {
+                    break;
+                }
+                // Reused tasks were all accepted before, so the lower layer may simply not need
+                // them all again
+                while (tasks.hasNext() && sink.canAccept()) {
+                    sink.accept(tasks.next());
+                }
+                sink.flush();
+            } else {
+                oldLayer.update(layer.getLastTasks(), sink);
+                sink.flush();
+                if (sink.getAcceptedCount() == 0) {
+                    break;
+                }
+            }
+        }
+        // Whether or not the walk reached it, the bottommost layer may have work of its own, such
+        // as waiting for a mechanism to finish
+        updateBottommostLayer();
+        return false;
+    }
+
+    /**
+     * Performs the layer work of a tick on a layer graph, walking it as described in the class
+     * documentation.
+     *
+     * @return whether every layer in the graph is exhausted of tasks.
+     */
+    private boolean updateGraph() {
+        // Lower layers come first, so whether they are done is known before the layers above them
+        // are visited
+        int doneCount = 0;
+        for (int i = 0; i < layers.length; ++i) {
+            GraphNode node = graphNodes[i];
+            node.beginTick();
+            layers[i].beginBatch();
+            if (!isReachable(node) || !layers[i].isDue(tickCount)) {
+                continue;
+            }
+            layers[i].markInvoked(tickCount);
+            node.poll(layers[i].isTaskDone());
+            if (node.isIdle()) {
+                ++doneCount;
+            }
+        }
+        if (doneCount == layers.length) {
+            tearDown();
+            return true;
+        }
+        boolean loggedHighest = false;
+        for (int i = layers.length - 1; i >= 0; --i) {
+            GraphNode node = graphNodes[i];
+            LayerInfo layer = layers[i];
+            // Like the component layers of a bottommost MultiplexLayer, bottommost layers that are
+            // done after accepting their tasks have no work of their own to update
+            if (!node.hasWork() || node.isBottommost() && node.isPending() && layer.isTaskDone()) {
+                continue;
+            }
+            if (!loggedHighest) {
+                logger.update("Highest updated layer", layer.getName());
+                loggedHighest = true;
+            }
+            if (node.isBottommost()) {
+                layer.updateDiscarding(NO_TASKS);
+                continue;
+            }
+            graphSink.reset(i);
+            if (layer.isReusingTasks()) {
+                Iterator<Task> tasks = layer.reuseTasks(node.getLastEmitted());
+                while (tasks.hasNext()) {
+                    graphSink.offer(tasks.next());
+                }
+            } else {
+                layer.update(node.getLastEmitted(), graphSink);
+            }
+            graphSink.flush();
+            node.finishEmitting();
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether a layer of a graph is visited by the bottom-up pass of a tick.
+     *
+     * @param node - the layer's node.
+     * @return Whether the layer has no lower layers or at least one of them is done.
+     */
+    private boolean isReachable(GraphNode node) {
+        if (node.isBottommost()) {
+            return true;
+        }
+        int[] lowerLayers = node.getLowerLayers();
+        for (int i = 0; i < lowerLayers.length; ++i) {
+            if (graphNodes[lowerLayers[i]].isIdle()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Informs all listeners that the layers have finished executing, then releases them.
+     */
+    private void tearDown() {
+        for (int i = 0; i < teardownListeners.size(); ++i) {
+            teardownListeners.get(i).run();
+        }
+        updateListeners.clear();
+        teardownListeners.clear();
+        taskPools.clear();
+        layers = null;
+        graphNodes = null;
+    }
+
+    /**
+     * Updates the bottommost layer, which is assumed to be a drive layer that emits no tasks.
+     */
+    private void updateBottommostLayer() {
+        layers[0].updateDiscarding(NO_TASKS);
+    }
+
+    /**
+     * Recycles every task pool unless the last tasks of a layer are being reused.
+     */
+    private void recycleTaskPools() {
+        if (layers == null) {
+            return;
+        }
+        for (LayerInfo layer : layers) {
+            if (layer.isReusingTasks()) {
+                return;
+            }
+        }
+        for (int i = 0; i < taskPools.size(); ++i) {
+            taskPools.get(i).recycle();
+        }
+    }
+
+    /**
+     * Checks whether the last tick overran the tick budget and sheds load if so.
+     * Also clears the per-tick durations of every layer.
+     *
+     * @param tickNanos - the duration of the last tick in nanoseconds.
+     * @param slowestListener - the index of the update listener that took the longest during the
+     * tick, or -1 if no update listener was called.
+     * @param slowestListenerNanos - the duration of the slowest update listener in nanoseconds.
+     */
+    private void checkOverrun(long tickNanos, int slowestListener, long slowestListenerNanos) {
+        int slowestLayer = -1;
+        long slowestLayerNanos = 0;
+        for (int i = 0; i < layers.length; ++i) {
+            long nanos = layers[i].takeTickNanos();
+            if (nanos > slowestLayerNanos) {
+                slowestLayer = i;
+                slowestLayerNanos = nanos;
+            }
+        }
+        if (tickNanos <= tickBudget) {
+            return;
+        }
+        ++overrunCount;
+        boolean layerCulprit = slowestLayer != -1 && slowestLayerNanos >= slowestListenerNanos;
+        String culprit;
+        if (layerCulprit) {
+            culprit = String.format(
+                Locale.US,
+                "layer '%s' (%.1fus)",
+                layers[slowestLayer].getName(),
+                Units.convert(slowestLayerNanos, Units.Time.NANO, Units.Time.USEC)
+            );
+        } else if (slowestListener != -1) {
+            culprit = String.format(
+                Locale.US,
+                "update listener %d (%.1fus)",
+                slowestListener,
+                Units.convert(slowestListenerNanos, Units.Time.NANO, Units.Time.USEC)
+            );
+        } else {
+            culprit = "unknown";
+        }
+        logger.warn(String.format(
+            Locale.US,
+            "Tick took %.1fus, over budget of %.1fus. Slowest: %s.",
+            Units.convert(tickNanos, Units.Time.NANO, Units.Time.USEC),
+            Units.convert(tickBudget, Units.Time.NANO, Units.Time.USEC),
+            culprit
+        ));
+
+        // The bottommost layer's tasks are discarded, so there is nothing to reuse in its place
+        boolean canReuse = graphNodes == null
+            ? slowestLayer > 0
+            : slowestLayer != -1 && !graphNodes[slowestLayer].isBottommost();
+        if (overrunPolicy == OverrunPolicy.REUSE_TASKS && layerCulprit && canReuse) {
+            layers[slowestLayer].reuseTasksFor(shedTicks);
+            logger.warn(String.format(
+                Locale.US,
+                "Shedding load: reusing last tasks of layer '%s' for %d ticks.",
+                layers[slowestLayer].getName(),
+                shedTicks
+            ));
+        } else if (overrunPolicy != OverrunPolicy.REPORT) {
+            listenerShedTicksLeft = shedTicks;
+            logger.warn(String.format(
+                Locale.US,
+                "Shedding load: skipping low-priority update listeners for %d ticks.",
+                shedTicks
+            ));
+        }
+    }
+
+    /**
+     * Publishes all timing histograms to the logger as updatable fields.
+     */
+    private void reportTimings() {
+        for (LayerInfo layer : layers) {
+            for (LayerCall call : LayerCall.values()) {
+                logger.update(layer.getName() + " " + call.getMethodName(), layer.getTiming(call));
+            }
+        }
+        for (int i = 0; i < updateListeners.size(); ++i) {
+            logger.update("update listener " + i, updateListeners.get(i).getTiming());
+        }
+    }
+
+    /**
+     * Recomputes whether calls are timed and applies it to the layers in the stack.
+     */
+    private void updateMeasuring() {
+        measuring = timingEnabled || tickBudget > 0;
+        if (layers != null) {
+            for (LayerInfo layer : layers) {
+                layer.setTimed(measuring);
+            }
+        }
+    }
+
+    /**
+     * Builds the exception message for a task no lower layer in a graph accepts.
+     *
+     * @param layer - the layer that emitted the task.
+     * @param task - the task.
+     * @return The exception message.
+     */
+    private static String unroutedTaskMessage(LayerInfo layer, Task task) {
+        return "No layer below '" + layer.getName() + "' accepts task "
+            + task.getClass().getSimpleName();
+    }
+
+    /**
+     * Builds the exception message for a layer that did not consume all tasks offered to it.
+     * Kept out of {@link #update} so the tick path stays free of string building.
+     *
+     * @param layer - the layer that stopped accepting tasks.
+     * @param task - the first task the layer did not consume.
+     * @return The exception message.
+     */
+    private static String unconsumedTasksMessage(LayerInfo layer, Task task) {
+        return "Layer '" + layer.getName() + "' did not consume all tasks from upper layer. "
+            + "First remaining task: " + task.getClass().getSimpleName();
+    }
+
+    /**
+     * A kind of call the controller makes into a layer, for the purposes of timing.
+     */
+    public enum LayerCall {
+        /**
+         * A call to {@link Layer#isTaskDone}.
+         */
+        IS_TASK_DONE("isTaskDone"),
+        /**
+         * A call to {@link Layer#update}.
+         */
+        UPDATE("update"),
+        /**
+         * A call to {@link Layer#acceptTask}.
+         */
+        ACCEPT_TASK("acceptTask");
+
+        /**
+         * The name of the called Layer method.
+         */
+        private final String methodName;
+
+        /**
+         * Constructs a LayerCall enum member.
+         *
+         * @param methodName - the name of the called Layer method.
+         */
+        LayerCall(String methodName) {
+            this.methodName = methodName;
+        }
+
+        /**
+         * Returns the name of the called Layer method.
+         *
+         * @return The name of the called Layer method.
+         */
+        public String getMethodName() {
+            return methodName;
+        }
+    }
+
+    /**
+     * How the controller sheds load after a tick overruns the tick budget.
+     */
+    public enum OverrunPolicy {
+        /**
+         * Only report overruns to the logger.
+         */
+        REPORT,
+        /**
+         * Skip low-priority update listeners.
+         */
+        SKIP_LISTENERS,
+        /**
+         * Reuse the last tasks emitted by the offending layer instead of updating it. Falls back to
+         * skipping low-priority update listeners if the overrun is not attributed to a layer whose
+         * tasks can be reused.
+         * Suitable for layers that emit continuous tasks such as drive powers, where accepting the
+         * same task again holds the robot's current behavior.
+         */
+        REUSE_TASKS
+    }
+
+    /**
+     * Wraps an update listener with its timing and priority.
+     */
+    private static class UpdateListenerInfo {
+        /**
+         * The contained listener.
+         */
+        private final Runnable listener;
+
+        /**
+         * Whether the listener may be skipped to shed load.
+         */
+        private final boolean lowPriority;
+
+        /**
+         * The timing histogram of calls to the listener.
+         */
+        private final TimingHistogram timing;
+
+        /**
+         * Constructs an UpdateListenerInfo.
+         *
+         * @param listener - the listener to contain.
+         * @param lowPriority - whether the listener may be skipped to shed load.
+         */
+        UpdateListenerInfo(Runnable listener, boolean lowPriority) {
+            this.listener = listener;
+            this.lowPriority = lowPriority;
+            timing = new TimingHistogram();
+        }
+
+        /**
+         * Calls the contained listener.
+         */
+        public void run() {
+            listener.run();
+        }
+
+        /**
+         * Returns whether the listener may be skipped to shed load.
+         *
+         * @return Whether the listener is low priority.
+         */
+        public boolean isLowPriority() {
+            return lowPriority;
+        }
+
+        /**
+         * Returns the timing histogram of calls to the listener.
+         *
+         * @return The histogram of durations of calls to the listener.
+         */
+        public TimingHistogram getTiming() {
+            return timing;
+        }
+    }
+
+    /**
+     * Thinly wraps a Layer while storing its last accepted task.
+     */
+    private static class LayerInfo {
+        /**
+         * The contained Layer.
+         */
+        private Layer layer;
+
+        /**
+         * The name identifying the contained Layer in the stack, cached so it is not recomputed
+         * every tick.
+         */
+        private final String name;
+
+        /**
+         * The timing histograms for each kind of call into the contained Layer, indexed by
+         * {@link LayerCall#ordinal}.
+         */
+        private final TimingHistogram[] timings;
+
+        /**
+         * Whether calls into the contained Layer are timed.
+         */
+        private boolean timed;
+
+        /**
+         * The last tasks the contained Layer accepted at once.
+         * Reused across ticks so accepting tasks does not allocate in the steady state.
+         */
+        private ArrayList<Task> lastTasks;
+
+        /**
+         * The tasks the contained Layer accepted at once before {@link #lastTasks}.
+         * Swapped with lastTasks when the Layer starts accepting a new batch, so the previous batch
+         * stays intact while the layer above it, which was given it as completed tasks, pushes the
+         * new one.
+         */
+        private ArrayList<Task> spareTasks;
+
+        /**
+         * Whether the next accepted task starts a new batch, because the previous one satisfied the
+         * Layer's need for new tasks or {@link #beginBatch} was called.
+         */
+        private boolean lastTaskSaturated;
+
+        /**
+         * The number of ticks between invocations of the contained Layer.
+         */
+        private final int tickDivisor;
+
+        /**
+         * The first tick on which the contained Layer may be invoked again.
+         */
+        private long nextDueTick;
+
+        /**
+         * The total duration in nanoseconds of timed calls into the contained Layer since the last
+         * call to {@link #takeTickNanos}.
+         */
+        private long tickNanos;
+
+        /**
+         * The remaining number of updates to replace by reusing the Layer's last emitted tasks.
+         */
+        private int reuseTicksLeft;
+
+        /**
+         * Iterates over the Layer's last emitted tasks when they are reused.
+         */
+        private final TaskReplay replay;
+
+        /**
+         * The continuous tasks posted for the contained Layer that have not been delivered yet, at
+         * most one of each type, in the order their types were first posted.
+         */
+        private final ArrayList<Task> mailbox;
+
+        /**
+         * Constructs a LayerInfo.
+         *
+         * @param layer - the Layer to contain.
+         * @param name - the name identifying the Layer in the stack.
+         * @param tickDivisor - the number of ticks between invocations of the Layer.
+         */
+        LayerInfo(Layer layer, String name, int tickDivisor) {
+            this.layer = layer;
+            this.name = name;
+            this.tickDivisor = tickDivisor;
+            nextDueTick = 0;
+            timings = new TimingHistogram[LayerCall.values().length];
+            for (int i = 0; i < timings.length; ++i) {
+                timings[i] = new TimingHistogram();
+            }
+            timed = false;
+            lastTasks = new ArrayList<>();
+            spareTasks = new ArrayList<>();
+            lastTaskSaturated = true;
+            tickNanos = 0;
+            reuseTicksLeft = 0;
+            replay = new TaskReplay();
+            mailbox = new ArrayList<>();
+        }
+
+        /**
+         * Returns the name identifying the contained Layer in the stack.
+         *
+         * @return the contained Layer's concrete class name, possibly with a suffix to disambiguate
+         * it from other layers of the same class.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Sets whether calls into the contained Layer are timed.
+         *
+         * @param enable - whether calls should be timed.
+         */
+        public void setTimed(boolean enable) {
+            timed = enable;
+        }
+
+        /**
+         * Returns the timing histogram for a kind of call into the contained Layer.
+         *
+         * @param call - the kind of call.
+         * @return The histogram of durations of the given kind of call.
+         */
+        public TimingHistogram getTiming(LayerCall call) {
+            return timings[call.ordinal()];
+        }
+
+        /**
+         * Returns whether the contained Layer may be invoked on a tick.
+         *
+         * @param tick - the number of the tick.
+         * @return Whether at least the Layer's tick divisor has elapsed since it was last invoked.
+         */
+        public boolean isDue(long tick) {
+            return tick >= nextDueTick;
+        }
+
+        /**
+         * Records that the contained Layer was invoked on a tick.
+         *
+         * @param tick - the number of the tick.
+         */
+        public void markInvoked(long tick) {
+            nextDueTick = tick + tickDivisor;
+        }
+
+        /**
+         * Returns and clears the total duration of timed calls into the contained Layer.
+         *
+         * @return The total duration in nanoseconds of timed calls since the last call to this
+         * method.
+         */
+        public long takeTickNanos() {
+            long nanos = tickNanos;
+            tickNanos = 0;
+            return nanos;
+        }
+
+        /**
+         * Replaces the next updates of the contained Layer by reusing its last emitted tasks.
+         *
+         * @param ticks - the number of updates to replace.
+         */
+        public void reuseTasksFor(int ticks) {
+            reuseTicksLeft = ticks;
+        }
+
+        /**
+         * Returns whether the next update should be replaced by reusing the last emitted tasks.
+         *
+         * @return Whether {@link #reuseTasks} should be called instead of {@link #update}.
+         */
+        public boolean isReusingTasks() {
+            return reuseTicksLeft > 0;
+        }
+
+        /**
+         * Replaces an update of the contained Layer by reusing its last emitted tasks.
+         *
+         * @param lastEmitted - the contained Layer's last emitted tasks, such as the last tasks
+         * accepted by the layer below it.
+         * @return an iterator of the reused tasks for the layers below to accept.
+         */
+        public Iterator<Task> reuseTasks(List<Task> lastEmitted) {
+            --reuseTicksLeft;
+            // Copied because the tasks are overwritten as they are accepted again
+            return replay.reset(lastEmitted);
+        }
+
+        /**
+         * Calls {@link Layer#isTaskDone} on the contained Layer.
+         *
+         * @return whether the contained Layer is finished processing its last accepted task.
+         */
+        public boolean isTaskDone() {
+            if (!timed) {
+                return layer.isTaskDone();
+            }
+            long start = System.nanoTime();
+            boolean done = layer.isTaskDone();
+            long elapsed = System.nanoTime() - start;
+            timings[LayerCall.IS_TASK_DONE.ordinal()].add(elapsed);
+            tickNanos += elapsed;
+            return done;
+        }
+
+        /**
+         * Calls {@link Layer#isTaskDone(Task)} on the contained Layer.
+         *
+         * @param task - a task the contained Layer accepted.
+         * @return whether the contained Layer is finished processing the task.
+         */
+        public boolean isTaskDone(Task task) {
+            if (!timed) {
+                return layer.isTaskDone(task);
+            }
+            long start = System.nanoTime();
+            boolean done = layer.isTaskDone(task);
+            long elapsed = System.nanoTime() - start;
+            timings[LayerCall.IS_TASK_DONE.ordinal()].add(elapsed);
+            tickNanos += elapsed;
+            return done;
+        }
+
+        /**
+         * Calls {@link Layer#update} on the contained Layer and discards the returned tasks.
+         * The tasks are still drained so layers that update their component layers lazily, like
+         * {@link org.firstinspires.ftc.teamcode.layer.MultiplexLayer}, do so.
+         *
+         * @param completed - an iterable of the tasks emitted by this Layer that have been
+         * completed since the last call to this method.
+         */
+        public void updateDiscarding(Iterable<Task> completed) {
+            long start = timed ? System.nanoTime() : 0;
+            Iterator<Task> discarded = layer.update(completed);
+            while (discarded != null && discarded.hasNext()) {
+                discarded.next();
+            }
+            if (timed) {
+                long elapsed = System.nanoTime() - start;
+                timings[LayerCall.UPDATE.ordinal()].add(elapsed);
+                tickNanos += elapsed;
+            }
+        }
+
+        /**
+         * Calls {@link Layer#update(Iterable, TaskSink)} on the contained Layer.
+         * Time spent in the lower layer accepting the pushed tasks is not counted towards the
+         * contained Layer.
+         *
+         * @param completed - an iterable of the tasks emitted by this Layer that have been
+         * completed since the last call to this method.
+         * @param sink - the sink to push the tasks for the layer below to accept into.
+         */
+        public void update(Iterable<Task> completed, AbstractControllerSink sink) {
+            if (!timed) {
+                layer.update(completed, sink);
+                return;
+            }
+            long start = System.nanoTime();
+            layer.update(completed, sink);
+            long elapsed = System.nanoTime() - start - sink.takeNestedNanos();
+            timings[LayerCall.UPDATE.ordinal()].add(elapsed);
+            tickNanos += elapsed;
+        }
+
+        /**
+         * Calls {@link Layer#acceptTask} on the contained Layer.
+         * Must not be called if {@link #isTaskDone} returns false.
+         *
+         * @param task - the task the contained layer should be offered.
+         */
+        public void acceptTask(Task task) {
+            if (lastTaskSaturated) {
+                ArrayList<Task> previous = lastTasks;
+                lastTasks = spareTasks;
+                spareTasks = previous;
+                lastTasks.clear();
+            }
+            lastTasks.add(task);
+            long start = timed ? System.nanoTime() : 0;
+            layer.acceptTask(task);
+            if (timed) {
+                long elapsed = System.nanoTime() - start;
+                timings[LayerCall.ACCEPT_TASK.ordinal()].add(elapsed);
+                tickNanos += elapsed;
+            }
+            lastTaskSaturated = !layer.isTaskDone();
+        }
+
+        /**
+         * Makes the next accepted task start a new batch of last tasks.
+         * Called before tasks are pushed into the contained Layer, so a Layer that stays done after
+         * accepting tasks only remembers the tasks of the latest push instead of every task it was
+         * ever given.
+         */
+        public void beginBatch() {
+            lastTaskSaturated = true;
+        }
+
+        /**
+         * Calls {@link Layer#previewTasks} on the contained Layer.
+         *
+         * @param upcoming - the tasks the contained Layer will likely accept next.
+         */
+        public void previewTasks(List<Task> upcoming) {
+            layer.previewTasks(upcoming);
+        }
+
+        /**
+         * Returns the layer's last accepted tasks.
+         *
+         * @return an iterable of the tasks last accepted by the layer.
+         * @see #acceptTask
+         */
+        public Iterable<Task> getLastTasks() {
+            return lastTasks;
+        }
+
+        /**
+         * Posts a continuous task to be delivered to the contained Layer later, replacing any
+         * undelivered task of the same type.
+         *
+         * @param task - the continuous task.
+         */
+        public void post(Task task) {
+            for (int i = 0; i < mailbox.size(); ++i) {
+                if (mailbox.get(i).getClass() == task.getClass()) {
+                    mailbox.set(i, task);
+                    return;
+                }
+            }
+            mailbox.add(task);
+        }
+
+        /**
+         * Returns whether any posted continuous tasks have not been delivered yet.
+         *
+         * @return Whether {@link #takeMail} may be called.
+         */
+        public boolean hasMail() {
+            return !mailbox.isEmpty();
+        }
+
+        /**
+         * Removes the oldest undelivered continuous task.
+         *
+         * @return The task, which should be delivered to the contained Layer.
+         */
+        public Task takeMail() {
+            return mailbox.remove(0);
+        }
+    }
+
+    /**
+     * Iterates over a copy of a list of tasks without allocating once warmed up.
+     */
+    private static class TaskReplay implements Iterator<Task> {
+        /**
+         * The copied tasks.
+         */
+        private final ArrayList<Task> tasks;
+
+        /**
+         * The index of the next task to return.
+         */
+        private int next;
+
+        /**
+         * Constructs an empty TaskReplay.
+         */
+        TaskReplay() {
+            tasks = new ArrayList<>();
+            next = 0;
+        }
+
+        /**
+         * Starts iterating over a copy of the given tasks.
+         *
+         * @param source - the tasks to copy.
+         * @return This TaskReplay.
+         */
+        public TaskReplay reset(List<Task> source) {
+            tasks.clear();
+            // Indexed rather than addAll, which allocates an intermediate array
+            for (int i = 0; i < source.size(); ++i) {
+                tasks.add(source.get(i));
+            }
+            next = 0;
+            return this;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < tasks.size();
+        }
+
+        @Override
+        public Task next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return tasks.get(next++);
+        }
+    }
+
+    /**
+     * The edges of a layer in a {@link LayerGraph} and its state during a tick.
+     */
+    private static class GraphNode {
+        /**
+         * The indices in {@link #layers} of the lower layers connected to the layer.
+         */
+        private final int[] lowerLayers;
+
+        /**
+         * The task types declared by each lower layer, indexed like {@link #lowerLayers}.
+         */
+        private final List<Collection<Class<? extends Task>>> lowerTypes;
+
+        /**
+         * The indices in {@link #lowerLayers} of the lower layers that accept each task class seen
+         * so far, in ascending order.
+         */
+        private final Map<Class<?>, int[]> routes;
+
+        /**
+         * The last task routed to each lower layer, indexed like {@link #lowerLayers}, or null for
+         * lower layers that have not been routed one.
+         */
+        private final Task[] lowerTasks;
+
+        /**
+         * The tasks the layer emitted in the last update in which it emitted any, passed back to it
+         * as completed tasks.
+         */
+        private ArrayList<Task> lastEmitted;
+
+        /**
+         * The tasks the layer has emitted in its current update.
+         * Swapped with lastEmitted once the update emits any, so the previous batch stays intact
+         * while the layer iterates over it.
+         */
+        private ArrayList<Task> emitting;
+
+        /**
+         * Whether the layer was asked whether it is done during the current tick.
+         */
+        private boolean polled;
+
+        /**
+         * Whether the layer reported it is done during the current tick.
+         */
+        private boolean done;
+
+        /**
+         * Whether the layer accepted a task during the current tick.
+         */
+        private boolean pending;
+
+        /**
+         * Constructs a GraphNode.
+         *
+         * @param lowerLayers - the indices in {@link #layers} of the lower layers connected to the
+         * layer.
+         * @param lowerTypes - the task types declared by each lower layer.
+         */
+        GraphNode(int[] lowerLayers, List<Collection<Class<? extends Task>>> lowerTypes) {
+            this.lowerLayers = lowerLayers;
+            this.lowerTypes = lowerTypes;
+            routes = new HashMap<>();
+            lowerTasks = new Task[lowerLayers.length];
+            lastEmitted = new ArrayList<>();
+            emitting = new ArrayList<>();
+            polled = false;
+            done = false;
+            pending = false;
+        }
+
+        /**
+         * Returns the lower layers connected to the layer.
+         *
+         * @return The indices in {@link #layers} of the lower layers. Must not be modified.
+         */
+        public int[] getLowerLayers() {
+            return lowerLayers;
+        }
+
+        /**
+         * Returns whether the layer has no lower layers, and so emits no tasks.
+         *
+         * @return Whether the layer is at the bottom of the graph.
+         */
+        public boolean isBottommost() {
+            return lowerLayers.length == 0;
+        }
+
+        /**
+         * Returns the lower layers a task class is routed to.
+         *
+         * @param taskClass - the class of the task to route.
+         * @return The indices in {@link #lowerLayers} of the lower layers declaring a task type the
+         * class is assignable to, in ascending order. Must not be modified.
+         */
+        public int[] route(Class<?> taskClass) {
+            int[] route = routes.get(taskClass);
+            if (route == null) {
+                List<Integer> accepting = new ArrayList<>();
+                for (int i = 0; i < lowerLayers.length; ++i) {
+                    for (Class<? extends Task> type : lowerTypes.get(i)) {
+                        if (type.isAssignableFrom(taskClass)) {
+                            accepting.add(i);
+                            break;
+                        }
+                    }
+                }
+                route = accepting.stream().mapToInt(Integer::intValue).toArray();
+                routes.put(taskClass, route);
+            }
+            return route;
+        }
+
+        /**
+         * Returns the last task routed to a lower layer.
+         *
+         * @param lower - the index of the lower layer in {@link #lowerLayers}.
+         * @return The task, or null if none has been routed to the lower layer.
+         */
+        public Task getLowerTask(int lower) {
+            return lowerTasks[lower];
+        }
+
+        /**
+         * Records that a task was routed to a lower layer.
+         *
+         * @param lower - the index of the lower layer in {@link #lowerLayers}.
+         * @param task - the task.
+         */
+        public void setLowerTask(int lower, Task task) {
+            lowerTasks[lower] = task;
+        }
+
+        /**
+         * Returns the tasks the layer emitted in the last update in which it emitted any.
+         *
+         * @return The tasks, which are completed once the lower layers are done with them.
+         */
+        public List<Task> getLastEmitted() {
+            return lastEmitted;
+        }
+
+        /**
+         * Records that the layer emitted a task in its current update.
+         *
+         * @param task - the task.
+         */
+        public void emit(Task task) {
+            emitting.add(task);
+        }
+
+        /**
+         * Starts recording the tasks the layer emits in an update.
+         */
+        public void beginEmitting() {
+            emitting.clear();
+        }
+
+        /**
+         * Finishes recording the tasks the layer emitted in an update, keeping them as the last
+         * emitted tasks if there were any.
+         */
+        public void finishEmitting() {
+            if (!emitting.isEmpty()) {
+                ArrayList<Task> previous = lastEmitted;
+                lastEmitted = emitting;
+                emitting = previous;
+            }
+        }
+
+        /**
+         * Clears the state of the previous tick.
+         */
+        public void beginTick() {
+            polled = false;
+            done = false;
+            pending = false;
+        }
+
+        /**
+         * Records whether the layer reported it is done during the current tick.
+         *
+         * @param isDone - whether the layer is done.
+         */
+        public void poll(boolean isDone) {
+            polled = true;
+            done = isDone;
+        }
+
+        /**
+         * Records that the layer accepted a task during the current tick.
+         */
+        public void markPending() {
+            pending = true;
+        }
+
+        /**
+         * Returns whether the layer accepted a task during the current tick.
+         *
+         * @return Whether {@link #markPending} was called since the tick began.
+         */
+        public boolean isPending() {
+            return pending;
+        }
+
+        /**
+         * Returns whether the layer reported it is done during the current tick.
+         *
+         * @return Whether the layer was polled and is done, so upper layers may push tasks to it.
+         */
+        public boolean isIdle() {
+            return polled && done;
+        }
+
+        /**
+         * Returns whether the layer should be updated during the current tick.
+         *
+         * @return Whether the layer reported it is not done or accepted a task.
+         */
+        public boolean hasWork() {
+            return pending || polled && !done;
+        }
+    }
+
+    /**
+     * Hands the tasks an upper layer pushes to the layers below it, keeping the bookkeeping shared
+     * by stacks and graphs.
+     */
+    private abstract class AbstractControllerSink implements TaskSink {
+        /**
+         * The number of tasks accepted since the last reset.
+         */
+        private int acceptedCount;
+
+        /**
+         * The total duration in nanoseconds of timed calls into lower layers since the last call
+         * to {@link #takeNestedNanos}.
+         */
+        private long nestedNanos;
+
+        /**
+         * Constructs an AbstractControllerSink.
+         */
+        AbstractControllerSink() {
+            acceptedCount = 0;
+            nestedNanos = 0;
+        }
+
+        /**
+         * Returns the number of tasks accepted since the last reset.
+         *
+         * @return The number of tasks the lower layers accepted.
+         */
+        public int getAcceptedCount() {
+            return acceptedCount;
+        }
+
+        /**
+         * Returns and clears the total duration of timed calls into lower layers.
+         *
+         * @return The total duration in nanoseconds of timed calls since the last call to this
+         * method.
+         */
+        public long takeNestedNanos() {
+            long nanos = nestedNanos;
+            nestedNanos = 0;
+            return nanos;
+        }
+
+        /**
+         * Clears the accepted count and nested duration for a new upper layer.
+         */
+        protected void resetCounts() {
+            acceptedCount = 0;
+            nestedNanos = 0;
+        }
+
+        /**
+         * Throws if an upper layer pushed null.
+         *
+         * @param upper - the layer pushing tasks.
+         * @param task - the pushed task.
+         */
+        protected void checkNotNull(LayerInfo upper, Task task) {
+            if (task == null) {
+                throw new NullPointerException(
+                    String.format(
+                        "Layer '%s' returned null as a subtask.",
+                        upper.getName()
+                    )
+                );
+            }
+        }
+
+        /**
+         * Returns whether a lower layer is done with its previous tasks.
+         *
+         * @param lower - the lower layer.
+         * @return Whether the lower layer can accept another task.
+         */
+        protected boolean lowerCanAccept(LayerInfo lower) {
+            long start = measuring ? System.nanoTime() : 0;
+            boolean done = lower.isTaskDone();
+            if (measuring) {
+                nestedNanos += System.nanoTime() - start;
+            }
+            return done;
+        }
+
+        /**
+         * Returns whether a lower layer is done with a task it accepted.
+         *
+         * @param lower - the lower layer.
+         * @param task - the task.
+         * @return Whether the lower layer is finished processing the task.
+         */
+        protected boolean isLowerTaskDone(LayerInfo lower, Task task) {
+            long start = measuring ? System.nanoTime() : 0;
+            boolean done = lower.isTaskDone(task);
+            if (measuring) {
+                nestedNanos += System.nanoTime() - start;
+            }
+            return done;
+        }
+
+        /**
+         * Shows a lower layer the tasks it will likely accept next.
+         *
+         * @param lower - the lower layer.
+         * @param upcoming - the upcoming tasks.
+         */
+        protected void previewLower(LayerInfo lower, List<Task> upcoming) {
+            long start = measuring ? System.nanoTime() : 0;
+            lower.previewTasks(upcoming);
+            if (measuring) {
+                nestedNanos += System.nanoTime() - start;
+            }
+        }
+
+        /**
+         * Delivers the continuous tasks posted for a lower layer for as long as it can accept
+         * them. Tasks it cannot accept yet stay posted until the next flush.
+         *
+         * @param lower - the lower layer.
+         * @param lowerIndex - the index of the lower layer in {@link #layers}.
+         * @return The number of tasks delivered.
+         */
+        protected int flushLower(LayerInfo lower, int lowerIndex) {
+            int delivered = 0;
+            while (lower.hasMail() && lowerCanAccept(lower)) {
+                deliver(lower, lowerIndex, lower.takeMail(), measuring ? System.nanoTime() : 0);
+                ++delivered;
+            }
+            return delivered;
+        }
+
+        /**
+         * Hands a task to a lower layer, which must be done with its previous tasks.
+         *
+         * @param lower - the lower layer.
+         * @param lowerIndex - the index of the lower layer in {@link #layers}.
+         * @param task - the task.
+         * @param start - the time in nanoseconds the lower layer was first called into for the
+         * task, if measuring.
+         */
+        protected void deliver(LayerInfo lower, int lowerIndex, Task task, long start) {
+            if (journal != null) {
+                journal.syncTask(lowerIndex, task);
+            }
+            lower.acceptTask(task);
+            ++acceptedCount;
+            if (measuring) {
+                nestedNanos += System.nanoTime() - start;
+            }
+        }
+    }
+
+    /**
+     * Gives the tasks an upper layer pushes straight to the layer below it.
+     */
+    private class LayerSink extends AbstractControllerSink {
+        /**
+         * The layer pushing tasks.
+         */
+        private LayerInfo upper;
+
+        /**
+         * The layer accepting the pushed tasks.
+         */
+        private LayerInfo lower;
+
+        /**
+         * The index of {@link #lower} in the stack.
+         */
+        private int lowerIndex;
+
+        /**
+         * Constructs a LayerSink.
+         */
+        LayerSink() {
+            upper = null;
+            lower = null;
+            lowerIndex = -1;
+        }
+
+        /**
+         * Starts giving tasks pushed by a layer to the layer below it.
+         *
+         * @param upperLayer - the layer pushing tasks.
+         * @param lowerLayer - the layer accepting the pushed tasks.
+         * @param index - the index of the lower layer in the stack.
+         */
+        public void reset(LayerInfo upperLayer, LayerInfo lowerLayer, int index) {
+            upper = upperLayer;
+            lower = lowerLayer;
+            lowerIndex = index;
+            lower.beginBatch();
+            resetCounts();
+        }
+
+        @Override
+        public void accept(Task task) {
+            checkNotNull(upper, task);
+            if (task instanceof ContinuousTask) {
+                // Only the latest one matters, so hold it until the upper layer is done pushing
+                lower.post(task);
+                return;
+            }
+            long start = measuring ? System.nanoTime() : 0;
+            if (!lower.isTaskDone()) {
+                throw new UnsupportedTaskException(unconsumedTasksMessage(lower, task));
+            }
+            deliver(lower, lowerIndex, task, start);
+        }
+
+        @Override
+        public boolean canAccept() {
+            return lowerCanAccept(lower);
+        }
+
+        @Override
+        public boolean isTaskDone(Task task) {
+            return isLowerTaskDone(lower, task);
+        }
+
+        @Override
+        public void preview(List<Task> upcoming) {
+            previewLower(lower, upcoming);
+        }
+
+        /**
+         * Delivers the continuous tasks posted for the lower layer for as long as it can accept
+         * them.
+         */
+        public void flush() {
+            flushLower(lower, lowerIndex);
+        }
+    }
+
+    /**
+     * Routes the tasks a layer of a graph pushes to the lower layers declaring their types.
+     * Like a MultiplexLayer, the sink can accept as soon as any lower layer can, and remembers the
+     * last task routed to each lower layer to tell which tasks are done. A task routed to a lower
+     * layer that is not done is rejected, so the upper layer must track which of its lower layers
+     * are busy.
+     */
+    private class GraphSink extends AbstractControllerSink {
+        /**
+         * The layer pushing tasks.
+         */
+        private LayerInfo upper;
+
+        /**
+         * The node of {@link #upper}.
+         */
+        private GraphNode upperNode;
+
+        /**
+         * Constructs a GraphSink.
+         */
+        GraphSink() {
+            upper = null;
+            upperNode = null;
+        }
+
+        /**
+         * Starts routing tasks pushed by a layer to its lower layers.
+         *
+         * @param index - the index of the layer pushing tasks in {@link #layers}.
+         */
+        public void reset(int index) {
+            upper = layers[index];
+            upperNode = graphNodes[index];
+            upperNode.beginEmitting();
+            resetCounts();
+        }
+
+        @Override
+        public void accept(Task task) {
+            route(task, false);
+        }
+
+        /**
+         * Routes a task the upper layer emitted before, skipping lower layers that are not done
+         * instead of throwing, since they may simply not need it again.
+         *
+         * @param task - the reused task.
+         */
+        public void offer(Task task) {
+            route(task, true);
+        }
+
+        @Override
+        public boolean canAccept() {
+            int[] lowerLayers = upperNode.getLowerLayers();
+            for (int i = 0; i < lowerLayers.length; ++i) {
+                if (lowerCanAccept(layers[lowerLayers[i]])) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean isTaskDone(Task task) {
+            int[] lowerLayers = upperNode.getLowerLayers();
+            for (int i = 0; i < lowerLayers.length; ++i) {
+                // Lower layers that have moved on to another task are done with this one
+                if (upperNode.getLowerTask(i) == task
+                    && !isLowerTaskDone(layers[lowerLayers[i]], task)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void preview(List<Task> upcoming) {
+            // Lower layers ignore upcoming tasks they would not be routed
+            int[] lowerLayers = upperNode.getLowerLayers();
+            for (int i = 0; i < lowerLayers.length; ++i) {
+                previewLower(layers[lowerLayers[i]], upcoming);
+            }
+        }
+
+        /**
+         * Delivers the continuous tasks posted for each lower layer for as long as it can accept
+         * them.
+         */
+        public void flush() {
+            int[] lowerLayers = upperNode.getLowerLayers();
+            for (int i = 0; i < lowerLayers.length; ++i) {
+                int index = lowerLayers[i];
+                if (flushLower(layers[index], index) > 0) {
+                    graphNodes[index].markPending();
+                }
+            }
+        }
+
+        /**
+         * Hands a task to every lower layer declaring its type.
+         *
+         * @param task - the task.
+         * @param skipBusy - whether to skip lower layers that are not done instead of throwing.
+         */
+        private void route(Task task, boolean skipBusy) {
+            checkNotNull(upper, task);
+            int[] route = upperNode.route(task.getClass());
+            if (route.length == 0) {
+                throw new UnsupportedTaskException(unroutedTaskMessage(upper, task));
+            }
+            int[] lowerLayers = upperNode.getLowerLayers();
+            if (!skipBusy && !(task instanceof ContinuousTask)) {
+                // Check every routed layer before delivering to any, so a task is never given to
+                // only some of the layers it was routed to
+                for (int i : route) {
+                    LayerInfo lower = layers[lowerLayers[i]];
+                    if (!lower.isTaskDone()) {
+                        throw new UnsupportedTaskException(unconsumedTasksMessage(lower, task));
+                    }
+                }
+            }
+            upperNode.emit(task);
+            for (int i : route) {
+                int index = lowerLayers[i];
+                LayerInfo lower = layers[index];
+                upperNode.setLowerTask(i, task);
+                if (task instanceof ContinuousTask) {
+                    // Only the latest one matters, so hold it until the upper layer is done pushing
+                    lower.post(task);
+                    continue;
+                }
+                long start = measuring ? System.nanoTime() : 0;
+                if (skipBusy && !lower.isTaskDone()) {
+                    continue;
+                }
+                deliver(lower, index, task, start);
+                graphNodes[index].markPending();
+            }
         }
     }
 }
@@ -0,0 +1,354 @@
+package org.firstinspires.ftc.teamcode;
+
+import java.util.concurrent.locks.LockSupport;
+
+import com.qualcomm.robotcore.hardware.Gamepad;
+
+import org.firstinspires.ftc.teamcode.logging.Logger;
+
+/**
+ * Drives a {@link RobotController} at a fixed rate on a dedicated thread.
+ * Without a TickScheduler, the controller is updated whenever the FTC event loop calls
+ * {@link com.qualcomm.robotcore.eventloop.opmode.OpMode#loop}, which jitters with Driver Station
+ * traffic and telemetry. A TickScheduler instead sleeps until a fixed deadline before each tick, so
+ * layers are updated with a constant period as long as ticks finish within it.
+ *
+ * <p>Gamepads are written by the event loop, so layers must not read them directly while the
+ * controller runs on another thread. Instead, the controller should be set up with the snapshot
+ * gamepads returned by {@link #getGamepad0} and {@link #getGamepad1}. The event loop thread
+ * publishes the live gamepad state with {@link #publishGamepads}, and the tick thread copies the
+ * latest published state into the snapshots before each tick.
+ *
+ * <p>The lateness of each tick relative to its deadline and the duration of each tick are recorded
+ * in {@link TimingHistogram}s. Ticks that run past the following deadline are counted as overruns;
+ * the schedule then restarts from the end of the late tick instead of trying to catch up. The event
+ * loop thread publishes these statistics to the logger with {@link #reportStatistics}, so
+ * formatting them never delays a tick.
+ */
+public final class TickScheduler {
+    /**
+     * The interval in seconds between publishing scheduler statistics to the logger.
+     */
+    private static final double REPORT_INTERVAL = 1;
+
+    /**
+     * The controller to drive.
+     */
+    private final RobotController controller;
+
+    /**
+     * The period between tick deadlines in nanoseconds.
+     */
+    private final long period;
+
+    /**
+     * The gamepad connected to the first port, written by the event loop, or null if none is
+     * connected.
+     */
+    private final Gamepad liveGamepad0;
+
+    /**
+     * The gamepad connected to the second port, written by the event loop, or null if none is
+     * connected.
+     */
+    private final Gamepad liveGamepad1;
+
+    /**
+     * The latest state of {@link #liveGamepad0} published by the event loop thread.
+     * Guarded by {@link #gamepadLock}.
+     */
+    private final Gamepad publishedGamepad0;
+
+    /**
+     * The latest state of {@link #liveGamepad1} published by the event loop thread.
+     * Guarded by {@link #gamepadLock}.
+     */
+    private final Gamepad publishedGamepad1;
+
+    /**
+     * The snapshot of the first gamepad read by layers, written only by the tick thread.
+     */
+    private final Gamepad snapshotGamepad0;
+
+    /**
+     * The snapshot of the second gamepad read by layers, written only by the tick thread.
+     */
+    private final Gamepad snapshotGamepad1;
+
+    /**
+     * Guards the published gamepads.
+     */
+    private final Object gamepadLock;
+
+    /**
+     * How late each tick started relative to its deadline, in nanoseconds.
+     * Written only by the tick thread.
+     */
+    private final TimingHistogram jitter;
+
+    /**
+     * How long each tick took, in nanoseconds.
+     * Written only by the tick thread.
+     */
+    private final TimingHistogram tickDurations;
+
+    /**
+     * The logger.
+     */
+    private final Logger logger;
+
+    /**
+     * The interval between publishing scheduler statistics to the logger, in nanoseconds.
+     */
+    private final long reportInterval;
+
+    /**
+     * The time at which scheduler statistics were last published, in nanoseconds.
+     * Read and written only by the event loop thread.
+     */
+    private long lastReport;
+
+    /**
+     * The number of ticks that ran past the deadline of the following tick.
+     */
+    private volatile long overruns;
+
+    /**
+     * Whether the controller has reported that the layer stack finished executing.
+     */
+    private volatile boolean finished;
+
+    /**
+     * The exception thrown by the controller on the tick thread, or null if none has been thrown.
+     */
+    private volatile RuntimeException tickError;
+
+    /**
+     * The thread driving the controller, or null if the scheduler is not running.
+     * When set to null, the thread should terminate if it is still running.
+     */
+    private volatile Thread tickThread;
+
+    /**
+     * Constructs a TickScheduler.
+     *
+     * @param controller - the RobotController to drive. It should be set up with the snapshot
+     * gamepads from {@link #getGamepad0} and {@link #getGamepad1} before {@link #start} is called.
+     * @param rate - the rate in hertz at which to tick the controller.
+     * @param gamepad0 - the gamepad connected to the first port, or null if none is connected.
+     * @param gamepad1 - the gamepad connected to the second port, or null if none is connected.
+     * @param logger - the logger to publish scheduler statistics to.
+     */
+    public TickScheduler(
+        RobotController controller,
+        double rate,
+        Gamepad gamepad0,
+        Gamepad gamepad1,
+        Logger logger
+    ) {
+        if (rate <= 0) {
+            throw new IllegalArgumentException("Tick rate must be positive.");
+        }
+        this.controller = controller;
+        this.logger = logger;
+        period = (long)Units.convert(1 / rate, Units.Time.SEC, Units.Time.NANO);
+        liveGamepad0 = gamepad0;
+        liveGamepad1 = gamepad1;
+        publishedGamepad0 = gamepad0 == null ? null : new Gamepad();
+        publishedGamepad1 = gamepad1 == null ? null : new Gamepad();
+        snapshotGamepad0 = gamepad0 == null ? null : new Gamepad();
+        snapshotGamepad1 = gamepad1 == null ? null : new Gamepad();
+        gamepadLock = new Object();
+        jitter = new TimingHistogram();
+        tickDurations = new TimingHistogram();
+        reportInterval = (long)Units.convert(REPORT_INTERVAL, Units.Time.SEC, Units.Time.NANO);
+        lastReport = System.nanoTime();
+        overruns = 0;
+        finished = false;
+        tickError = null;
+        tickThread = null;
+        publishGamepads();
+    }
+
+    /**
+     * Returns the snapshot of the gamepad connected to the first port that layers should read.
+     *
+     * @return The snapshot of the first gamepad, or null if none is connected.
+     */
+    public Gamepad getGamepad0() {
+        return snapshotGamepad0;
+    }
+
+    /**
+     * Returns the snapshot of the gamepad connected to the second port that layers should read.
+     *
+     * @return The snapshot of the second gamepad, or null if none is connected.
+     */
+    public Gamepad getGamepad1() {
+        return snapshotGamepad1;
+    }
+
+    /**
+     * Starts ticking the controller on a new high-priority thread.
+     */
+    public void start() {
+        if (tickThread != null) {
+            throw new IllegalStateException("TickScheduler already started.");
+        }
+        tickThread = new Thread(this::tickLoop, "TickScheduler");
+        tickThread.setPriority(Thread.MAX_PRIORITY);
+        tickThread.start();
+    }
+
+    /**
+     * Stops ticking the controller and waits for the tick thread to terminate.
+     * Does nothing if the scheduler is not running.
+     */
+    public void stop() {
+        Thread thread = tickThread;
+        if (thread == null) {
+            return;
+        }
+        tickThread = null;
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            // Stopping anyway, so restore the flag for the caller
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Copies the current state of the gamepads so the tick thread can pick it up before its next
+     * tick.
+     * Should be called from the event loop thread whenever it has updated the gamepads, i.e. in
+     * {@link com.qualcomm.robotcore.eventloop.opmode.OpMode#loop}.
+     */
+    public void publishGamepads() {
+        synchronized (gamepadLock) {
+            if (liveGamepad0 != null) {
+                publishedGamepad0.copy(liveGamepad0);
+            }
+            if (liveGamepad1 != null) {
+                publishedGamepad1.copy(liveGamepad1);
+            }
+        }
+    }
+
+    /**
+     * Publishes the tick jitter, durations and overruns to the logger if the report interval has
+     * elapsed since they were last published.
+     * Should be called from the event loop thread rather than the tick thread, so that formatting
+     * the statistics does not delay ticks.
+     */
+    public void reportStatistics() {
+        long now = System.nanoTime();
+        if (now - lastReport < reportInterval) {
+            return;
+        }
+        lastReport = now;
+        logger.update("tick jitter", jitter);
+        logger.update("tick duration", tickDurations);
+        logger.update("tick overruns", overruns);
+    }
+
+    /**
+     * Returns whether the controller has reported that the layer stack finished executing.
+     * The tick thread terminates on its own when this happens.
+     *
+     * @return Whether the layer stack has finished executing.
+     * @throws RuntimeException - the controller threw an exception on the tick thread, which is
+     * rethrown here so it is reported on the calling thread.
+     */
+    public boolean isFinished() {
+        RuntimeException error = tickError;
+        if (error != null) {
+            throw error;
+        }
+        return finished;
+    }
+
+    /**
+     * Returns the number of ticks that ran past the deadline of the following tick.
+     *
+     * @return The number of overrunning ticks since the scheduler started.
+     */
+    public long getOverruns() {
+        return overruns;
+    }
+
+    /**
+     * Returns the histogram of how late each tick started relative to its deadline.
+     * The histogram is written by the tick thread, so values read while the scheduler is running
+     * are approximate.
+     *
+     * @return The histogram of tick start lateness in nanoseconds.
+     */
+    public TimingHistogram getJitter() {
+        return jitter;
+    }
+
+    /**
+     * Returns the histogram of how long each tick took.
+     * The histogram is written by the tick thread, so values read while the scheduler is running
+     * are approximate.
+     *
+     * @return The histogram of tick durations in nanoseconds.
+     */
+    public TimingHistogram getTickDurations() {
+        return tickDurations;
+    }
+
+    /**
+     * Ticks the controller at the configured rate until stopped or the layer stack finishes.
+     */
+    private void tickLoop() {
+        Thread thisThread = Thread.currentThread();
+        long deadline = System.nanoTime();
+        while (tickThread == thisThread) {
+            long start = System.nanoTime();
+            jitter.add(start - deadline);
+            takeGamepadSnapshot();
+            try {
+                finished = controller.update();
+            } catch (RuntimeException e) {
+                tickError = e;
+                return;
+            }
+            long end = System.nanoTime();
+            tickDurations.add(end - start);
+            if (finished) {
+                return;
+            }
+            deadline += period;
+            if (end - deadline > 0) {
+                // Missed the next deadline; restart the schedule instead of bursting to catch up
+                ++overruns;
+                deadline = end;
+                continue;
+            }
+            for (long remaining = deadline - end; remaining > 0;
+                remaining = deadline - System.nanoTime()) {
+                LockSupport.parkNanos(remaining);
+                if (tickThread != thisThread) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies the latest published gamepad state into the snapshots read by layers.
+     */
+    private void takeGamepadSnapshot() {
+        synchronized (gamepadLock) {
+            if (snapshotGamepad0 != null) {
+                snapshotGamepad0.copy(publishedGamepad0);
+            }
+            if (snapshotGamepad1 != null) {
+                snapshotGamepad1.copy(publishedGamepad1);
+            }
+        }
+    }
+}
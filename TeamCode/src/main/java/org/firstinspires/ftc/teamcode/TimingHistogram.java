@@ -0,0 +1,197 @@
+package org.firstinspires.ftc.teamcode;
+
+import java.util.Locale;
+
+/**
+ * A constant-memory histogram of durations in nanoseconds.
+ * Durations are sorted into log-linear buckets: each power of two is split into
+ * {@link #SUB_BUCKETS} equal buckets, so reported percentiles are accurate to within about 12% of
+ * the true value. The maximum is tracked exactly. Recording a duration never allocates, so
+ * histograms may be updated on every robot tick.
+ */
+public final class TimingHistogram {
+    /**
+     * The base 2 logarithm of the number of buckets each power of two is split into.
+     */
+    private static final int SUB_BUCKET_BITS = 3;
+
+    /**
+     * The number of buckets each power of two is split into.
+     */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * The number of buckets in each histogram, enough to cover every non-negative long.
+     */
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    /**
+     * The percentile equivalent to the entire population.
+     */
+    private static final double MAX_PERCENTILE = 100;
+
+    /**
+     * The percentiles reported by {@link #toString}.
+     */
+    private static final double[] REPORTED_PERCENTILES = {50, 95, 99};
+
+    /**
+     * The number of durations recorded in each bucket.
+     */
+    private final long[] counts;
+
+    /**
+     * The number of durations recorded since construction or the last {@link #reset}.
+     */
+    private long totalCount;
+
+    /**
+     * The sum of all durations recorded since construction or the last {@link #reset}.
+     */
+    private long totalNanos;
+
+    /**
+     * The longest duration recorded since construction or the last {@link #reset}.
+     */
+    private long maxNanos;
+
+    /**
+     * Constructs an empty TimingHistogram.
+     */
+    public TimingHistogram() {
+        counts = new long[BUCKET_COUNT];
+        reset();
+    }
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos - the duration in nanoseconds. Negative durations are recorded as zero.
+     */
+    public void add(long nanos) {
+        long clamped = Math.max(nanos, 0);
+        ++counts[bucketOf(clamped)];
+        ++totalCount;
+        totalNanos += clamped;
+        if (clamped > maxNanos) {
+            maxNanos = clamped;
+        }
+    }
+
+    /**
+     * Discards all recorded durations.
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length; ++i) {
+            counts[i] = 0;
+        }
+        totalCount = 0;
+        totalNanos = 0;
+        maxNanos = 0;
+    }
+
+    /**
+     * Returns the number of recorded durations.
+     *
+     * @return The number of durations recorded since construction or the last reset.
+     */
+    public long getCount() {
+        return totalCount;
+    }
+
+    /**
+     * Returns the mean of the recorded durations.
+     *
+     * @return The mean recorded duration in nanoseconds, or 0 if none have been recorded.
+     */
+    public double getMean() {
+        return totalCount == 0 ? 0 : (double)totalNanos / totalCount;
+    }
+
+    /**
+     * Returns the longest recorded duration.
+     *
+     * @return The longest recorded duration in nanoseconds, or 0 if none have been recorded.
+     */
+    public long getMax() {
+        return maxNanos;
+    }
+
+    /**
+     * Estimates a percentile of the recorded durations.
+     *
+     * @param percentile - the percentile to estimate, in the range [0, 100].
+     * @return The upper bound in nanoseconds of the bucket containing the percentile, capped at
+     * {@link #getMax}, or 0 if no durations have been recorded.
+     */
+    public long getPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long rank = (long)Math.ceil(percentile / MAX_PERCENTILE * totalCount);
+        long seen = 0;
+        for (int i = 0; i < counts.length; ++i) {
+            seen += counts[i];
+            if (seen >= rank && seen > 0) {
+                return Math.min(bucketUpperBound(i), maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+
+    /**
+     * Returns a summary of the histogram in microseconds.
+     *
+     * @return A string listing the 50th, 95th, and 99th percentiles, the maximum, and the count.
+     */
+    @Override
+    public String toString() {
+        StringBuilder summary = new StringBuilder();
+        for (double percentile : REPORTED_PERCENTILES) {
+            summary.append(String.format(
+                Locale.US,
+                "p%.0f=%.1fus ",
+                percentile,
+                Units.convert(getPercentile(percentile), Units.Time.NANO, Units.Time.USEC)
+            ));
+        }
+        summary.append(String.format(
+            Locale.US,
+            "max=%.1fus n=%d",
+            Units.convert(getMax(), Units.Time.NANO, Units.Time.USEC),
+            totalCount
+        ));
+        return summary.toString();
+    }
+
+    /**
+     * Finds the bucket a duration belongs in.
+     *
+     * @param nanos - the non-negative duration.
+     * @return The index into {@link #counts} of the bucket the duration belongs in.
+     */
+    private static int bucketOf(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int)nanos;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos);
+        int subBucket = (int)(nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Finds the largest duration that belongs in a bucket.
+     *
+     * @param bucket - the index into {@link #counts} of the bucket.
+     * @return The largest duration in nanoseconds that {@link #bucketOf} maps to the bucket.
+     */
+    private static long bucketUpperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = bucket % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (1L << exponent) + (subBucket + 1) * width - 1;
+    }
+}
@@ -138,7 +138,11 @@ public final class Units {
         /**
          * Milliseconds.
          */
-        MSEC(1000);
+        MSEC(1000),
+        /**
+         * Microseconds.
+         */
+        USEC(Math.pow(10, 6));
 
         /**
          * The number of this unit that is equivalent to one second.
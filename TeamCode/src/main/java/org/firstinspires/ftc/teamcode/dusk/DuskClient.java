@@ -15,7 +15,7 @@ import org.firstinspires.ftc.teamcode.matrix.Vec2;
 
 /**
  * Sends logging data to a Dusk server running on the same network as the robot.
- * Not for use in competitions.
+ * Not for use in competitions. See the package documentation for the wire format.
  */
 public final class DuskClient implements LoggerBackend {
     /**
@@ -35,26 +35,32 @@ public final class DuskClient implements LoggerBackend {
 
     /**
      * Packet type for reporting optionally labeled absolute positions.
+     * Followed by the logger label and item label strings and the x and y doubles.
      */
     private static final byte TYPE_POS = 1;
 
     /**
      * Packet type for reporting optionally labeled and anchored vectors.
+     * Followed by the logger label, item label, and attach label strings and the x and y doubles.
      */
     private static final byte TYPE_VEC = 2;
 
     /**
      * Packet type for reporting optionally labeled and anchored transforms.
+     * Followed by the logger label, item label, and attach label strings and the six doubles of
+     * the transform's first two columns, column by column.
      */
     private static final byte TYPE_TFM = 3;
 
     /**
      * Packet type for reporting updatable values.
+     * Followed by the logger label, item label, and value strings.
      */
     private static final byte TYPE_UPD = 4;
 
     /**
      * Packet type for formatted log messages.
+     * Followed by the severity, label, location, and message strings.
      */
     private static final byte TYPE_LOG = 5;
 
@@ -90,6 +96,7 @@ public final class DuskClient implements LoggerBackend {
      */
     public DuskClient() {
         networkThread = null;
+        stream = new ByteArrayOutputStream();
         packetsInFlight = new LinkedBlockingQueue<>();
     }
 
@@ -141,7 +148,7 @@ public final class DuskClient implements LoggerBackend {
 
     @Override
     public void processTransform(String loggerLabel, String itemLabel, String attachLabel, Mat3 transform) {
-        stream.write(TYPE_VEC);
+        stream.write(TYPE_TFM);
         writeString(loggerLabel);
         writeString(itemLabel);
         writeString(attachLabel);
@@ -200,13 +207,15 @@ public final class DuskClient implements LoggerBackend {
     }
 
     /**
-     * Writes a double to the staging buffer as 4 bytes, little-endian.
+     * Writes a double to the staging buffer as 8 bytes, little-endian.
+     * The width is fixed because packets are not length-prefixed; see the package documentation.
      *
      * @param num - the double to write.
      */
     private void writeDouble(double num) {
-        for (long bits = Double.doubleToLongBits(num); bits != 0; bits >>= Byte.SIZE) {
-            stream.write((int)bits); // Only sends LSB
+        long bits = Double.doubleToLongBits(num);
+        for (int i = 0; i < Long.BYTES; ++i) {
+            stream.write((int)(bits >>> (i * Byte.SIZE))); // Only sends LSB
         }
     }
 
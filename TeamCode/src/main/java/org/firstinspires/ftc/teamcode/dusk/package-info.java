@@ -2,5 +2,21 @@
  * Classes for communicating with a Dusk server to report logging information.
  * External networking is strictly prohibited during competitions; the classes in this package are
  * for home debugging use only.
+ *
+ * <p>Packets are written back to back on a TCP stream with no length prefix, so the server finds
+ * the end of each field from the field's own encoding. Each packet is a type byte followed by its
+ * fields:
+ * <ul>
+ *   <li>Strings, as written by {@link org.firstinspires.ftc.teamcode.IOUtil#writeFlexibleString}.
+ *   <li>Doubles, as the 8 bytes of their IEEE 754 bits, least significant byte first, i.e. a
+ *   little-endian {@code f64}. Every double, including 0.0 and negative values, takes exactly 8
+ *   bytes. Earlier versions of the client dropped leading zero bytes, so 0.0 was sent as no bytes
+ *   and negative values never finished sending. Every positive double has a nonzero top byte and
+ *   was already sent as these 8 bytes, so a server reading fixed 8-byte doubles needs no change.
+ *   A server that guessed the width of a double from the stream must be changed to always read 8
+ *   bytes.
+ * </ul>
+ * The packet types and their fields are documented on the type constants of
+ * {@link org.firstinspires.ftc.teamcode.dusk.DuskClient}.
  */
 package org.firstinspires.ftc.teamcode.dusk;
@@ -0,0 +1,107 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import java.util.ArrayList;
+
+import com.qualcomm.robotcore.hardware.CRServo;
+import com.qualcomm.robotcore.hardware.DcMotor;
+
+/**
+ * Collects actuator writes made during a tick and sends only the changed ones at its end.
+ * Every write to a HardwareMap device is a separate transaction on the Lynx bus, and layers often
+ * set the same power or zero power behavior every tick. Layers should instead write through the
+ * handles handed out by {@link #getMotor} and {@link #getCRServo}, which only remember the latest
+ * value. {@link #flush} then writes each value that differs from the last one written to the
+ * device, all at once at the end of the tick, which
+ * {@link org.firstinspires.ftc.teamcode.RobotController} does after all layer work.
+ *
+ * <p>Powers within {@link #setEpsilon epsilon} of the last written power are considered unchanged,
+ * except that a power of exactly zero is always written if the last written power was not zero, so
+ * actuators always stop when told to.
+ */
+public final class ActuatorWriteBuffer {
+    /**
+     * The default difference in power below which a power is considered unchanged.
+     */
+    private static final double DEFAULT_EPSILON = 0.001;
+
+    /**
+     * The handles whose values are flushed.
+     */
+    private final ArrayList<PowerHandle> handles;
+
+    /**
+     * The difference in power below which a power is considered unchanged.
+     */
+    private double epsilon;
+
+    /**
+     * The number of values written to devices by {@link #flush}.
+     */
+    private long writeCount;
+
+    /**
+     * Constructs an empty ActuatorWriteBuffer.
+     */
+    public ActuatorWriteBuffer() {
+        handles = new ArrayList<>();
+        epsilon = DEFAULT_EPSILON;
+        writeCount = 0;
+    }
+
+    /**
+     * Creates a handle to write to a motor through the buffer.
+     *
+     * @param motor - the motor to write to.
+     * @return A handle whose power and zero power behavior are written to the motor on flush.
+     */
+    public MotorHandle getMotor(DcMotor motor) {
+        MotorHandle handle = new MotorHandle(motor);
+        handles.add(handle);
+        return handle;
+    }
+
+    /**
+     * Creates a handle to write to a continuous rotation servo through the buffer.
+     *
+     * @param servo - the servo to write to.
+     * @return A handle whose power is written to the servo on flush.
+     */
+    public PowerHandle getCRServo(CRServo servo) {
+        PowerHandle handle = new PowerHandle(servo);
+        handles.add(handle);
+        return handle;
+    }
+
+    /**
+     * Sets the difference in power below which a power is considered unchanged.
+     *
+     * @param powerEpsilon - the non-negative power difference. 0 only skips writing exactly the
+     * same power.
+     */
+    public void setEpsilon(double powerEpsilon) {
+        if (powerEpsilon < 0) {
+            throw new IllegalArgumentException("Epsilon must be non-negative.");
+        }
+        epsilon = powerEpsilon;
+    }
+
+    /**
+     * Writes every changed value to its device.
+     */
+    public void flush() {
+        // Indexed to avoid allocating an iterator every tick
+        for (int i = 0; i < handles.size(); ++i) {
+            writeCount += handles.get(i).flush(epsilon);
+        }
+    }
+
+    /**
+     * Returns the number of values written to devices.
+     * Useful to check how many device calls the buffer saves.
+     *
+     * @return The number of values written by {@link #flush} since construction.
+     */
+    public long getWriteCount() {
+        return writeCount;
+    }
+}
@@ -0,0 +1,21 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+/**
+ * A hub that can serve sensor reads from a cache filled by one bulk transaction.
+ * {@link HardwareSnapshot} drives every hub in the hardware map through this interface: Lynx hubs
+ * are adapted to it, and other devices implementing it, such as simulated hubs, are found in the
+ * hardware map directly.
+ */
+public interface BulkCachedHub {
+    /**
+     * Switches the hub to manual bulk caching.
+     * Afterwards, the first sensor read fetches every sensor of the hub in one bulk transaction,
+     * and later reads are served from the cache until it is cleared.
+     */
+    void setManualBulkCaching();
+
+    /**
+     * Discards the cached sensor values, so the next read fetches fresh ones.
+     */
+    void clearBulkCache();
+}
@@ -0,0 +1,119 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+
+/**
+ * Reads a motor's encoder at most once per tick of a {@link HardwareSnapshot}.
+ */
+public final class EncoderHandle {
+    /**
+     * The snapshot defining the current tick.
+     */
+    private final HardwareSnapshot snapshot;
+
+    /**
+     * The motor whose encoder is read.
+     */
+    private final DcMotor motor;
+
+    /**
+     * The number identifying the handle's reads in the snapshot's journal.
+     * Velocity reads use the number after it.
+     */
+    private final int source;
+
+    /**
+     * The number of encoder ticks per revolution of the motor's output shaft, cached because it
+     * never changes.
+     */
+    private final double ticksPerRev;
+
+    /**
+     * The tick on which {@link #position} was read, or -1 if it has never been read.
+     */
+    private long positionTick;
+
+    /**
+     * The encoder position read on {@link #positionTick}.
+     */
+    private int position;
+
+    /**
+     * The tick on which {@link #velocity} was read, or -1 if it has never been read.
+     */
+    private long velocityTick;
+
+    /**
+     * The encoder velocity read on {@link #velocityTick}.
+     */
+    private double velocity;
+
+    /**
+     * Constructs an EncoderHandle.
+     *
+     * @param snapshot - the snapshot defining the current tick.
+     * @param motor - the motor whose encoder to read.
+     */
+    EncoderHandle(HardwareSnapshot snapshot, DcMotor motor) {
+        this.snapshot = snapshot;
+        this.motor = motor;
+        source = snapshot.nextSourceId();
+        snapshot.nextSourceId();
+        ticksPerRev = motor.getMotorType().getTicksPerRev();
+        positionTick = -1;
+        position = 0;
+        velocityTick = -1;
+        velocity = 0;
+    }
+
+    /**
+     * Returns the encoder position.
+     *
+     * @return The encoder position in ticks, as read once this tick.
+     */
+    public int getPosition() {
+        long tick = snapshot.getTick();
+        if (positionTick != tick) {
+            position = snapshot.readInt(source, motor.getCurrentPosition());
+            positionTick = tick;
+        }
+        return position;
+    }
+
+    /**
+     * Returns the encoder velocity.
+     *
+     * @return The encoder velocity in ticks per second, as read once this tick.
+     * @throws UnsupportedOperationException - the motor does not report velocity.
+     */
+    public double getVelocity() {
+        if (!(motor instanceof DcMotorEx)) {
+            throw new UnsupportedOperationException("Motor does not report velocity.");
+        }
+        long tick = snapshot.getTick();
+        if (velocityTick != tick) {
+            velocity = snapshot.readDouble(source + 1, ((DcMotorEx)motor).getVelocity());
+            velocityTick = tick;
+        }
+        return velocity;
+    }
+
+    /**
+     * Returns the number of encoder ticks per revolution of the motor's output shaft.
+     *
+     * @return The encoder ticks per revolution.
+     */
+    public double getTicksPerRev() {
+        return ticksPerRev;
+    }
+
+    /**
+     * Returns the encoder position in revolutions of the motor's output shaft.
+     *
+     * @return The encoder position divided by the ticks per revolution.
+     */
+    public double getRevolutions() {
+        return getPosition() / ticksPerRev;
+    }
+}
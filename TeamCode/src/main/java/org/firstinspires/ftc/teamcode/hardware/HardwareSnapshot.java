@@ -0,0 +1,248 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+import com.qualcomm.hardware.lynx.LynxModule;
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+import com.qualcomm.robotcore.hardware.TouchSensor;
+
+import org.firstinspires.ftc.teamcode.journal.TickJournal;
+
+/**
+ * Provides a consistent view of robot sensors for the duration of a tick.
+ * On construction, every Lynx hub is switched to {@link LynxModule.BulkCachingMode#MANUAL}, so the
+ * first sensor read from a hub fetches all of its encoder positions, velocities, and digital inputs
+ * in one bulk transaction and later reads are served from the hub's cache. {@link #beginTick}
+ * clears those caches and must be called once at the start of every tick, which
+ * {@link org.firstinspires.ftc.teamcode.RobotController} does before any layer work. The handles
+ * returned by {@link #getEncoder} and {@link #getTouchSensor} additionally remember each value for
+ * the rest of the tick, so every layer sees the same reading no matter how often it asks.
+ *
+ * <p>The snapshot also fixes the time of each tick, which layers should use instead of
+ * {@link System#nanoTime}. The time is read from a replaceable clock, so that a simulation can run
+ * layers faster than real time. When a {@link TickJournal} is set, the tick time and every device read
+ * pass through it, so that they can be recorded and replayed.
+ *
+ * <p>Hubs are driven through {@link BulkCachedHub}, so a simulated hub implementing it in the
+ * hardware map is switched and cleared the same way as a Lynx hub. See the ConceptMotorBulkRead
+ * sample for background on bulk caching modes.
+ */
+public final class HardwareSnapshot {
+    /**
+     * The hubs whose bulk caches are cleared every tick.
+     */
+    private final List<BulkCachedHub> hubs;
+
+    /**
+     * The clock tick times are read from.
+     */
+    private LongSupplier clock;
+
+    /**
+     * The journal tick times and device reads pass through, or null if they are not journaled.
+     */
+    private TickJournal journal;
+
+    /**
+     * The number of the current tick, incremented by {@link #beginTick}.
+     */
+    private long tick;
+
+    /**
+     * The number of values read from devices rather than remembered by handles.
+     */
+    private long readCount;
+
+    /**
+     * The time in nanoseconds at the start of the current tick.
+     */
+    private long tickTime;
+
+    /**
+     * The number of handles created, used to give each a source number for the journal.
+     */
+    private int handleCount;
+
+    /**
+     * Constructs a HardwareSnapshot and switches all hubs to manual bulk caching.
+     *
+     * @param hardwareMap - the HardwareMap to find Lynx hubs and other BulkCachedHubs in.
+     */
+    public HardwareSnapshot(HardwareMap hardwareMap) {
+        hubs = new ArrayList<>();
+        for (LynxModule module : hardwareMap.getAll(LynxModule.class)) {
+            hubs.add(new LynxHub(module));
+        }
+        hubs.addAll(hardwareMap.getAll(BulkCachedHub.class));
+        for (BulkCachedHub hub : hubs) {
+            hub.setManualBulkCaching();
+        }
+        clock = System::nanoTime;
+        journal = null;
+        tick = 0;
+        readCount = 0;
+        tickTime = System.nanoTime();
+        handleCount = 0;
+    }
+
+    /**
+     * Sets the clock tick times are read from and restarts the current tick's time from it.
+     *
+     * @param clock - the clock, returning a time in nanoseconds that never decreases.
+     */
+    public void setClock(LongSupplier clock) {
+        this.clock = clock;
+        tickTime = clock.getAsLong();
+    }
+
+    /**
+     * Sets the journal tick times and device reads pass through.
+     *
+     * @param journal - the journal, or null to stop journaling.
+     */
+    public void setJournal(TickJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Starts a new tick, discarding all cached sensor values.
+     */
+    public void beginTick() {
+        // Indexed to avoid allocating an iterator every tick
+        for (int i = 0; i < hubs.size(); ++i) {
+            hubs.get(i).clearBulkCache();
+        }
+        ++tick;
+        long now = clock.getAsLong();
+        tickTime = journal == null ? now : journal.syncTime(now);
+    }
+
+    /**
+     * Creates a handle to read a motor's encoder through the snapshot.
+     *
+     * @param motor - the motor whose encoder to read.
+     * @return A handle reading the motor's encoder at most once per tick.
+     */
+    public EncoderHandle getEncoder(DcMotor motor) {
+        return new EncoderHandle(this, motor);
+    }
+
+    /**
+     * Creates a handle to read a touch sensor through the snapshot.
+     *
+     * @param sensor - the touch sensor to read.
+     * @return A handle reading the touch sensor at most once per tick.
+     */
+    public TouchSensorHandle getTouchSensor(TouchSensor sensor) {
+        return new TouchSensorHandle(this, sensor);
+    }
+
+    /**
+     * Returns the time at the start of the current tick.
+     * Layers should measure durations with this rather than {@link System#nanoTime} so that their
+     * behavior can be replayed from a journal.
+     *
+     * @return The time in nanoseconds at the start of the current tick, on the same scale as
+     * {@link System#nanoTime}.
+     */
+    public long getTickTime() {
+        return tickTime;
+    }
+
+    /**
+     * Returns the number of values read from devices rather than remembered by handles.
+     * Useful to check how many device calls the snapshot saves.
+     *
+     * @return The number of device reads made by handles since construction.
+     */
+    public long getReadCount() {
+        return readCount;
+    }
+
+    /**
+     * Returns the number of the current tick.
+     *
+     * @return The number of calls to {@link #beginTick} since construction.
+     */
+    long getTick() {
+        return tick;
+    }
+
+    /**
+     * Assigns a handle the number identifying it in the journal.
+     * Handles are numbered in order of creation, so the same setup numbers them the same way.
+     *
+     * @return The handle's source number.
+     */
+    int nextSourceId() {
+        return handleCount++;
+    }
+
+    /**
+     * Records that a handle read an integer from a device and passes it through the journal.
+     *
+     * @param source - the handle's source number.
+     * @param value - the value read from the device.
+     * @return The value the handle should report.
+     */
+    int readInt(int source, int value) {
+        ++readCount;
+        return journal == null ? value : journal.syncInt(source, value);
+    }
+
+    /**
+     * Records that a handle read a real number from a device and passes it through the journal.
+     *
+     * @param source - the handle's source number.
+     * @param value - the value read from the device.
+     * @return The value the handle should report.
+     */
+    double readDouble(int source, double value) {
+        ++readCount;
+        return journal == null ? value : journal.syncDouble(source, value);
+    }
+
+    /**
+     * Records that a handle read a boolean from a device and passes it through the journal.
+     *
+     * @param source - the handle's source number.
+     * @param value - the value read from the device.
+     * @return The value the handle should report.
+     */
+    boolean readBoolean(int source, boolean value) {
+        ++readCount;
+        return journal == null ? value : journal.syncBoolean(source, value);
+    }
+
+    /**
+     * Adapts a Lynx hub to {@link BulkCachedHub}.
+     */
+    private static final class LynxHub implements BulkCachedHub {
+        /**
+         * The adapted hub.
+         */
+        private final LynxModule module;
+
+        /**
+         * Constructs a LynxHub.
+         *
+         * @param module - the hub to adapt.
+         */
+        LynxHub(LynxModule module) {
+            this.module = module;
+        }
+
+        @Override
+        public void setManualBulkCaching() {
+            module.setBulkCachingMode(LynxModule.BulkCachingMode.MANUAL);
+        }
+
+        @Override
+        public void clearBulkCache() {
+            module.clearBulkCache();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import com.qualcomm.robotcore.hardware.DcMotor;
+
+/**
+ * Buffers writes to a motor until its {@link ActuatorWriteBuffer} is flushed.
+ */
+public final class MotorHandle extends PowerHandle {
+    /**
+     * The motor written to.
+     */
+    private final DcMotor motor;
+
+    /**
+     * The latest zero power behavior set through the handle, or null if none has been set.
+     */
+    private DcMotor.ZeroPowerBehavior zeroPowerBehavior;
+
+    /**
+     * The last zero power behavior written to the motor, or null if none has been written.
+     */
+    private DcMotor.ZeroPowerBehavior writtenZeroPowerBehavior;
+
+    /**
+     * Constructs a MotorHandle.
+     *
+     * @param motor - the motor to write to.
+     */
+    MotorHandle(DcMotor motor) {
+        super(motor);
+        this.motor = motor;
+        zeroPowerBehavior = null;
+        writtenZeroPowerBehavior = null;
+    }
+
+    /**
+     * Sets the zero power behavior of the motor at the end of the tick.
+     *
+     * @param behavior - the zero power behavior.
+     * @see DcMotor#setZeroPowerBehavior
+     */
+    public void setZeroPowerBehavior(DcMotor.ZeroPowerBehavior behavior) {
+        zeroPowerBehavior = behavior;
+    }
+
+    @Override
+    int flush(double epsilon) {
+        int writes = 0;
+        // Write the behavior first so it already applies if the new power is zero
+        if (zeroPowerBehavior != writtenZeroPowerBehavior) {
+            motor.setZeroPowerBehavior(zeroPowerBehavior);
+            writtenZeroPowerBehavior = zeroPowerBehavior;
+            ++writes;
+        }
+        return writes + super.flush(epsilon);
+    }
+}
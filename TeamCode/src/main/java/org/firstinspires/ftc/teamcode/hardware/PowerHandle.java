@@ -0,0 +1,71 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import com.qualcomm.robotcore.hardware.DcMotorSimple;
+
+/**
+ * Buffers writes to the power of an actuator until its {@link ActuatorWriteBuffer} is flushed.
+ */
+public class PowerHandle {
+    /**
+     * The actuator written to.
+     */
+    private final DcMotorSimple actuator;
+
+    /**
+     * The latest power set through the handle.
+     */
+    private double power;
+
+    /**
+     * The last power written to the actuator, or NaN if none has been written.
+     */
+    private double writtenPower;
+
+    /**
+     * Constructs a PowerHandle.
+     *
+     * @param actuator - the actuator to write to.
+     */
+    PowerHandle(DcMotorSimple actuator) {
+        this.actuator = actuator;
+        power = 0;
+        writtenPower = Double.NaN;
+    }
+
+    /**
+     * Sets the power of the actuator at the end of the tick.
+     *
+     * @param newPower - the power in the range [-1.0, 1.0].
+     * @see DcMotorSimple#setPower
+     */
+    public void setPower(double newPower) {
+        power = newPower;
+    }
+
+    /**
+     * Returns the latest power set through the handle.
+     *
+     * @return The power that will be or has been written to the actuator.
+     */
+    public double getPower() {
+        return power;
+    }
+
+    /**
+     * Writes the buffered values to the actuator if they changed.
+     *
+     * @param epsilon - the difference in power below which a power is considered unchanged.
+     * @return The number of values written.
+     */
+    int flush(double epsilon) {
+        // NaN compares false, so the first power is always written
+        boolean unchanged = Math.abs(power - writtenPower) <= epsilon
+            && (power != 0 || writtenPower == 0);
+        if (unchanged) {
+            return 0;
+        }
+        actuator.setPower(power);
+        writtenPower = power;
+        return 1;
+    }
+}
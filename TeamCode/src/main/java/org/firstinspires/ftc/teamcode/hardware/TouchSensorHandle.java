@@ -0,0 +1,61 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import com.qualcomm.robotcore.hardware.TouchSensor;
+
+/**
+ * Reads a touch sensor at most once per tick of a {@link HardwareSnapshot}.
+ */
+public final class TouchSensorHandle {
+    /**
+     * The snapshot defining the current tick.
+     */
+    private final HardwareSnapshot snapshot;
+
+    /**
+     * The touch sensor that is read.
+     */
+    private final TouchSensor sensor;
+
+    /**
+     * The number identifying the handle's reads in the snapshot's journal.
+     */
+    private final int source;
+
+    /**
+     * The tick on which {@link #pressed} was read, or -1 if it has never been read.
+     */
+    private long pressedTick;
+
+    /**
+     * Whether the sensor was pressed on {@link #pressedTick}.
+     */
+    private boolean pressed;
+
+    /**
+     * Constructs a TouchSensorHandle.
+     *
+     * @param snapshot - the snapshot defining the current tick.
+     * @param sensor - the touch sensor to read.
+     */
+    TouchSensorHandle(HardwareSnapshot snapshot, TouchSensor sensor) {
+        this.snapshot = snapshot;
+        this.sensor = sensor;
+        source = snapshot.nextSourceId();
+        pressedTick = -1;
+        pressed = false;
+    }
+
+    /**
+     * Returns whether the sensor is pressed.
+     *
+     * @return Whether the sensor is pressed, as read once this tick.
+     */
+    public boolean isPressed() {
+        long tick = snapshot.getTick();
+        if (pressedTick != tick) {
+            pressed = snapshot.readBoolean(source, sensor.isPressed());
+            pressedTick = tick;
+        }
+        return pressed;
+    }
+}
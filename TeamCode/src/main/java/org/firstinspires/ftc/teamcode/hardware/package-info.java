@@ -0,0 +1,9 @@
+/**
+ * Per-tick access to robot hardware.
+ * Every read of a sensor or encoder through a HardwareMap device is a separate transaction on the
+ * Lynx bus, costing milliseconds. Layers should instead read hardware through the handles handed out
+ * by {@link org.firstinspires.ftc.teamcode.hardware.HardwareSnapshot}, which reads all sensors of
+ * each hub in one bulk transaction per {@link org.firstinspires.ftc.teamcode.RobotController} tick
+ * and remembers each value for the rest of the tick.
+ */
+package org.firstinspires.ftc.teamcode.hardware;
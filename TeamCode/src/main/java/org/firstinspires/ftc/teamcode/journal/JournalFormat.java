@@ -0,0 +1,171 @@
+package org.firstinspires.ftc.teamcode.journal;
+
+import com.qualcomm.robotcore.hardware.Gamepad;
+
+/**
+ * Constants and gamepad encoding shared by the journal writer and reader.
+ * A journal starts with {@link #MAGIC} and {@link #VERSION}, followed by records each starting with
+ * a one-byte tag. Integers are written as little-endian base 128 varints, signed integers after
+ * zigzag encoding. Tick times are written as the difference from the previous tick's time.
+ */
+final class JournalFormat {
+    /**
+     * The bytes every journal starts with.
+     */
+    static final byte[] MAGIC = {'T', 'J', 'N', 'L'};
+
+    /**
+     * The version of the format, written after {@link #MAGIC}.
+     */
+    static final int VERSION = 2;
+
+    /**
+     * Record of the layer stack's setup: the number of layers, the class id of each layer, and a
+     * bit set of which gamepads are present.
+     */
+    static final int TAG_SETUP = 1;
+
+    /**
+     * Record of the start of a tick: the time delta.
+     */
+    static final int TAG_TICK = 2;
+
+    /**
+     * Record of a changed gamepad: its index, {@link #GAMEPAD_AXES} floats, and a bit set of
+     * buttons.
+     */
+    static final int TAG_GAMEPAD = 3;
+
+    /**
+     * Record of an integer sensor read: the source and the signed value.
+     */
+    static final int TAG_INT = 4;
+
+    /**
+     * Record of a real sensor read: the source and the 8-byte value.
+     */
+    static final int TAG_DOUBLE = 5;
+
+    /**
+     * Record of a boolean sensor read: the source and a byte that is 0 or 1.
+     */
+    static final int TAG_BOOLEAN = 6;
+
+    /**
+     * Record defining a class id the first time it is used: the id, the UTF-8 byte length of the
+     * class name, and the class name.
+     */
+    static final int TAG_CLASS = 7;
+
+    /**
+     * Record of a task accepted by a layer: the layer index, the task's class id, and, if the task
+     * is a {@link org.firstinspires.ftc.teamcode.task.ValueTask}, the values it writes in order,
+     * each real value as 8 bytes and each integer value signed.
+     */
+    static final int TAG_TASK = 8;
+
+    /**
+     * The number of analog gamepad axes recorded.
+     */
+    static final int GAMEPAD_AXES = 6;
+
+    /**
+     * The number of bits in each byte of a varint that hold data.
+     */
+    static final int VARINT_BITS = 7;
+
+    /**
+     * The bit of each byte of a varint that marks that more bytes follow.
+     */
+    static final int VARINT_CONTINUE = 1 << VARINT_BITS;
+
+    /**
+     * JournalFormat is a utility class with only static members; it should not be instantiated.
+     */
+    private JournalFormat() { }
+
+    /**
+     * Reads the analog axes of a gamepad.
+     *
+     * @param gamepad - the gamepad to read.
+     * @param axes - the array of length {@link #GAMEPAD_AXES} to fill with the axes.
+     */
+    static void getAxes(Gamepad gamepad, float[] axes) {
+        int i = 0;
+        axes[i++] = gamepad.left_stick_x;
+        axes[i++] = gamepad.left_stick_y;
+        axes[i++] = gamepad.right_stick_x;
+        axes[i++] = gamepad.right_stick_y;
+        axes[i++] = gamepad.left_trigger;
+        axes[i++] = gamepad.right_trigger;
+    }
+
+    /**
+     * Sets the analog axes of a gamepad.
+     *
+     * @param gamepad - the gamepad to write.
+     * @param axes - the axes, in the order filled by {@link #getAxes}.
+     */
+    static void setAxes(Gamepad gamepad, float[] axes) {
+        int i = 0;
+        gamepad.left_stick_x = axes[i++];
+        gamepad.left_stick_y = axes[i++];
+        gamepad.right_stick_x = axes[i++];
+        gamepad.right_stick_y = axes[i++];
+        gamepad.left_trigger = axes[i++];
+        gamepad.right_trigger = axes[i++];
+    }
+
+    /**
+     * Reads the buttons of a gamepad into a bit set.
+     *
+     * @param gamepad - the gamepad to read.
+     * @return A bit set with a bit for each button, set if the button is pressed.
+     */
+    static int getButtons(Gamepad gamepad) {
+        // Written out rather than looped over an array so encoding every tick does not allocate
+        int bits = 0;
+        int i = 0;
+        bits |= (gamepad.dpad_up ? 1 : 0) << i++;
+        bits |= (gamepad.dpad_down ? 1 : 0) << i++;
+        bits |= (gamepad.dpad_left ? 1 : 0) << i++;
+        bits |= (gamepad.dpad_right ? 1 : 0) << i++;
+        bits |= (gamepad.a ? 1 : 0) << i++;
+        bits |= (gamepad.b ? 1 : 0) << i++;
+        bits |= (gamepad.x ? 1 : 0) << i++;
+        bits |= (gamepad.y ? 1 : 0) << i++;
+        bits |= (gamepad.left_bumper ? 1 : 0) << i++;
+        bits |= (gamepad.right_bumper ? 1 : 0) << i++;
+        bits |= (gamepad.left_stick_button ? 1 : 0) << i++;
+        bits |= (gamepad.right_stick_button ? 1 : 0) << i++;
+        bits |= (gamepad.back ? 1 : 0) << i++;
+        bits |= (gamepad.start ? 1 : 0) << i++;
+        bits |= (gamepad.guide ? 1 : 0) << i++;
+        return bits;
+    }
+
+    /**
+     * Sets the buttons of a gamepad from a bit set.
+     *
+     * @param gamepad - the gamepad to write.
+     * @param bits - the bit set, as returned by {@link #getButtons}.
+     */
+    static void setButtons(Gamepad gamepad, int bits) {
+        int i = 0;
+        gamepad.dpad_up = (bits & (1 << i++)) != 0;
+        gamepad.dpad_down = (bits & (1 << i++)) != 0;
+        gamepad.dpad_left = (bits & (1 << i++)) != 0;
+        gamepad.dpad_right = (bits & (1 << i++)) != 0;
+        gamepad.a = (bits & (1 << i++)) != 0;
+        gamepad.b = (bits & (1 << i++)) != 0;
+        gamepad.x = (bits & (1 << i++)) != 0;
+        gamepad.y = (bits & (1 << i++)) != 0;
+        gamepad.left_bumper = (bits & (1 << i++)) != 0;
+        gamepad.right_bumper = (bits & (1 << i++)) != 0;
+        gamepad.left_stick_button = (bits & (1 << i++)) != 0;
+        gamepad.right_stick_button = (bits & (1 << i++)) != 0;
+        gamepad.back = (bits & (1 << i++)) != 0;
+        gamepad.start = (bits & (1 << i++)) != 0;
+        gamepad.guide = (bits & (1 << i++)) != 0;
+    }
+}
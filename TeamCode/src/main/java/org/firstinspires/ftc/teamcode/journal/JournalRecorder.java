@@ -0,0 +1,451 @@
+package org.firstinspires.ftc.teamcode.journal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import com.qualcomm.robotcore.hardware.Gamepad;
+
+import org.firstinspires.ftc.teamcode.layer.Layer;
+import org.firstinspires.ftc.teamcode.task.Task;
+import org.firstinspires.ftc.teamcode.task.ValueTask;
+
+/**
+ * Records a binary journal of a layer stack's execution to a stream.
+ * Records are encoded into fixed-size chunks on the calling thread without allocating, and full
+ * chunks are handed to a writer thread so the tick never waits on storage. Gamepad state is only
+ * recorded when it changes, and class names only the first time a class is seen. Tasks are recorded
+ * by class, along with their values if they are {@link ValueTask}s.
+ *
+ * @see JournalFormat
+ */
+public final class JournalRecorder implements TickJournal {
+    /**
+     * The size in bytes of each chunk handed to the writer thread.
+     */
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * An upper bound on the size in bytes of every record except class definitions.
+     */
+    private static final int MAX_RECORD_SIZE = 64;
+
+    /**
+     * The maximum number of bytes a varint encoding a long can take.
+     */
+    private static final int MAX_VARLONG_SIZE = 10;
+
+    /**
+     * The chunk handed to the writer thread to tell it to close the stream and stop.
+     */
+    private static final Chunk END = new Chunk();
+
+    /**
+     * The stream the journal is written to by the writer thread.
+     */
+    private final OutputStream stream;
+
+    /**
+     * Full chunks waiting to be written by the writer thread.
+     */
+    private final BlockingQueue<Chunk> filledChunks;
+
+    /**
+     * Chunks written by the writer thread that can be reused.
+     */
+    private final BlockingQueue<Chunk> freeChunks;
+
+    /**
+     * The ids of each task and layer class already defined in the journal.
+     */
+    private final Map<Class<?>, Integer> classIds;
+
+    /**
+     * The last recorded axes of each gamepad, indexed by gamepad.
+     */
+    private final float[][] lastAxes;
+
+    /**
+     * The last recorded button bit set of each gamepad, indexed by gamepad.
+     */
+    private final int[] lastButtons;
+
+    /**
+     * Whether the state of each gamepad has been recorded yet, indexed by gamepad.
+     */
+    private final boolean[] gamepadRecorded;
+
+    /**
+     * Scratch space for the axes of the gamepad being recorded.
+     */
+    private final float[] axes;
+
+    /**
+     * Encodes the values of ValueTasks into the current chunk.
+     */
+    private final ValueEncoder valueEncoder;
+
+    /**
+     * The thread writing full chunks to {@link #stream}.
+     */
+    private final Thread writerThread;
+
+    /**
+     * The chunk records are currently encoded into.
+     */
+    private Chunk chunk;
+
+    /**
+     * The time in nanoseconds of the last recorded tick.
+     */
+    private long lastTickTime;
+
+    /**
+     * Whether {@link #close} has been called.
+     */
+    private boolean closed;
+
+    /**
+     * The first error the writer thread encountered, or null if none has been encountered.
+     * After an error, chunks are discarded instead of written.
+     */
+    private volatile IOException writeError;
+
+    /**
+     * Constructs a JournalRecorder and starts its writer thread.
+     *
+     * @param stream - the stream to write the journal to. Closed when the recorder is closed.
+     */
+    public JournalRecorder(OutputStream stream) {
+        this.stream = stream;
+        filledChunks = new LinkedBlockingQueue<>();
+        freeChunks = new LinkedBlockingQueue<>();
+        classIds = new HashMap<>();
+        lastAxes = new float[2][JournalFormat.GAMEPAD_AXES];
+        lastButtons = new int[2];
+        gamepadRecorded = new boolean[2];
+        axes = new float[JournalFormat.GAMEPAD_AXES];
+        valueEncoder = new ValueEncoder();
+        chunk = new Chunk();
+        lastTickTime = 0;
+        closed = false;
+        writeError = null;
+        for (byte b : JournalFormat.MAGIC) {
+            writeByte(b);
+        }
+        writeByte(JournalFormat.VERSION);
+        writerThread = new Thread(this::writeLoop, "JournalRecorder");
+        writerThread.start();
+    }
+
+    @Override
+    public void syncSetup(List<Layer> layerStack, Gamepad gamepad0, Gamepad gamepad1) {
+        int[] layerClassIds = new int[layerStack.size()];
+        for (int i = 0; i < layerClassIds.length; ++i) {
+            layerClassIds[i] = getClassId(layerStack.get(i).getClass());
+        }
+        ensureCapacity(MAX_RECORD_SIZE + layerClassIds.length * MAX_VARLONG_SIZE);
+        writeByte(JournalFormat.TAG_SETUP);
+        writeVarLong(layerClassIds.length);
+        for (int classId : layerClassIds) {
+            writeVarLong(classId);
+        }
+        writeByte((gamepad0 == null ? 0 : 1) | (gamepad1 == null ? 0 : 2));
+    }
+
+    @Override
+    public long syncTime(long nanoTime) {
+        ensureCapacity(MAX_RECORD_SIZE);
+        writeByte(JournalFormat.TAG_TICK);
+        writeVarLong(nanoTime - lastTickTime);
+        lastTickTime = nanoTime;
+        return nanoTime;
+    }
+
+    @Override
+    public void syncGamepads(Gamepad gamepad0, Gamepad gamepad1) {
+        if (gamepad0 != null) {
+            recordGamepad(0, gamepad0);
+        }
+        if (gamepad1 != null) {
+            recordGamepad(1, gamepad1);
+        }
+    }
+
+    @Override
+    public int syncInt(int source, int value) {
+        ensureCapacity(MAX_RECORD_SIZE);
+        writeByte(JournalFormat.TAG_INT);
+        writeVarLong(source);
+        writeVarLong(zigzag(value));
+        return value;
+    }
+
+    @Override
+    public double syncDouble(int source, double value) {
+        ensureCapacity(MAX_RECORD_SIZE);
+        writeByte(JournalFormat.TAG_DOUBLE);
+        writeVarLong(source);
+        writeFixedLong(Double.doubleToRawLongBits(value));
+        return value;
+    }
+
+    @Override
+    public boolean syncBoolean(int source, boolean value) {
+        ensureCapacity(MAX_RECORD_SIZE);
+        writeByte(JournalFormat.TAG_BOOLEAN);
+        writeVarLong(source);
+        writeByte(value ? 1 : 0);
+        return value;
+    }
+
+    @Override
+    public void syncTask(int layerIndex, Task task) {
+        int classId = getClassId(task.getClass());
+        ensureCapacity(MAX_RECORD_SIZE);
+        writeByte(JournalFormat.TAG_TASK);
+        writeVarLong(layerIndex);
+        writeVarLong(classId);
+        if (task instanceof ValueTask) {
+            ((ValueTask)task).writeValues(valueEncoder);
+        }
+    }
+
+    /**
+     * Writes all remaining records, closes the stream, and stops the writer thread.
+     * Does nothing if already closed.
+     *
+     * @throws UncheckedIOException - the writer thread failed to write part of the journal.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        filledChunks.add(chunk);
+        chunk = null;
+        filledChunks.add(END);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writeError != null) {
+            throw new UncheckedIOException("Failed to write journal.", writeError);
+        }
+    }
+
+    /**
+     * Records the state of a gamepad if it changed since it was last recorded.
+     *
+     * @param index - the index of the gamepad.
+     * @param gamepad - the gamepad.
+     */
+    private void recordGamepad(int index, Gamepad gamepad) {
+        JournalFormat.getAxes(gamepad, axes);
+        int buttons = JournalFormat.getButtons(gamepad);
+        boolean changed = !gamepadRecorded[index] || buttons != lastButtons[index];
+        for (int i = 0; i < axes.length && !changed; ++i) {
+            changed = Float.floatToRawIntBits(axes[i]) != Float.floatToRawIntBits(lastAxes[index][i]);
+        }
+        if (!changed) {
+            return;
+        }
+        gamepadRecorded[index] = true;
+        lastButtons[index] = buttons;
+        System.arraycopy(axes, 0, lastAxes[index], 0, axes.length);
+        ensureCapacity(MAX_RECORD_SIZE);
+        writeByte(JournalFormat.TAG_GAMEPAD);
+        writeByte(index);
+        for (float axis : axes) {
+            writeFixedInt(Float.floatToRawIntBits(axis));
+        }
+        writeVarLong(buttons);
+    }
+
+    /**
+     * Gets the id of a class, defining it in the journal if it has not been used before.
+     *
+     * @param cls - the class.
+     * @return The id of the class.
+     */
+    private int getClassId(Class<?> cls) {
+        Integer id = classIds.get(cls);
+        if (id != null) {
+            return id;
+        }
+        int newId = classIds.size();
+        classIds.put(cls, newId);
+        byte[] name = cls.getName().getBytes(StandardCharsets.UTF_8);
+        ensureCapacity(MAX_RECORD_SIZE + name.length);
+        writeByte(JournalFormat.TAG_CLASS);
+        writeVarLong(newId);
+        writeVarLong(name.length);
+        System.arraycopy(name, 0, chunk.data, chunk.length, name.length);
+        chunk.length += name.length;
+        return newId;
+    }
+
+    /**
+     * Makes sure the current chunk has room for a record, handing it to the writer thread and
+     * starting a new one if not.
+     *
+     * @param size - the maximum size in bytes of the record.
+     */
+    private void ensureCapacity(int size) {
+        if (closed) {
+            throw new IllegalStateException("JournalRecorder already closed.");
+        }
+        if (chunk.length + size <= chunk.data.length) {
+            return;
+        }
+        filledChunks.add(chunk);
+        Chunk free = freeChunks.poll();
+        chunk = free == null ? new Chunk() : free;
+        if (chunk.data.length < size) {
+            chunk.data = new byte[size];
+        }
+    }
+
+    /**
+     * Writes a byte to the current chunk.
+     *
+     * @param b - the byte to write, in the lowest 8 bits.
+     */
+    private void writeByte(int b) {
+        chunk.data[chunk.length++] = (byte)b;
+    }
+
+    /**
+     * Writes a non-negative long to the current chunk as a varint.
+     *
+     * @param value - the value to write, treated as unsigned.
+     */
+    private void writeVarLong(long value) {
+        long remaining = value;
+        while ((remaining & ~(long)(JournalFormat.VARINT_CONTINUE - 1)) != 0) {
+            writeByte((int)(remaining & (JournalFormat.VARINT_CONTINUE - 1))
+                | JournalFormat.VARINT_CONTINUE);
+            remaining >>>= JournalFormat.VARINT_BITS;
+        }
+        writeByte((int)remaining);
+    }
+
+    /**
+     * Writes an int to the current chunk as 4 bytes, little-endian.
+     *
+     * @param value - the value to write.
+     */
+    private void writeFixedInt(int value) {
+        for (int i = 0; i < Integer.BYTES; ++i) {
+            writeByte(value >>> (i * Byte.SIZE));
+        }
+    }
+
+    /**
+     * Writes a long to the current chunk as 8 bytes, little-endian.
+     *
+     * @param value - the value to write.
+     */
+    private void writeFixedLong(long value) {
+        for (int i = 0; i < Long.BYTES; ++i) {
+            writeByte((int)(value >>> (i * Byte.SIZE)));
+        }
+    }
+
+    /**
+     * Writes full chunks to the stream until handed {@link #END}, then closes the stream.
+     */
+    private void writeLoop() {
+        try {
+            while (true) {
+                Chunk next = filledChunks.take();
+                if (next == END) {
+                    break;
+                }
+                if (writeError == null) {
+                    try {
+                        stream.write(next.data, 0, next.length);
+                    } catch (IOException e) {
+                        writeError = e;
+                    }
+                }
+                next.length = 0;
+                freeChunks.add(next);
+            }
+        } catch (InterruptedException e) {
+            // Only close interrupts the thread, so stop
+        } finally {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                if (writeError == null) {
+                    writeError = e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Zigzag encodes a signed int so small magnitudes of either sign encode to small varints.
+     *
+     * @param value - the signed value.
+     * @return The zigzag encoded value.
+     */
+    private static long zigzag(int value) {
+        return ((long)value << 1) ^ ((long)value >> (Long.SIZE - 1));
+    }
+
+    /**
+     * Encodes each value of a ValueTask into the current chunk, making room for it first, since a
+     * task may have more values than fit in {@link #MAX_RECORD_SIZE}.
+     */
+    private final class ValueEncoder implements ValueTask.ValueWriter {
+        /**
+         * Constructs a ValueEncoder.
+         */
+        ValueEncoder() { }
+
+        @Override
+        public void writeDouble(double value) {
+            ensureCapacity(Long.BYTES);
+            writeFixedLong(Double.doubleToRawLongBits(value));
+        }
+
+        @Override
+        public void writeInt(int value) {
+            ensureCapacity(MAX_VARLONG_SIZE);
+            writeVarLong(zigzag(value));
+        }
+    }
+
+    /**
+     * A buffer of encoded records.
+     */
+    private static final class Chunk {
+        /**
+         * The encoded records.
+         */
+        private byte[] data;
+
+        /**
+         * The number of bytes of {@link #data} that hold records.
+         */
+        private int length;
+
+        /**
+         * Constructs an empty Chunk.
+         */
+        Chunk() {
+            data = new byte[CHUNK_SIZE];
+            length = 0;
+        }
+    }
+}
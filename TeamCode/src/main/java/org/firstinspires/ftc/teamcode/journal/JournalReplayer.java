@@ -0,0 +1,599 @@
+package org.firstinspires.ftc.teamcode.journal;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.qualcomm.robotcore.hardware.Gamepad;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+
+import org.firstinspires.ftc.teamcode.LayerGraph;
+import org.firstinspires.ftc.teamcode.RobotController;
+import org.firstinspires.ftc.teamcode.layer.Layer;
+import org.firstinspires.ftc.teamcode.localization.RobotLocalizer;
+import org.firstinspires.ftc.teamcode.logging.LoggerProvider;
+import org.firstinspires.ftc.teamcode.task.Task;
+import org.firstinspires.ftc.teamcode.task.ValueTask;
+
+/**
+ * Replays a journal written by {@link JournalRecorder}.
+ * Every tick time, gamepad state, and sensor read is taken from the journal instead of the live
+ * value, so a layer stack set up the same way as the recorded one makes exactly the same decisions.
+ * Every task a layer accepts is checked against the recording, and the first difference throws an
+ * IllegalStateException naming the tick, which makes the replayer usable to bisect regressions
+ * against recordings of real matches. The values of each {@link ValueTask} are checked too, but
+ * only the class of any other task is recorded, so one with the right class but different
+ * parameters is not caught until the behavior it causes changes a later sensor read or task.
+ * Devices are still read when replaying, but their values are discarded, so any HardwareMap
+ * providing devices of the recorded names and types will do.
+ *
+ * <p>The Benchmarks module's replayJournal task replays a journal on the layers of one of this
+ * project's opmodes from a desktop JVM.
+ */
+public final class JournalReplayer implements TickJournal {
+    /**
+     * Returned by {@link #readTag} at the end of the journal.
+     */
+    private static final int END_OF_JOURNAL = -1;
+
+    /**
+     * The mask of the bits of a byte.
+     */
+    private static final int BYTE_MASK = 0xFF;
+
+    /**
+     * The stream the journal is read from.
+     */
+    private final InputStream stream;
+
+    /**
+     * The names of each class defined in the journal so far, indexed by class id.
+     */
+    private final List<String> classNames;
+
+    /**
+     * The names of the classes of the recorded layers, from lowest to highest.
+     */
+    private final List<String> layerClassNames;
+
+    /**
+     * Whether the recorded stack had a first gamepad.
+     */
+    private final boolean hasGamepad0;
+
+    /**
+     * Whether the recorded stack had a second gamepad.
+     */
+    private final boolean hasGamepad1;
+
+    /**
+     * Scratch space for the axes of the gamepad being replayed.
+     */
+    private final float[] axes;
+
+    /**
+     * Checks the values of ValueTasks against the recorded ones.
+     */
+    private final ValueChecker valueChecker;
+
+    /**
+     * The tag of the next record, already read from the stream, or {@link #END_OF_JOURNAL}.
+     */
+    private int nextTag;
+
+    /**
+     * The time in nanoseconds of the last replayed tick.
+     */
+    private long lastTickTime;
+
+    /**
+     * The number of ticks replayed so far.
+     */
+    private long tick;
+
+    /**
+     * Constructs a JournalReplayer and reads the journal's header and setup record.
+     *
+     * @param stream - the stream to read the journal from. Closed when the replayer is closed.
+     * @throws IOException - the stream could not be read or does not contain a journal.
+     */
+    public JournalReplayer(InputStream stream) throws IOException {
+        this.stream = new BufferedInputStream(stream);
+        classNames = new ArrayList<>();
+        layerClassNames = new ArrayList<>();
+        axes = new float[JournalFormat.GAMEPAD_AXES];
+        valueChecker = new ValueChecker();
+        lastTickTime = 0;
+        tick = 0;
+        for (byte b : JournalFormat.MAGIC) {
+            if (readByte() != b) {
+                throw new IOException("Stream does not contain a tick journal.");
+            }
+        }
+        int version = readByte();
+        if (version != JournalFormat.VERSION) {
+            throw new IOException("Unsupported tick journal version " + version + ".");
+        }
+        advance();
+        if (nextTag != JournalFormat.TAG_SETUP) {
+            throw new IOException("Tick journal does not start with a setup record.");
+        }
+        int layerCount = (int)readVarLong();
+        for (int i = 0; i < layerCount; ++i) {
+            layerClassNames.add(getClassName((int)readVarLong()));
+        }
+        int gamepads = readByte();
+        hasGamepad0 = (gamepads & 1) != 0;
+        hasGamepad1 = (gamepads & 2) != 0;
+        advance();
+    }
+
+    /**
+     * Replays the whole journal on a layer stack.
+     * Sets up a new RobotController with the layers, giving them gamepads that are only written by
+     * the journal, then updates it once for every recorded tick.
+     *
+     * @param hardwareMap - the HardwareMap to give the layers.
+     * @param robotLocalizer - the RobotLocalizer to give the layers. Localizers are not journaled,
+     * so layers depending on one only replay exactly if it behaves as it did when recording.
+     * @param layerStack - the layers to replay the journal on, constructed the same way as the
+     * recorded ones.
+     * @param loggerProvider - the LoggerProvider to give the controller and layers.
+     * @return The number of ticks replayed.
+     * @throws IllegalStateException - the layer stack diverged from the recording.
+     */
+    public long run(
+        HardwareMap hardwareMap,
+        RobotLocalizer robotLocalizer,
+        List<Layer> layerStack,
+        LoggerProvider loggerProvider
+    ) {
+        RobotController controller = new RobotController();
+        controller.setJournal(this);
+        controller.setup(
+            hardwareMap,
+            robotLocalizer,
+            layerStack,
+            hasGamepad0 ? new Gamepad() : null,
+            hasGamepad1 ? new Gamepad() : null,
+            loggerProvider
+        );
+        return replay(controller);
+    }
+
+    /**
+     * Replays the whole journal on a layer graph.
+     * Sets up a new RobotController with the graph, giving its layers gamepads that are only written
+     * by the journal, then updates it once for every recorded tick.
+     *
+     * @param hardwareMap - the HardwareMap to give the layers.
+     * @param robotLocalizer - the RobotLocalizer to give the layers. Localizers are not journaled,
+     * so layers depending on one only replay exactly if it behaves as it did when recording.
+     * @param layerGraph - the layer graph to replay the journal on, constructed the same way as the
+     * recorded one.
+     * @param loggerProvider - the LoggerProvider to give the controller and layers.
+     * @return The number of ticks replayed.
+     * @throws IllegalStateException - the layer graph diverged from the recording.
+     */
+    public long run(
+        HardwareMap hardwareMap,
+        RobotLocalizer robotLocalizer,
+        LayerGraph layerGraph,
+        LoggerProvider loggerProvider
+    ) {
+        RobotController controller = new RobotController();
+        controller.setJournal(this);
+        controller.setup(
+            hardwareMap,
+            robotLocalizer,
+            layerGraph,
+            hasGamepad0 ? new Gamepad() : null,
+            hasGamepad1 ? new Gamepad() : null,
+            loggerProvider
+        );
+        return replay(controller);
+    }
+
+    /**
+     * Returns whether the journal has more ticks to replay.
+     *
+     * @return Whether the next record starts a tick.
+     */
+    public boolean hasNextTick() {
+        return nextTag == JournalFormat.TAG_TICK;
+    }
+
+    @Override
+    public void syncSetup(List<Layer> layerStack, Gamepad gamepad0, Gamepad gamepad1) {
+        List<String> names = new ArrayList<>();
+        for (Layer layer : layerStack) {
+            names.add(layer.getClass().getName());
+        }
+        if (!names.equals(layerClassNames)) {
+            throw new IllegalStateException("Layer stack " + names
+                + " does not match recorded stack " + layerClassNames + ".");
+        }
+        if ((gamepad0 != null) != hasGamepad0 || (gamepad1 != null) != hasGamepad1) {
+            throw new IllegalStateException("Connected gamepads do not match recording.");
+        }
+    }
+
+    @Override
+    public long syncTime(long nanoTime) {
+        expect(JournalFormat.TAG_TICK, "tick start");
+        ++tick;
+        lastTickTime += readVarLongUnchecked();
+        advance();
+        return lastTickTime;
+    }
+
+    @Override
+    public void syncGamepads(Gamepad gamepad0, Gamepad gamepad1) {
+        while (nextTag == JournalFormat.TAG_GAMEPAD) {
+            int index = readByteUnchecked();
+            Gamepad gamepad = index == 0 ? gamepad0 : gamepad1;
+            for (int i = 0; i < axes.length; ++i) {
+                axes[i] = Float.intBitsToFloat(readFixedInt());
+            }
+            int buttons = (int)readVarLongUnchecked();
+            if (gamepad == null) {
+                throw diverged("state recorded for gamepad " + index + ", which is absent");
+            }
+            JournalFormat.setAxes(gamepad, axes);
+            JournalFormat.setButtons(gamepad, buttons);
+            advance();
+        }
+    }
+
+    @Override
+    public int syncInt(int source, int value) {
+        expectSource(JournalFormat.TAG_INT, "integer read", source);
+        int recorded = readSignedInt();
+        advance();
+        return recorded;
+    }
+
+    @Override
+    public double syncDouble(int source, double value) {
+        expectSource(JournalFormat.TAG_DOUBLE, "real read", source);
+        double recorded = Double.longBitsToDouble(readFixedLong());
+        advance();
+        return recorded;
+    }
+
+    @Override
+    public boolean syncBoolean(int source, boolean value) {
+        expectSource(JournalFormat.TAG_BOOLEAN, "boolean read", source);
+        boolean recorded = readByteUnchecked() != 0;
+        advance();
+        return recorded;
+    }
+
+    @Override
+    public void syncTask(int layerIndex, Task task) {
+        expect(JournalFormat.TAG_TASK, "task " + task.getClass().getSimpleName());
+        int recordedLayer = (int)readVarLongUnchecked();
+        String recordedClass = getClassName((int)readVarLongUnchecked());
+        if (recordedLayer != layerIndex || !recordedClass.equals(task.getClass().getName())) {
+            throw diverged(String.format(
+                "layer %d accepted %s, but layer %d accepted %s in the recording",
+                layerIndex,
+                task.getClass().getName(),
+                recordedLayer,
+                recordedClass
+            ));
+        }
+        if (task instanceof ValueTask) {
+            valueChecker.check(layerIndex, (ValueTask)task);
+        }
+        advance();
+    }
+
+    @Override
+    public void close() throws IOException {
+        stream.close();
+    }
+
+    /**
+     * Updates a controller set up with this journal once for every recorded tick.
+     *
+     * @param controller - the controller to update.
+     * @return The number of ticks replayed.
+     * @throws IllegalStateException - the layers diverged from the recording.
+     */
+    private long replay(RobotController controller) {
+        while (hasNextTick()) {
+            if (controller.update()) {
+                break;
+            }
+        }
+        return tick;
+    }
+
+    /**
+     * Checks that the next record has the given tag.
+     *
+     * @param tag - the expected tag.
+     * @param description - a description of the expected record for the divergence message.
+     * @throws IllegalStateException - the next record has a different tag.
+     */
+    private void expect(int tag, String description) {
+        if (nextTag != tag) {
+            throw diverged("expected " + describeNextRecord() + " but got " + description);
+        }
+    }
+
+    /**
+     * Checks that the next record is a sensor read with the given tag and source.
+     *
+     * @param tag - the expected tag.
+     * @param description - a description of the expected record for the divergence message.
+     * @param source - the expected source.
+     * @throws IllegalStateException - the next record has a different tag or source.
+     */
+    private void expectSource(int tag, String description, int source) {
+        expect(tag, description + " from source " + source);
+        int recordedSource = (int)readVarLongUnchecked();
+        if (recordedSource != source) {
+            throw diverged("expected " + description + " from source " + recordedSource
+                + " but got one from source " + source);
+        }
+    }
+
+    /**
+     * Describes the kind of the next record for a divergence message.
+     *
+     * @return A description of the next record.
+     */
+    private String describeNextRecord() {
+        switch (nextTag) {
+            case END_OF_JOURNAL:
+                return "end of journal";
+            case JournalFormat.TAG_TICK:
+                return "tick start";
+            case JournalFormat.TAG_GAMEPAD:
+                return "gamepad state";
+            case JournalFormat.TAG_INT:
+                return "integer read";
+            case JournalFormat.TAG_DOUBLE:
+                return "real read";
+            case JournalFormat.TAG_BOOLEAN:
+                return "boolean read";
+            case JournalFormat.TAG_TASK:
+                return "task";
+            default:
+                return "record with tag " + nextTag;
+        }
+    }
+
+    /**
+     * Creates the exception thrown when the replayed stack diverges from the recording.
+     *
+     * @param message - a description of the divergence.
+     * @return The exception to throw.
+     */
+    private IllegalStateException diverged(String message) {
+        return new IllegalStateException("Replay diverged at tick " + tick + ": " + message + ".");
+    }
+
+    /**
+     * Gets the name of a class defined in the journal.
+     *
+     * @param classId - the id of the class.
+     * @return The fully qualified name of the class.
+     * @throws IllegalStateException - the class has not been defined.
+     */
+    private String getClassName(int classId) {
+        if (classId < 0 || classId >= classNames.size()) {
+            throw new IllegalStateException("Tick journal uses undefined class id " + classId + ".");
+        }
+        return classNames.get(classId);
+    }
+
+    /**
+     * Reads the tag of the next record into {@link #nextTag}, reading any class definitions in the
+     * way.
+     */
+    private void advance() {
+        try {
+            nextTag = readTag();
+            while (nextTag == JournalFormat.TAG_CLASS) {
+                int classId = (int)readVarLong();
+                byte[] name = new byte[(int)readVarLong()];
+                for (int i = 0; i < name.length; ++i) {
+                    name[i] = (byte)readByte();
+                }
+                if (classId != classNames.size()) {
+                    throw new IOException("Tick journal defines class id " + classId
+                        + " out of order.");
+                }
+                classNames.add(new String(name, StandardCharsets.UTF_8));
+                nextTag = readTag();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read tick journal.", e);
+        }
+    }
+
+    /**
+     * Reads the tag of a record.
+     *
+     * @return The tag, or {@link #END_OF_JOURNAL} if the journal has ended.
+     * @throws IOException - the stream could not be read.
+     */
+    private int readTag() throws IOException {
+        return stream.read();
+    }
+
+    /**
+     * Reads a byte that must be present.
+     *
+     * @return The byte, in the range [0, 255].
+     * @throws IOException - the stream could not be read or ended.
+     */
+    private int readByte() throws IOException {
+        int b = stream.read();
+        if (b < 0) {
+            throw new EOFException("Tick journal ended in the middle of a record.");
+        }
+        return b & BYTE_MASK;
+    }
+
+    /**
+     * Reads a varint.
+     *
+     * @return The value, treated as unsigned.
+     * @throws IOException - the stream could not be read or ended.
+     */
+    private long readVarLong() throws IOException {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = readByte();
+            value |= (long)(b & (JournalFormat.VARINT_CONTINUE - 1)) << shift;
+            shift += JournalFormat.VARINT_BITS;
+        } while ((b & JournalFormat.VARINT_CONTINUE) != 0);
+        return value;
+    }
+
+    /**
+     * Reads a byte that must be present, wrapping any IOException.
+     *
+     * @return The byte, in the range [0, 255].
+     */
+    private int readByteUnchecked() {
+        try {
+            return readByte();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read tick journal.", e);
+        }
+    }
+
+    /**
+     * Reads a varint, wrapping any IOException.
+     *
+     * @return The value, treated as unsigned.
+     */
+    private long readVarLongUnchecked() {
+        try {
+            return readVarLong();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read tick journal.", e);
+        }
+    }
+
+    /**
+     * Reads a signed int written as a zigzag encoded varint.
+     *
+     * @return The value.
+     */
+    private int readSignedInt() {
+        long zigzag = readVarLongUnchecked();
+        return (int)((zigzag >>> 1) ^ -(zigzag & 1));
+    }
+
+    /**
+     * Reads an int written as 4 bytes, little-endian.
+     *
+     * @return The value.
+     */
+    private int readFixedInt() {
+        int value = 0;
+        for (int i = 0; i < Integer.BYTES; ++i) {
+            value |= readByteUnchecked() << (i * Byte.SIZE);
+        }
+        return value;
+    }
+
+    /**
+     * Reads a long written as 8 bytes, little-endian.
+     *
+     * @return The value.
+     */
+    private long readFixedLong() {
+        long value = Integer.toUnsignedLong(readFixedInt());
+        return value | (long)readFixedInt() << Integer.SIZE;
+    }
+
+    /**
+     * Compares each value a ValueTask writes with the next recorded one.
+     */
+    private final class ValueChecker implements ValueTask.ValueWriter {
+        /**
+         * The index in the stack of the layer accepting the task being checked.
+         */
+        private int layerIndex;
+
+        /**
+         * The task being checked.
+         */
+        private ValueTask task;
+
+        /**
+         * The index of the next value the task writes.
+         */
+        private int valueIndex;
+
+        /**
+         * Constructs a ValueChecker.
+         */
+        ValueChecker() { }
+
+        /**
+         * Checks the values of a task against the recording.
+         *
+         * @param newLayerIndex - the index in the stack of the layer accepting the task.
+         * @param newTask - the task.
+         * @throws IllegalStateException - a value differs from the recording.
+         */
+        void check(int newLayerIndex, ValueTask newTask) {
+            layerIndex = newLayerIndex;
+            task = newTask;
+            valueIndex = 0;
+            task.writeValues(this);
+            task = null;
+        }
+
+        @Override
+        public void writeDouble(double value) {
+            long recorded = readFixedLong();
+            if (recorded != Double.doubleToRawLongBits(value)) {
+                throw differs(value, Double.longBitsToDouble(recorded));
+            }
+            ++valueIndex;
+        }
+
+        @Override
+        public void writeInt(int value) {
+            int recorded = readSignedInt();
+            if (recorded != value) {
+                throw differs(value, recorded);
+            }
+            ++valueIndex;
+        }
+
+        /**
+         * Creates the exception thrown when a value differs from the recording.
+         *
+         * @param value - the value the task wrote.
+         * @param recorded - the recorded value.
+         * @return The exception to throw.
+         */
+        private IllegalStateException differs(Object value, Object recorded) {
+            return diverged(String.format(
+                "layer %d accepted %s with value %d %s, but it was %s in the recording",
+                layerIndex,
+                task.getClass().getName(),
+                valueIndex,
+                value,
+                recorded
+            ));
+        }
+    }
+}
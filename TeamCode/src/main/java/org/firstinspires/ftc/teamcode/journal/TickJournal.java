@@ -0,0 +1,82 @@
+package org.firstinspires.ftc.teamcode.journal;
+
+import java.io.Closeable;
+import java.util.List;
+
+import com.qualcomm.robotcore.hardware.Gamepad;
+
+import org.firstinspires.ftc.teamcode.layer.Layer;
+import org.firstinspires.ftc.teamcode.task.Task;
+
+/**
+ * Passes every input to and task within a layer stack through a journal.
+ * Each method is called by the {@link org.firstinspires.ftc.teamcode.RobotController} or
+ * {@link org.firstinspires.ftc.teamcode.hardware.HardwareSnapshot} at the point the value enters
+ * the stack. A recording journal stores the live value and returns it unchanged; a replaying
+ * journal returns the value stored at the same point of the recording instead, and throws an
+ * IllegalStateException if the stack does something the recording did not.
+ */
+public interface TickJournal extends Closeable {
+    /**
+     * Passes the layer stack being set up through the journal.
+     *
+     * @param layerStack - the layers being set up, from lowest to highest.
+     * @param gamepad0 - the first gamepad given to the layers, or null if there is none.
+     * @param gamepad1 - the second gamepad given to the layers, or null if there is none.
+     */
+    void syncSetup(List<Layer> layerStack, Gamepad gamepad0, Gamepad gamepad1);
+
+    /**
+     * Passes the start time of a tick through the journal.
+     *
+     * @param nanoTime - the live time in nanoseconds.
+     * @return The time in nanoseconds layers should see for the tick.
+     */
+    long syncTime(long nanoTime);
+
+    /**
+     * Passes the state of the gamepads at the start of a tick through the journal.
+     * When replaying, the recorded state is copied into the given gamepads.
+     *
+     * @param gamepad0 - the first gamepad, or null if there is none.
+     * @param gamepad1 - the second gamepad, or null if there is none.
+     */
+    void syncGamepads(Gamepad gamepad0, Gamepad gamepad1);
+
+    /**
+     * Passes an integer sensor read through the journal.
+     *
+     * @param source - the number identifying the sensor, assigned in order of creation.
+     * @param value - the live value.
+     * @return The value layers should see.
+     */
+    int syncInt(int source, int value);
+
+    /**
+     * Passes a real sensor read through the journal.
+     *
+     * @param source - the number identifying the sensor, assigned in order of creation.
+     * @param value - the live value.
+     * @return The value layers should see.
+     */
+    double syncDouble(int source, double value);
+
+    /**
+     * Passes a boolean sensor read through the journal.
+     *
+     * @param source - the number identifying the sensor, assigned in order of creation.
+     * @param value - the live value.
+     * @return The value layers should see.
+     */
+    boolean syncBoolean(int source, boolean value);
+
+    /**
+     * Passes a task handed from one layer to the layer below it through the journal.
+     * The task's class is journaled, and so are its values if it is a ValueTask. The contents of
+     * other tasks are not journaled.
+     *
+     * @param layerIndex - the index in the stack of the layer accepting the task.
+     * @param task - the task.
+     */
+    void syncTask(int layerIndex, Task task);
+}
@@ -0,0 +1,10 @@
+/**
+ * Recording and replay of everything that crosses layer boundaries.
+ * A {@link org.firstinspires.ftc.teamcode.journal.JournalRecorder} attached to a
+ * {@link org.firstinspires.ftc.teamcode.RobotController} writes a compact binary journal of each
+ * tick's timestamp, gamepad state, sensor reads, and tasks handed between layers. A
+ * {@link org.firstinspires.ftc.teamcode.journal.JournalReplayer} feeds a journal back into the same
+ * layer stack as fast as the CPU allows, so a match's control flow can be reproduced and profiled
+ * away from the robot.
+ */
+package org.firstinspires.ftc.teamcode.journal;
@@ -4,10 +4,17 @@ import java.util.Collections;
 import java.util.Iterator;
 
 import org.firstinspires.ftc.teamcode.task.Task;
+import org.firstinspires.ftc.teamcode.task.ValueTask;
 
 /**
  * Convenience base class for all layers that map each accepted task to only one subtask.
  * Similar to {@link AbstractQueuedLayer}, but only generates one task instead of a queue.
+ *
+ * <p>Since the mapping only depends on the accepted task, subclasses may opt into memoization with
+ * {@link #setMemoized}. A memoized layer skips {@link #map} when it accepts a {@link ValueTask}
+ * equal to the last one it mapped, and emits nothing when a mapped subtask is a ValueTask equal to
+ * the last one it emitted. Lower layers, such as drive layers holding their motor powers, then skip
+ * recomputing and rewriting the same outputs every tick while input stays the same.
  */
 public abstract class AbstractFunctionLayer implements Layer {
     /**
@@ -20,12 +27,32 @@ public abstract class AbstractFunctionLayer implements Layer {
      */
     private Task subtask;
 
+    /**
+     * Whether mapping is skipped for accepted tasks equal to the last mapped task.
+     */
+    private boolean memoized;
+
+    /**
+     * A copy of the last mapped task, or null if it was not a {@link ValueTask} or memoization is
+     * disabled.
+     */
+    private ValueTask lastInput;
+
+    /**
+     * A copy of the last subtask generated by {@link #map}, or null if it was not a
+     * {@link ValueTask} or memoization is disabled.
+     */
+    private ValueTask lastOutput;
+
     /**
      * Constructs a AbstractFunctionLayer.
      */
     protected AbstractFunctionLayer() {
         emittedSubtask = true;
         subtask = null;
+        memoized = false;
+        lastInput = null;
+        lastOutput = null;
     }
 
     @Override
@@ -35,22 +62,28 @@ public abstract class AbstractFunctionLayer implements Layer {
 
     @Override
     public final Iterator<Task> update(Iterable<Task> completed) {
-        if (emittedSubtask) {
-            throw new IllegalStateException(
-                String.format(
-                    "FunctionLayer '%s' updated without new subtask.",
-                    getClass().getSimpleName()
-                )
-            );
+        if (memoized && emittedSubtask) {
+            return Collections.emptyIterator();
         }
-        emittedSubtask = true;
-        return Collections.singleton(subtask).iterator();
+        return Collections.singleton(takeSubtask()).iterator();
+    }
+
+    @Override
+    public final void update(Iterable<Task> completed, TaskSink sink) {
+        if (memoized && emittedSubtask) {
+            return;
+        }
+        sink.accept(takeSubtask());
     }
 
     @Override
     public final void acceptTask(Task task) {
-        subtask = map(task);
-        if (subtask == null) {
+        if (memoized && lastInput != null && lastInput.equals(task)) {
+            // Same input, same subtask, which has already been emitted or is still waiting to be
+            return;
+        }
+        Task mapped = map(task);
+        if (mapped == null) {
             throw new NullPointerException(
                 String.format(
                     "FunctionLayer '%s' returned null from mapping function.",
@@ -58,7 +91,30 @@ public abstract class AbstractFunctionLayer implements Layer {
                 )
             );
         }
-        emittedSubtask = false;
+        subtask = mapped;
+        if (!memoized) {
+            emittedSubtask = false;
+            return;
+        }
+        lastInput = remember(lastInput, task);
+        if (lastOutput == null || !lastOutput.equals(mapped)) {
+            lastOutput = remember(lastOutput, mapped);
+            emittedSubtask = false;
+        }
+    }
+
+    /**
+     * Sets whether mapping is skipped for accepted tasks equal to the last mapped task, and
+     * subtasks equal to the last emitted subtask are not emitted again.
+     * Disabled by default. Only safe for layers whose mapping depends on nothing but the accepted
+     * task, and whose lower layers keep processing a subtask until they accept a different one.
+     *
+     * @param enable - whether to enable memoization.
+     */
+    protected void setMemoized(boolean enable) {
+        memoized = enable;
+        lastInput = null;
+        lastOutput = null;
     }
 
     /**
@@ -68,4 +124,41 @@ public abstract class AbstractFunctionLayer implements Layer {
      * @return The subtask generated from the accepted task.
      */
     protected abstract Task map(Task task);
+
+    /**
+     * Marks the subtask generated from the last accepted task as emitted.
+     *
+     * @return The subtask to emit.
+     */
+    private Task takeSubtask() {
+        if (emittedSubtask) {
+            throw new IllegalStateException(
+                String.format(
+                    "FunctionLayer '%s' updated without new subtask.",
+                    getClass().getSimpleName()
+                )
+            );
+        }
+        emittedSubtask = true;
+        return subtask;
+    }
+
+    /**
+     * Copies a task so that it can be compared against later even if the original is reused.
+     *
+     * @param memo - the previous copy, which is overwritten if it has a compatible shape, or null.
+     * @param task - the task to copy.
+     * @return The copy, or null if the task is not a {@link ValueTask}.
+     */
+    private static ValueTask remember(ValueTask memo, Task task) {
+        if (!(task instanceof ValueTask)) {
+            return null;
+        }
+        ValueTask valueTask = (ValueTask)task;
+        if (memo == null || !memo.canCopyFrom(valueTask)) {
+            return valueTask.copy();
+        }
+        memo.copyFrom(valueTask);
+        return memo;
+    }
 }
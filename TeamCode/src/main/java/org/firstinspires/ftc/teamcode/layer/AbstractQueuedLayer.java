@@ -9,18 +9,36 @@ import org.firstinspires.ftc.teamcode.task.Task;
 /**
  * A convenience base class for layers that can compute queues of subtasks ahead of time and require
  * no additional processing in their update method.
+ *
+ * <p>Since the whole queue is known in advance, subclasses may opt into lookahead with
+ * {@link #setLookahead}, after which every emitted subtask is followed by a preview of the ones
+ * queued after it. Lower layers that support blending, such as drive layers, can then start the
+ * next subtask as soon as the current one is done instead of stopping to wait for it.
  */
 public abstract class AbstractQueuedLayer implements Layer {
     /**
-     * An iterator over the subtasks for the current accepted task.
+     * The subtasks for the current accepted task.
      */
-    private Iterator<Task> subtaskIter;
+    private List<Task> subtasks;
+
+    /**
+     * The index in {@link #subtasks} of the next subtask to emit.
+     */
+    private int nextSubtask;
+
+    /**
+     * The number of queued subtasks to preview after emitting each subtask, or 0 if lookahead is
+     * disabled.
+     */
+    private int lookahead;
 
     /**
      * Constructs a AbstractQueuedLayer.
      */
     protected AbstractQueuedLayer() {
-        subtaskIter = null;
+        subtasks = null;
+        nextSubtask = 0;
+        lookahead = 0;
     }
 
     @Override
@@ -28,20 +46,45 @@ public abstract class AbstractQueuedLayer implements Layer {
 
     @Override
     public final boolean isTaskDone() {
-        return subtaskIter == null || !subtaskIter.hasNext();
+        return subtasks == null || nextSubtask >= subtasks.size();
     }
 
     @Override
     public final Iterator<Task> update(Iterable<Task> completed) {
-        return Collections.singleton(subtaskIter.next()).iterator();
+        return Collections.singleton(subtasks.get(nextSubtask++)).iterator();
+    }
+
+    @Override
+    public final void update(Iterable<Task> completed, TaskSink sink) {
+        sink.accept(subtasks.get(nextSubtask++));
+        if (lookahead > 0 && nextSubtask < subtasks.size()) {
+            sink.preview(
+                subtasks.subList(nextSubtask, Math.min(nextSubtask + lookahead, subtasks.size()))
+            );
+        }
     }
 
     /**
      * Sets the current list of subtasks to delegate.
      *
-     * @param subtasks - the list of subtasks.
+     * @param subtasks - the list of subtasks. Must not be modified until all have been emitted.
      */
     protected void setSubtasks(List<Task> subtasks) {
-        subtaskIter = subtasks.iterator();
+        this.subtasks = subtasks;
+        nextSubtask = 0;
+    }
+
+    /**
+     * Sets how many queued subtasks lower layers are shown after each emitted subtask.
+     * Disabled by default.
+     *
+     * @param count - the number of upcoming subtasks to preview, or 0 to disable lookahead.
+     * @see Layer#previewTasks
+     */
+    protected void setLookahead(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Lookahead must be non-negative.");
+        }
+        lookahead = count;
     }
 }
@@ -0,0 +1,245 @@
+package org.firstinspires.ftc.teamcode.layer;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+
+import org.firstinspires.ftc.teamcode.task.Task;
+
+/**
+ * A convenience base class for layers that compute their subtasks ahead of time like
+ * {@link AbstractQueuedLayer}, but let independent subtasks run at the same time.
+ * Subtasks are scheduled as actions, each of which may occupy a resource, such as a mechanism
+ * driven by one component layer of a {@link MultiplexLayer} below, and may depend on earlier
+ * actions. An action is dispatched to the layer below as soon as the actions it depends on have
+ * completed and every earlier action occupying its resource has completed, so actions on the same
+ * resource run in the order they were scheduled while actions on different resources overlap.
+ *
+ * <p>Completion is polled through {@link TaskSink#isTaskDone(Task)}, so the layer below must be able
+ * to tell which of several accepted tasks are still running, as MultiplexLayer can. The layer is
+ * done once every scheduled action has completed, so the layers above it, and the controller
+ * tearing down a finished stack, wait for mechanisms to finish their last actions. Completion is
+ * only noticed when the layer is updated, so it reports done on the tick after its last action
+ * completes. The layer can only be updated through a TaskSink.
+ *
+ * <p>Like {@link AbstractQueuedLayer}, subclasses may opt into lookahead with {@link #setLookahead},
+ * after which every dispatched action is followed by a preview of the pending actions scheduled
+ * after it on the same resource. An action is only previewed if nothing but the actions before it
+ * on that resource stands in its way, since a lower layer that blends may start it as soon as the
+ * dispatched action is done.
+ */
+public abstract class AbstractScheduledLayer implements Layer {
+    /**
+     * The scheduled actions that have not completed yet, in the order they were scheduled.
+     */
+    private final ArrayList<Action> actions;
+
+    /**
+     * Scratch space for the tasks previewed after dispatching an action.
+     */
+    private final ArrayList<Task> upcoming;
+
+    /**
+     * The number of pending actions on the same resource to preview after dispatching each action,
+     * or 0 if lookahead is disabled.
+     */
+    private int lookahead;
+
+    /**
+     * Constructs an AbstractScheduledLayer.
+     */
+    protected AbstractScheduledLayer() {
+        actions = new ArrayList<>();
+        upcoming = new ArrayList<>();
+        lookahead = 0;
+    }
+
+    @Override
+    public void setup(LayerSetupInfo setupInfo) { }
+
+    @Override
+    public final boolean isTaskDone() {
+        // Completed actions are removed by update, so any left are pending or running
+        return actions.isEmpty();
+    }
+
+    @Override
+    public final Iterator<Task> update(Iterable<Task> completed) {
+        throw new UnsupportedOperationException(
+            getClass().getSimpleName() + " must be updated through a TaskSink."
+        );
+    }
+
+    @Override
+    public final void update(Iterable<Task> completed, TaskSink sink) {
+        int remaining = 0;
+        for (int i = 0; i < actions.size(); ++i) {
+            Action action = actions.get(i);
+            if (action.state == ActionState.RUNNING && sink.isTaskDone(action.task)) {
+                action.state = ActionState.DONE;
+            }
+            // Completed actions are only needed by the handles of actions depending on them
+            if (action.state != ActionState.DONE) {
+                actions.set(remaining++, action);
+            }
+        }
+        while (actions.size() > remaining) {
+            actions.remove(actions.size() - 1);
+        }
+        for (int i = 0; i < actions.size() && sink.canAccept(); ++i) {
+            Action action = actions.get(i);
+            if (action.state == ActionState.PENDING && isReady(i)) {
+                sink.accept(action.task);
+                action.state = ActionState.RUNNING;
+                preview(i, sink);
+            }
+        }
+    }
+
+    /**
+     * Schedules a subtask to be dispatched once its dependencies and resource allow.
+     *
+     * @param task - the subtask.
+     * @param resource - the resource the subtask occupies until it completes, compared with
+     * {@link Object#equals}, or null if it occupies none. An enum of mechanisms works well.
+     * @param dependencies - earlier actions that must complete before the subtask is dispatched.
+     * @return A handle for later actions to depend on.
+     */
+    protected final Action schedule(Task task, Object resource, Action... dependencies) {
+        Action action = new Action(task, resource, dependencies);
+        actions.add(action);
+        return action;
+    }
+
+    /**
+     * Sets how many pending actions on the same resource lower layers are shown after each
+     * dispatched action.
+     * Disabled by default.
+     *
+     * @param count - the number of upcoming actions to preview, or 0 to disable lookahead.
+     * @see Layer#previewTasks
+     */
+    protected final void setLookahead(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Lookahead must be non-negative.");
+        }
+        lookahead = count;
+    }
+
+    /**
+     * Previews the pending actions that will occupy a just-dispatched action's resource after it.
+     * Stops at the first one with a dependency on another resource that has not completed yet,
+     * since a lower layer that blends could otherwise start it before that dependency completes.
+     *
+     * @param index - the index in {@link #actions} of the dispatched action.
+     * @param sink - the sink to preview the upcoming tasks through.
+     */
+    private void preview(int index, TaskSink sink) {
+        Object resource = actions.get(index).resource;
+        if (lookahead == 0 || resource == null) {
+            return;
+        }
+        upcoming.clear();
+        for (int i = index + 1; i < actions.size() && upcoming.size() < lookahead; ++i) {
+            Action action = actions.get(i);
+            if (!resource.equals(action.resource)) {
+                continue;
+            }
+            boolean unblocked = true;
+            for (Action dependency : action.dependencies) {
+                // Actions on the same resource complete before this one starts anyway
+                unblocked &= dependency.state == ActionState.DONE
+                    || resource.equals(dependency.resource);
+            }
+            if (!unblocked) {
+                break;
+            }
+            upcoming.add(action.task);
+        }
+        if (!upcoming.isEmpty()) {
+            sink.preview(upcoming);
+        }
+    }
+
+    /**
+     * Returns whether a pending action may be dispatched.
+     *
+     * @param index - the index of the action in {@link #actions}.
+     * @return Whether the action's dependencies have completed and no earlier action occupying its
+     * resource is still pending or running.
+     */
+    private boolean isReady(int index) {
+        Action action = actions.get(index);
+        for (Action dependency : action.dependencies) {
+            if (dependency.state != ActionState.DONE) {
+                return false;
+            }
+        }
+        if (action.resource == null) {
+            return true;
+        }
+        // Every action before this one is pending or running, since completed ones were removed
+        for (int i = 0; i < index; ++i) {
+            if (action.resource.equals(actions.get(i).resource)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The progress of a scheduled action.
+     */
+    private enum ActionState {
+        /**
+         * The action has not been dispatched yet.
+         */
+        PENDING,
+        /**
+         * The action has been dispatched and the layer below is still processing it.
+         */
+        RUNNING,
+        /**
+         * The layer below has finished processing the action.
+         */
+        DONE
+    }
+
+    /**
+     * A handle to a scheduled subtask, used to declare dependencies on it.
+     */
+    public static final class Action {
+        /**
+         * The subtask.
+         */
+        private final Task task;
+
+        /**
+         * The resource the subtask occupies, or null if it occupies none.
+         */
+        private final Object resource;
+
+        /**
+         * The actions that must complete before the subtask is dispatched.
+         */
+        private final Action[] dependencies;
+
+        /**
+         * The progress of the action.
+         */
+        private ActionState state;
+
+        /**
+         * Constructs a pending Action.
+         *
+         * @param task - the subtask.
+         * @param resource - the resource the subtask occupies, or null if it occupies none.
+         * @param dependencies - the actions that must complete before the subtask is dispatched.
+         */
+        Action(Task task, Object resource, Action[] dependencies) {
+            this.task = task;
+            this.resource = resource;
+            this.dependencies = dependencies;
+            state = ActionState.PENDING;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package org.firstinspires.ftc.teamcode.layer;
 
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 
 import org.firstinspires.ftc.teamcode.task.Task;
 import org.firstinspires.ftc.teamcode.task.UnsupportedTaskException;
@@ -34,6 +36,20 @@ public interface Layer {
      */
     boolean isTaskDone();
 
+    /**
+     * Returns whether the layer has finished processing a task it accepted.
+     * Layers processing several tasks at once, such as {@link MultiplexLayer}, should override this
+     * so that the layer above can tell which of its tasks are still running. Like
+     * {@link #isTaskDone()}, this method should be free of any side effects.
+     *
+     * @param task - a task previously accepted by this layer.
+     * @return Whether the layer has finished processing the task or moved on from it. The default
+     * implementation assumes the task is the last one accepted and returns {@link #isTaskDone()}.
+     */
+    default boolean isTaskDone(Task task) {
+        return isTaskDone();
+    }
+
     /**
      * Returns the next subordinate tasks produced from this layer's current task.
      * Calculates the next subordinate tasks that should be submitted to the below layer. If the
@@ -45,6 +61,33 @@ public interface Layer {
      */
     Iterator<Task> update(Iterable<Task> completed);
 
+    /**
+     * Emits the next subtasks produced from this layer's current task into a sink.
+     * Behaves like {@link #update(Iterable)}, but pushes each subtask into the sink, which hands it
+     * straight to the below layer, instead of returning an iterator that has to be allocated. The
+     * {@link org.firstinspires.ftc.teamcode.RobotController} calls this overload on every layer
+     * except the bottommost. The default implementation adapts {@link #update(Iterable)}, so layers
+     * only need to override it to avoid allocating.
+     *
+     * @param completed - an iterable of tasks completed since the last call to update.
+     * @param sink - the sink to emit the next tasks the lower layer should run into.
+     * @throws NullPointerException - {@link #update(Iterable)} returned null.
+     */
+    default void update(Iterable<Task> completed, TaskSink sink) {
+        Iterator<Task> tasks = update(completed);
+        if (tasks == null) {
+            throw new NullPointerException(
+                String.format(
+                    "Layer '%s' returned null from update.",
+                    getClass().getSimpleName()
+                )
+            );
+        }
+        while (tasks.hasNext()) {
+            sink.accept(tasks.next());
+        }
+    }
+
     /**
      * Sets the layer's current task.
      * Accepts a task from the above layer.
@@ -56,4 +99,48 @@ public interface Layer {
      * should still return true.
      */
     void acceptTask(Task task);
+
+    /**
+     * Shows the layer the tasks it will likely be given after its current one.
+     * Called right after {@link #acceptTask} by layers emitting precomputed queues of subtasks that
+     * have opted into lookahead, such as {@link AbstractQueuedLayer}. Layers able to blend
+     * consecutive tasks, such as drive layers that can start the next movement without stopping,
+     * may begin the first upcoming task as soon as their current one is done, and should then
+     * continue it rather than restart it when the same task instance is accepted. Upcoming tasks
+     * are only a hint: they are cleared by the next call to acceptTask and may never be accepted.
+     * The default implementation ignores them.
+     *
+     * @param upcoming - the next tasks, in the order they would be accepted. Only valid for the
+     * duration of the call.
+     */
+    default void previewTasks(List<Task> upcoming) { }
+
+    /**
+     * Returns the types of tasks this layer accepts.
+     * Layers routing tasks to several component layers, such as {@link MultiplexLayer}, use this to
+     * offer each task only to the layers that accept it instead of catching
+     * {@link UnsupportedTaskException}s. A layer must accept every task that is an instance of one
+     * of the returned types. Called during setup, not every tick.
+     *
+     * @return The accepted task types, or null if they are unknown and tasks must be offered to
+     * {@link #acceptTask} to find out. The default implementation returns null.
+     */
+    default Collection<Class<? extends Task>> acceptedTaskTypes() {
+        return null;
+    }
+
+    /**
+     * Returns whether this layer's update may run on a worker thread at the same time as the
+     * updates of other layers.
+     * Layers routing tasks to several component layers, such as a parallel {@link MultiplexLayer},
+     * use this to update compute-heavy component layers concurrently. A thread-safe update must only
+     * touch state owned by this layer and must not drive hardware; the tasks it emits are collected
+     * and delivered in order on the calling thread afterwards. Called every tick. The default
+     * implementation returns false.
+     *
+     * @return Whether {@link #update} is safe to call concurrently with other layers' updates.
+     */
+    default boolean isUpdateThreadSafe() {
+        return false;
+    }
 }
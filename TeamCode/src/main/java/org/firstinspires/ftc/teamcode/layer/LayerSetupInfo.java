@@ -1,12 +1,18 @@
 package org.firstinspires.ftc.teamcode.layer;
 
+import java.util.function.Supplier;
+
 import com.qualcomm.robotcore.hardware.Gamepad;
 import com.qualcomm.robotcore.hardware.HardwareMap;
 
 import org.firstinspires.ftc.teamcode.RobotController;
+import org.firstinspires.ftc.teamcode.hardware.ActuatorWriteBuffer;
+import org.firstinspires.ftc.teamcode.hardware.HardwareSnapshot;
 import org.firstinspires.ftc.teamcode.localization.RobotLocalizer;
 import org.firstinspires.ftc.teamcode.logging.Logger;
 import org.firstinspires.ftc.teamcode.logging.LoggerProvider;
+import org.firstinspires.ftc.teamcode.task.Task;
+import org.firstinspires.ftc.teamcode.task.TaskPool;
 
 /**
  * Contains the information needed to initialize a layer.
@@ -17,6 +23,16 @@ public final class LayerSetupInfo {
      */
     private final HardwareMap hardwareMap;
 
+    /**
+     * The HardwareSnapshot layers should read sensors through.
+     */
+    private final HardwareSnapshot hardwareSnapshot;
+
+    /**
+     * The ActuatorWriteBuffer layers should write to actuators through.
+     */
+    private final ActuatorWriteBuffer actuatorWriteBuffer;
+
     /**
      * The RobotController setting up the layer.
      */
@@ -44,11 +60,19 @@ public final class LayerSetupInfo {
      */
     private final LoggerProvider loggerProvider;
 
+    /**
+     * The number of ticks of the RobotController between invocations of the layer.
+     */
+    private int tickDivisor;
+
     /**
      * Creates a LayerSetupInfo.
      *
      * @param hardwareMap the source of peripheral interfaces the layer may use to communicate with
      * hardware.
+     * @param hardwareSnapshot the HardwareSnapshot the layer should read sensors through.
+     * @param actuatorWriteBuffer the ActuatorWriteBuffer the layer should write to actuators
+     * through.
      * @param robotController the RobotController that will run the layer.
      * @param robotLocalizer the RobotLocalizer to get robot transformation info from during the
      * execution.
@@ -60,6 +84,8 @@ public final class LayerSetupInfo {
      */
     public LayerSetupInfo(
         HardwareMap hardwareMap,
+        HardwareSnapshot hardwareSnapshot,
+        ActuatorWriteBuffer actuatorWriteBuffer,
         RobotController robotController,
         RobotLocalizer robotLocalizer,
         Gamepad gamepad0,
@@ -67,11 +93,14 @@ public final class LayerSetupInfo {
         LoggerProvider loggerProvider
     ) {
         this.hardwareMap = hardwareMap;
+        this.hardwareSnapshot = hardwareSnapshot;
+        this.actuatorWriteBuffer = actuatorWriteBuffer;
         this.robotController = robotController;
         this.robotLocalizer = robotLocalizer;
         this.gamepad0 = gamepad0;
         this.gamepad1 = gamepad1;
         this.loggerProvider = loggerProvider;
+        tickDivisor = 1;
     }
 
     /**
@@ -84,6 +113,30 @@ public final class LayerSetupInfo {
         return hardwareMap;
     }
 
+    /**
+     * Returns the HardwareSnapshot.
+     * Layers should read encoders and digital inputs through handles from the snapshot instead of
+     * directly from devices, so each value costs at most one bulk read per tick.
+     *
+     * @return The HardwareSnapshot refreshed at the start of every tick of the owning
+     * RobotController.
+     */
+    public HardwareSnapshot getHardwareSnapshot() {
+        return hardwareSnapshot;
+    }
+
+    /**
+     * Returns the ActuatorWriteBuffer.
+     * Layers should set motor and servo powers through handles from the buffer instead of directly
+     * on devices, so unchanged values are not rewritten every tick.
+     *
+     * @return The ActuatorWriteBuffer flushed at the end of every tick of the owning
+     * RobotController.
+     */
+    public ActuatorWriteBuffer getActuatorWriteBuffer() {
+        return actuatorWriteBuffer;
+    }
+
     /**
      * Returns the RobotLocalizer.
      *
@@ -132,6 +185,31 @@ public final class LayerSetupInfo {
         return loggerProvider.getLogger(label);
     }
 
+    /**
+     * Requests that the layer be invoked only once every few ticks of the RobotController.
+     * Layers that plan at a high level, such as strategies, can use this to leave more of each tick
+     * to the layers below them, which still run every tick. A layer that is not due is not called
+     * at all, so neither it nor any layer above it can hand out new tasks until it is due again.
+     * Defaults to 1, i.e. every tick.
+     *
+     * @param divisor - the number of ticks between invocations of the layer.
+     */
+    public void setTickDivisor(int divisor) {
+        if (divisor < 1) {
+            throw new IllegalArgumentException("Tick divisor must be at least 1.");
+        }
+        tickDivisor = divisor;
+    }
+
+    /**
+     * Returns the number of ticks between invocations of the layer.
+     *
+     * @return The tick divisor requested with {@link #setTickDivisor}.
+     */
+    public int getTickDivisor() {
+        return tickDivisor;
+    }
+
     /**
      * Registers a callback to be called on every update of the owning RobotController.
      *
@@ -141,6 +219,17 @@ public final class LayerSetupInfo {
         robotController.addUpdateListener(listener);
     }
 
+    /**
+     * Registers a callback to be called on most updates of the owning RobotController.
+     * The callback may be skipped for some updates to shed load when updates take too long.
+     *
+     * @param listener - the callback to be called.
+     * @see RobotController#addLowPriorityUpdateListener
+     */
+    public void addLowPriorityUpdateListener(Runnable listener) {
+        robotController.addLowPriorityUpdateListener(listener);
+    }
+
     /**
      * Registers a callback to be called after the layer stack finishes executing.
      *
@@ -149,4 +238,16 @@ public final class LayerSetupInfo {
     public void addTeardownListener(Runnable listener) {
         robotController.addTeardownListener(listener);
     }
+
+    /**
+     * Creates a pool of tasks recycled by the owning RobotController at the start of every tick.
+     *
+     * @param <T> - the type of task pooled.
+     * @param factory - creates a new task when none are free.
+     * @return The new TaskPool.
+     * @see RobotController#createTaskPool
+     */
+    public <T extends Task> TaskPool<T> createTaskPool(Supplier<T> factory) {
+        return robotController.createTaskPool(factory);
+    }
 }
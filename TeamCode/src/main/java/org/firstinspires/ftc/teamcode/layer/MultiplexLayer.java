@@ -1,12 +1,17 @@
 package org.firstinspires.ftc.teamcode.layer;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Spliterators;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
 
 import org.firstinspires.ftc.teamcode.logging.Logger;
 import org.firstinspires.ftc.teamcode.task.Task;
@@ -15,7 +20,30 @@ import org.firstinspires.ftc.teamcode.task.UnsupportedTaskException;
 /**
  * Acts on behalf on multiple component layers to handle multiple unrelated kinds of tasks from the
  * layers above.
- * Needed because the RobotController reads layers as a stack, not a tree.
+ * Needed because the RobotController reads layers as a stack, not a tree, unless they are connected
+ * as a {@link org.firstinspires.ftc.teamcode.LayerGraph}, which routes tasks the same way without a
+ * MultiplexLayer.
+ *
+ * <p>Tasks are routed to the component layers that declare them in {@link Layer#acceptedTaskTypes},
+ * using a table from task class to accepting layers that is filled in the first time each task
+ * class is seen. Component layers that do not declare their accepted task types are offered every
+ * task, and are assumed to reject it if they throw an {@link UnsupportedTaskException}.
+ *
+ * <p>The last task routed to each component layer is remembered, so {@link #isTaskDone(Task)} can
+ * tell the layer above which of the tasks it dispatched to different component layers are still
+ * running, while {@link #isTaskDone()} reports the MultiplexLayer ready as soon as any component
+ * layer is.
+ *
+ * <p>A MultiplexLayer constructed with a positive parallelism updates the component layers that
+ * declare {@link Layer#isUpdateThreadSafe} on a fixed {@link ForkJoinPool} of that many workers,
+ * while the calling thread updates the rest and the last thread-safe one. The pool is started by
+ * {@link #setup} and shut down when the controller tears down the layers. Every component layer
+ * emits into a buffer during the update, and once all updates have joined the buffers are
+ * delivered in component layer order, so the emitted tasks are the same and in the same order as
+ * when updating serially. Since nothing is
+ * delivered until every component layer has been updated, component layers all see the layer below
+ * as it was before any of them emitted, which only matters when several of them emit at once to a
+ * layer below that can only accept one task at a time.
  */
 public final class MultiplexLayer implements Layer {
     /**
@@ -23,18 +51,94 @@ public final class MultiplexLayer implements Layer {
      */
     private final List<Layer> layers;
 
+    /**
+     * The indices in {@link #layers} of the component layers that accept each task class seen so
+     * far, in ascending order.
+     */
+    private final Map<Class<?>, int[]> routes;
+
+    /**
+     * The task types accepted by each component layer that declares them, indexed like
+     * {@link #layers}. Entries for layers that do not declare their accepted task types are null.
+     */
+    private final List<Collection<Class<? extends Task>>> declaredTypes;
+
+    /**
+     * The indices in {@link #layers} of the component layers that do not declare their accepted
+     * task types and must be offered every task.
+     */
+    private int[] undeclaredLayers;
+
+    /**
+     * The last task accepted by each component layer, indexed like {@link #layers}, or null for
+     * component layers that have not accepted one.
+     */
+    private Task[] componentTasks;
+
+    /**
+     * The iterator returned by every call to {@link #update}.
+     */
+    private final ConcatIterator tasks;
+
+    /**
+     * The number of worker threads updating thread-safe component layers, or 0 if component layers
+     * are updated serially.
+     */
+    private final int parallelism;
+
+    /**
+     * The pool updating thread-safe component layers, or null if component layers are updated
+     * serially or the layer is not set up.
+     */
+    private ForkJoinPool pool;
+
+    /**
+     * The reusable update of each component layer when updating in parallel, indexed like
+     * {@link #layers}.
+     */
+    private ComponentUpdate[] componentUpdates;
+
+    /**
+     * The tasks emitted by the component layers during the last parallel update through
+     * {@link #update(Iterable)}, in component layer order.
+     */
+    private final ArrayList<Task> parallelTasks;
+
     /**
      * The logger.
      */
     private Logger logger;
 
     /**
-     * Constructs a MultiplexLayer.
+     * Constructs a MultiplexLayer that updates its component layers serially.
      *
      * @param layers - the layers this MultiplexLayer will contain.
      */
     public MultiplexLayer(List<Layer> layers) {
+        this(layers, 0);
+    }
+
+    /**
+     * Constructs a MultiplexLayer.
+     *
+     * @param layers - the layers this MultiplexLayer will contain.
+     * @param parallelism - the number of worker threads updating the component layers that declare
+     * their update thread-safe, or 0 to update every component layer on the calling thread.
+     */
+    public MultiplexLayer(List<Layer> layers, int parallelism) {
+        if (parallelism < 0) {
+            throw new IllegalArgumentException("Parallelism must be non-negative.");
+        }
         this.layers = layers;
+        routes = new HashMap<>();
+        declaredTypes = new ArrayList<>();
+        undeclaredLayers = new int[0];
+        componentTasks = new Task[layers.size()];
+        tasks = new ConcatIterator();
+        this.parallelism = parallelism;
+        pool = null;
+        componentUpdates = new ComponentUpdate[0];
+        parallelTasks = new ArrayList<>();
     }
 
     @Override
@@ -44,69 +148,456 @@ public final class MultiplexLayer implements Layer {
             .map(Class<?>::getSimpleName)
             .collect(Collectors.joining()) + "]";
         logger = setupInfo.getLogger(name);
-        for (Layer layer : layers) {
+        if (parallelism > 0 && pool == null) {
+            setupInfo.addTeardownListener(this::stopPool);
+            pool = new ForkJoinPool(parallelism);
+        }
+        routes.clear();
+        declaredTypes.clear();
+        List<Integer> undeclared = new ArrayList<>();
+        for (int i = 0; i < layers.size(); ++i) {
+            Layer layer = layers.get(i);
             layer.setup(setupInfo);
+            Collection<Class<? extends Task>> types = layer.acceptedTaskTypes();
+            declaredTypes.add(types);
+            if (types == null) {
+                undeclared.add(i);
+            }
+        }
+        undeclaredLayers = undeclared.stream().mapToInt(Integer::intValue).toArray();
+        componentTasks = new Task[layers.size()];
+        if (pool != null) {
+            componentUpdates = new ComponentUpdate[layers.size()];
+            for (int i = 0; i < layers.size(); ++i) {
+                componentUpdates[i] = new ComponentUpdate(layers.get(i));
+            }
         }
     }
 
     @Override
     public Iterator<Task> update(Iterable<Task> completed) {
-        // Concatenates results of component layer update methods into a single stream, then creates
-        // an iterator from the stream
-        return layers.stream().flatMap(layer -> {
-            if (layer.isTaskDone()) {
-                return Stream.of();
+        if (!updateInParallel(completed, null)) {
+            return tasks.reset(completed);
+        }
+        parallelTasks.clear();
+        for (ComponentUpdate update : componentUpdates) {
+            if (update.due) {
+                parallelTasks.addAll(update.emitted);
             }
-            Iterator<Task> tasks = layer.update(completed);
-            if (tasks == null) {
-                throw new NullPointerException(
-                    String.format(
-                        "Tasks from layer '%s' is null.",
-                        layer.getClass().getSimpleName()
-                    )
-                );
+        }
+        return parallelTasks.iterator();
+    }
+
+    @Override
+    public void update(Iterable<Task> completed, TaskSink sink) {
+        if (updateInParallel(completed, sink)) {
+            for (ComponentUpdate update : componentUpdates) {
+                if (update.due) {
+                    update.deliver(sink);
+                }
             }
-            // TODO: revert this after debugging; stuffing the tasks into an ArrayList defeats the
-            // purpose of returning an iterator
-            List<Task> taskList = new ArrayList<>();
-            tasks.forEachRemaining(taskList::add);
-            if (taskList.contains(null)) {
-                throw new NullPointerException(
-                    String.format(
-                        "Tasks from layer '%s' contains null.",
-                        layer.getClass().getSimpleName()
-                    )
-                );
+            return;
+        }
+        for (int i = 0; i < layers.size(); ++i) {
+            Layer layer = layers.get(i);
+            if (!layer.isTaskDone()) {
+                layer.update(completed, sink);
             }
-
-            return StreamSupport.stream(
-                Spliterators.spliteratorUnknownSize(
-                    taskList.iterator(), // layer.update(completed),
-                    0
-                ),
-                false
-            );
-        }).iterator();
+        }
     }
 
     @Override
     public boolean isTaskDone() {
-        return layers.stream().anyMatch(Layer::isTaskDone);
+        for (int i = 0; i < layers.size(); ++i) {
+            if (layers.get(i).isTaskDone()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isTaskDone(Task task) {
+        for (int i = 0; i < componentTasks.length; ++i) {
+            // Component layers that have moved on to another task are done with this one
+            if (componentTasks[i] == task && !layers.get(i).isTaskDone(task)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public void acceptTask(Task task) {
-        boolean anyAccepted = layers.stream().map((layer) -> {
+        int[] route = routes.get(task.getClass());
+        if (route == null) {
+            route = findAcceptingLayers(task.getClass());
+            routes.put(task.getClass(), route);
+        }
+        boolean anyAccepted = route.length > 0;
+        for (int i : route) {
+            layers.get(i).acceptTask(task);
+            componentTasks[i] = task;
+        }
+        for (int i : undeclaredLayers) {
             try {
-                layer.acceptTask(task);
+                layers.get(i).acceptTask(task);
+                componentTasks[i] = task;
+                anyAccepted = true;
             } catch (UnsupportedTaskException e) {
-                return false;
+                // Offer the task to the remaining layers
             }
-            return true;
-        }).reduce(false, (a, b) -> a || b); // Prevent short circuiting
+        }
         if (!anyAccepted) {
             // Should list component layers, not say MultiplexLayer
             throw new UnsupportedTaskException(this, task);
         }
     }
+
+    @Override
+    public void previewTasks(List<Task> upcoming) {
+        // Component layers ignore upcoming tasks they would not be routed
+        for (int i = 0; i < layers.size(); ++i) {
+            layers.get(i).previewTasks(upcoming);
+        }
+    }
+
+    @Override
+    public Collection<Class<? extends Task>> acceptedTaskTypes() {
+        Set<Class<? extends Task>> types = new LinkedHashSet<>();
+        for (Layer layer : layers) {
+            Collection<Class<? extends Task>> layerTypes = layer.acceptedTaskTypes();
+            if (layerTypes == null) {
+                return null;
+            }
+            types.addAll(layerTypes);
+        }
+        return types;
+    }
+
+    /**
+     * Shuts down the pool, if running, so that its workers do not outlive the controller.
+     */
+    private void stopPool() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    /**
+     * Updates the component layers that are not done into their buffers, dispatching the
+     * thread-safe ones to {@link #pool}, if that can save time.
+     *
+     * @param completed - the tasks completed since the last update.
+     * @param sink - the sink the component layers emit into, or null if they are bottommost and
+     * return their tasks instead.
+     * @return Whether the component layers were updated, in which case the ones that were have
+     * {@link ComponentUpdate#due} set. False if there is no pool, fewer than two component layers
+     * are due, or none of them is thread-safe, in which case none was updated.
+     */
+    private boolean updateInParallel(Iterable<Task> completed, TaskSink sink) {
+        if (pool == null) {
+            return false;
+        }
+        int dueCount = 0;
+        int lastThreadSafe = -1;
+        for (int i = 0; i < componentUpdates.length; ++i) {
+            ComponentUpdate update = componentUpdates[i];
+            update.due = !update.layer.isTaskDone();
+            if (update.due) {
+                ++dueCount;
+                if (update.layer.isUpdateThreadSafe()) {
+                    lastThreadSafe = i;
+                }
+            }
+        }
+        if (dueCount < 2 || lastThreadSafe == -1) {
+            return false;
+        }
+        for (int i = 0; i < componentUpdates.length; ++i) {
+            ComponentUpdate update = componentUpdates[i];
+            if (update.due) {
+                update.prepare(completed, sink);
+                // The calling thread would otherwise only wait, so it takes the last one itself
+                if (update.layer.isUpdateThreadSafe() && i != lastThreadSafe) {
+                    update.forked = true;
+                    pool.execute(update);
+                }
+            }
+        }
+        for (ComponentUpdate update : componentUpdates) {
+            if (update.due && !update.forked) {
+                update.updateLayer();
+            }
+        }
+        for (ComponentUpdate update : componentUpdates) {
+            if (update.forked) {
+                // Rethrows whatever the update threw on the worker
+                update.join();
+                update.forked = false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the component layers that declare they accept a task class.
+     *
+     * @param taskClass - the class of the task to route.
+     * @return The indices in {@link #layers} of the layers declaring a task type the class is
+     * assignable to, in ascending order.
+     */
+    private int[] findAcceptingLayers(Class<?> taskClass) {
+        List<Integer> accepting = new ArrayList<>();
+        for (int i = 0; i < layers.size(); ++i) {
+            Collection<Class<? extends Task>> types = declaredTypes.get(i);
+            if (types == null) {
+                continue;
+            }
+            for (Class<? extends Task> type : types) {
+                if (type.isAssignableFrom(taskClass)) {
+                    accepting.add(i);
+                    break;
+                }
+            }
+        }
+        return accepting.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Concatenates the tasks of the component layers that are not done.
+     * Component layers are only updated once the tasks of the layers before them are exhausted, and
+     * a component layer returning null is treated as having no tasks. The same instance is reused
+     * for every call to {@link MultiplexLayer#update}, so iterating does not allocate beyond what
+     * the component layers themselves allocate.
+     */
+    private final class ConcatIterator implements Iterator<Task> {
+        /**
+         * The tasks completed since the last update, passed to each component layer.
+         */
+        private Iterable<Task> completed;
+
+        /**
+         * The index in {@link #layers} of the next component layer to update.
+         */
+        private int nextLayer;
+
+        /**
+         * The tasks of the component layer being iterated over, or null if none is.
+         */
+        private Iterator<Task> current;
+
+        /**
+         * Constructs a ConcatIterator.
+         */
+        ConcatIterator() {
+            reset(null);
+        }
+
+        /**
+         * Starts iterating over the tasks of the component layers from the first one.
+         *
+         * @param completedTasks - the tasks completed since the last update.
+         * @return This ConcatIterator.
+         */
+        public ConcatIterator reset(Iterable<Task> completedTasks) {
+            completed = completedTasks;
+            nextLayer = 0;
+            current = null;
+            return this;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (current == null || !current.hasNext()) {
+                if (nextLayer == layers.size()) {
+                    current = null;
+                    return false;
+                }
+                Layer layer = layers.get(nextLayer++);
+                if (layer.isTaskDone()) {
+                    current = null;
+                    continue;
+                }
+                // Null is allowed from bottommost layers, which the component layers of a
+                // bottommost MultiplexLayer are
+                current = layer.update(completed);
+            }
+            return true;
+        }
+
+        @Override
+        public Task next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Task task = current.next();
+            if (task == null) {
+                throw new NullPointerException(
+                    String.format(
+                        "Tasks from layer '%s' contains null.",
+                        layers.get(nextLayer - 1).getClass().getSimpleName()
+                    )
+                );
+            }
+            return task;
+        }
+    }
+
+    /**
+     * Updates one component layer during a parallel update, buffering what it emits so it can be
+     * delivered in order afterwards.
+     * Acts as the sink the component layer emits into, answering queries about the layer below by
+     * asking the real sink while holding its lock, since other component layers may ask at the same
+     * time. Reinitialized and reused every tick.
+     */
+    @SuppressWarnings("serial") // Never serialized, as it holds a layer
+    private static final class ComponentUpdate extends RecursiveAction implements TaskSink {
+        /**
+         * The component layer.
+         */
+        private final Layer layer;
+
+        /**
+         * The tasks the component layer emitted during its last update.
+         */
+        private final ArrayList<Task> emitted;
+
+        /**
+         * Copies of the upcoming tasks previewed after each task in {@link #emitted}, indexed like
+         * it, with null for tasks not followed by a preview.
+         */
+        private final ArrayList<List<Task>> previews;
+
+        /**
+         * The tasks completed since the last update.
+         */
+        private Iterable<Task> completed;
+
+        /**
+         * The sink the emitted tasks are delivered to, or null if the component layer is
+         * bottommost.
+         */
+        private TaskSink target;
+
+        /**
+         * Whether the component layer was not done, and so is updated, this tick.
+         */
+        private boolean due;
+
+        /**
+         * Whether the update was dispatched to the pool this tick and has not been joined yet.
+         */
+        private boolean forked;
+
+        /**
+         * Constructs a ComponentUpdate.
+         *
+         * @param layer - the component layer.
+         */
+        ComponentUpdate(Layer layer) {
+            this.layer = layer;
+            emitted = new ArrayList<>();
+            previews = new ArrayList<>();
+            completed = null;
+            target = null;
+            due = false;
+            forked = false;
+        }
+
+        /**
+         * Clears the buffers and readies the update to run again.
+         *
+         * @param completedTasks - the tasks completed since the last update.
+         * @param sink - the sink the emitted tasks will be delivered to, or null if the component
+         * layer is bottommost.
+         */
+        public void prepare(Iterable<Task> completedTasks, TaskSink sink) {
+            reinitialize();
+            emitted.clear();
+            previews.clear();
+            completed = completedTasks;
+            target = sink;
+        }
+
+        /**
+         * Updates the component layer into the buffers on the current thread.
+         */
+        public void updateLayer() {
+            if (target != null) {
+                layer.update(completed, this);
+                return;
+            }
+            // Null is allowed from bottommost layers, and means no tasks
+            Iterator<Task> tasks = layer.update(completed);
+            while (tasks != null && tasks.hasNext()) {
+                Task task = tasks.next();
+                if (task == null) {
+                    throw new NullPointerException(
+                        String.format(
+                            "Tasks from layer '%s' contains null.",
+                            layer.getClass().getSimpleName()
+                        )
+                    );
+                }
+                emitted.add(task);
+            }
+        }
+
+        /**
+         * Delivers the buffered tasks and previews to the sink, in the order they were emitted.
+         *
+         * @param sink - the sink.
+         */
+        public void deliver(TaskSink sink) {
+            for (int i = 0; i < emitted.size(); ++i) {
+                sink.accept(emitted.get(i));
+                if (previews.get(i) != null) {
+                    sink.preview(previews.get(i));
+                }
+            }
+        }
+
+        @Override
+        protected void compute() {
+            updateLayer();
+        }
+
+        @Override
+        public void accept(Task task) {
+            if (task == null) {
+                throw new NullPointerException(
+                    String.format(
+                        "Layer '%s' returned null as a subtask.",
+                        layer.getClass().getSimpleName()
+                    )
+                );
+            }
+            emitted.add(task);
+            previews.add(null);
+        }
+
+        @Override
+        public boolean canAccept() {
+            synchronized (target) {
+                return target.canAccept();
+            }
+        }
+
+        @Override
+        public boolean isTaskDone(Task task) {
+            synchronized (target) {
+                return target.isTaskDone(task);
+            }
+        }
+
+        @Override
+        public void preview(List<Task> upcoming) {
+            // Previews only describe the tasks following an emitted one
+            if (!emitted.isEmpty()) {
+                previews.set(emitted.size() - 1, new ArrayList<>(upcoming));
+            }
+        }
+    }
 }
@@ -0,0 +1,50 @@
+package org.firstinspires.ftc.teamcode.layer;
+
+import java.util.List;
+
+import org.firstinspires.ftc.teamcode.task.Task;
+import org.firstinspires.ftc.teamcode.task.UnsupportedTaskException;
+
+/**
+ * Receives the subtasks a layer emits during {@link Layer#update(Iterable, TaskSink)}.
+ * Sinks are owned by whatever drives the layer, usually the
+ * {@link org.firstinspires.ftc.teamcode.RobotController}, and hand each subtask straight to the
+ * layer below instead of collecting them, so emitting a task does not allocate.
+ */
+public interface TaskSink {
+    /**
+     * Offers a subtask to the layer below.
+     *
+     * @param task - the subtask.
+     * @throws NullPointerException - the subtask is null.
+     * @throws UnsupportedTaskException - the layer below cannot accept another task because it has
+     * not finished its previous ones, or does not support the subtask.
+     */
+    void accept(Task task);
+
+    /**
+     * Returns whether the layer below can accept another subtask.
+     * Layers that can emit a variable number of subtasks may use this to stop early instead of
+     * having {@link #accept} throw.
+     *
+     * @return Whether the layer below is done with the tasks it has accepted so far.
+     */
+    boolean canAccept();
+
+    /**
+     * Returns whether the layer below has finished processing a subtask it accepted.
+     *
+     * @param task - a subtask previously accepted through this sink.
+     * @return Whether the layer below is done with the subtask.
+     * @see Layer#isTaskDone(Task)
+     */
+    boolean isTaskDone(Task task);
+
+    /**
+     * Shows the layer below the subtasks that will likely follow the last one accepted.
+     * Forwarded to {@link Layer#previewTasks}. The default implementation discards them.
+     *
+     * @param upcoming - the next subtasks, in the order they would be emitted.
+     */
+    default void preview(List<Task> upcoming) { }
+}
@@ -1,5 +1,7 @@
 package org.firstinspires.ftc.teamcode.layer;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -75,8 +77,21 @@ public final class TopLayerSequence implements Layer {
         return subtasks;
     }
 
+    @Override
+    public void update(Iterable<Task> completed, TaskSink sink) {
+        layer.update(completed, sink);
+        if (layer.isTaskDone() && layerIter.hasNext()) {
+            layer = layerIter.next();
+        }
+    }
+
     @Override
     public void acceptTask(Task task) {
         throw new UnsupportedTaskException(this, task);
     }
+
+    @Override
+    public Collection<Class<? extends Task>> acceptedTaskTypes() {
+        return Collections.emptySet();
+    }
 }
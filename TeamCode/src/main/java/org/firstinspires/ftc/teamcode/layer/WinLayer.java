@@ -1,5 +1,6 @@
 package org.firstinspires.ftc.teamcode.layer;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 
@@ -39,8 +40,19 @@ public final class WinLayer implements Layer {
         return Collections.singleton((Task)(new WinTask())).iterator();
     }
 
+    @Override
+    public void update(Iterable<Task> completed, TaskSink sink) {
+        emittedWin = true;
+        sink.accept(new WinTask());
+    }
+
     @Override
     public void acceptTask(Task task) {
         throw new UnsupportedTaskException(this, task);
     }
+
+    @Override
+    public Collection<Class<? extends Task>> acceptedTaskTypes() {
+        return Collections.emptySet();
+    }
 }
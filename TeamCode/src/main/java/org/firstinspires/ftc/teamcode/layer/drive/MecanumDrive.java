@@ -1,6 +1,9 @@
 package org.firstinspires.ftc.teamcode.layer.drive;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.BiPredicate;
@@ -24,6 +27,11 @@ import org.firstinspires.ftc.teamcode.task.UnsupportedTaskException;
 
 /**
  * Drive layer for a robot using four properly-oriented Mecanum wheels.
+ *
+ * <p>Autonomous movements are blended when the layer above previews the next one with
+ * {@link #previewTasks} and it turns every wheel the same way as the current one: instead of
+ * stopping once the current movement is done, the drive starts the previewed one immediately and
+ * reports itself ready, then continues it when it is accepted.
  */
 public final class MecanumDrive implements Layer {
     /**
@@ -50,7 +58,7 @@ public final class MecanumDrive implements Layer {
      * NOTE: The ticksPerRev read from the MotorConfigurationTypes is 28 * 20, seemingly including
      * the 20:1 gearboxes we added. Must investigate this.
      */
-    private static final WheelProperty<Double> GEAR_RATIO = WheelProperty.populate((_key) -> 1.0);
+    private static final WheelValues GEAR_RATIO = new WheelValues(1.0, 1.0, 1.0, 1.0);
 
     /**
      * Half the distance between the driving wheels in meters.
@@ -62,13 +70,19 @@ public final class MecanumDrive implements Layer {
      * Measures lack of friction between wheels and floor material. Goal delta distances are directly
      * proportional to this.
      */
-    private static final WheelProperty<Double> SLIPPING_CONSTANT = WheelProperty.populate(_key -> 1.0);
+    private static final WheelValues SLIPPING_CONSTANT = new WheelValues(1.0, 1.0, 1.0, 1.0);
 
     /**
      * Factor to multiply velocities by before they are sent to motors in autonomous mode.
      */
     private static final double AUTO_SPEED_FAC = 0.5;
 
+    /**
+     * Every wheel, cached because {@link WheelProperty.WheelKey#values} copies its array on every
+     * call.
+     */
+    private static final WheelProperty.WheelKey[] WHEEL_KEYS = WheelProperty.WheelKey.values();
+
     /**
      * The robot's wheels.
      */
@@ -77,19 +91,53 @@ public final class MecanumDrive implements Layer {
     /**
      * The position of the wheels at the start of the currently executing task, in meters.
      */
-    private WheelProperty<Double> wheelStartPos;
+    private WheelValues wheelStartPos;
 
     /**
      * The required delta position of the wheels to complete the currently executing task, in
      * meters.
      */
-    private WheelProperty<Double> wheelGoalDeltas;
+    private WheelValues wheelGoalDeltas;
+
+    /**
+     * The distance each wheel has moved since the start of the currently executing task, in meters.
+     * Filled in place every update.
+     */
+    private WheelValues deltas;
+
+    /**
+     * Whether each wheel has finished its part of the currently executing task.
+     * Filled in place every update.
+     */
+    private WheelProperty<Boolean> wheelDone;
+
+    /**
+     * Scratch space for the velocities sent to the wheels when starting a task.
+     */
+    private WheelValues velocities;
+
+    /**
+     * Scratch space for the goal deltas of a previewed task.
+     */
+    private WheelValues previewGoalDeltas;
 
     /**
      * Whether the currently executing task has completed.
      */
     private boolean currentTaskDone;
 
+    /**
+     * The autonomous movement task previewed as the next one to be accepted, or null if there is
+     * none.
+     */
+    private Task upcomingTask;
+
+    /**
+     * The previewed task started early by blending it with the previous one, or null if none is
+     * awaiting acceptance.
+     */
+    private Task blendedTask;
+
     /**
      * The logger.
      */
@@ -111,114 +159,208 @@ public final class MecanumDrive implements Layer {
                 motor.setDirection(DcMotorSimple.Direction.REVERSE);
             }
             return new Wheel(
-                motor,
+                initInfo.getActuatorWriteBuffer().getMotor(motor),
+                initInfo.getHardwareSnapshot().getEncoder(motor),
                 WHEEL_RADIUS
             );
         });
-        wheelStartPos = WheelProperty.populate((_key) -> 0.0);
-        wheelGoalDeltas = WheelProperty.populate((_key) -> 0.0);
+        wheelStartPos = new WheelValues();
+        wheelGoalDeltas = new WheelValues();
+        deltas = new WheelValues();
+        wheelDone = WheelProperty.populate((_key) -> true);
+        velocities = new WheelValues();
+        previewGoalDeltas = new WheelValues();
         currentTaskDone = true;
+        upcomingTask = null;
+        blendedTask = null;
     }
 
     @Override
     public boolean isTaskDone() {
-        return currentTaskDone;
+        // A blended task was started on our own initiative, so the layer above still has to hand
+        // it to us
+        return currentTaskDone || blendedTask != null;
     }
 
     @Override
     public Iterator<Task> update(Iterable<Task> completed) {
-        WheelProperty<Double> deltas = WheelProperty.populate((key) ->
-            wheels.get(key).getDistance() - wheelStartPos.get(key)
-        );
-        WheelProperty<Boolean> deltaSignsMatch = WheelProperty.populate((key) ->
-            (deltas.get(key) < 0) == (wheelGoalDeltas.get(key) < 0)
-        );
-        WheelProperty<Boolean> goalDeltaExceeded = WheelProperty.populate((key) ->
-            Math.abs(deltas.get(key)) >= Math.abs(wheelGoalDeltas.get(key))
-        );
-        WheelProperty<Boolean> wheelDone = WheelProperty.populate((key) ->
-            (deltaSignsMatch.get(key) && goalDeltaExceeded.get(key))
-            || wheelGoalDeltas.get(key) == 0
-        );
+        // Runs every tick, so work on primitives in place rather than mapping WheelProperties of
+        // boxed values
+        boolean isTeleopTask = true;
+        currentTaskDone = true;
+        for (WheelProperty.WheelKey key : WHEEL_KEYS) {
+            double delta = wheels.get(key).getDistance() - wheelStartPos.get(key);
+            double goalDelta = wheelGoalDeltas.get(key);
+            boolean deltaSignsMatch = (delta < 0) == (goalDelta < 0);
+            boolean goalDeltaExceeded = Math.abs(delta) >= Math.abs(goalDelta);
+            boolean done = (deltaSignsMatch && goalDeltaExceeded) || goalDelta == 0;
+            deltas.set(key, delta);
+            wheelDone.put(key, done);
+            isTeleopTask &= goalDelta == 0;
+            currentTaskDone &= done;
+        }
         logger.update("deltas", deltas);
         logger.update("wheelGoalDeltas", wheelGoalDeltas);
         logger.update("wheelDone", wheelDone);
 
-        boolean isTeleopTask = wheelGoalDeltas.all((_key, goalDelta) -> goalDelta == 0);
-        currentTaskDone = wheelDone.all((_key, done) -> done);
         if (currentTaskDone && !isTeleopTask) {
-            wheels.forEach((_key, wheel) -> wheel.setVelocity(0));
+            if (upcomingTask != null) {
+                // Start the next movement right away instead of stopping to wait for it
+                blendedTask = upcomingTask;
+                upcomingTask = null;
+                startTask(blendedTask);
+            } else {
+                wheels.forEach((_key, wheel) -> wheel.setVelocity(0));
+            }
         }
         return null;
     }
 
     @Override
     public void acceptTask(Task task) {
+        // A blended task is already underway, so keep its start position
+        if (task != blendedTask) {
+            startTask(task);
+        }
+        upcomingTask = null;
+        blendedTask = null;
+    }
+
+    @Override
+    public void previewTasks(List<Task> upcoming) {
+        if (!calculateGoalDeltas(upcoming.get(0), previewGoalDeltas)) {
+            return;
+        }
+        // Only a movement turning every wheel the same way as the current one can carry its speed
+        // over; reversing wheels would count the current movement's momentum against the next
+        for (WheelProperty.WheelKey key : WHEEL_KEYS) {
+            if (previewGoalDeltas.get(key) * wheelGoalDeltas.get(key) <= 0) {
+                return;
+            }
+        }
+        upcomingTask = upcoming.get(0);
+    }
+
+    @Override
+    public Collection<Class<? extends Task>> acceptedTaskTypes() {
+        return Arrays.asList(
+            AxialMovementTask.class,
+            TurnTask.class,
+            LinearMovementTask.class,
+            TankDriveTask.class,
+            HolonomicDriveTask.class
+        );
+    }
+
+    /**
+     * Starts executing a task.
+     *
+     * @param task - the task to execute.
+     * @throws UnsupportedTaskException - the task is not a movement task.
+     */
+    private void startTask(Task task) {
         boolean isAuto;
-        if (task instanceof AxialMovementTask) {
-            isAuto = true;
-            AxialMovementTask castedTask = (AxialMovementTask)task;
-            wheelGoalDeltas = GEAR_RATIO.map((key, gearRatio) ->
-                castedTask.getDistance() * gearRatio * SLIPPING_CONSTANT.get(key)
-            );
-        } else if (task instanceof TurnTask) {
-            isAuto = true;
-            TurnTask castedTask = (TurnTask)task;
-            wheelGoalDeltas = GEAR_RATIO.map((key, gearRatio) ->
-                (key.isLeft ? -1 : 1) * castedTask.getAngle() * WHEEL_SPAN_RADIUS * gearRatio
-                    * SLIPPING_CONSTANT.get(key)
-            );
-        } else if (task instanceof LinearMovementTask) {
+        if (calculateGoalDeltas(task, wheelGoalDeltas)) {
             isAuto = true;
-            LinearMovementTask castedTask = (LinearMovementTask)task;
-            wheelGoalDeltas = calculateAlyDeltas(castedTask.getAxial(), castedTask.getLateral(), 0);
         } else if (task instanceof TankDriveTask) {
             isAuto = false;
             TankDriveTask castedTask = (TankDriveTask)task;
-            normalizeVelocities(
-                new WheelProperty<>(
-                    castedTask.getLeft(),
-                    castedTask.getRight(),
-                    castedTask.getLeft(),
-                    castedTask.getRight()
-                ).map((key, velocity) -> velocity * SLIPPING_CONSTANT.get(key)),
-                false
-            ).forEach((key, velocity) -> wheels.get(key).setVelocity(velocity));
+            velocities.set(
+                castedTask.getLeft(),
+                castedTask.getRight(),
+                castedTask.getLeft(),
+                castedTask.getRight()
+            );
+            velocities.multiply(SLIPPING_CONSTANT);
+            normalizeVelocities(velocities, false);
+            setWheelVelocities(velocities, 1);
         } else if (task instanceof HolonomicDriveTask) {
             isAuto = false;
             HolonomicDriveTask castedTask = (HolonomicDriveTask)task;
-            normalizeVelocities(
-                calculateAlyDeltas(
-                    castedTask.getAxial(),
-                    castedTask.getLateral(),
-                    castedTask.getYaw()
-                ).map((key, velocity) -> velocity * SLIPPING_CONSTANT.get(key)),
-                false
-            ).forEach((key, velocity) -> wheels.get(key).setVelocity(velocity));
+            calculateAlyDeltas(
+                castedTask.getAxial(),
+                castedTask.getLateral(),
+                castedTask.getYaw(),
+                velocities
+            );
+            velocities.multiply(SLIPPING_CONSTANT);
+            normalizeVelocities(velocities, false);
+            setWheelVelocities(velocities, 1);
         } else {
             throw new UnsupportedTaskException(this, task);
         }
         currentTaskDone = false;
-        wheelStartPos = wheels.map((_key, wheel) -> wheel.getDistance());
+        for (WheelProperty.WheelKey key : WHEEL_KEYS) {
+            wheelStartPos.set(key, wheels.get(key).getDistance());
+        }
         if (isAuto) {
-            normalizeVelocities(wheelGoalDeltas, true)
-                .forEach((key, velocity) -> wheels.get(key).setVelocity(velocity * AUTO_SPEED_FAC));
+            velocities.copy(wheelGoalDeltas);
+            normalizeVelocities(velocities, true);
+            setWheelVelocities(velocities, AUTO_SPEED_FAC);
         } else {
             // Say teleop tasks are instantly done in isTaskDone
-            wheelGoalDeltas = WheelProperty.populate((_key) -> 0.0);
+            wheelGoalDeltas.set(0, 0, 0, 0);
+        }
+    }
+
+    /**
+     * Sends velocities to the wheels.
+     *
+     * @param wheelVelocities - the velocity of each wheel, normalized to at most 1 in magnitude.
+     * @param factor - the factor to multiply each velocity by.
+     */
+    private void setWheelVelocities(WheelValues wheelVelocities, double factor) {
+        for (WheelProperty.WheelKey key : WHEEL_KEYS) {
+            wheels.get(key).setVelocity(wheelVelocities.get(key) * factor);
         }
     }
 
+    /**
+     * Calculates the wheel deltas needed to complete an autonomous movement task.
+     *
+     * @param task - the task.
+     * @param goalDeltas - receives the required delta position of each wheel in meters. Left
+     * unchanged if the task is not an autonomous movement task.
+     * @return Whether the task is an autonomous movement task.
+     */
+    private static boolean calculateGoalDeltas(Task task, WheelValues goalDeltas) {
+        if (task instanceof AxialMovementTask) {
+            AxialMovementTask castedTask = (AxialMovementTask)task;
+            for (WheelProperty.WheelKey key : WHEEL_KEYS) {
+                goalDeltas.set(key, castedTask.getDistance() * GEAR_RATIO.get(key)
+                    * SLIPPING_CONSTANT.get(key));
+            }
+            return true;
+        } else if (task instanceof TurnTask) {
+            TurnTask castedTask = (TurnTask)task;
+            for (WheelProperty.WheelKey key : WHEEL_KEYS) {
+                goalDeltas.set(key, (key.isLeft ? -1 : 1) * castedTask.getAngle()
+                    * WHEEL_SPAN_RADIUS * GEAR_RATIO.get(key) * SLIPPING_CONSTANT.get(key));
+            }
+            return true;
+        } else if (task instanceof LinearMovementTask) {
+            LinearMovementTask castedTask = (LinearMovementTask)task;
+            calculateAlyDeltas(castedTask.getAxial(), castedTask.getLateral(), 0, goalDeltas);
+            return true;
+        }
+        return false;
+    }
+
     /**
      * Calculates motor deltas from axial, lateral, and yaw given in arbitrary units.
      *
      * @param axial - axial value, positive forward
      * @param lateral - lateral value, positive right
      * @param yaw - yaw value, positive counterclockwise
-     * @return motor deltas calculated for each wheel.
+     * @param alyDeltas - receives the motor deltas calculated for each wheel.
      */
-    private WheelProperty<Double> calculateAlyDeltas(double axial, double lateral, double yaw) {
-        return new WheelProperty<>(
+    private static void calculateAlyDeltas(
+        double axial,
+        double lateral,
+        double yaw,
+        WheelValues alyDeltas
+    ) {
+        alyDeltas.set(
             axial - lateral - yaw,
             axial + lateral + yaw,
             axial + lateral - yaw,
@@ -227,30 +369,28 @@ public final class MecanumDrive implements Layer {
     }
 
     /**
-     * Scales velocities so the maximum absolute value is no more than 1.0 -- appropriate
+     * Scales velocities in place so the maximum absolute value is no more than 1.0 -- appropriate
      * for use as motor velocities.
      *
-     * @param velocities - the velocities to scale.
+     * @param wheelVelocities - the velocities to scale.
      * @param scaleUp - whether velocities may be scaled upwards. Should be false when handling user
      * input so drivers may be gentle.
-     * @return the scaled velocities.
      */
-    private WheelProperty<Double> normalizeVelocities(WheelProperty<Double> velocities, boolean scaleUp) {
-        WheelProperty<Double> absolute = velocities.map((_key, velocity) -> Math.abs(velocity));
+    private static void normalizeVelocities(WheelValues wheelVelocities, boolean scaleUp) {
         double maxAbsVelocity = Math.max(
             Math.max(
                 Math.max(
-                    absolute.leftFront,
-                    absolute.rightFront
+                    Math.abs(wheelVelocities.leftFront),
+                    Math.abs(wheelVelocities.rightFront)
                 ),
                 Math.max(
-                    absolute.leftBack,
-                    absolute.rightBack
+                    Math.abs(wheelVelocities.leftBack),
+                    Math.abs(wheelVelocities.rightBack)
                 )
             ),
             scaleUp ? Double.MIN_VALUE : 1.0 // Clamp to 1 when scaleUp is false to prevent upscaling
         );
-        return velocities.map((_key, velocity) -> velocity / maxAbsVelocity);
+        wheelVelocities.divide(maxAbsVelocity);
     }
 
     /**
@@ -476,4 +616,154 @@ public final class MecanumDrive implements Layer {
                 + ">";
         }
     }
+
+    /**
+     * Represents a real-valued property held by each wheel.
+     * Unlike a {@code WheelProperty<Double>}, the values are primitive and changed in place, so
+     * computing them every tick allocates nothing.
+     */
+    private static final class WheelValues {
+        /**
+         * The value of the property for the left front wheel.
+         */
+        private double leftFront;
+
+        /**
+         * The value of the property for the right front wheel.
+         */
+        private double rightFront;
+
+        /**
+         * The value of the property for the left back wheel.
+         */
+        private double leftBack;
+
+        /**
+         * The value of the property for the right back wheel.
+         */
+        private double rightBack;
+
+        /**
+         * Default-constructs a WheelValues, setting all values to 0.
+         */
+        WheelValues() {
+            this(0, 0, 0, 0);
+        }
+
+        /**
+         * Initializes a WheelValues with values for each wheel.
+         *
+         * @param leftFront - the value of the property for the left front wheel.
+         * @param rightFront - the value of the property for the right front wheel.
+         * @param leftBack - the value of the property for the left back wheel.
+         * @param rightBack - the value of the property for the right back wheel.
+         */
+        WheelValues(double leftFront, double rightFront, double leftBack, double rightBack) {
+            set(leftFront, rightFront, leftBack, rightBack);
+        }
+
+        /**
+         * Gets the value of the property for the given wheel.
+         *
+         * @param key - the wheel whose value should be retrieved.
+         * @return The value of the property for the given wheel.
+         */
+        double get(WheelProperty.WheelKey key) {
+            switch (key) {
+                case LEFT_FRONT:
+                    return leftFront;
+                case RIGHT_FRONT:
+                    return rightFront;
+                case LEFT_BACK:
+                    return leftBack;
+                case RIGHT_BACK:
+                    return rightBack;
+                default:
+                    throw new IllegalArgumentException("Bad WheelKey to WheelValues.get.");
+            }
+        }
+
+        /**
+         * Sets the value of the property for the given wheel.
+         *
+         * @param key - the wheel whose value should be set.
+         * @param value - the value to set the property to.
+         */
+        void set(WheelProperty.WheelKey key, double value) {
+            switch (key) {
+                case LEFT_FRONT:
+                    leftFront = value;
+                    break;
+                case RIGHT_FRONT:
+                    rightFront = value;
+                    break;
+                case LEFT_BACK:
+                    leftBack = value;
+                    break;
+                case RIGHT_BACK:
+                    rightBack = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Bad WheelKey to WheelValues.set.");
+            }
+        }
+
+        /**
+         * Sets the value of the property for every wheel.
+         *
+         * @param newLeftFront - the value of the property for the left front wheel.
+         * @param newRightFront - the value of the property for the right front wheel.
+         * @param newLeftBack - the value of the property for the left back wheel.
+         * @param newRightBack - the value of the property for the right back wheel.
+         */
+        void set(double newLeftFront, double newRightFront, double newLeftBack,
+            double newRightBack) {
+            leftFront = newLeftFront;
+            rightFront = newRightFront;
+            leftBack = newLeftBack;
+            rightBack = newRightBack;
+        }
+
+        /**
+         * Copies the values of another WheelValues.
+         *
+         * @param other - the values to copy.
+         */
+        void copy(WheelValues other) {
+            set(other.leftFront, other.rightFront, other.leftBack, other.rightBack);
+        }
+
+        /**
+         * Multiplies each value by the corresponding value of another WheelValues.
+         *
+         * @param factors - the factor for each wheel.
+         */
+        void multiply(WheelValues factors) {
+            leftFront *= factors.leftFront;
+            rightFront *= factors.rightFront;
+            leftBack *= factors.leftBack;
+            rightBack *= factors.rightBack;
+        }
+
+        /**
+         * Divides each value by a divisor.
+         *
+         * @param divisor - the divisor.
+         */
+        void divide(double divisor) {
+            leftFront /= divisor;
+            rightFront /= divisor;
+            leftBack /= divisor;
+            rightBack /= divisor;
+        }
+
+        @Override
+        public String toString() {
+            return "WheelValues<lf: " + leftFront
+                + ", rf: " + rightFront
+                + ", lb: " + leftBack
+                + ", rb: " + rightBack
+                + ">";
+        }
+    }
 }
@@ -1,5 +1,7 @@
 package org.firstinspires.ftc.teamcode.layer.drive;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Iterator;
 
 import com.qualcomm.robotcore.hardware.DcMotor;
@@ -97,12 +99,16 @@ public final class TwoWheelDrive implements Layer {
 
     @Override
     public void setup(LayerSetupInfo initInfo) {
+        DcMotor leftMotor = initInfo.getHardwareMap().get(DcMotor.class, LEFT_DRIVE_MOTOR_NAME);
         leftWheel = new Wheel(
-            initInfo.getHardwareMap().get(DcMotor.class, LEFT_DRIVE_MOTOR_NAME),
+            initInfo.getActuatorWriteBuffer().getMotor(leftMotor),
+            initInfo.getHardwareSnapshot().getEncoder(leftMotor),
             WHEEL_RADIUS
         );
+        DcMotor rightMotor = initInfo.getHardwareMap().get(DcMotor.class, RIGHT_DRIVE_MOTOR_NAME);
         rightWheel = new Wheel(
-            initInfo.getHardwareMap().get(DcMotor.class, RIGHT_DRIVE_MOTOR_NAME),
+            initInfo.getActuatorWriteBuffer().getMotor(rightMotor),
+            initInfo.getHardwareSnapshot().getEncoder(rightMotor),
             WHEEL_RADIUS
         );
 
@@ -171,4 +177,13 @@ public final class TwoWheelDrive implements Layer {
         leftWheel.setVelocity(Math.signum(leftGoalDelta));
         rightWheel.setVelocity(Math.signum(rightGoalDelta));
     }
+
+    @Override
+    public Collection<Class<? extends Task>> acceptedTaskTypes() {
+        return Arrays.asList(
+            AxialMovementTask.class,
+            TurnTask.class,
+            TankDriveTask.class
+        );
+    }
 }
@@ -1,5 +1,8 @@
 package org.firstinspires.ftc.teamcode.layer.input;
 
+import java.util.Collection;
+import java.util.Collections;
+
 import org.firstinspires.ftc.teamcode.layer.Layer;
 import org.firstinspires.ftc.teamcode.task.Task;
 import org.firstinspires.ftc.teamcode.task.UnsupportedTaskException;
@@ -21,5 +24,10 @@ public abstract class AbstractInputGenerator implements Layer {
     public final void acceptTask(Task task) {
         throw new UnsupportedTaskException(this, task);
     }
+
+    @Override
+    public final Collection<Class<? extends Task>> acceptedTaskTypes() {
+        return Collections.emptySet();
+    }
 }
 
@@ -6,8 +6,10 @@ import java.util.Iterator;
 import com.qualcomm.robotcore.hardware.Gamepad;
 
 import org.firstinspires.ftc.teamcode.layer.LayerSetupInfo;
+import org.firstinspires.ftc.teamcode.layer.TaskSink;
 import org.firstinspires.ftc.teamcode.task.GamepadInputTask;
 import org.firstinspires.ftc.teamcode.task.Task;
+import org.firstinspires.ftc.teamcode.task.TaskPool;
 
 /**
  * Generates {@link GamepadInputTask}s from snapshots of the gamepad inputs.
@@ -23,6 +25,11 @@ public final class GamepadInputGenerator extends AbstractInputGenerator {
      */
     private Gamepad gamepad1;
 
+    /**
+     * The pool the emitted GamepadInputTasks are taken from.
+     */
+    private TaskPool<GamepadInputTask> taskPool;
+
     /**
      * Constructs a GamepadInputGenerator.
      */
@@ -36,12 +43,31 @@ public final class GamepadInputGenerator extends AbstractInputGenerator {
             throw new IllegalArgumentException("At least one gamepad must be connected to the "
                 + "robot.");
         }
+        taskPool = setupInfo.createTaskPool(() -> new GamepadInputTask(
+            gamepad0 == null ? null : new GamepadInputTask.GamepadInput(),
+            gamepad1 == null ? null : new GamepadInputTask.GamepadInput()
+        ));
     }
 
     @Override
     public Iterator<Task> update(Iterable<Task> completed) {
-        return Collections.singleton((Task)(new GamepadInputTask(
-            gamepad0 == null ? null : new GamepadInputTask.GamepadInput(
+        return Collections.singleton(readGamepads()).iterator();
+    }
+
+    @Override
+    public void update(Iterable<Task> completed, TaskSink sink) {
+        sink.accept(readGamepads());
+    }
+
+    /**
+     * Fills a pooled task with the current state of the gamepads.
+     *
+     * @return The GamepadInputTask for this update.
+     */
+    private Task readGamepads() {
+        GamepadInputTask task = taskPool.acquire();
+        if (gamepad0 != null) {
+            task.gamepad0.set(
                 gamepad0.left_stick_x,
                 -gamepad0.left_stick_y,
                 gamepad0.left_bumper,
@@ -58,8 +84,10 @@ public final class GamepadInputGenerator extends AbstractInputGenerator {
                 gamepad0.b,
                 gamepad0.x,
                 gamepad0.y
-            ),
-            gamepad1 == null ? null : new GamepadInputTask.GamepadInput(
+            );
+        }
+        if (gamepad1 != null) {
+            task.gamepad1.set(
                 -gamepad1.left_stick_x,
                 gamepad1.left_stick_y,
                 gamepad1.left_bumper,
@@ -76,7 +104,8 @@ public final class GamepadInputGenerator extends AbstractInputGenerator {
                 gamepad1.b,
                 gamepad1.x,
                 gamepad1.y
-            )
-        ))).iterator();
+            );
+        }
+        return task;
     }
 }
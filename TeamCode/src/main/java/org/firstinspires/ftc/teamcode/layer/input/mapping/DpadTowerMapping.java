@@ -1,9 +1,13 @@
 package org.firstinspires.ftc.teamcode.layer.input.mapping;
 
+import java.util.Arrays;
+import java.util.Collection;
+
 import org.firstinspires.ftc.teamcode.layer.AbstractFunctionLayer;
 import org.firstinspires.ftc.teamcode.layer.LayerSetupInfo;
 import org.firstinspires.ftc.teamcode.task.GamepadInputTask;
 import org.firstinspires.ftc.teamcode.task.Task;
+import org.firstinspires.ftc.teamcode.task.TaskPool;
 import org.firstinspires.ftc.teamcode.task.TowerForearmTask;
 import org.firstinspires.ftc.teamcode.task.TowerTeleopTask;
 import org.firstinspires.ftc.teamcode.task.UnsupportedTaskException;
@@ -13,21 +17,30 @@ import org.firstinspires.ftc.teamcode.task.UnsupportedTaskException;
  * Up swings the tower upwards (away from front of robot).
  */
 public final class DpadTowerMapping extends AbstractFunctionLayer {
+    /**
+     * The pool the emitted TowerTeleopTasks are taken from.
+     */
+    private TaskPool<TowerTeleopTask> taskPool;
+
     /**
      * Constructs a DpadTowerMapping.
      */
-    public DpadTowerMapping() { }
+    public DpadTowerMapping() {
+        setMemoized(true);
+    }
 
     @Override
-    public void setup(LayerSetupInfo setupInfo) { }
+    public void setup(LayerSetupInfo setupInfo) {
+        taskPool = setupInfo.createTaskPool(() -> new TowerTeleopTask(0, 0));
+    }
 
     @Override
     public Task map(Task task) {
         if (task instanceof GamepadInputTask) {
-            GamepadInputTask castedTask = (GamepadInputTask)task;
-            return new TowerTeleopTask(
-                (castedTask.gamepad0.dpad.up ? 1 : 0) - (castedTask.gamepad0.dpad.down ? 1 : 0),
-                (castedTask.gamepad0.dpad.left ? 1 : 0) - (castedTask.gamepad0.dpad.right ? 1 : 0)
+            GamepadInputTask.DirectionalPad dpad = ((GamepadInputTask)task).gamepad0.dpad;
+            return taskPool.acquire().set(
+                (dpad.getUp() ? 1 : 0) - (dpad.getDown() ? 1 : 0),
+                (dpad.getLeft() ? 1 : 0) - (dpad.getRight() ? 1 : 0)
             );
         } else if (task instanceof TowerForearmTask) {
             return task;
@@ -35,4 +48,9 @@ public final class DpadTowerMapping extends AbstractFunctionLayer {
             throw new UnsupportedTaskException(this, task);
         }
     }
+
+    @Override
+    public Collection<Class<? extends Task>> acceptedTaskTypes() {
+        return Arrays.asList(GamepadInputTask.class, TowerForearmTask.class);
+    }
 }
@@ -1,10 +1,14 @@
 package org.firstinspires.ftc.teamcode.layer.input.mapping;
 
+import java.util.Collection;
+import java.util.Collections;
+
 import org.firstinspires.ftc.teamcode.layer.AbstractFunctionLayer;
 import org.firstinspires.ftc.teamcode.layer.LayerSetupInfo;
 import org.firstinspires.ftc.teamcode.task.GamepadInputTask;
 import org.firstinspires.ftc.teamcode.task.HolonomicDriveTask;
 import org.firstinspires.ftc.teamcode.task.Task;
+import org.firstinspires.ftc.teamcode.task.TaskPool;
 import org.firstinspires.ftc.teamcode.task.UnsupportedTaskException;
 
 /**
@@ -12,25 +16,39 @@ import org.firstinspires.ftc.teamcode.task.UnsupportedTaskException;
  * the robot) and the x axis of the right joystick to turn a robot using holonomic drive.
  */
 public final class JoystickHoloDriveMapping extends AbstractFunctionLayer {
+    /**
+     * The pool the emitted HolonomicDriveTasks are taken from.
+     */
+    private TaskPool<HolonomicDriveTask> taskPool;
+
     /**
      * Constructs a JoystickHoloDriveMapping.
      */
-    public JoystickHoloDriveMapping() { }
+    public JoystickHoloDriveMapping() {
+        setMemoized(true);
+    }
 
     @Override
-    public void setup(LayerSetupInfo setupInfo) { }
+    public void setup(LayerSetupInfo setupInfo) {
+        taskPool = setupInfo.createTaskPool(() -> new HolonomicDriveTask(0, 0, 0));
+    }
 
     @Override
     public Task map(Task task) {
         if (task instanceof GamepadInputTask) {
             GamepadInputTask castedTask = (GamepadInputTask)task;
-            return new HolonomicDriveTask(
-                castedTask.gamepad0.joysticks.left.y,
-                castedTask.gamepad0.joysticks.left.x,
-                -castedTask.gamepad0.joysticks.right.x
+            return taskPool.acquire().set(
+                castedTask.gamepad0.joysticks.left.getY(),
+                castedTask.gamepad0.joysticks.left.getX(),
+                -castedTask.gamepad0.joysticks.right.getX()
             );
         } else {
             throw new UnsupportedTaskException(this, task);
         }
     }
+
+    @Override
+    public Collection<Class<? extends Task>> acceptedTaskTypes() {
+        return Collections.singleton(GamepadInputTask.class);
+    }
 }
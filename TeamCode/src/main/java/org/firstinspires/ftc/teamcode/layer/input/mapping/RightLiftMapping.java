@@ -1,5 +1,8 @@
 package org.firstinspires.ftc.teamcode.layer.input.mapping;
 
+import java.util.Collection;
+import java.util.Collections;
+
 import org.firstinspires.ftc.teamcode.layer.AbstractFunctionLayer;
 import org.firstinspires.ftc.teamcode.layer.LayerSetupInfo;
 import org.firstinspires.ftc.teamcode.task.GamepadInputTask;
@@ -23,10 +26,10 @@ public final class RightLiftMapping extends AbstractFunctionLayer {
     public Task map(Task task) {
         if (task instanceof GamepadInputTask) {
             GamepadInputTask castedTask = (GamepadInputTask)task;
-            boolean raiseSwing = castedTask.gamepad0.bumpers.right;
-            boolean lowerSwing = castedTask.gamepad0.triggers.right;
-            boolean extend = castedTask.gamepad0.bumpers.left;
-            boolean retract = castedTask.gamepad0.triggers.left;
+            boolean raiseSwing = castedTask.gamepad0.bumpers.getRight();
+            boolean lowerSwing = castedTask.gamepad0.triggers.getRight();
+            boolean extend = castedTask.gamepad0.bumpers.getLeft();
+            boolean retract = castedTask.gamepad0.triggers.getLeft();
             return new LiftTeleopTask(
                 (raiseSwing ? 1 : 0) - (lowerSwing ? 1 : 0),
                 (extend ? 1 : 0) - (retract ? 1 : 0)
@@ -35,4 +38,9 @@ public final class RightLiftMapping extends AbstractFunctionLayer {
             throw new UnsupportedTaskException(this, task);
         }
     }
+
+    @Override
+    public Collection<Class<? extends Task>> acceptedTaskTypes() {
+        return Collections.singleton(GamepadInputTask.class);
+    }
 }
@@ -1,10 +1,14 @@
 package org.firstinspires.ftc.teamcode.layer.input.mapping;
 
+import java.util.Collection;
+import java.util.Collections;
+
 import org.firstinspires.ftc.teamcode.layer.AbstractFunctionLayer;
 import org.firstinspires.ftc.teamcode.layer.LayerSetupInfo;
 import org.firstinspires.ftc.teamcode.task.GamepadInputTask;
 import org.firstinspires.ftc.teamcode.task.TankDriveTask;
 import org.firstinspires.ftc.teamcode.task.Task;
+import org.firstinspires.ftc.teamcode.task.TaskPool;
 import org.firstinspires.ftc.teamcode.task.UnsupportedTaskException;
 
 /**
@@ -12,24 +16,38 @@ import org.firstinspires.ftc.teamcode.task.UnsupportedTaskException;
  * control power to the corresponding side of the robot.
  */
 public final class TankDriveMapping extends AbstractFunctionLayer {
+    /**
+     * The pool the emitted TankDriveTasks are taken from.
+     */
+    private TaskPool<TankDriveTask> taskPool;
+
     /**
      * Constructs a TankDriveMapping.
      */
-    public TankDriveMapping() { }
+    public TankDriveMapping() {
+        setMemoized(true);
+    }
 
     @Override
-    public void setup(LayerSetupInfo setupInfo) { }
+    public void setup(LayerSetupInfo setupInfo) {
+        taskPool = setupInfo.createTaskPool(() -> new TankDriveTask(0, 0));
+    }
 
     @Override
     public Task map(Task task) {
         if (task instanceof GamepadInputTask) {
             GamepadInputTask castedTask = (GamepadInputTask)task;
-            return new TankDriveTask(
-                castedTask.gamepad0.joysticks.left.y,
-                castedTask.gamepad0.joysticks.right.y
+            return taskPool.acquire().set(
+                castedTask.gamepad0.joysticks.left.getY(),
+                castedTask.gamepad0.joysticks.right.getY()
             );
         } else {
             throw new UnsupportedTaskException(this, task);
         }
     }
+
+    @Override
+    public Collection<Class<? extends Task>> acceptedTaskTypes() {
+        return Collections.singleton(GamepadInputTask.class);
+    }
 }
@@ -1,5 +1,8 @@
 package org.firstinspires.ftc.teamcode.layer.input.mapping;
 
+import java.util.Collection;
+import java.util.Collections;
+
 import org.firstinspires.ftc.teamcode.layer.AbstractFunctionLayer;
 import org.firstinspires.ftc.teamcode.layer.LayerSetupInfo;
 import org.firstinspires.ftc.teamcode.task.GamepadInputTask;
@@ -23,12 +26,17 @@ public final class TowerHangMapping extends AbstractFunctionLayer {
     public Task map(Task task) {
         if (task instanceof GamepadInputTask) {
             GamepadInputTask castedTask = (GamepadInputTask) task;
-            boolean hang = castedTask.gamepad0.buttons.y;
-            boolean unhang = castedTask.gamepad0.buttons.a;
+            boolean hang = castedTask.gamepad0.buttons.getY();
+            boolean unhang = castedTask.gamepad0.buttons.getA();
             boolean valid = !(hang && unhang);
             return new TowerHangTask(hang && valid, unhang && valid);
         } else {
             throw new UnsupportedTaskException(this, task);
         }
     }
+
+    @Override
+    public Collection<Class<? extends Task>> acceptedTaskTypes() {
+        return Collections.singleton(GamepadInputTask.class);
+    }
 }
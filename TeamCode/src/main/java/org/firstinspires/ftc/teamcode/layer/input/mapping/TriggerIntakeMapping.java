@@ -1,5 +1,8 @@
 package org.firstinspires.ftc.teamcode.layer.input.mapping;
 
+import java.util.Collection;
+import java.util.Collections;
+
 import org.firstinspires.ftc.teamcode.layer.AbstractFunctionLayer;
 import org.firstinspires.ftc.teamcode.layer.LayerSetupInfo;
 import org.firstinspires.ftc.teamcode.task.GamepadInputTask;
@@ -24,11 +27,16 @@ public final class TriggerIntakeMapping extends AbstractFunctionLayer {
     public Task map(Task task) {
         if (task instanceof GamepadInputTask) {
             GamepadInputTask castedTask = (GamepadInputTask)task;
-            boolean intake = castedTask.gamepad0.triggers.left;
-            boolean eject = castedTask.gamepad0.triggers.right;
+            boolean intake = castedTask.gamepad0.triggers.getLeft();
+            boolean eject = castedTask.gamepad0.triggers.getRight();
             return new IntakeTeleopTask(false, false, (intake ? 1 : 0) - (eject ? 1 : 0));
         } else {
             throw new UnsupportedTaskException(this, task);
         }
     }
+
+    @Override
+    public Collection<Class<? extends Task>> acceptedTaskTypes() {
+        return Collections.singleton(GamepadInputTask.class);
+    }
 }
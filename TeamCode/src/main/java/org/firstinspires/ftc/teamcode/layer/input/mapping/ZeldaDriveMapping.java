@@ -1,10 +1,14 @@
 package org.firstinspires.ftc.teamcode.layer.input.mapping;
 
+import java.util.Collection;
+import java.util.Collections;
+
 import org.firstinspires.ftc.teamcode.layer.AbstractFunctionLayer;
 import org.firstinspires.ftc.teamcode.layer.LayerSetupInfo;
 import org.firstinspires.ftc.teamcode.task.GamepadInputTask;
 import org.firstinspires.ftc.teamcode.task.TankDriveTask;
 import org.firstinspires.ftc.teamcode.task.Task;
+import org.firstinspires.ftc.teamcode.task.TaskPool;
 import org.firstinspires.ftc.teamcode.task.UnsupportedTaskException;
 
 /**
@@ -12,21 +16,30 @@ import org.firstinspires.ftc.teamcode.task.UnsupportedTaskException;
  * joystick for movement and turning, leaving the other joystick free.
  */
 public final class ZeldaDriveMapping extends AbstractFunctionLayer {
+    /**
+     * The pool the emitted TankDriveTasks are taken from.
+     */
+    private TaskPool<TankDriveTask> taskPool;
+
     /**
      * Constructs a ZeldaDriveMapipng.
      */
-    public ZeldaDriveMapping() { }
+    public ZeldaDriveMapping() {
+        setMemoized(true);
+    }
 
     @Override
-    public void setup(LayerSetupInfo setupInfo) { }
+    public void setup(LayerSetupInfo setupInfo) {
+        taskPool = setupInfo.createTaskPool(() -> new TankDriveTask(0, 0));
+    }
 
     @Override
     public Task map(Task task) {
         if (task instanceof GamepadInputTask) {
             GamepadInputTask castedTask = (GamepadInputTask)task;
-            double axial = castedTask.gamepad0.joysticks.left.y;
-            double yaw = castedTask.gamepad0.joysticks.left.x;
-            return new TankDriveTask(
+            double axial = castedTask.gamepad0.joysticks.left.getY();
+            double yaw = castedTask.gamepad0.joysticks.left.getX();
+            return taskPool.acquire().set(
                 axial + yaw,
                 axial - yaw
             );
@@ -34,4 +47,9 @@ public final class ZeldaDriveMapping extends AbstractFunctionLayer {
             throw new UnsupportedTaskException(this, task);
         }
     }
+
+    @Override
+    public Collection<Class<? extends Task>> acceptedTaskTypes() {
+        return Collections.singleton(GamepadInputTask.class);
+    }
 }
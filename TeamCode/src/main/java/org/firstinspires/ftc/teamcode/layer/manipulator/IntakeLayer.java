@@ -1,10 +1,14 @@
 package org.firstinspires.ftc.teamcode.layer.manipulator;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Iterator;
 
 import com.qualcomm.robotcore.hardware.CRServo;
 
 import org.firstinspires.ftc.teamcode.Units;
+import org.firstinspires.ftc.teamcode.hardware.HardwareSnapshot;
+import org.firstinspires.ftc.teamcode.hardware.PowerHandle;
 import org.firstinspires.ftc.teamcode.layer.Layer;
 import org.firstinspires.ftc.teamcode.layer.LayerSetupInfo;
 import org.firstinspires.ftc.teamcode.logging.Logger;
@@ -54,7 +58,12 @@ public final class IntakeLayer implements Layer {
     /**
      * Servo spinning the intake mechanism.
      */
-    private CRServo intake;
+    private PowerHandle intake;
+
+    /**
+     * The snapshot providing the time of the current tick.
+     */
+    private HardwareSnapshot snapshot;
 
     /**
      * The current action the layer is taking.
@@ -84,13 +93,16 @@ public final class IntakeLayer implements Layer {
     @Override
     public void setup(LayerSetupInfo setupInfo) {
         logger = setupInfo.getLogger("IntakeLayer");
-        intake = setupInfo.getHardwareMap().get(CRServo.class, "intake");
+        snapshot = setupInfo.getHardwareSnapshot();
+        intake = setupInfo.getActuatorWriteBuffer().getCRServo(
+            setupInfo.getHardwareMap().get(CRServo.class, "intake")
+        );
         state = State.IDLE;
         //TouchSensor loadSensor = setupInfo.getHardwareMap().get(TouchSensor.class, "intake_load_sensor");
         setupInfo.addUpdateListener(() -> {
             //boolean intakeDone = state == State.INTAKING && loadSensor.isPressed();
-            boolean intakeDone = state == State.INTAKING && (System.nanoTime() - intakeStart) > INTAKE_DURATION;
-            boolean ejectDone = state == State.EJECTING && (System.nanoTime() - ejectStart) > EJECT_DURATION;
+            boolean intakeDone = state == State.INTAKING && (snapshot.getTickTime() - intakeStart) > INTAKE_DURATION;
+            boolean ejectDone = state == State.EJECTING && (snapshot.getTickTime() - ejectStart) > EJECT_DURATION;
             if (intakeDone || ejectDone) {
                 state = State.IDLE;
                 intake.setPower(0);
@@ -115,22 +127,22 @@ public final class IntakeLayer implements Layer {
             if (castedTask.getAcquire()) {
                 state = State.INTAKING;
                 intake.setPower(-INTAKE_SPEED);
-                intakeStart = System.nanoTime();
+                intakeStart = snapshot.getTickTime();
             } else if (castedTask.getEject()) {
                 state = State.EJECTING;
                 intake.setPower(INTAKE_SPEED);
-                ejectStart = System.nanoTime();
+                ejectStart = snapshot.getTickTime();
             }
         } else if (task instanceof IntakeTeleopTask) {
             IntakeTeleopTask castedTask = (IntakeTeleopTask)task;
             if (castedTask.getAcquire()) {
                 state = State.INTAKING;
                 intake.setPower(-INTAKE_SPEED);
-                intakeStart = System.nanoTime();
+                intakeStart = snapshot.getTickTime();
             } else if (castedTask.getTimedEject()) {
                 state = State.EJECTING;
                 intake.setPower(INTAKE_SPEED);
-                ejectStart = System.nanoTime();
+                ejectStart = snapshot.getTickTime();
             } else {
                 state = State.IDLE;
                 intakeStart = 0;
@@ -142,4 +154,12 @@ public final class IntakeLayer implements Layer {
             throw new UnsupportedTaskException(this, task);
         }
     }
+
+    @Override
+    public Collection<Class<? extends Task>> acceptedTaskTypes() {
+        return Arrays.asList(
+            IntakeTask.class,
+            IntakeTeleopTask.class
+        );
+    }
 }
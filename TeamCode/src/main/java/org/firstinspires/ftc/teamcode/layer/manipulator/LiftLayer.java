@@ -1,5 +1,7 @@
 package org.firstinspires.ftc.teamcode.layer.manipulator;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Iterator;
 
 import com.qualcomm.robotcore.hardware.DcMotor;
@@ -7,6 +9,10 @@ import com.qualcomm.robotcore.hardware.TouchSensor;
 
 import org.firstinspires.ftc.teamcode.CircularBuffer;
 import org.firstinspires.ftc.teamcode.Units;
+import org.firstinspires.ftc.teamcode.hardware.ActuatorWriteBuffer;
+import org.firstinspires.ftc.teamcode.hardware.HardwareSnapshot;
+import org.firstinspires.ftc.teamcode.hardware.MotorHandle;
+import org.firstinspires.ftc.teamcode.hardware.TouchSensorHandle;
 import org.firstinspires.ftc.teamcode.layer.Layer;
 import org.firstinspires.ftc.teamcode.layer.LayerSetupInfo;
 import org.firstinspires.ftc.teamcode.mechanism.Wheel;
@@ -66,12 +72,12 @@ public final class LiftLayer implements Layer {
     /**
      * The motor used to swing the lift, zero power behavior is only brake.
      */
-    private DcMotor swingMotor;
+    private MotorHandle swingMotor;
 
     /**
      * The motor used to power the lift, only retained to change zero power behavior.
      */
-    private DcMotor pulleyMotor;
+    private MotorHandle pulleyMotor;
 
     /**
      * The pulley powering the lift.
@@ -117,11 +123,17 @@ public final class LiftLayer implements Layer {
 
     @Override
     public void setup(LayerSetupInfo setupInfo) {
-        pulleyMotor = setupInfo.getHardwareMap().get(DcMotor.class, "lift_motor");
-        pulley = new Wheel(pulleyMotor, PULLEY_RADIUS);
-        swingMotor = setupInfo.getHardwareMap().get(DcMotor.class, "swing_motor");
-        TouchSensor zeroSwitch = setupInfo.getHardwareMap().get(TouchSensor.class,
-            "lift_zero_switch");
+        HardwareSnapshot snapshot = setupInfo.getHardwareSnapshot();
+        ActuatorWriteBuffer writeBuffer = setupInfo.getActuatorWriteBuffer();
+        DcMotor pulleyDevice = setupInfo.getHardwareMap().get(DcMotor.class, "lift_motor");
+        pulleyMotor = writeBuffer.getMotor(pulleyDevice);
+        pulley = new Wheel(pulleyMotor, snapshot.getEncoder(pulleyDevice), PULLEY_RADIUS);
+        swingMotor = writeBuffer.getMotor(
+            setupInfo.getHardwareMap().get(DcMotor.class, "swing_motor")
+        );
+        TouchSensorHandle zeroSwitch = snapshot.getTouchSensor(
+            setupInfo.getHardwareMap().get(TouchSensor.class, "lift_zero_switch")
+        );
         zeroDist = pulley.getDistance();
         startDist = zeroDist;
         extensionLift = false;
@@ -194,6 +206,14 @@ public final class LiftLayer implements Layer {
         }
     }
 
+    @Override
+    public Collection<Class<? extends Task>> acceptedTaskTypes() {
+        return Arrays.asList(
+            LiftTask.class,
+            LiftTeleopTask.class
+        );
+    }
+
     /**
      * Calculates the current distance from the base to the tip of the lift.
      *
@@ -1,6 +1,8 @@
 package org.firstinspires.ftc.teamcode.layer.manipulator;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 
@@ -10,6 +12,10 @@ import com.qualcomm.robotcore.hardware.Servo;
 
 import org.firstinspires.ftc.teamcode.CircularBuffer;
 import org.firstinspires.ftc.teamcode.Units;
+import org.firstinspires.ftc.teamcode.hardware.ActuatorWriteBuffer;
+import org.firstinspires.ftc.teamcode.hardware.EncoderHandle;
+import org.firstinspires.ftc.teamcode.hardware.HardwareSnapshot;
+import org.firstinspires.ftc.teamcode.hardware.MotorHandle;
 import org.firstinspires.ftc.teamcode.layer.Layer;
 import org.firstinspires.ftc.teamcode.layer.LayerSetupInfo;
 import org.firstinspires.ftc.teamcode.logging.Logger;
@@ -97,6 +103,11 @@ public final class TowerLayer implements Layer {
      */
     private static final double HANG_POWER = 1.0;
 
+    /**
+     * The tower motor power magnitude to use when swinging for an autonomous TowerTask.
+     */
+    private static final double SWING_POWER = 0.5;
+
     /**
      * The number of revolutions of the tower caused by one revolution of the drive shaft.
      */
@@ -106,13 +117,23 @@ public final class TowerLayer implements Layer {
      * Motor used to swing the tower.
      * The zero power behavior is set to brake.
      */
-    private DcMotor tower;
+    private MotorHandle tower;
+
+    /**
+     * The handle reading the encoder of {@link #tower}.
+     */
+    private EncoderHandle towerEncoder;
 
     /**
      * Motor used to swing the forearm.
      * The zero power behavior is set to brake.
      */
-    private DcMotor forearm;
+    private MotorHandle forearm;
+
+    /**
+     * The handle reading the encoder of {@link #forearm}.
+     */
+    private EncoderHandle forearmEncoder;
 
     /**
      * Claw for specimens.
@@ -154,11 +175,21 @@ public final class TowerLayer implements Layer {
      */
     private double towerGoalAngle;
 
+    /**
+     * Whether the claw has begun moving since setup.
+     */
+    private boolean clawToggled;
+
     /**
      * Timestamp for when the claw last began moving.
      */
     private long clawStartTime;
 
+    /**
+     * The snapshot providing encoder readings and the time of the current tick.
+     */
+    private HardwareSnapshot snapshot;
+
     /**
      * The logger.
      */
@@ -184,18 +215,25 @@ public final class TowerLayer implements Layer {
     @Override
     public void setup(LayerSetupInfo setupInfo) {
         logger = setupInfo.getLogger("TowerLayer");
+        snapshot = setupInfo.getHardwareSnapshot();
         isInit = false;
         hanging = false;
         finishedInit = false;
-        tower = setupInfo.getHardwareMap().get(DcMotor.class, "tower_swing");
+        ActuatorWriteBuffer writeBuffer = setupInfo.getActuatorWriteBuffer();
+        DcMotor towerDevice = setupInfo.getHardwareMap().get(DcMotor.class, "tower_swing");
+        towerDevice.setDirection(DcMotorSimple.Direction.FORWARD);
+        tower = writeBuffer.getMotor(towerDevice);
         tower.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
-        tower.setDirection(DcMotorSimple.Direction.FORWARD);
-        towerZero = tower.getCurrentPosition();
-        forearm = setupInfo.getHardwareMap().get(DcMotor.class, "forearm_swing");
+        towerEncoder = snapshot.getEncoder(towerDevice);
+        towerZero = towerEncoder.getPosition();
+        DcMotor forearmDevice = setupInfo.getHardwareMap().get(DcMotor.class, "forearm_swing");
+        forearmDevice.setDirection(DcMotorSimple.Direction.REVERSE);
+        forearm = writeBuffer.getMotor(forearmDevice);
         forearm.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
-        forearm.setDirection(DcMotorSimple.Direction.REVERSE);
-        forearmZero = forearm.getCurrentPosition();
+        forearmEncoder = snapshot.getEncoder(forearmDevice);
+        forearmZero = forearmEncoder.getPosition();
         //claw = setupInfo.getHardwareMap().get(Servo.class, "claw");
+        clawToggled = false;
         clawStartTime = 0;
         setupInfo.addUpdateListener(() -> {
             if (isSwinging && checkTowerDone()) {
@@ -220,7 +258,9 @@ public final class TowerLayer implements Layer {
         } else if (isSwinging) {
             return checkTowerDone();
         } else {
-            return System.nanoTime() - clawStartTime >= CLAW_TOGGLE_DURATION;
+            // The clock's origin is arbitrary, so a claw that never moved is at rest regardless
+            return !clawToggled
+                || snapshot.getTickTime() - clawStartTime >= CLAW_TOGGLE_DURATION;
         }
     }
 
@@ -236,14 +276,17 @@ public final class TowerLayer implements Layer {
             isInit = true;
         } else if (task instanceof TowerTask) {
             TowerTask castedTowerTask = (TowerTask)task;
-            isSwinging = true;
             isInit = false;
             if (castedTowerTask.getFullRaise()) {
                 towerGoalAngle = FULL_RAISE_ANGLE;
             } else if (castedTowerTask.getFullLower()) {
                 towerGoalAngle = 0;
             }
-            towerStartPos = tower.getCurrentPosition();
+            towerStartPos = towerEncoder.getPosition();
+            double goalDeltaAngle = towerGoalAngle - getTowerAngle(towerStartPos);
+            // Already at the goal, so there is nothing to swing
+            isSwinging = goalDeltaAngle != 0;
+            tower.setPower(Math.signum(goalDeltaAngle) * SWING_POWER);
         } else if (task instanceof TowerTeleopTask) {
             if (hanging) {
                 // Disable input
@@ -264,15 +307,26 @@ public final class TowerLayer implements Layer {
         }
     }
 
+    @Override
+    public Collection<Class<? extends Task>> acceptedTaskTypes() {
+        return Arrays.asList(
+            TowerForearmTask.class,
+            TowerTask.class,
+            TowerTeleopTask.class,
+            TowerHangTask.class
+        );
+    }
+
     /**
-     * Checks whether a change in some measured parameter has exceeded a desired change.
+     * Checks whether a change in some measured parameter has reached a desired change.
      *
      * @param delta - the measured change in the tested parameter.
      * @param goalDelta - the desired change in the parameter.
-     * @return Whether delta exceeds goalDelta in magnitude and matches it in direction.
+     * @return Whether delta reaches goalDelta in magnitude and matches it in direction.
      */
     private boolean checkDelta(double delta, double goalDelta) {
-        boolean magExceeded = Math.abs(delta) > Math.abs(goalDelta);
+        // Reaching the goal exactly counts, since a swing to a hard stop can't overshoot it
+        boolean magExceeded = Math.abs(delta) >= Math.abs(goalDelta);
         boolean signMatches = (delta > 0) == (goalDelta > 0);
         return magExceeded && signMatches;
     }
@@ -283,8 +337,8 @@ public final class TowerLayer implements Layer {
      * @return The angle of the forearm relative to {@link #forearmZero}.
      */
     private double getForearmAngle() {
-        double revs = (forearm.getCurrentPosition() - forearmZero)
-            / forearm.getMotorType().getTicksPerRev() * FOREARM_GEAR_RATIO;
+        double revs = (forearmEncoder.getPosition() - forearmZero)
+            / forearmEncoder.getTicksPerRev() * FOREARM_GEAR_RATIO;
         return Units.convert(revs, Units.Angle.REV, Units.Angle.RAD);
     }
 
@@ -294,14 +348,23 @@ public final class TowerLayer implements Layer {
      * @return Whether the tower has finished its most recent autonomous swing action.
      */
     private boolean checkTowerDone() {
-        double revs = (tower.getCurrentPosition() - towerStartPos)
-            / tower.getMotorType().getTicksPerRev() * TOWER_GEAR_RATIO;
-        double deltaAngle = Units.convert(revs, Units.Angle.REV, Units.Angle.RAD);
-        double startAngle = towerStartPos / tower.getMotorType().getTicksPerRev();
+        double startAngle = getTowerAngle(towerStartPos);
+        double deltaAngle = getTowerAngle(towerEncoder.getPosition()) - startAngle;
         double goalDeltaAngle = towerGoalAngle - startAngle;
         return checkDelta(deltaAngle, goalDeltaAngle);
     }
 
+    /**
+     * Calculates the angle of the tower at an encoder position.
+     *
+     * @param position - the tower encoder position, in ticks.
+     * @return The angle of the tower relative to {@link #towerZero}.
+     */
+    private double getTowerAngle(double position) {
+        double revs = (position - towerZero) / towerEncoder.getTicksPerRev() * TOWER_GEAR_RATIO;
+        return Units.convert(revs, Units.Angle.REV, Units.Angle.RAD);
+    }
+
     /**
      * Calculates whether the forearm has finished swinging to the initialized position.
      *
@@ -350,5 +413,10 @@ public final class TowerLayer implements Layer {
         public void acceptTask(Task task) {
             throw new UnsupportedTaskException(this, task);
         }
+
+        @Override
+        public Collection<Class<? extends Task>> acceptedTaskTypes() {
+            return Collections.emptySet();
+        }
     }
 }
@@ -1,13 +1,21 @@
 package org.firstinspires.ftc.teamcode.layer.pathfinding;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReference;
 
+import org.firstinspires.ftc.teamcode.TimingHistogram;
 import org.firstinspires.ftc.teamcode.Units;
+import org.firstinspires.ftc.teamcode.hardware.HardwareSnapshot;
 import org.firstinspires.ftc.teamcode.layer.Layer;
 import org.firstinspires.ftc.teamcode.layer.LayerSetupInfo;
+import org.firstinspires.ftc.teamcode.layer.TaskSink;
 import org.firstinspires.ftc.teamcode.localization.RobotLocalizer;
 import org.firstinspires.ftc.teamcode.matrix.Mat2;
 import org.firstinspires.ftc.teamcode.matrix.Mat3;
@@ -31,6 +39,31 @@ public final class PathfindingLayer implements Layer {
      */
     private static final double TRAJECTORY_SEARCH_INCREMENT = 0.01;
 
+    /**
+     * The number of {@link #TRAJECTORY_SEARCH_INCREMENT}s from 0 to either bound of each trajectory
+     * parameter.
+     */
+    private static final int SEARCH_STEPS = (int)Math.round(1 / TRAJECTORY_SEARCH_INCREMENT);
+
+    /**
+     * The spacing of the trajectories searched at each level of the coarse-to-fine search, in
+     * {@link #TRAJECTORY_SEARCH_INCREMENT}s. The first level covers the whole search space and each
+     * following level covers the spacing of the previous level around each of its best
+     * trajectories, ending at the full resolution of the exhaustive search.
+     */
+    private static final int[] SEARCH_LEVEL_STRIDES = {10, 2, 1};
+
+    /**
+     * The number of trajectory parameters, which are the dimensions of the search space.
+     */
+    private static final int SEARCH_DIMENSIONS = 3;
+
+    /**
+     * The number of best trajectories of each level of the coarse-to-fine search refined by the
+     * next level.
+     */
+    private static final int SEARCH_REFINE_COUNT = 4;
+
     /**
      * The coefficient of the target angle term in the objective function.
      */
@@ -71,6 +104,35 @@ public final class PathfindingLayer implements Layer {
      */
     private static final double CLEARANCE_STEP = 0.05;
 
+    /**
+     * The smallest side length in meters of the cells of the obstacle grid. About the size of the
+     * smallest game elements, so that each cell only holds the few obstacles around it.
+     */
+    private static final double OBSTACLE_CELL_SIZE = 0.25;
+
+    /**
+     * The largest number of cells along each axis of the obstacle grid, which bounds its memory use
+     * when obstacles are spread out far beyond the field.
+     */
+    private static final int MAX_OBSTACLE_GRID_CELLS = 64;
+
+    /**
+     * The distance in meters the static distance field extends past the static obstacles on every
+     * side, so that trajectories near them sample it instead of extrapolating.
+     */
+    private static final double STATIC_FIELD_MARGIN = 0.5;
+
+    /**
+     * The finest resolution in meters the static distance field may be sampled at, which keeps it
+     * to a few megabytes for a whole field.
+     */
+    private static final double MIN_STATIC_FIELD_RESOLUTION = 0.005;
+
+    /**
+     * The trajectory followed while no plan for the current goal is available.
+     */
+    private static final Trajectory HOLD_STILL = new Trajectory(0, 0, 0);
+
     /**
      * The goal field transform the robot should pathfind to.
      */
@@ -83,39 +145,156 @@ public final class PathfindingLayer implements Layer {
     private List<Obstacle> obstacles;
 
     /**
-     * The current trajectory the robot should take.
+     * An unmodifiable copy of {@link #obstacles} for planning, or null if obstacles have been added
+     * since it was made.
+     */
+    private List<Obstacle> plannedObstacles;
+
+    /**
+     * A grid indexing {@link #plannedObstacles}, or null if obstacles have been added since it was
+     * made or obstacles aren't indexed.
+     */
+    private ObstacleGrid plannedObstacleGrid;
+
+    /**
+     * Whether obstacles are indexed by a grid instead of being checked one by one.
+     */
+    private boolean obstacleIndexing;
+
+    /**
+     * The static obstacles to rasterize into a distance field, shared by every request planning
+     * around them so the field is only built once, or null if static obstacles have been added
+     * since it was made, there are none, or they aren't rasterized.
+     */
+    private LazyDistanceField plannedStaticField;
+
+    /**
+     * The spacing in meters of the samples of the static distance field, or 0 if static obstacles
+     * are checked like any other obstacle.
+     */
+    private double staticFieldResolution;
+
+    /**
+     * The number of goals accepted so far, used to tell plans for the current goal from stale ones.
+     */
+    private int goalGeneration;
+
+    /**
+     * The plan the robot is following, or null if none has been made yet.
      */
-    private Trajectory currentTrajectory;
+    private Plan currentPlan;
 
     /**
-     * The timestamp in nanoseconds the current trajectory was calculated.
+     * The timestamp in nanoseconds the last plan was requested.
      */
     private long lastCalcTime;
 
     /**
-     * The field transform of the robot before the current trajectory was applied.
+     * The state the current search is planning from.
+     * Only accessed by the thread searching and the workers of {@link #pool} it hands off to.
+     */
+    private PlanRequest planning;
+
+    /**
+     * The distance field of the static obstacles the current search plans around, or null if there
+     * is none.
+     * Only accessed by the thread searching and the workers of {@link #pool} it hands off to.
      */
-    private Mat3 initialTransform;
+    private DistanceField planningStaticField;
 
     /**
-     * The robot space velocity of the robot before the current trajectory was applied.
+     * The durations of the searches whose plans have been adopted, in nanoseconds.
      */
-    private Mat3 initialVelocity;
+    private final TimingHistogram planDurations;
+
+    /**
+     * Whether plans are searched for on a background thread instead of during update.
+     */
+    private boolean backgroundPlanning;
+
+    /**
+     * The background planner, or null if plans are searched for during update.
+     */
+    private BackgroundPlanner planner;
 
     /**
      * The localizer used to determine the robot's current field-space transform.
      */
     private RobotLocalizer localizer;
 
+    /**
+     * The snapshot providing the time of the current tick.
+     */
+    private HardwareSnapshot snapshot;
+
+    /**
+     * Whether {@link #calculatePath} sweeps the whole search space at full resolution instead of
+     * searching from coarse to fine.
+     */
+    private boolean exhaustiveSearch;
+
+    /**
+     * The number of worker threads scoring trajectories, or 0 if they are scored on the calling
+     * thread.
+     */
+    private final int parallelism;
+
+    /**
+     * The pool scoring trajectories in parallel, or null if they are scored on the calling thread
+     * or the layer is not set up.
+     */
+    private ForkJoinPool pool;
+
+    /**
+     * Constructs a PathfindingLayer that scores trajectories on the calling thread.
+     */
+    public PathfindingLayer() {
+        this(0);
+    }
+
     /**
      * Constructs a PathfindingLayer.
+     *
+     * @param parallelism - the number of worker threads scoring trajectories, or 0 to score them on
+     * the calling thread. The workers are started by {@link #setup} and shut down when the
+     * controller tears down. The chosen trajectory does not depend on it.
      */
-    public PathfindingLayer() { }
+    public PathfindingLayer(int parallelism) {
+        if (parallelism < 0) {
+            throw new IllegalArgumentException("Parallelism must be non-negative.");
+        }
+        exhaustiveSearch = false;
+        obstacleIndexing = true;
+        staticFieldResolution = 0;
+        this.parallelism = parallelism;
+        pool = null;
+        planDurations = new TimingHistogram();
+        backgroundPlanning = false;
+        planner = null;
+    }
 
     @Override
     public void setup(LayerSetupInfo setupInfo) {
         obstacles = new ArrayList<>();
+        plannedObstacles = null;
+        plannedObstacleGrid = null;
+        plannedStaticField = null;
+        goalGeneration = 0;
+        currentPlan = null;
+        planDurations.reset();
         localizer = setupInfo.getLocalizer();
+        snapshot = setupInfo.getHardwareSnapshot();
+        boolean startPool = parallelism > 0 && pool == null;
+        boolean startPlanner = backgroundPlanning && planner == null;
+        if (startPool || startPlanner) {
+            setupInfo.addTeardownListener(this::stopThreads);
+        }
+        if (startPool) {
+            pool = new ForkJoinPool(parallelism);
+        }
+        if (startPlanner) {
+            planner = new BackgroundPlanner();
+        }
     }
 
     @Override
@@ -127,17 +306,12 @@ public final class PathfindingLayer implements Layer {
 
     @Override
     public Iterator<Task> update(Iterable<Task> completed) {
-        long nowNano = System.nanoTime();
-        if (nowNano - lastCalcTime > (long)Units.convert(CALCULATE_INTERVAL, Units.Time.SEC,
-            Units.Time.NANO)) {
-            calculatePath();
-            lastCalcTime = nowNano;
-        }
-        return Collections.singleton((Task)(new HolonomicDriveTask(
-            currentTrajectory.getAxial(),
-            -currentTrajectory.getLateral(),
-            currentTrajectory.getYaw()
-        ))).iterator();
+        return Collections.singleton(nextDriveTask()).iterator();
+    }
+
+    @Override
+    public void update(Iterable<Task> completed, TaskSink sink) {
+        sink.accept(nextDriveTask());
     }
 
     @Override
@@ -145,11 +319,229 @@ public final class PathfindingLayer implements Layer {
         if (task instanceof MoveToFieldTask) {
             MoveToFieldTask castedTask = (MoveToFieldTask)task;
             goal = castedTask.getGoalTransform();
-            lastCalcTime = System.nanoTime() - (long)Units.convert(CALCULATE_INTERVAL,
+            ++goalGeneration;
+            lastCalcTime = snapshot.getTickTime() - (long)Units.convert(CALCULATE_INTERVAL,
                 Units.Time.SEC, Units.Time.NANO);
         }
     }
 
+    @Override
+    public Collection<Class<? extends Task>> acceptedTaskTypes() {
+        return Collections.singleton(MoveToFieldTask.class);
+    }
+
+    /**
+     * Requests a new plan if due and creates a task to follow the current trajectory.
+     * In the background, the robot holds still until the first plan for the current goal is
+     * published, and then follows the newest published plan.
+     *
+     * @return The HolonomicDriveTask for this update.
+     */
+    private Task nextDriveTask() {
+        long nowNano = snapshot.getTickTime();
+        if (nowNano - lastCalcTime >= (long)Units.convert(CALCULATE_INTERVAL, Units.Time.SEC,
+            Units.Time.NANO)) {
+            PlanRequest request = takePlanSnapshot(nowNano);
+            if (planner == null) {
+                adoptPlan(calculatePath(request));
+            } else {
+                planner.request(request);
+            }
+            lastCalcTime = nowNano;
+        }
+        if (planner != null) {
+            Plan published = planner.getPublished();
+            if (published != null && published != currentPlan) {
+                adoptPlan(published);
+            }
+        }
+        Trajectory trajectory = currentPlan != null && currentPlan.goalGeneration == goalGeneration
+            ? currentPlan.trajectory
+            : HOLD_STILL;
+        return new HolonomicDriveTask(
+            trajectory.getAxial(),
+            -trajectory.getLateral(),
+            trajectory.getYaw()
+        );
+    }
+
+    /**
+     * Stops the background planner and shuts down the pool, if running, so that they do not outlive
+     * the controller.
+     * The planner is stopped first, since its searches use the pool.
+     */
+    private void stopThreads() {
+        if (planner != null) {
+            planner.stop();
+            planner = null;
+        }
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    /**
+     * Takes a consistent snapshot of everything a search reads, so that it can plan on another
+     * thread while the robot keeps moving.
+     *
+     * @param nowNano - the time of the current tick in nanoseconds.
+     * @return The snapshot.
+     */
+    private PlanRequest takePlanSnapshot(long nowNano) {
+        if (plannedObstacles == null) {
+            List<Obstacle> analytic = new ArrayList<>();
+            List<Obstacle> rasterized = new ArrayList<>();
+            for (Obstacle obstacle : obstacles) {
+                if (staticFieldResolution > 0 && obstacle.isStatic()) {
+                    rasterized.add(obstacle);
+                } else {
+                    analytic.add(obstacle);
+                }
+            }
+            plannedObstacles = Collections.unmodifiableList(analytic);
+            if (plannedStaticField == null && !rasterized.isEmpty()) {
+                // Rasterized by the search, off the tick thread when planning in the background
+                plannedStaticField = new LazyDistanceField(
+                    Collections.unmodifiableList(rasterized),
+                    staticFieldResolution
+                );
+            }
+        }
+        if (obstacleIndexing && plannedObstacleGrid == null) {
+            plannedObstacleGrid = new ObstacleGrid(plannedObstacles);
+        }
+        return new PlanRequest(
+            getTransform(),
+            getVelocity(),
+            goal,
+            plannedObstacles,
+            obstacleIndexing ? plannedObstacleGrid : null,
+            plannedStaticField,
+            nowNano,
+            goalGeneration
+        );
+    }
+
+    /**
+     * Starts following a plan and records how long it took to make.
+     *
+     * @param plan - the plan.
+     */
+    private void adoptPlan(Plan plan) {
+        currentPlan = plan;
+        planDurations.add(plan.durationNanos);
+    }
+
+    /**
+     * Adds a rectangular obstacle whose transform and size are definitely known, such as an
+     * impassable part of the field.
+     * Obstacles are cleared by {@link #setup}, so this must be called after it.
+     *
+     * @param transform - the field space transform of the center of the rectangle, given in units
+     * of meters.
+     * @param size - the width and height of the rectangle in meters, expressed as a 2D vector.
+     */
+    public void addStaticObstacle(Mat3 transform, Vec2 size) {
+        addObstacle(new StaticObstacle(transform, size));
+    }
+
+    /**
+     * Sets whether the trajectory search sweeps the whole search space at full resolution.
+     * Disabled by default, in which case the search starts from a coarse grid and refines around
+     * its best trajectories, which reaches the same optimum within the resolution of the coarse
+     * grid for objective functions that are smooth at that scale, in a small fraction of the time.
+     *
+     * @param exhaustive - whether to search exhaustively.
+     */
+    public void setExhaustiveSearch(boolean exhaustive) {
+        exhaustiveSearch = exhaustive;
+    }
+
+    /**
+     * Sets whether obstacles are indexed by a uniform grid over their bounding circles.
+     * Enabled by default, in which case collision checks only look at the obstacles sharing a cell
+     * with each point of a trajectory, and clearance checks only at the obstacles that could be
+     * closer than the closest one found so far, so planning time barely grows with the number of
+     * obstacles. When disabled, every point is checked against every obstacle, which finds the same
+     * trajectories.
+     *
+     * @param enable - whether to index obstacles.
+     */
+    public void setObstacleIndexing(boolean enable) {
+        obstacleIndexing = enable;
+    }
+
+    /**
+     * Sets whether static obstacles are rasterized into a signed distance field, and how finely.
+     * Disabled by default. When enabled, the static obstacles are rasterized once, by the first
+     * search after adding them, which runs on the background thread if background planning is
+     * enabled and during update otherwise, and every later check reads the field with bilinear
+     * interpolation in constant time no matter how many static obstacles there are. Only dynamic
+     * obstacles are still checked analytically. Interpolation rounds off the corners of obstacles
+     * by up to about the resolution, so choose one well below the clearances that matter.
+     *
+     * @param resolution - the spacing in meters of the samples of the field, or 0 to check static
+     * obstacles analytically.
+     */
+    public void setStaticFieldResolution(double resolution) {
+        if (resolution != 0 && !(resolution >= MIN_STATIC_FIELD_RESOLUTION)) {
+            throw new IllegalArgumentException(
+                "Static field resolution must be 0 or at least " + MIN_STATIC_FIELD_RESOLUTION
+                    + " m."
+            );
+        }
+        staticFieldResolution = resolution;
+        plannedObstacles = null;
+        plannedObstacleGrid = null;
+        plannedStaticField = null;
+    }
+
+    /**
+     * Sets whether plans are searched for on a dedicated background thread.
+     * Disabled by default, in which case update stalls for a whole search every
+     * {@link #CALCULATE_INTERVAL}. When enabled, update instead hands a snapshot of the robot's
+     * transform, goal, and obstacles to the background thread and returns right away, following the
+     * newest plan published so far. The thread is started by {@link #setup} and stopped when the
+     * controller tears down, so this must be called before setup.
+     *
+     * @param enable - whether to plan in the background.
+     */
+    public void setBackgroundPlanning(boolean enable) {
+        backgroundPlanning = enable;
+    }
+
+    /**
+     * Returns how many trajectories the search for the plan being followed checked against the
+     * dynamic window, each of which is rolled out against every obstacle.
+     *
+     * @return The number of trajectories considered, or 0 if no plan is being followed.
+     */
+    public long getSearchedCandidates() {
+        return currentPlan == null ? 0 : currentPlan.candidates;
+    }
+
+    /**
+     * Returns how old the plan being followed is.
+     * Includes the time spent searching for it, during which the robot kept following the previous
+     * plan.
+     *
+     * @return The time in nanoseconds from the snapshot the plan was made from to the current tick,
+     * or -1 if no plan is being followed.
+     */
+    public long getPlanAge() {
+        return currentPlan == null ? -1 : snapshot.getTickTime() - currentPlan.snapshotTime;
+    }
+
+    /**
+     * Returns the durations of the searches whose plans have been followed.
+     *
+     * @return The histogram of search durations in nanoseconds.
+     */
+    public TimingHistogram getPlanDurations() {
+        return planDurations;
+    }
+
     /**
      * Computes a comparable score for a trajectory considering three factors.
      * This is the objective function the dynamic window approach optimizes.
@@ -174,7 +566,8 @@ public final class PathfindingLayer implements Layer {
     private double evaluateTargetAngle(Trajectory t) {
         Mat3 finalTransform = getTrajectoryTransform(t, 1);
         Vec2 finalDirection = finalTransform.getDirection();
-        Vec2 finalDelta = finalTransform.getTranslation().mul(-1).add(goal.getTranslation());
+        Vec2 finalDelta = finalTransform.getTranslation().mul(-1)
+            .add(planning.goal.getTranslation());
         double angle = finalDirection.angleWith(finalDelta);
         return TARGET_ANGLE_SMOOTHING_C / (angle + TARGET_ANGLE_SMOOTHING_K);
     }
@@ -191,7 +584,15 @@ public final class PathfindingLayer implements Layer {
         double minClearence = Double.POSITIVE_INFINITY;
         for (double frac = 0; frac < 1; frac += CLEARANCE_STEP) {
             Vec2 translation = getTrajectoryTransform(t, frac).getTranslation();
-            for (Obstacle obstacle : obstacles) {
+            if (planningStaticField != null) {
+                minClearence = Math.min(minClearence,
+                    planningStaticField.getDistanceTo(translation));
+            }
+            if (planning.obstacleGrid != null) {
+                minClearence = planning.obstacleGrid.getClearance(translation, minClearence);
+                continue;
+            }
+            for (Obstacle obstacle : planning.obstacles) {
                 double clearanceToObstacle = obstacle.getDistanceTo(translation);
                 if (minClearence > clearanceToObstacle) {
                     minClearence = clearanceToObstacle;
@@ -213,43 +614,108 @@ public final class PathfindingLayer implements Layer {
     }
 
     /**
-     * Maximizes the objective function inside the dynamic window, setting
-     * {@link #currentTrajectory} to the result.
+     * Maximizes the objective function inside the dynamic window.
      * Searches for the trajectory with the highest score from the objective function within a small
      * rectangular region. Trajectories outside the dynamic window are culled before calling the
      * objective function.
+     *
+     * @param request - the snapshot to plan from.
+     * @return The plan following the best trajectory.
      */
-    private void calculatePath() {
-        // Keeps track of the best-scored trajectory and the score it had.
-        Trajectory bestTrajectory = null;
-        double bestScore = Double.NEGATIVE_INFINITY;
-
-        // Represents bounds of the search space.
-        Trajectory maxBounds = new Trajectory(1, 1, 1);
-        Trajectory minBounds = new Trajectory(-1, -1, -1);
-
-        // Veeeeeeery slow search loop.
-        for (double a = minBounds.getAxial(); a < maxBounds.getAxial(); a += TRAJECTORY_SEARCH_INCREMENT) {
-            for (double l = minBounds.getLateral(); l < maxBounds.getLateral(); l += TRAJECTORY_SEARCH_INCREMENT) {
-                for (double y = minBounds.getYaw(); y < maxBounds.getYaw(); y += TRAJECTORY_SEARCH_INCREMENT) {
-                    Trajectory t = new Trajectory(a, l, y);
-                    if (!checkDynamicWindow(t)) {
-                        continue;
-                    }
-                    double score = evaluateTrajectory(t);
-                    if (score > bestScore) {
-                        bestScore = score;
-                        bestTrajectory = t;
-                    }
-                }
-            }
-        }
-        if (bestScore == Double.NEGATIVE_INFINITY) {
+    private Plan calculatePath(PlanRequest request) {
+        long start = System.nanoTime();
+        planning = request;
+        planningStaticField = request.staticField != null ? request.staticField.get() : null;
+        Ranking best = exhaustiveSearch ? searchExhaustively() : searchCoarseToFine();
+        Trajectory bestTrajectory = best.getBest();
+        if (bestTrajectory == null) {
             // Dynamic window was empty of trajectories (all valid ones interesct obstacles)
             // Spin until the dynamic window isn't empty
             bestTrajectory = new Trajectory(0, 0, 1);
         }
-        currentTrajectory = bestTrajectory;
+        planning = null;
+        planningStaticField = null;
+        return new Plan(
+            bestTrajectory,
+            request.snapshotTime,
+            System.nanoTime() - start,
+            best.candidates,
+            request.goalGeneration
+        );
+    }
+
+    /**
+     * Sweeps the whole search space at full resolution for the trajectory with the highest score.
+     *
+     * @return The ranking holding the best trajectory inside the dynamic window, if there is one.
+     */
+    private Ranking searchExhaustively() {
+        Ranking best = new Ranking(1);
+        searchGrid(best, new int[SEARCH_DIMENSIONS], SEARCH_STEPS, 1);
+        return best;
+    }
+
+    /**
+     * Searches for the trajectory with the highest score from coarse to fine.
+     * The first level sweeps the whole search space on a coarse grid. Each following level sweeps a
+     * finer grid spanning one spacing of the previous level around each of the best trajectories it
+     * found, so the last level searches at full resolution only near the best coarse candidates.
+     *
+     * @return The ranking holding the best trajectories inside the dynamic window, if there are
+     * any.
+     */
+    private Ranking searchCoarseToFine() {
+        Ranking best = new Ranking(SEARCH_REFINE_COUNT);
+        searchGrid(best, new int[SEARCH_DIMENSIONS], SEARCH_STEPS, SEARCH_LEVEL_STRIDES[0]);
+        int[][] centers = new int[SEARCH_REFINE_COUNT][SEARCH_DIMENSIONS];
+        for (int level = 1; level < SEARCH_LEVEL_STRIDES.length && best.count > 0; ++level) {
+            int centerCount = best.count;
+            for (int i = 0; i < centerCount; ++i) {
+                System.arraycopy(best.coords[i], 0, centers[i], 0, SEARCH_DIMENSIONS);
+            }
+            // Keep the best trajectories so far, so refining can only improve on them
+            for (int i = 0; i < centerCount; ++i) {
+                searchGrid(
+                    best,
+                    centers[i],
+                    SEARCH_LEVEL_STRIDES[level - 1],
+                    SEARCH_LEVEL_STRIDES[level]
+                );
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Scores the trajectories of a cubic grid inside the dynamic window, adding the best ones to a
+     * ranking.
+     * The grid is clipped to the search space, which includes -1 but excludes 1. Trajectories
+     * already in the ranking are skipped, since an overlapping grid scored them. If there is a
+     * {@link #pool}, the grid is split into slices along the axial parameter that are scored in
+     * parallel and ranked separately, then merged by score with ties going to the trajectory that
+     * comes first in the grid, so the result is the same as scoring the grid in order.
+     *
+     * @param best - the ranking to add to.
+     * @param center - the search space coordinates of the center of the grid, in
+     * {@link #TRAJECTORY_SEARCH_INCREMENT}s.
+     * @param radius - the distance from the center to the edges of the grid, in
+     * TRAJECTORY_SEARCH_INCREMENTs.
+     * @param stride - the spacing of the grid, in TRAJECTORY_SEARCH_INCREMENTs.
+     */
+    private void searchGrid(Ranking best, int[] center, int radius, int stride) {
+        int[] min = new int[SEARCH_DIMENSIONS];
+        int[] counts = new int[SEARCH_DIMENSIONS];
+        long size = 1;
+        for (int i = 0; i < SEARCH_DIMENSIONS; ++i) {
+            min[i] = Math.max(center[i] - radius, -SEARCH_STEPS);
+            int max = Math.min(center[i] + radius, SEARCH_STEPS - 1);
+            counts[i] = max < min[i] ? 0 : (max - min[i]) / stride + 1;
+            size *= counts[i];
+        }
+        GridSearch search = new GridSearch(best, min, counts, stride, 0, counts[0]);
+        Ranking found = pool == null ? search.scan() : pool.invoke(search);
+        best.merge(found);
+        best.nextOrder += size;
     }
 
     /**
@@ -262,16 +728,30 @@ public final class PathfindingLayer implements Layer {
      * not cause the robot to crash into an obstacle.
      */
     private boolean checkDynamicWindow(Trajectory t) {
+        // Rule out unachievable trajectories before rolling them out
+        if (Math.abs(t.getAxial()) + Math.abs(t.getLateral()) + Math.abs(t.getYaw()) >= 1) {
+            return false;
+        }
         for (double frac = 0; frac < 1; frac += CLEARANCE_STEP) {
             Vec2 translation = getTrajectoryTransform(t, frac).getTranslation();
-            for (Obstacle obstacle : obstacles) {
+            if (planningStaticField != null
+                && planningStaticField.getDistanceTo(translation) < 0) {
+                return false;
+            }
+            if (planning.obstacleGrid != null) {
+                if (planning.obstacleGrid.intersects(translation)) {
+                    return false;
+                }
+                continue;
+            }
+            for (Obstacle obstacle : planning.obstacles) {
                 double clearanceToObstacle = obstacle.getDistanceTo(translation);
                 if (clearanceToObstacle < 0) {
                     return false;
                 }
             }
         }
-        return Math.abs(t.getAxial()) + Math.abs(t.getLateral()) + Math.abs(t.getYaw()) < 1;
+        return true;
     }
 
     /**
@@ -281,6 +761,11 @@ public final class PathfindingLayer implements Layer {
      */
     private void addObstacle(Obstacle obstacle) {
         obstacles.add(obstacle);
+        plannedObstacles = null;
+        plannedObstacleGrid = null;
+        if (obstacle.isStatic()) {
+            plannedStaticField = null;
+        }
     }
 
     /**
@@ -325,12 +810,12 @@ public final class PathfindingLayer implements Layer {
         double zl = t.getLateral();
         double zth = t.getYaw();
         double tf = frac * CALCULATE_INTERVAL;
-        double x0 = initialTransform.getTranslation().getX();
-        double vx0 = initialVelocity.getTranslation().getX();
-        double y0 = initialTransform.getTranslation().getY();
-        double vy0 = initialVelocity.getTranslation().getY();
-        double vth0 = initialVelocity.getDirection().getAngle();
-        double th0 = initialTransform.getDirection().getAngle();
+        double x0 = planning.transform.getTranslation().getX();
+        double vx0 = planning.velocity.getTranslation().getX();
+        double y0 = planning.transform.getTranslation().getY();
+        double vy0 = planning.velocity.getTranslation().getY();
+        double vth0 = planning.velocity.getDirection().getAngle();
+        double th0 = planning.transform.getDirection().getAngle();
 
         double x = x0 + vx0 * tf
             + tf * (
@@ -360,8 +845,8 @@ public final class PathfindingLayer implements Layer {
     private Mat3 getTrajectoryVelocity(Trajectory t, double frac) {
         double tf = frac * CALCULATE_INTERVAL;
         return Mat3.fromTransform(
-            Mat2.fromAngle(t.getYaw() * tf + initialVelocity.getDirection().getAngle()),
-            new Vec2(t.getAxial(), t.getLateral()).mul(tf).add(initialVelocity.getTranslation())
+            Mat2.fromAngle(t.getYaw() * tf + planning.velocity.getDirection().getAngle()),
+            new Vec2(t.getAxial(), t.getLateral()).mul(tf).add(planning.velocity.getTranslation())
         );
     }
 
@@ -389,92 +874,581 @@ public final class PathfindingLayer implements Layer {
     }
 
     /**
-     * A set of accelerations that the robot can take.
-     * Alternately, a 3D point in the search space of trajectories.
+     * Searches for plans on a dedicated thread, one request at a time.
+     * Requests are posted to a single-slot mailbox, so a request the thread has not started on yet
+     * is replaced by a newer one. Each plan is built in full before being published by atomically
+     * swapping the reference the tick thread reads, so the tick thread never waits on a search and
+     * never sees a plan still being built.
      */
-    private static class Trajectory {
+    private final class BackgroundPlanner {
         /**
-         * The axial acceleration to apply to the robot.
-         * Positive values indicate forward acceleration.
+         * The thread searching for plans.
          */
-        private double axial;
+        private final Thread thread;
 
         /**
-         * The lateral acceleration to apply to the robot.
-         * Positive values indicate leftward acceleration.
+         * Guards {@link #pendingRequest}.
          */
-        private double lateral;
+        private final Object requestLock;
 
         /**
-         * The rotational acceleration to apply to the robot.
-         * Positive value indicate counterclockwise acceleration.
+         * The newest request the thread has not started on, or null if there is none.
+         * Guarded by {@link #requestLock}.
          */
-        private double yaw;
+        private PlanRequest pendingRequest;
 
         /**
-         * Constructs a Trajectory.
-         *
-         * @param axial - the axial acceleration to apply to the robot.
-         * @param lateral - the lateral acceleration to apply to the robot.
-         * @param yaw - the rotational acceleration to apply to the robot.
+         * The newest plan finished by the thread, or null if none has been finished.
          */
-        Trajectory(double axial, double lateral, double yaw) {
-            this.axial = axial;
-            this.lateral = lateral;
-            this.yaw = yaw;
+        private final AtomicReference<Plan> published;
+
+        /**
+         * Constructs a BackgroundPlanner and starts its thread.
+         */
+        BackgroundPlanner() {
+            requestLock = new Object();
+            pendingRequest = null;
+            published = new AtomicReference<>(null);
+            thread = new Thread(this::planLoop, "PathfindingLayer");
+            // Planning is worthless once the op mode is gone, so never keep the JVM alive for it
+            thread.setDaemon(true);
+            thread.start();
         }
 
         /**
-         * The axial acceleration to apply to the robot.
+         * Asks the thread to search for a plan, replacing any request it has not started on.
          *
-         * @return The axial acceleration specified by this trajectory.
+         * @param request - the snapshot to plan from.
          */
-        public double getAxial() {
-            return axial;
+        public void request(PlanRequest request) {
+            synchronized (requestLock) {
+                pendingRequest = request;
+                requestLock.notifyAll();
+            }
         }
 
         /**
-         * The lateral acceleration to apply to the robot.
+         * Returns the newest plan published by the thread.
          *
-         * @return The lateral acceleration specified by this trajectory.
+         * @return The newest finished plan, or null if none has been finished.
          */
-        public double getLateral() {
-            return lateral;
+        public Plan getPublished() {
+            return published.get();
         }
 
         /**
-         * The rotational acceleration to apply to the robot.
-         *
-         * @return The rotational acceleration specified by this trajectory.
+         * Stops the thread after its current search and waits for it to terminate.
          */
-        public double getYaw() {
-            return yaw;
+        public void stop() {
+            thread.interrupt();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                // Stopping anyway, so restore the flag for the caller
+                Thread.currentThread().interrupt();
+            }
         }
-    }
 
-    /**
-     * Represents an impassable obstacle on the field.
-     */
-    private interface Obstacle {
         /**
-         * Returns the signed distance in to the given field space.
-         *
-         * @param point - the field point to calculate the distance to, given in units of meters.
-         * @return The signed distance to the closest surface of the obstacle in meters.
+         * Searches for a plan for each request until interrupted.
          */
-        double getDistanceTo(Vec2 point);
+        private void planLoop() {
+            try {
+                while (true) {
+                    PlanRequest request;
+                    synchronized (requestLock) {
+                        while (pendingRequest == null) {
+                            requestLock.wait();
+                        }
+                        request = pendingRequest;
+                        pendingRequest = null;
+                    }
+                    published.set(calculatePath(request));
+                }
+            } catch (InterruptedException e) {
+                // Stopped
+            }
+        }
     }
 
     /**
-     * Represents an obstacle detected by a distance sensor.
-     * These obstacles are represented by line segments that are oriented to face the robot and have
-     * length dependent on the distance from the robot, both at the time of detection.
+     * A snapshot of everything a search reads, taken on the tick thread.
      */
-    private static final class DynamicObstacle implements Obstacle {
+    private static final class PlanRequest {
         /**
-         * The transform of the center of the segment, given in units of meters.
+         * The field transform of the robot before the planned trajectory is applied.
          */
-        private Mat3 transform;
+        private final Mat3 transform;
+
+        /**
+         * The robot space velocity of the robot before the planned trajectory is applied.
+         */
+        private final Mat3 velocity;
+
+        /**
+         * The goal field transform the robot should pathfind to.
+         */
+        private final Mat3 goal;
+
+        /**
+         * The obstacles to plan around analytically. Must not be modified.
+         */
+        private final List<Obstacle> obstacles;
+
+        /**
+         * The grid indexing {@link #obstacles}, or null if they are checked one by one.
+         */
+        private final ObstacleGrid obstacleGrid;
+
+        /**
+         * The static obstacles left out of {@link #obstacles}, rasterized by the first search that
+         * needs them, or null if there are none.
+         */
+        private final LazyDistanceField staticField;
+
+        /**
+         * The time in nanoseconds of the tick the snapshot was taken in.
+         */
+        private final long snapshotTime;
+
+        /**
+         * The number of goals accepted when the snapshot was taken.
+         */
+        private final int goalGeneration;
+
+        /**
+         * Constructs a PlanRequest.
+         *
+         * @param transform - the field transform of the robot.
+         * @param velocity - the robot space velocity of the robot.
+         * @param goal - the goal field transform.
+         * @param obstacles - the obstacles to check analytically. Must not be modified.
+         * @param obstacleGrid - the grid indexing the obstacles, or null to check them one by one.
+         * @param staticField - the remaining obstacles, rasterized by the first search that needs
+         * them, or null if there are none.
+         * @param snapshotTime - the time in nanoseconds of the tick the snapshot was taken in.
+         * @param goalGeneration - the number of goals accepted so far.
+         */
+        PlanRequest(
+            Mat3 transform,
+            Mat3 velocity,
+            Mat3 goal,
+            List<Obstacle> obstacles,
+            ObstacleGrid obstacleGrid,
+            LazyDistanceField staticField,
+            long snapshotTime,
+            int goalGeneration
+        ) {
+            this.transform = transform;
+            this.velocity = velocity;
+            this.goal = goal;
+            this.obstacles = obstacles;
+            this.obstacleGrid = obstacleGrid;
+            this.staticField = staticField;
+            this.snapshotTime = snapshotTime;
+            this.goalGeneration = goalGeneration;
+        }
+    }
+
+    /**
+     * The result of a search, published whole once finished.
+     */
+    private static final class Plan {
+        /**
+         * The best trajectory found.
+         */
+        private final Trajectory trajectory;
+
+        /**
+         * The time in nanoseconds of the tick the search planned from.
+         */
+        private final long snapshotTime;
+
+        /**
+         * How long the search took in nanoseconds.
+         */
+        private final long durationNanos;
+
+        /**
+         * The number of trajectories checked against the dynamic window.
+         */
+        private final long candidates;
+
+        /**
+         * The number of goals accepted when the search's snapshot was taken.
+         */
+        private final int goalGeneration;
+
+        /**
+         * Constructs a Plan.
+         *
+         * @param trajectory - the best trajectory found.
+         * @param snapshotTime - the time in nanoseconds of the tick the search planned from.
+         * @param durationNanos - how long the search took in nanoseconds.
+         * @param candidates - the number of trajectories checked against the dynamic window.
+         * @param goalGeneration - the number of goals accepted when the snapshot was taken.
+         */
+        Plan(
+            Trajectory trajectory,
+            long snapshotTime,
+            long durationNanos,
+            long candidates,
+            int goalGeneration
+        ) {
+            this.trajectory = trajectory;
+            this.snapshotTime = snapshotTime;
+            this.durationNanos = durationNanos;
+            this.candidates = candidates;
+            this.goalGeneration = goalGeneration;
+        }
+    }
+
+    /**
+     * Scores the trajectories of a slice of a grid, splitting it further to score in parallel if
+     * there is a {@link #pool}.
+     * The grid is only read, so slices can be scored at the same time. Everything the objective
+     * function reads is fixed for the duration of a search.
+     */
+    @SuppressWarnings("serial") // Never serialized, as it refers to the layer
+    private final class GridSearch extends RecursiveTask<Ranking> {
+        /**
+         * The ranking being searched into, whose trajectories are skipped. Not modified during the
+         * search.
+         */
+        private final Ranking best;
+
+        /**
+         * The search space coordinates of the first trajectory of the grid on each axis, in
+         * {@link #TRAJECTORY_SEARCH_INCREMENT}s.
+         */
+        private final int[] min;
+
+        /**
+         * The number of trajectories of the grid along each axis.
+         */
+        private final int[] counts;
+
+        /**
+         * The spacing of the grid, in TRAJECTORY_SEARCH_INCREMENTs.
+         */
+        private final int stride;
+
+        /**
+         * The index along the axial axis of the first trajectory of the slice.
+         */
+        private final int start;
+
+        /**
+         * The index along the axial axis after the last trajectory of the slice.
+         */
+        private final int end;
+
+        /**
+         * Constructs a GridSearch.
+         *
+         * @param best - the ranking being searched into.
+         * @param min - the coordinates of the first trajectory of the grid on each axis.
+         * @param counts - the number of trajectories of the grid along each axis.
+         * @param stride - the spacing of the grid.
+         * @param start - the index along the axial axis of the first trajectory of the slice.
+         * @param end - the index along the axial axis after the last trajectory of the slice.
+         */
+        GridSearch(Ranking best, int[] min, int[] counts, int stride, int start, int end) {
+            this.best = best;
+            this.min = min;
+            this.counts = counts;
+            this.stride = stride;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected Ranking compute() {
+            if (end - start <= 1) {
+                return scan();
+            }
+            int middle = (start + end) >>> 1;
+            GridSearch second = new GridSearch(best, min, counts, stride, middle, end);
+            second.fork();
+            Ranking found = new GridSearch(best, min, counts, stride, start, middle).compute();
+            found.merge(second.join());
+            return found;
+        }
+
+        /**
+         * Scores the trajectories of the slice on the current thread.
+         *
+         * @return The best trajectories of the slice.
+         */
+        public Ranking scan() {
+            Ranking found = new Ranking(best.coords.length);
+            int[] coords = new int[SEARCH_DIMENSIONS];
+            for (int i = start; i < end; ++i) {
+                coords[0] = min[0] + i * stride;
+                for (int j = 0; j < counts[1]; ++j) {
+                    coords[1] = min[1] + j * stride;
+                    for (int k = 0; k < counts[2]; ++k) {
+                        coords[2] = min[2] + k * stride;
+                        if (best.contains(coords)) {
+                            continue;
+                        }
+                        Trajectory t = new Trajectory(
+                            coords[0] * TRAJECTORY_SEARCH_INCREMENT,
+                            coords[1] * TRAJECTORY_SEARCH_INCREMENT,
+                            coords[2] * TRAJECTORY_SEARCH_INCREMENT
+                        );
+                        ++found.candidates;
+                        if (checkDynamicWindow(t)) {
+                            long order = best.nextOrder + ((long)i * counts[1] + j) * counts[2] + k;
+                            found.offer(coords, evaluateTrajectory(t), order);
+                        }
+                    }
+                }
+            }
+            return found;
+        }
+    }
+
+    /**
+     * The highest-scoring trajectories found by a search, best first.
+     * Trajectories with equal scores are ranked by the order they come in when scoring every grid
+     * of the search in order, so rankings merged from parallel slices agree with a serial search.
+     */
+    private static final class Ranking {
+        /**
+         * The search space coordinates of the ranked trajectories, in
+         * {@link #TRAJECTORY_SEARCH_INCREMENT}s. Only the first {@link #count} are used.
+         */
+        private final int[][] coords;
+
+        /**
+         * The scores of the ranked trajectories, indexed like {@link #coords}.
+         */
+        private final double[] scores;
+
+        /**
+         * The orders of the ranked trajectories in the search, indexed like {@link #coords}.
+         */
+        private final long[] orders;
+
+        /**
+         * The number of ranked trajectories.
+         */
+        private int count;
+
+        /**
+         * The number of trajectories checked against the dynamic window to find the ranked ones.
+         */
+        private long candidates;
+
+        /**
+         * The order of the first trajectory of the next grid searched into this ranking.
+         */
+        private long nextOrder;
+
+        /**
+         * Constructs an empty Ranking.
+         *
+         * @param capacity - the number of trajectories to keep.
+         */
+        Ranking(int capacity) {
+            coords = new int[capacity][SEARCH_DIMENSIONS];
+            scores = new double[capacity];
+            orders = new long[capacity];
+            count = 0;
+            candidates = 0;
+            nextOrder = 0;
+        }
+
+        /**
+         * Returns whether a trajectory is ranked.
+         *
+         * @param trajectoryCoords - the search space coordinates of the trajectory.
+         * @return Whether the trajectory is among the ranked ones.
+         */
+        public boolean contains(int[] trajectoryCoords) {
+            for (int i = 0; i < count; ++i) {
+                if (Arrays.equals(coords[i], trajectoryCoords)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Ranks a scored trajectory if it beats a ranked one or there is room, dropping the last
+         * ranked trajectory if needed. Trajectories scoring negative infinity or NaN are never
+         * ranked, like trajectories outside the dynamic window.
+         *
+         * @param trajectoryCoords - the search space coordinates of the trajectory.
+         * @param score - the score of the trajectory.
+         * @param order - the order of the trajectory in the search.
+         */
+        public void offer(int[] trajectoryCoords, double score, long order) {
+            if (!(score > Double.NEGATIVE_INFINITY)) {
+                return;
+            }
+            int index = count;
+            while (index > 0 && (score > scores[index - 1]
+                || score == scores[index - 1] && order < orders[index - 1])) {
+                --index;
+            }
+            if (index >= coords.length) {
+                return;
+            }
+            int last = Math.min(count, coords.length - 1);
+            // Reuse the array of the dropped or unused entry
+            int[] entry = coords[last];
+            for (int i = last; i > index; --i) {
+                coords[i] = coords[i - 1];
+                scores[i] = scores[i - 1];
+                orders[i] = orders[i - 1];
+            }
+            System.arraycopy(trajectoryCoords, 0, entry, 0, SEARCH_DIMENSIONS);
+            coords[index] = entry;
+            scores[index] = score;
+            orders[index] = order;
+            count = Math.min(count + 1, coords.length);
+        }
+
+        /**
+         * Ranks the trajectories of another ranking and adds up the candidates.
+         *
+         * @param other - the other ranking.
+         */
+        public void merge(Ranking other) {
+            for (int i = 0; i < other.count; ++i) {
+                offer(other.coords[i], other.scores[i], other.orders[i]);
+            }
+            candidates += other.candidates;
+        }
+
+        /**
+         * Returns the best ranked trajectory.
+         *
+         * @return The best trajectory, or null if none is ranked.
+         */
+        public Trajectory getBest() {
+            if (count == 0) {
+                return null;
+            }
+            return new Trajectory(
+                coords[0][0] * TRAJECTORY_SEARCH_INCREMENT,
+                coords[0][1] * TRAJECTORY_SEARCH_INCREMENT,
+                coords[0][2] * TRAJECTORY_SEARCH_INCREMENT
+            );
+        }
+    }
+
+    /**
+     * A set of accelerations that the robot can take.
+     * Alternately, a 3D point in the search space of trajectories.
+     */
+    private static class Trajectory {
+        /**
+         * The axial acceleration to apply to the robot.
+         * Positive values indicate forward acceleration.
+         */
+        private double axial;
+
+        /**
+         * The lateral acceleration to apply to the robot.
+         * Positive values indicate leftward acceleration.
+         */
+        private double lateral;
+
+        /**
+         * The rotational acceleration to apply to the robot.
+         * Positive value indicate counterclockwise acceleration.
+         */
+        private double yaw;
+
+        /**
+         * Constructs a Trajectory.
+         *
+         * @param axial - the axial acceleration to apply to the robot.
+         * @param lateral - the lateral acceleration to apply to the robot.
+         * @param yaw - the rotational acceleration to apply to the robot.
+         */
+        Trajectory(double axial, double lateral, double yaw) {
+            this.axial = axial;
+            this.lateral = lateral;
+            this.yaw = yaw;
+        }
+
+        /**
+         * The axial acceleration to apply to the robot.
+         *
+         * @return The axial acceleration specified by this trajectory.
+         */
+        public double getAxial() {
+            return axial;
+        }
+
+        /**
+         * The lateral acceleration to apply to the robot.
+         *
+         * @return The lateral acceleration specified by this trajectory.
+         */
+        public double getLateral() {
+            return lateral;
+        }
+
+        /**
+         * The rotational acceleration to apply to the robot.
+         *
+         * @return The rotational acceleration specified by this trajectory.
+         */
+        public double getYaw() {
+            return yaw;
+        }
+    }
+
+    /**
+     * Represents an impassable obstacle on the field.
+     */
+    private interface Obstacle {
+        /**
+         * Returns the signed distance in to the given field space.
+         *
+         * @param point - the field point to calculate the distance to, given in units of meters.
+         * @return The signed distance to the closest surface of the obstacle in meters.
+         */
+        double getDistanceTo(Vec2 point);
+
+        /**
+         * Returns the center of a circle enclosing the obstacle.
+         *
+         * @return The field space center of the bounding circle, given in units of meters.
+         */
+        Vec2 getCenter();
+
+        /**
+         * Returns the radius of a circle enclosing the obstacle, so that no point is closer to the
+         * obstacle than its distance to the circle.
+         *
+         * @return The radius of the bounding circle in meters.
+         */
+        double getRadius();
+
+        /**
+         * Returns whether the obstacle never moves, so that it may be rasterized ahead of time.
+         *
+         * @return Whether the obstacle is static.
+         */
+        boolean isStatic();
+    }
+
+    /**
+     * Represents an obstacle detected by a distance sensor.
+     * These obstacles are represented by line segments that are oriented to face the robot and have
+     * length dependent on the distance from the robot, both at the time of detection.
+     */
+    private static final class DynamicObstacle implements Obstacle {
+        /**
+         * The transform of the center of the segment, given in units of meters.
+         */
+        private Mat3 transform;
 
         /**
          * The length of the segment in meters.
@@ -500,46 +1474,446 @@ public final class PathfindingLayer implements Layer {
             if (lateralProj < size / 2) {
                 return axialProj;
             }
-            Vec2 ep1 = transform.mul(new Vec2(0, size / 2));
-            Vec2 ep2 = transform.mul(new Vec2(0, -size / 2));
+            // Vec2 products only rotate, so translate the endpoints separately
+            Vec2 ep1 = transform.mul(new Vec2(0, size / 2)).add(transform.getTranslation());
+            Vec2 ep2 = transform.mul(new Vec2(0, -size / 2)).add(transform.getTranslation());
             return Math.min(ep1.add(point.mul(-1)).len(), ep2.add(point.mul(-1)).len());
         }
+
+        @Override
+        public Vec2 getCenter() {
+            return transform.getTranslation();
+        }
+
+        @Override
+        public double getRadius() {
+            return size / 2;
+        }
+
+        @Override
+        public boolean isStatic() {
+            return false;
+        }
     }
 
     /**
      * Represents a rectangular obstacle whose transform and size is definitely known.
      * The robot is prepopulated with these obstacles to represent impassible parts of the field.
      */
-    private static class StaticObstacle implements Obstacle {
+    private static final class StaticObstacle implements Obstacle {
         /**
          * The transform of the center of the segment, given in units of meters.
          */
         private Mat3 transform;
 
+        /**
+         * The inverse of {@link #transform}, mapping field points into the rectangle's frame.
+         */
+        private Mat3 inverse;
+
         /**
          * The width and height of the rectangle contained in the x and y components of a 2D vector.
          */
         private Vec2 size;
 
         /**
-         * Constructs a DynamicObstacle.
+         * Constructs a StaticObstacle.
          *
          * @param transform - the transform of the center of the segment, given in units of meters.
          * @param size - the width and height of the rectangle expressed as a 2D vector.
          */
         StaticObstacle(Mat3 transform, Vec2 size) {
             this.transform = transform;
+            this.inverse = transform.inv();
             this.size = size;
         }
 
         @Override
         public double getDistanceTo(Vec2 point) {
-            Vec2 p = transform.inv().mul(point);
-            double m1 = size.getY() / size.getX();
-            double m2 = -m1;
-            boolean useHeight = Math.signum(p.getY() - m1) == Math.signum(p.getY() - m2);
-            double dim = useHeight ? size.getY() : size.getX();
-            return p.len() - dim / (2 * Math.cos(p.getAngle()));
+            // Vec2 products only rotate, so translate into the rectangle's frame separately
+            Vec2 p = inverse.mul(point).add(inverse.getTranslation());
+            // Signed distances past each pair of sides, positive outside of them
+            double dx = Math.abs(p.getX()) - size.getX() / 2;
+            double dy = Math.abs(p.getY()) - size.getY() / 2;
+            double outsideX = Math.max(dx, 0);
+            double outsideY = Math.max(dy, 0);
+            return Math.sqrt(outsideX * outsideX + outsideY * outsideY)
+                + Math.min(Math.max(dx, dy), 0);
+        }
+
+        @Override
+        public Vec2 getCenter() {
+            return transform.getTranslation();
+        }
+
+        @Override
+        public double getRadius() {
+            return size.len() / 2;
+        }
+
+        @Override
+        public boolean isStatic() {
+            return true;
+        }
+    }
+
+    /**
+     * A uniform grid over the bounding circles of a fixed set of obstacles.
+     * Each obstacle is listed in every cell its bounding square overlaps, so any point inside an
+     * obstacle lies in a cell listing it, and an obstacle only listed in cells at least some
+     * distance from a point is at least that far from it. Points outside the grid are clamped to
+     * its nearest cell, which keeps both properties.
+     * Immutable once constructed, so it can be queried from several threads at once.
+     */
+    private static final class ObstacleGrid {
+        /**
+         * The field space x coordinate of the low edge of the grid in meters.
+         */
+        private final double originX;
+
+        /**
+         * The field space y coordinate of the low edge of the grid in meters.
+         */
+        private final double originY;
+
+        /**
+         * The side length of each cell in meters.
+         */
+        private final double cellSize;
+
+        /**
+         * The number of cells along the x axis, or 0 if there are no obstacles.
+         */
+        private final int columns;
+
+        /**
+         * The number of cells along the y axis, or 0 if there are no obstacles.
+         */
+        private final int rows;
+
+        /**
+         * The obstacles listed in each cell, indexed by row then column.
+         */
+        private final Obstacle[][] cells;
+
+        /**
+         * Constructs an ObstacleGrid covering the given obstacles.
+         *
+         * @param obstacles - the obstacles to index.
+         */
+        ObstacleGrid(List<Obstacle> obstacles) {
+            double minX = Double.POSITIVE_INFINITY;
+            double minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY;
+            double maxY = Double.NEGATIVE_INFINITY;
+            for (Obstacle obstacle : obstacles) {
+                Vec2 center = obstacle.getCenter();
+                double radius = obstacle.getRadius();
+                minX = Math.min(minX, center.getX() - radius);
+                minY = Math.min(minY, center.getY() - radius);
+                maxX = Math.max(maxX, center.getX() + radius);
+                maxY = Math.max(maxY, center.getY() + radius);
+            }
+            if (obstacles.isEmpty()) {
+                originX = 0;
+                originY = 0;
+                cellSize = OBSTACLE_CELL_SIZE;
+                columns = 0;
+                rows = 0;
+                cells = new Obstacle[0][];
+                return;
+            }
+            originX = minX;
+            originY = minY;
+            cellSize = Math.max(
+                OBSTACLE_CELL_SIZE,
+                Math.max(maxX - minX, maxY - minY) / MAX_OBSTACLE_GRID_CELLS
+            );
+            columns = Math.min((int)Math.floor((maxX - minX) / cellSize) + 1,
+                MAX_OBSTACLE_GRID_CELLS);
+            rows = Math.min((int)Math.floor((maxY - minY) / cellSize) + 1,
+                MAX_OBSTACLE_GRID_CELLS);
+            List<List<Obstacle>> cellLists = new ArrayList<>(columns * rows);
+            for (int i = 0; i < columns * rows; ++i) {
+                cellLists.add(new ArrayList<>());
+            }
+            for (Obstacle obstacle : obstacles) {
+                Vec2 center = obstacle.getCenter();
+                double radius = obstacle.getRadius();
+                int lowColumn = getColumn(center.getX() - radius);
+                int highColumn = getColumn(center.getX() + radius);
+                int lowRow = getRow(center.getY() - radius);
+                int highRow = getRow(center.getY() + radius);
+                for (int row = lowRow; row <= highRow; ++row) {
+                    for (int column = lowColumn; column <= highColumn; ++column) {
+                        cellLists.get(row * columns + column).add(obstacle);
+                    }
+                }
+            }
+            cells = new Obstacle[columns * rows][];
+            for (int i = 0; i < cells.length; ++i) {
+                cells[i] = cellLists.get(i).toArray(new Obstacle[0]);
+            }
+        }
+
+        /**
+         * Returns whether a point is inside any obstacle.
+         *
+         * @param point - the field point to check, given in units of meters.
+         * @return Whether the signed distance from the point to any obstacle is negative.
+         */
+        public boolean intersects(Vec2 point) {
+            if (cells.length == 0) {
+                return false;
+            }
+            double x = (point.getX() - originX) / cellSize;
+            double y = (point.getY() - originY) / cellSize;
+            // Obstacles are contained in the grid, so points outside of it can't be inside one
+            if (x < 0 || y < 0 || x >= columns || y >= rows) {
+                return false;
+            }
+            for (Obstacle obstacle : cells[(int)y * columns + (int)x]) {
+                if (obstacle.getDistanceTo(point) < 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Returns the smallest signed distance from a point to any obstacle, if it is less than a
+         * bound.
+         * Scans rings of cells outwards from the point's cell, stopping once the remaining rings
+         * are all farther away than the closest obstacle found so far or the bound.
+         *
+         * @param point - the field point to calculate the clearance of, given in units of meters.
+         * @param bound - the clearance to beat, such as the smallest found for earlier points.
+         * @return The smallest of the bound and the signed distances to the obstacles in meters.
+         */
+        public double getClearance(Vec2 point, double bound) {
+            double best = bound;
+            if (cells.length == 0) {
+                return best;
+            }
+            int column = getColumn(point.getX());
+            int row = getRow(point.getY());
+            int maxRing = Math.max(
+                Math.max(column, columns - 1 - column),
+                Math.max(row, rows - 1 - row)
+            );
+            // Cells in ring r are at least r - 1 cells away from the point, even if it was clamped
+            for (int ring = 0; ring <= maxRing && (ring - 1) * cellSize < best; ++ring) {
+                for (int dy = -ring; dy <= ring; ++dy) {
+                    // The top and bottom rows of the ring are whole, the sides only their ends
+                    int step = Math.abs(dy) == ring ? 1 : Math.max(2 * ring, 1);
+                    for (int dx = -ring; dx <= ring; dx += step) {
+                        best = getClearanceInCell(column + dx, row + dy, point, best);
+                    }
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Returns the smallest signed distance from a point to any obstacle listed in a cell, if
+         * it is less than a bound.
+         *
+         * @param column - the column of the cell, which may be outside the grid.
+         * @param row - the row of the cell, which may be outside the grid.
+         * @param point - the field point to calculate the clearance of, given in units of meters.
+         * @param bound - the clearance to beat.
+         * @return The smallest of the bound and the signed distances to the obstacles in meters.
+         */
+        private double getClearanceInCell(int column, int row, Vec2 point, double bound) {
+            if (column < 0 || row < 0 || column >= columns || row >= rows) {
+                return bound;
+            }
+            double best = bound;
+            for (Obstacle obstacle : cells[row * columns + column]) {
+                // Only compute distances to obstacles whose bounding circle is close enough
+                double dx = obstacle.getCenter().getX() - point.getX();
+                double dy = obstacle.getCenter().getY() - point.getY();
+                if (Math.sqrt(dx * dx + dy * dy) - obstacle.getRadius() >= best) {
+                    continue;
+                }
+                best = Math.min(best, obstacle.getDistanceTo(point));
+            }
+            return best;
+        }
+
+        /**
+         * Returns the column of the cell containing an x coordinate, clamped to the grid.
+         *
+         * @param x - the field space x coordinate in meters.
+         * @return The column index.
+         */
+        private int getColumn(double x) {
+            int column = (int)Math.floor((x - originX) / cellSize);
+            return Math.max(0, Math.min(columns - 1, column));
+        }
+
+        /**
+         * Returns the row of the cell containing a y coordinate, clamped to the grid.
+         *
+         * @param y - the field space y coordinate in meters.
+         * @return The row index.
+         */
+        private int getRow(double y) {
+            int row = (int)Math.floor((y - originY) / cellSize);
+            return Math.max(0, Math.min(rows - 1, row));
+        }
+    }
+
+    /**
+     * A signed distance field sampled on a regular grid around a fixed set of obstacles.
+     * Each sample holds the smallest signed distance from its point to any of the obstacles, and
+     * distances between samples are bilinearly interpolated. Points beyond the sampled area are
+     * clamped to its edge, adding the distance to it, which is close to the true distance since the
+     * area extends {@link #STATIC_FIELD_MARGIN} past the obstacles.
+     * Immutable once constructed, so it can be queried from several threads at once.
+     */
+    private static final class DistanceField {
+        /**
+         * The field space x coordinate of the first column of samples in meters.
+         */
+        private final double originX;
+
+        /**
+         * The field space y coordinate of the first row of samples in meters.
+         */
+        private final double originY;
+
+        /**
+         * The spacing of the samples in meters.
+         */
+        private final double resolution;
+
+        /**
+         * The number of samples along the x axis, at least 2.
+         */
+        private final int columns;
+
+        /**
+         * The number of samples along the y axis, at least 2.
+         */
+        private final int rows;
+
+        /**
+         * The signed distances in meters at each sample, indexed by row then column.
+         */
+        private final float[] distances;
+
+        /**
+         * Constructs a DistanceField by rasterizing the given obstacles.
+         *
+         * @param obstacles - the obstacles to rasterize. Must not be empty.
+         * @param resolution - the spacing of the samples in meters.
+         */
+        DistanceField(List<Obstacle> obstacles, double resolution) {
+            double minX = Double.POSITIVE_INFINITY;
+            double minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY;
+            double maxY = Double.NEGATIVE_INFINITY;
+            for (Obstacle obstacle : obstacles) {
+                Vec2 center = obstacle.getCenter();
+                double radius = obstacle.getRadius();
+                minX = Math.min(minX, center.getX() - radius);
+                minY = Math.min(minY, center.getY() - radius);
+                maxX = Math.max(maxX, center.getX() + radius);
+                maxY = Math.max(maxY, center.getY() + radius);
+            }
+            originX = minX - STATIC_FIELD_MARGIN;
+            originY = minY - STATIC_FIELD_MARGIN;
+            this.resolution = resolution;
+            columns = (int)Math.ceil((maxX + STATIC_FIELD_MARGIN - originX) / resolution) + 1;
+            rows = (int)Math.ceil((maxY + STATIC_FIELD_MARGIN - originY) / resolution) + 1;
+            distances = new float[columns * rows];
+            // Rasterizing only needs the obstacles near each sample
+            ObstacleGrid grid = new ObstacleGrid(obstacles);
+            for (int row = 0; row < rows; ++row) {
+                for (int column = 0; column < columns; ++column) {
+                    Vec2 point = new Vec2(
+                        originX + column * resolution,
+                        originY + row * resolution
+                    );
+                    distances[row * columns + column] =
+                        (float)grid.getClearance(point, Double.POSITIVE_INFINITY);
+                }
+            }
+        }
+
+        /**
+         * Returns the interpolated signed distance from a point to the closest obstacle.
+         *
+         * @param point - the field point to calculate the distance to, given in units of meters.
+         * @return The signed distance in meters, negative inside an obstacle.
+         */
+        public double getDistanceTo(Vec2 point) {
+            double x = (point.getX() - originX) / resolution;
+            double y = (point.getY() - originY) / resolution;
+            double clampedX = Math.max(0, Math.min(columns - 1, x));
+            double clampedY = Math.max(0, Math.min(rows - 1, y));
+            int column = Math.min((int)clampedX, columns - 2);
+            int row = Math.min((int)clampedY, rows - 2);
+            double fracX = clampedX - column;
+            double fracY = clampedY - row;
+            int i = row * columns + column;
+            double low = distances[i] + (distances[i + 1] - distances[i]) * fracX;
+            double high = distances[i + columns]
+                + (distances[i + columns + 1] - distances[i + columns]) * fracX;
+            double outsideX = (x - clampedX) * resolution;
+            double outsideY = (y - clampedY) * resolution;
+            return low + (high - low) * fracY
+                + Math.sqrt(outsideX * outsideX + outsideY * outsideY);
+        }
+    }
+
+    /**
+     * Static obstacles waiting to be rasterized into a {@link DistanceField} by the first search
+     * that plans around them.
+     * Rasterizing takes far longer than a tick, so leaving it to the search keeps it on the
+     * background planner's thread when there is one, and the field is then shared by every later
+     * search around the same obstacles.
+     */
+    private static final class LazyDistanceField {
+        /**
+         * The obstacles to rasterize. Must not be modified.
+         */
+        private final List<Obstacle> obstacles;
+
+        /**
+         * The spacing of the samples in meters.
+         */
+        private final double resolution;
+
+        /**
+         * The rasterized field, or null if no search has needed it yet.
+         * Guarded by this object's monitor.
+         */
+        private DistanceField field;
+
+        /**
+         * Constructs a LazyDistanceField.
+         *
+         * @param obstacles - the obstacles to rasterize. Must not be empty or modified.
+         * @param resolution - the spacing of the samples in meters.
+         */
+        LazyDistanceField(List<Obstacle> obstacles, double resolution) {
+            this.obstacles = obstacles;
+            this.resolution = resolution;
+            field = null;
+        }
+
+        /**
+         * Returns the distance field, rasterizing the obstacles if this is the first call.
+         *
+         * @return The distance field.
+         */
+        public synchronized DistanceField get() {
+            if (field == null) {
+                field = new DistanceField(obstacles, resolution);
+            }
+            return field;
         }
     }
 }
@@ -1,6 +1,8 @@
 package org.firstinspires.ftc.teamcode.layer.strategy;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 
 import org.firstinspires.ftc.teamcode.Units;
 import org.firstinspires.ftc.teamcode.layer.AbstractQueuedLayer;
@@ -18,6 +20,19 @@ import org.firstinspires.ftc.teamcode.task.WinTask;
  * obstacles.
  */
 public final class PathlessStrategy extends AbstractQueuedLayer {
+    /**
+     * The number of RobotController ticks between invocations of the strategy.
+     * The strategy only hands out precomputed tasks, so it does not need to run at the rate of the
+     * layers below it.
+     */
+    private static final int TICK_DIVISOR = 4;
+
+    /**
+     * The number of queued movements shown to the drive ahead of time, so it can start each one
+     * without stopping after the last.
+     */
+    private static final int LOOKAHEAD = 1;
+
     /**
      * The distance in tiles the robot must first travel forward to make it to the other side of the
      * preset samples.
@@ -74,10 +89,13 @@ public final class PathlessStrategy extends AbstractQueuedLayer {
      */
     public PathlessStrategy() {
         queue = new ArrayList<>();
+        setLookahead(LOOKAHEAD);
     }
 
     @Override
-    public void setup(LayerSetupInfo setupInfo) { }
+    public void setup(LayerSetupInfo setupInfo) {
+        setupInfo.setTickDivisor(TICK_DIVISOR);
+    }
 
     @Override
     public void acceptTask(Task task) {
@@ -100,6 +118,11 @@ public final class PathlessStrategy extends AbstractQueuedLayer {
         }
     }
 
+    @Override
+    public Collection<Class<? extends Task>> acceptedTaskTypes() {
+        return Collections.singleton(WinTask.class);
+    }
+
     /**
      * Makes a correction for scoring the first spike which would otherwise end outside the net
      * zone.
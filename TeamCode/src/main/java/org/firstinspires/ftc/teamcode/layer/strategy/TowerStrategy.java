@@ -1,10 +1,10 @@
 package org.firstinspires.ftc.teamcode.layer.strategy;
 
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 
 import org.firstinspires.ftc.teamcode.Units;
-import org.firstinspires.ftc.teamcode.layer.AbstractQueuedLayer;
+import org.firstinspires.ftc.teamcode.layer.AbstractScheduledLayer;
 import org.firstinspires.ftc.teamcode.layer.LayerSetupInfo;
 import org.firstinspires.ftc.teamcode.task.IntakeTask;
 import org.firstinspires.ftc.teamcode.task.LinearMovementTask;
@@ -19,24 +19,34 @@ import org.firstinspires.ftc.teamcode.task.WinTask;
  * Scores alliance-neutral samples into the low basket.
  * Emits LinearMovementTasks and TurnTasks directly instead of using any pathfinding. This means it
  * is only compatible with holonomic drive systems, subject to encoder drift, and cannot respond to
- * obstacles.
+ * obstacles. The tower is raised and lowered while the robot drives, and only the intake waits for
+ * both to finish.
  */
-public final class TowerStrategy extends AbstractQueuedLayer {
+public final class TowerStrategy extends AbstractScheduledLayer {
     /**
-     * A list of actions built in {@link #acceptTask} that is eventually passed to
-     * {@link #setSubtasks}.
+     * The number of RobotController ticks between invocations of the strategy.
+     * The strategy only hands out precomputed tasks, so it does not need to run at the rate of the
+     * layers below it.
      */
-    private ArrayList<Task> queue;
+    private static final int TICK_DIVISOR = 4;
+
+    /**
+     * The number of scheduled movements shown to the drive ahead of time, so it can start each one
+     * without stopping after the last.
+     */
+    private static final int LOOKAHEAD = 1;
 
     /**
      * Constructs a TowerStrategy.
      */
     public TowerStrategy() {
-        queue = new ArrayList<>();
+        setLookahead(LOOKAHEAD);
     }
 
     @Override
-    public void setup(LayerSetupInfo setupInfo) { }
+    public void setup(LayerSetupInfo setupInfo) {
+        setupInfo.setTickDivisor(TICK_DIVISOR);
+    }
 
     @Override
     public void acceptTask(Task task) {
@@ -44,32 +54,67 @@ public final class TowerStrategy extends AbstractQueuedLayer {
             // CSOFF:MagicNumber
             // Forearm unfolded
             // Drive to basket
-            queue.add(new LinearMovementTask(Units.convert(12, Units.Distance.IN, Units.Distance.M), 0));
-            queue.add(new TurnTask(0.25));
-            queue.add(new LinearMovementTask(Units.convert(20, Units.Distance.IN, Units.Distance.M), 0));
-            queue.add(new TurnTask(0.125));
+            schedule(new LinearMovementTask(Units.convert(12, Units.Distance.IN, Units.Distance.M), 0), Mechanism.DRIVE);
+            schedule(new TurnTask(0.25), Mechanism.DRIVE);
+            schedule(new LinearMovementTask(Units.convert(20, Units.Distance.IN, Units.Distance.M), 0), Mechanism.DRIVE);
+            Action atBasket = schedule(new TurnTask(0.125), Mechanism.DRIVE);
             // Score preloaded sample
-            score();
+            Action scored = score(atBasket);
             // Acquire and score sample 1
-            queue.add(new TurnTask(Units.convert(-135, Units.Angle.DEG, Units.Angle.RAD)));
-            queue.add(new TowerTask(false, true));
-            queue.add(new IntakeTask(true, false));
-            queue.add(new TurnTask(-0.5));
-            score();
-            setSubtasks(queue);
+            Action atSample = schedule(
+                new TurnTask(Units.convert(-135, Units.Angle.DEG, Units.Angle.RAD)),
+                Mechanism.DRIVE,
+                scored
+            );
+            Action lowered = schedule(new TowerTask(false, true), Mechanism.TOWER, scored);
+            Action acquired = schedule(
+                new IntakeTask(true, false),
+                Mechanism.INTAKE,
+                atSample,
+                lowered
+            );
+            Action atBasketAgain = schedule(new TurnTask(-0.5), Mechanism.DRIVE, acquired);
+            score(atBasketAgain, acquired);
             // CSON:MagicNumber
         } else if (task instanceof TowerForearmTask) {
-            setSubtasks(Arrays.asList(task)); // Forward task to lower layer
+            schedule(task, Mechanism.TOWER); // Forward task to lower layer
         } else {
             throw new UnsupportedTaskException(this, task);
         }
     }
 
+    @Override
+    public Collection<Class<? extends Task>> acceptedTaskTypes() {
+        return Arrays.asList(WinTask.class, TowerForearmTask.class);
+    }
+
     /**
      * Raises the tower and ejects a sample in the intake.
+     *
+     * @param arrival - the action that moves the robot to the basket.
+     * @param raiseDependencies - the actions that must complete before the tower may be raised.
+     * @return The action ejecting the sample.
+     */
+    private Action score(Action arrival, Action... raiseDependencies) {
+        Action raised = schedule(new TowerTask(true, false), Mechanism.TOWER, raiseDependencies);
+        return schedule(new IntakeTask(false, true), Mechanism.INTAKE, arrival, raised);
+    }
+
+    /**
+     * The mechanisms tasks occupy.
      */
-    private void score() {
-        queue.add(new TowerTask(true, false));
-        queue.add(new IntakeTask(false, true));
+    private enum Mechanism {
+        /**
+         * The drive train.
+         */
+        DRIVE,
+        /**
+         * The tower.
+         */
+        TOWER,
+        /**
+         * The intake.
+         */
+        INTAKE
     }
 }
@@ -29,7 +29,11 @@ public abstract class AbstractFinDiffLocalizationData implements LocalizationDat
         double ignoreRootFactor = ignoreRoots.stream().map((b) -> {
             double product;
             Vec2 negativeCenter = pos.mul(-1);
-            Vec2 epsilonVec = new Vec2(epsilon, epsilon);
+            // Far from the origin, a step of epsilon is lost to rounding and the loop never ends
+            Vec2 epsilonVec = new Vec2(
+                Math.max(epsilon, Math.ulp(pos.getX())),
+                Math.max(epsilon, Math.ulp(pos.getY()))
+            );
             do {
                 Vec2 diff = negativeCenter.add(b);
                 double factor = 1.0 / (diff.dot(diff) + 1.0) - 1.0;
@@ -71,7 +75,7 @@ public abstract class AbstractFinDiffLocalizationData implements LocalizationDat
             double x = rot;
             do {
                 product = a / (x - b);
-                x += epsilon;
+                x += Math.max(epsilon, Math.ulp(x));
             } while (!Double.isFinite(product));
             return product;
         });
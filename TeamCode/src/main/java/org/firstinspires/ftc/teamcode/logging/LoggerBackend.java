@@ -7,6 +7,8 @@ import org.firstinspires.ftc.teamcode.matrix.Vec2;
 
 /**
  * Processes logging events collected from the program by a {@link Logger}.
+ * Loggers never call into the same backend from two threads at once, so implementations need not
+ * be thread-safe. They should return quickly, since the calling thread may be running ticks.
  */
 public interface LoggerBackend extends Closeable {
     /**
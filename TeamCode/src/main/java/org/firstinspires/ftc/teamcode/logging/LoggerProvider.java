@@ -11,6 +11,10 @@ import org.firstinspires.ftc.teamcode.matrix.Vec2;
 
 /**
  * A builder for {@link Logger} instances that supports hierarchal configuration.
+ * Built loggers call into each backend while holding the backend's monitor, so loggers on
+ * different threads, such as the event loop and the tick thread of a
+ * {@link org.firstinspires.ftc.teamcode.TickScheduler}, may share backends that are not
+ * thread-safe.
  */
 public final class LoggerProvider {
     /**
@@ -105,10 +109,13 @@ public final class LoggerProvider {
                 public void processLog(Log log) { }
             };
         } else if (backends.size() == 1) {
-            backend = backends.get(0);
+            backend = new SynchronizedBackend(backends.get(0));
         } else {
             // Aggregate backend
-            ArrayList<LoggerBackend> backendListCopy = new ArrayList<>(backends);
+            ArrayList<LoggerBackend> backendListCopy = new ArrayList<>();
+            for (LoggerBackend innerBackend : backends) {
+                backendListCopy.add(new SynchronizedBackend(innerBackend));
+            }
             backend = new LoggerBackend() {
                 @Override
                 public void close() throws IOException {
@@ -383,4 +390,68 @@ public final class LoggerProvider {
         locationExceptions.add(Logger.TRACE_SEVERITY);
         return this;
     }
+
+    /**
+     * Passes logging events on to a backend while holding the backend's monitor, so that only one
+     * thread calls into the backend at a time.
+     */
+    private static final class SynchronizedBackend implements LoggerBackend {
+        /**
+         * The backend to pass logging events on to, also used as the lock.
+         */
+        private final LoggerBackend backend;
+
+        /**
+         * Constructs a SynchronizedBackend.
+         *
+         * @param backend the backend to pass logging events on to.
+         */
+        SynchronizedBackend(LoggerBackend backend) {
+            this.backend = backend;
+        }
+
+        @Override
+        public void close() throws IOException {
+            synchronized (backend) {
+                backend.close();
+            }
+        }
+
+        @Override
+        public void processPosition(String loggerLabel, String itemLabel, Vec2 position) {
+            synchronized (backend) {
+                backend.processPosition(loggerLabel, itemLabel, position);
+            }
+        }
+
+        @Override
+        public void processVector(String loggerLabel, String itemLabel, String attachLabel,
+            Vec2 vector) {
+            synchronized (backend) {
+                backend.processVector(loggerLabel, itemLabel, attachLabel, vector);
+            }
+        }
+
+        @Override
+        public void processTransform(String loggerLabel, String itemLabel, String attachLabel,
+            Mat3 transform) {
+            synchronized (backend) {
+                backend.processTransform(loggerLabel, itemLabel, attachLabel, transform);
+            }
+        }
+
+        @Override
+        public void processUpdatableObject(String loggerLabel, String itemLabel, Object object) {
+            synchronized (backend) {
+                backend.processUpdatableObject(loggerLabel, itemLabel, object);
+            }
+        }
+
+        @Override
+        public void processLog(Log log) {
+            synchronized (backend) {
+                backend.processLog(log);
+            }
+        }
+    }
 }
@@ -1,6 +1,7 @@
 package org.firstinspires.ftc.teamcode.mechanism;
 
-import com.qualcomm.robotcore.hardware.DcMotor;
+import org.firstinspires.ftc.teamcode.hardware.EncoderHandle;
+import org.firstinspires.ftc.teamcode.hardware.PowerHandle;
 
 /**
  * Represents a wheel directly or indirectly driven by a motor that can calculate translation using
@@ -8,9 +9,14 @@ import com.qualcomm.robotcore.hardware.DcMotor;
  */
 public class Wheel {
     /**
-     * The motor driving the wheel.
+     * The handle writing to the motor driving the wheel.
      */
-    private final DcMotor motor;
+    private final PowerHandle motor;
+
+    /**
+     * The handle reading the encoder of the motor driving the wheel.
+     */
+    private final EncoderHandle encoder;
 
     /**
      * The radius of the wheel in a unit chosen by the owner.
@@ -20,11 +26,15 @@ public class Wheel {
     /**
      * Constructs a Wheel.
      *
-     * @param motor The motor driving the wheel.
+     * @param motor The handle writing to the motor driving the wheel, typically from the
+     * {@link org.firstinspires.ftc.teamcode.hardware.ActuatorWriteBuffer}.
+     * @param encoder The handle reading the motor's encoder, typically from the
+     * {@link org.firstinspires.ftc.teamcode.hardware.HardwareSnapshot}.
      * @param radius The radius of the wheel. No assumptions are made about the unit.
      */
-    public Wheel(DcMotor motor, double radius) {
+    public Wheel(PowerHandle motor, EncoderHandle encoder, double radius) {
         this.motor = motor;
+        this.encoder = encoder;
         this.radius = radius;
     }
 
@@ -44,7 +54,7 @@ public class Wheel {
      * @return the distance traveled by the edge of the wheel.
      */
     public double getDistance() {
-        double revs = (double)motor.getCurrentPosition() / motor.getMotorType().getTicksPerRev();
+        double revs = encoder.getRevolutions();
         // Does MotorConfigurationType.getGearing hold any interesting info or does it just hold a
         // value we give it?
         double angle = revs * 2 * Math.PI;
@@ -56,7 +66,8 @@ public class Wheel {
      * "Power" is used interchangeably with "velocity" for symmetry with the PiE API, though FTC
      * makes a distinction between the two (see
      * {@link com.qualcomm.robotcore.hardware.DcMotorEx#setVelocity} vs
-     * {@link com.qualcomm.robotcore.hardware.DcMotor#setPower}).
+     * {@link com.qualcomm.robotcore.hardware.DcMotor#setPower}). The power is written to the motor
+     * when the handle's buffer is flushed.
      *
      * @param velocity - the power to run the underlying motor at. Must be in the range [-1.0, 1.0],
      * where positive values indicate forward movement.
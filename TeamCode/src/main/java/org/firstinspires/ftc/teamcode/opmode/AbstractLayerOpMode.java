@@ -1,10 +1,19 @@
 package org.firstinspires.ftc.teamcode.opmode;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 import com.qualcomm.robotcore.eventloop.opmode.OpMode;
+import com.qualcomm.robotcore.hardware.Gamepad;
+import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
 
+import org.firstinspires.ftc.teamcode.LayerGraph;
 import org.firstinspires.ftc.teamcode.RobotController;
+import org.firstinspires.ftc.teamcode.TickScheduler;
+import org.firstinspires.ftc.teamcode.journal.JournalRecorder;
 import org.firstinspires.ftc.teamcode.layer.Layer;
 import org.firstinspires.ftc.teamcode.localization.RobotLocalizer;
 import org.firstinspires.ftc.teamcode.logging.Logger;
@@ -19,6 +28,17 @@ public abstract class AbstractLayerOpMode extends OpMode {
      */
     private RobotController controller;
 
+    /**
+     * The scheduler driving the controller, or null if the controller is updated from
+     * {@link #loop}.
+     */
+    private TickScheduler scheduler;
+
+    /**
+     * The journal recording the run, or null if the run is not journaled.
+     */
+    private JournalRecorder journal;
+
     /**
      * Whether the layer stack is finished processing.
      */
@@ -31,28 +51,105 @@ public abstract class AbstractLayerOpMode extends OpMode {
 
     @Override
     public final void init() {
+        // Checked before the journal is opened, so a misconfigured opmode leaves nothing behind
+        LayerGraph graph = getLayerGraph();
+        List<Layer> layers = getLayers();
+        if ((graph == null) == (layers == null)) {
+            throw new IllegalStateException(
+                getClass().getSimpleName() + " must override exactly one of getLayers and "
+                + "getLayerGraph to return non-null, but " + (graph == null ? "neither" : "both")
+                + " did."
+            );
+        }
         controller = new RobotController();
         finished = false;
         LoggerProvider loggerProvider = new LoggerProvider();
         configureLogger(loggerProvider);
         logger = loggerProvider.getLogger("AbstractLayerOpMode");
-        controller.setup(hardwareMap, getLocalizer(), getLayers(), gamepad1, gamepad2, loggerProvider);
+        configureController(controller);
+        journal = isJournalEnabled() ? openJournal() : null;
+        controller.setJournal(journal);
+        double tickRate = getTickRate();
+        Gamepad layerGamepad0 = gamepad1;
+        Gamepad layerGamepad1 = gamepad2;
+        if (tickRate > 0) {
+            scheduler = new TickScheduler(controller, tickRate, gamepad1, gamepad2,
+                loggerProvider.getLogger("TickScheduler"));
+            layerGamepad0 = scheduler.getGamepad0();
+            layerGamepad1 = scheduler.getGamepad1();
+        } else {
+            scheduler = null;
+        }
+        if (graph != null) {
+            controller.setup(hardwareMap, getLocalizer(), graph, layerGamepad0, layerGamepad1,
+                loggerProvider);
+        } else {
+            controller.setup(hardwareMap, getLocalizer(), layers, layerGamepad0, layerGamepad1,
+                loggerProvider);
+        }
+    }
+
+    @Override
+    public final void start() {
+        if (scheduler != null) {
+            scheduler.start();
+        }
+        onStart();
     }
 
     @Override
     public final void loop() {
-        if (!finished && controller.update()) {
+        if (finished) {
+            return;
+        }
+        if (scheduler == null ? controller.update() : updateScheduler()) {
             logger.log("Finished!");
             finished = true;
         }
     }
 
+    @Override
+    public final void stop() {
+        if (scheduler != null) {
+            scheduler.stop();
+        }
+        // Releases the threads of layers that had not finished
+        controller.stop();
+        onStop();
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (UncheckedIOException e) {
+                logger.error("Failed to write tick journal:", e.getMessage());
+            }
+            journal = null;
+        }
+    }
+
     /**
      * Gets the list of layers to execute for this opmode.
+     * Opmodes must override exactly one of this method and {@link #getLayerGraph}; init throws an
+     * IllegalStateException if both or neither return non-null.
+     *
+     * @return The list of layers to execute, in order from lowest to highest, or null to execute
+     * {@link #getLayerGraph} instead.
+     */
+    protected List<Layer> getLayers() {
+        return null;
+    }
+
+    /**
+     * Gets the graph of layers to execute for this opmode instead of a stack.
+     * Override this method and return a LayerGraph to connect layers that fan out to several
+     * mechanisms directly rather than through a
+     * {@link org.firstinspires.ftc.teamcode.layer.MultiplexLayer}.
      *
-     * @return The list of layers to execute, in order from lowest to highest.
+     * @return The graph of layers to execute, or null to execute {@link #getLayers} as a stack
+     * instead.
      */
-    protected abstract List<Layer> getLayers();
+    protected LayerGraph getLayerGraph() {
+        return null;
+    }
 
     /**
      * Gets the robot localizer to use for this opmode.
@@ -74,4 +171,96 @@ public abstract class AbstractLayerOpMode extends OpMode {
     protected void configureLogger(LoggerProvider loggerProvider) {
         // Do nothing
     }
+
+    /**
+     * Configures the RobotController before it sets up the layer stack.
+     * Override this method to do opmode-specific configuration, such as enabling layer timing with
+     * {@link RobotController#setTimingEnabled}.
+     *
+     * @param robotController the RobotController to configure.
+     */
+    protected void configureController(RobotController robotController) {
+        // Do nothing
+    }
+
+    /**
+     * Gets the fixed rate at which to update the RobotController.
+     * By default the controller is updated once per call to {@link #loop}, whose rate depends on
+     * the FTC event loop. Override this method and return a positive rate to instead update the
+     * controller on a dedicated {@link TickScheduler} thread between {@link #start} and
+     * {@link #stop}.
+     *
+     * @return The rate in hertz at which to update the controller, or 0 to update it from
+     * {@link #loop}.
+     */
+    protected double getTickRate() {
+        return 0;
+    }
+
+    /**
+     * Called when the opmode is started, after the {@link TickScheduler} thread (if any) has
+     * started.
+     * Override this method to do opmode-specific work at the start of the run.
+     */
+    protected void onStart() {
+        // Do nothing
+    }
+
+    /**
+     * Called when the opmode is stopped, after the {@link TickScheduler} thread (if any) has
+     * terminated and the layers have been torn down, and before the tick journal (if any) is
+     * closed.
+     * Override this method to do opmode-specific cleanup, such as leaving mechanisms in a safe
+     * state; layers no longer run concurrently at this point.
+     */
+    protected void onStop() {
+        // Do nothing
+    }
+
+    /**
+     * Gets whether to record a tick journal of the run.
+     * Override this method and return true to record every input and task of the layer stack to
+     * a file under the robot data directory, which can be replayed offline with a
+     * {@link org.firstinspires.ftc.teamcode.journal.JournalReplayer}.
+     *
+     * @return Whether to record a tick journal.
+     */
+    protected boolean isJournalEnabled() {
+        return false;
+    }
+
+    /**
+     * Opens a new journal file named after the opmode and the current time.
+     *
+     * @return The journal recording to the file, or null if the file could not be opened.
+     */
+    private JournalRecorder openJournal() {
+        File dir = new File(AppUtil.ROBOT_DATA_DIR, "journals");
+        File file = new File(dir, getClass().getSimpleName() + "-" + System.currentTimeMillis()
+            + ".journal");
+        try {
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                throw new IOException("Could not create " + dir + ".");
+            }
+            JournalRecorder recorder = new JournalRecorder(new FileOutputStream(file));
+            logger.log("Recording tick journal to", file);
+            return recorder;
+        } catch (IOException e) {
+            // A journal is a debugging aid; run without one rather than failing the opmode
+            logger.error("Failed to open tick journal:", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Hands the latest gamepad state to the scheduler, publishes its statistics and checks whether
+     * it has finished.
+     *
+     * @return Whether the layer stack has finished executing on the scheduler thread.
+     */
+    private boolean updateScheduler() {
+        scheduler.publishGamepads();
+        scheduler.reportStatistics();
+        return scheduler.isFinished();
+    }
 }
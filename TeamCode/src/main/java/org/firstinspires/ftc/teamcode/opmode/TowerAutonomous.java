@@ -1,12 +1,10 @@
 package org.firstinspires.ftc.teamcode.opmode;
 
 import java.util.Arrays;
-import java.util.List;
 
 import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
 
-import org.firstinspires.ftc.teamcode.layer.Layer;
-import org.firstinspires.ftc.teamcode.layer.MultiplexLayer;
+import org.firstinspires.ftc.teamcode.LayerGraph;
 import org.firstinspires.ftc.teamcode.layer.TopLayerSequence;
 import org.firstinspires.ftc.teamcode.layer.WinLayer;
 import org.firstinspires.ftc.teamcode.layer.drive.MecanumDrive;
@@ -26,19 +24,16 @@ public final class TowerAutonomous extends AbstractLayerOpMode {
     public TowerAutonomous() { }
 
     @Override
-    protected List<Layer> getLayers() {
+    protected LayerGraph getLayerGraph() {
         TowerLayer towerLayer = new TowerLayer();
-        return Arrays.asList(
-            new MultiplexLayer(Arrays.asList(
-                new MecanumDrive(),
-                new IntakeLayer(),
-                towerLayer
-            )),
-            new TowerStrategy(),
-            new TopLayerSequence(Arrays.asList(
+        TowerStrategy strategy = new TowerStrategy();
+        return new LayerGraph()
+            .connect(new TopLayerSequence(Arrays.asList(
                 towerLayer.new InitLayer(),
                 new WinLayer()
-            ))
-        );
+            )), strategy)
+            .connect(strategy, new MecanumDrive())
+            .connect(strategy, new IntakeLayer())
+            .connect(strategy, towerLayer);
     }
 }
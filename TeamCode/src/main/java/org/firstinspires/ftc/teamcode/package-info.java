@@ -3,7 +3,7 @@
  *
  * <p>This package directly contains utility classes (since there aren't enough yet to warrant a
  * subpackage) and most importantly the {@link RobotController} class, which controls the robot
- * according to a stack of {@link org.firstinspires.ftc.teamcode.layer.Layer}s. Everything else to
- * do with controlling the robot lives in subpackages here.
+ * according to a stack or {@link LayerGraph} of {@link org.firstinspires.ftc.teamcode.layer.Layer}s.
+ * Everything else to do with controlling the robot lives in subpackages here.
  */
 package org.firstinspires.ftc.teamcode;
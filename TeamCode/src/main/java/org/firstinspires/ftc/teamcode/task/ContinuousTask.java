@@ -0,0 +1,13 @@
+package org.firstinspires.ftc.teamcode.task;
+
+/**
+ * Marker interface for tasks that continuously command a mechanism, such as teleop drive powers.
+ * Only the latest continuous task of each type is meaningful, so instead of handing each one to
+ * the layer below as it is emitted, the {@link org.firstinspires.ftc.teamcode.RobotController}
+ * posts it to a mailbox in which a newer task of the same type overwrites an older undelivered
+ * one. The mailbox is delivered once the emitting layer has finished its update and the layer
+ * below is ready for new tasks, so a layer emitting several continuous tasks of one type in a tick
+ * or while the layer below is busy causes only one {@link
+ * org.firstinspires.ftc.teamcode.layer.Layer#acceptTask} call.
+ */
+public interface ContinuousTask extends Task { }
@@ -1,9 +1,14 @@
 package org.firstinspires.ftc.teamcode.task;
 
+import java.util.Objects;
+
 /**
  * Holds a snapshot of input from all connected gamepads.
+ * The input values are mutable so that a layer capturing input every tick can refill instances
+ * reused from a {@link TaskPool} with {@link GamepadInput#set}, and compared by value so that
+ * mapping layers can recognize input that has not changed since the last tick.
  */
-public class GamepadInputTask implements Task {
+public final class GamepadInputTask implements ValueTask {
     /**
      * Input captured from the gamepad connected to the first slot, or null if none is connected.
      */
@@ -27,6 +32,67 @@ public class GamepadInputTask implements Task {
         this.gamepad1 = gamepad1;
     }
 
+    @Override
+    public GamepadInputTask copy() {
+        GamepadInputTask task = new GamepadInputTask(
+            gamepad0 == null ? null : new GamepadInput(),
+            gamepad1 == null ? null : new GamepadInput()
+        );
+        task.copyFrom(this);
+        return task;
+    }
+
+    @Override
+    public boolean canCopyFrom(ValueTask other) {
+        if (other.getClass() != getClass()) {
+            return false;
+        }
+        GamepadInputTask castedOther = (GamepadInputTask)other;
+        return (gamepad0 == null) == (castedOther.gamepad0 == null)
+            && (gamepad1 == null) == (castedOther.gamepad1 == null);
+    }
+
+    @Override
+    public void copyFrom(ValueTask other) {
+        if (!canCopyFrom(other)) {
+            throw new IllegalArgumentException("Connected gamepads do not match.");
+        }
+        GamepadInputTask castedOther = (GamepadInputTask)other;
+        if (gamepad0 != null) {
+            gamepad0.set(castedOther.gamepad0);
+        }
+        if (gamepad1 != null) {
+            gamepad1.set(castedOther.gamepad1);
+        }
+    }
+
+    @Override
+    public void writeValues(ValueWriter writer) {
+        // Which gamepads are connected comes first, since it decides what follows
+        writer.writeInt((gamepad0 == null ? 0 : 1) | (gamepad1 == null ? 0 : 2));
+        if (gamepad0 != null) {
+            gamepad0.writeValues(writer);
+        }
+        if (gamepad1 != null) {
+            gamepad1.writeValues(writer);
+        }
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (other == null || other.getClass() != getClass()) {
+            return false;
+        }
+        GamepadInputTask castedOther = (GamepadInputTask)other;
+        return Objects.equals(gamepad0, castedOther.gamepad0)
+            && Objects.equals(gamepad1, castedOther.gamepad1);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(gamepad0, gamepad1);
+    }
+
     /**
      * Carries information about the axes of a joystick on a gamepad.
      */
@@ -35,13 +101,13 @@ public class GamepadInputTask implements Task {
          * The horizontal axis of the joystick.
          * Positive values correspond to the rightward direction.
          */
-        public final float x;
+        private float x;
 
         /**
          * The vertical axis of the joystick.
          * Positive values correspond to the upward direction.
          */
-        public final float y;
+        private float y;
 
         /**
          * Constructs a Joystick.
@@ -53,6 +119,26 @@ public class GamepadInputTask implements Task {
             this.x = x;
             this.y = y;
         }
+
+        /**
+         * Returns the horizontal axis of the joystick.
+         * Positive values correspond to the rightward direction.
+         *
+         * @return The horizontal axis of the joystick.
+         */
+        public float getX() {
+            return x;
+        }
+
+        /**
+         * Returns the vertical axis of the joystick.
+         * Positive values correspond to the upward direction.
+         *
+         * @return The vertical axis of the joystick.
+         */
+        public float getY() {
+            return y;
+        }
     }
 
     /**
@@ -89,12 +175,12 @@ public class GamepadInputTask implements Task {
         /**
          * Whether the left button of the pair is pressed.
          */
-        public final boolean left;
+        private boolean left;
 
         /**
          * Whether the right button of the pair is pressed.
          */
-        public final boolean right;
+        private boolean right;
 
         /**
          * Constructs a ButtonPair.
@@ -106,6 +192,24 @@ public class GamepadInputTask implements Task {
             this.left = left;
             this.right = right;
         }
+
+        /**
+         * Returns whether the left button of the pair is pressed.
+         *
+         * @return Whether the left button of the pair is pressed.
+         */
+        public boolean getLeft() {
+            return left;
+        }
+
+        /**
+         * Returns whether the right button of the pair is pressed.
+         *
+         * @return Whether the right button of the pair is pressed.
+         */
+        public boolean getRight() {
+            return right;
+        }
     }
 
     /**
@@ -116,22 +220,22 @@ public class GamepadInputTask implements Task {
         /**
          * Whether the up button of the dpad is pressed.
          */
-        public final boolean up;
+        private boolean up;
 
         /**
          * Whether the right button of the dpad is pressed.
          */
-        public final boolean right;
+        private boolean right;
 
         /**
          * Whether the down button of the dpad is pressed.
          */
-        public final boolean down;
+        private boolean down;
 
         /**
          * Whether the left button of the dpad is pressed.
          */
-        public final boolean left;
+        private boolean left;
 
         /**
          * Constructs a DirectionalPad.
@@ -147,6 +251,42 @@ public class GamepadInputTask implements Task {
             this.down = down;
             this.left = left;
         }
+
+        /**
+         * Returns whether the up button of the dpad is pressed.
+         *
+         * @return Whether the up button of the dpad is pressed.
+         */
+        public boolean getUp() {
+            return up;
+        }
+
+        /**
+         * Returns whether the right button of the dpad is pressed.
+         *
+         * @return Whether the right button of the dpad is pressed.
+         */
+        public boolean getRight() {
+            return right;
+        }
+
+        /**
+         * Returns whether the down button of the dpad is pressed.
+         *
+         * @return Whether the down button of the dpad is pressed.
+         */
+        public boolean getDown() {
+            return down;
+        }
+
+        /**
+         * Returns whether the left button of the dpad is pressed.
+         *
+         * @return Whether the left button of the dpad is pressed.
+         */
+        public boolean getLeft() {
+            return left;
+        }
     }
 
     /**
@@ -156,22 +296,22 @@ public class GamepadInputTask implements Task {
         /**
          * Whether the A gamepad button is pressed.
          */
-        public final boolean a;
+        private boolean a;
 
         /**
          * Whether the B gamepad button is pressed.
          */
-        public final boolean b;
+        private boolean b;
 
         /**
          * Whether the X gamepad button is pressed.
          */
-        public final boolean x;
+        private boolean x;
 
         /**
          * Whether the Y gamepad button is pressed.
          */
-        public final boolean y;
+        private boolean y;
 
         /**
          * Constructs a Buttons.
@@ -187,12 +327,48 @@ public class GamepadInputTask implements Task {
             this.x = x;
             this.y = y;
         }
+
+        /**
+         * Returns whether the A gamepad button is pressed.
+         *
+         * @return Whether the A gamepad button is pressed.
+         */
+        public boolean getA() {
+            return a;
+        }
+
+        /**
+         * Returns whether the B gamepad button is pressed.
+         *
+         * @return Whether the B gamepad button is pressed.
+         */
+        public boolean getB() {
+            return b;
+        }
+
+        /**
+         * Returns whether the X gamepad button is pressed.
+         *
+         * @return Whether the X gamepad button is pressed.
+         */
+        public boolean getX() {
+            return x;
+        }
+
+        /**
+         * Returns whether the Y gamepad button is pressed.
+         *
+         * @return Whether the Y gamepad button is pressed.
+         */
+        public boolean getY() {
+            return y;
+        }
     }
 
     /**
      * Carries information about a single connected gamepad.
      */
-    public static class GamepadInput {
+    public static final class GamepadInput {
         /**
          * The minimum value reported by the trigger for it to be considered "pressed".
          * For the sake of symmetry with the PiE API, triggers are considered digital buttons
@@ -225,6 +401,17 @@ public class GamepadInputTask implements Task {
          */
         public final Buttons buttons;
 
+        /**
+         * Constructs a GamepadInput with the joysticks centered and nothing pressed.
+         */
+        public GamepadInput() {
+            joysticks = new Joysticks(new Joystick(0, 0), new Joystick(0, 0));
+            bumpers = new ButtonPair(false, false);
+            triggers = new ButtonPair(false, false);
+            dpad = new DirectionalPad(false, false, false, false);
+            buttons = new Buttons(false, false, false, false);
+        }
+
         /**
          * Constructs a GamepadInput.
          *
@@ -263,14 +450,175 @@ public class GamepadInputTask implements Task {
             boolean buttonX,
             boolean buttonY
         ) {
-            joysticks = new Joysticks(
-                new Joystick(joystickLeftX, joystickLeftY),
-                new Joystick(joystickRightX, joystickRightY)
+            this();
+            set(
+                joystickLeftX,
+                joystickLeftY,
+                bumperLeft,
+                triggerLeft,
+                joystickRightX,
+                joystickRightY,
+                bumperRight,
+                triggerRight,
+                dpadUp,
+                dpadRight,
+                dpadDown,
+                dpadLeft,
+                buttonA,
+                buttonB,
+                buttonX,
+                buttonY
+            );
+        }
+
+        /**
+         * Overwrites the captured input.
+         *
+         * @param joystickLeftX - the horizontal axis of the left joystick.
+         * @param joystickLeftY - the vertical axis of the left joystick.
+         * @param bumperLeft - whether the left bumper is pressed.
+         * @param triggerLeft - the value of the left trigger.
+         * @param joystickRightX - the horizontal axis of the right joystick.
+         * @param joystickRightY - the vertical axis of the right joystick.
+         * @param bumperRight - whether the right bumper is pressed.
+         * @param triggerRight - the value of the right trigger.
+         * @param dpadUp - whether the up dpad button is pressed.
+         * @param dpadRight - whether the right dpad button is pressed.
+         * @param dpadDown - whether the down dpad button is pressed.
+         * @param dpadLeft - whether the left dpad button is pressed.
+         * @param buttonA - whether the A gamepad button is pressed.
+         * @param buttonB - whether the B gamepad button is pressed.
+         * @param buttonX - whether the X gamepad button is pressed.
+         * @param buttonY - whether the Y gamepad button is pressed.
+         */
+        public void set(
+            float joystickLeftX,
+            float joystickLeftY,
+            boolean bumperLeft,
+            float triggerLeft,
+            float joystickRightX,
+            float joystickRightY,
+            boolean bumperRight,
+            float triggerRight,
+            boolean dpadUp,
+            boolean dpadRight,
+            boolean dpadDown,
+            boolean dpadLeft,
+            boolean buttonA,
+            boolean buttonB,
+            boolean buttonX,
+            boolean buttonY
+        ) {
+            joysticks.left.x = joystickLeftX;
+            joysticks.left.y = joystickLeftY;
+            joysticks.right.x = joystickRightX;
+            joysticks.right.y = joystickRightY;
+            bumpers.left = bumperLeft;
+            bumpers.right = bumperRight;
+            triggers.left = triggerLeft >= TRIGGER_MIN;
+            triggers.right = triggerRight >= TRIGGER_MIN;
+            dpad.up = dpadUp;
+            dpad.right = dpadRight;
+            dpad.down = dpadDown;
+            dpad.left = dpadLeft;
+            buttons.a = buttonA;
+            buttons.b = buttonB;
+            buttons.x = buttonX;
+            buttons.y = buttonY;
+        }
+
+        /**
+         * Overwrites the captured input with a copy of other captured input.
+         *
+         * @param other - the input to copy.
+         */
+        public void set(GamepadInput other) {
+            joysticks.left.x = other.joysticks.left.x;
+            joysticks.left.y = other.joysticks.left.y;
+            joysticks.right.x = other.joysticks.right.x;
+            joysticks.right.y = other.joysticks.right.y;
+            bumpers.left = other.bumpers.left;
+            bumpers.right = other.bumpers.right;
+            triggers.left = other.triggers.left;
+            triggers.right = other.triggers.right;
+            dpad.up = other.dpad.up;
+            dpad.right = other.dpad.right;
+            dpad.down = other.dpad.down;
+            dpad.left = other.dpad.left;
+            buttons.a = other.buttons.a;
+            buttons.b = other.buttons.b;
+            buttons.x = other.buttons.x;
+            buttons.y = other.buttons.y;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (other == null || other.getClass() != getClass()) {
+                return false;
+            }
+            GamepadInput castedOther = (GamepadInput)other;
+            return Float.compare(joysticks.left.x, castedOther.joysticks.left.x) == 0
+                && Float.compare(joysticks.left.y, castedOther.joysticks.left.y) == 0
+                && Float.compare(joysticks.right.x, castedOther.joysticks.right.x) == 0
+                && Float.compare(joysticks.right.y, castedOther.joysticks.right.y) == 0
+                && getButtonBits() == castedOther.getButtonBits();
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(
+                joysticks.left.x,
+                joysticks.left.y,
+                joysticks.right.x,
+                joysticks.right.y,
+                getButtonBits()
             );
-            bumpers = new ButtonPair(bumperLeft, bumperRight);
-            triggers = new ButtonPair(triggerLeft >= TRIGGER_MIN, triggerRight >= TRIGGER_MIN);
-            dpad = new DirectionalPad(dpadUp, dpadRight, dpadDown, dpadLeft);
-            buttons = new Buttons(buttonA, buttonB, buttonX, buttonY);
+        }
+
+        /**
+         * Passes the joystick axes and the bits of the digital inputs to a writer, which are the
+         * values compared by {@link #equals}.
+         *
+         * @param writer - the writer to pass the values to.
+         */
+        private void writeValues(ValueWriter writer) {
+            writer.writeDouble(joysticks.left.x);
+            writer.writeDouble(joysticks.left.y);
+            writer.writeDouble(joysticks.right.x);
+            writer.writeDouble(joysticks.right.y);
+            writer.writeInt(getButtonBits());
+        }
+
+        /**
+         * Packs the state of every digital input into the bits of an integer.
+         *
+         * @return The bits, one per bumper, trigger, dpad button, and face button.
+         */
+        private int getButtonBits() {
+            int bits = 0;
+            bits = appendBit(bits, bumpers.left);
+            bits = appendBit(bits, bumpers.right);
+            bits = appendBit(bits, triggers.left);
+            bits = appendBit(bits, triggers.right);
+            bits = appendBit(bits, dpad.up);
+            bits = appendBit(bits, dpad.right);
+            bits = appendBit(bits, dpad.down);
+            bits = appendBit(bits, dpad.left);
+            bits = appendBit(bits, buttons.a);
+            bits = appendBit(bits, buttons.b);
+            bits = appendBit(bits, buttons.x);
+            return appendBit(bits, buttons.y);
+        }
+
+        /**
+         * Appends the state of a digital input as the lowest bit of an integer.
+         *
+         * @param bits - the bits of the inputs appended so far.
+         * @param pressed - whether the input is pressed.
+         * @return The bits shifted left by one, with the lowest bit set if the input is pressed.
+         */
+        private static int appendBit(int bits, boolean pressed) {
+            return bits << 1 | (pressed ? 1 : 0);
         }
     }
 }
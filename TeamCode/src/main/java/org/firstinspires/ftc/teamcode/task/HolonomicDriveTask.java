@@ -1,10 +1,14 @@
 package org.firstinspires.ftc.teamcode.task;
 
+import java.util.Objects;
+
 /**
  * Specifies relative accelerations for the axial, lateral, and yaw component of a holonomic drive
  * (a drive train that can strafe without turning).
+ * Mutable so that layers emitting one every tick can reuse instances from a {@link TaskPool}, and
+ * compared by value so that repeats of the same accelerations can be recognized.
  */
-public class HolonomicDriveTask implements Task {
+public final class HolonomicDriveTask implements ContinuousTask, ValueTask {
     /**
      * The relative acceleration to apply in the direction the robot is facing.
      * Positive values indicate forward movement and negative values indicate backward.
@@ -33,9 +37,23 @@ public class HolonomicDriveTask implements Task {
      * @param yaw - the relative acceleration to use to turn the robot.
      */
     public HolonomicDriveTask(double axial, double lateral, double yaw) {
-        this.axial = axial;
-        this.lateral = lateral;
-        this.yaw = yaw;
+        set(axial, lateral, yaw);
+    }
+
+    /**
+     * Overwrites the accelerations of this task.
+     *
+     * @param newAxial - the relative acceleration to apply in the direction the robot is facing.
+     * @param newLateral - the relative acceleration to apply in the direction perpendicular to the
+     * one the robot is facing.
+     * @param newYaw - the relative acceleration to use to turn the robot.
+     * @return This HolonomicDriveTask.
+     */
+    public HolonomicDriveTask set(double newAxial, double newLateral, double newYaw) {
+        axial = newAxial;
+        lateral = newLateral;
+        yaw = newYaw;
+        return this;
     }
 
     /**
@@ -70,4 +88,38 @@ public class HolonomicDriveTask implements Task {
     public double getYaw() {
         return yaw;
     }
+
+    @Override
+    public HolonomicDriveTask copy() {
+        return new HolonomicDriveTask(axial, lateral, yaw);
+    }
+
+    @Override
+    public void copyFrom(ValueTask other) {
+        HolonomicDriveTask castedOther = (HolonomicDriveTask)other;
+        set(castedOther.axial, castedOther.lateral, castedOther.yaw);
+    }
+
+    @Override
+    public void writeValues(ValueWriter writer) {
+        writer.writeDouble(axial);
+        writer.writeDouble(lateral);
+        writer.writeDouble(yaw);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (other == null || other.getClass() != getClass()) {
+            return false;
+        }
+        HolonomicDriveTask castedOther = (HolonomicDriveTask)other;
+        return Double.compare(axial, castedOther.axial) == 0
+            && Double.compare(lateral, castedOther.lateral) == 0
+            && Double.compare(yaw, castedOther.yaw) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(axial, lateral, yaw);
+    }
 }
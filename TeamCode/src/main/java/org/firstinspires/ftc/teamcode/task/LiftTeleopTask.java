@@ -3,7 +3,7 @@ package org.firstinspires.ftc.teamcode.task;
 /**
  * Extends, retracts, or swings a lift using absolute powers.
  */
-public class LiftTeleopTask implements Task {
+public class LiftTeleopTask implements ContinuousTask {
     /**
      * The direction and speed the lift should swing with.
      * Must be in the range [-1, 1].
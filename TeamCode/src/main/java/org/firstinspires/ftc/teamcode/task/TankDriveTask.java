@@ -1,10 +1,14 @@
 package org.firstinspires.ftc.teamcode.task;
 
+import java.util.Objects;
+
 /**
  * Specifies relative accelerations for left and right side of the robot.
  * Despite the name, not necessarily produced by tank drive controls.
+ * Mutable so that layers emitting one every tick can reuse instances from a {@link TaskPool}, and
+ * compared by value so that repeats of the same accelerations can be recognized.
  */
-public class TankDriveTask implements Task {
+public final class TankDriveTask implements ContinuousTask, ValueTask {
     /**
      * The relative acceleration to apply to the left side of the robot.
      * Positive values indicate forward movement and negative values indicate backward.
@@ -24,8 +28,20 @@ public class TankDriveTask implements Task {
      * @param right the relative acceleration to apply to the right side of the robot.
      */
     public TankDriveTask(double left, double right) {
-        this.left = left;
-        this.right = right;
+        set(left, right);
+    }
+
+    /**
+     * Overwrites the accelerations of this task.
+     *
+     * @param newLeft - the relative acceleration to apply to the left side of the robot.
+     * @param newRight - the relative acceleration to apply to the right side of the robot.
+     * @return This TankDriveTask.
+     */
+    public TankDriveTask set(double newLeft, double newRight) {
+        left = newLeft;
+        right = newRight;
+        return this;
     }
 
     /**
@@ -47,4 +63,36 @@ public class TankDriveTask implements Task {
     public double getRight() {
         return right;
     }
+
+    @Override
+    public TankDriveTask copy() {
+        return new TankDriveTask(left, right);
+    }
+
+    @Override
+    public void copyFrom(ValueTask other) {
+        TankDriveTask castedOther = (TankDriveTask)other;
+        set(castedOther.left, castedOther.right);
+    }
+
+    @Override
+    public void writeValues(ValueWriter writer) {
+        writer.writeDouble(left);
+        writer.writeDouble(right);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (other == null || other.getClass() != getClass()) {
+            return false;
+        }
+        TankDriveTask castedOther = (TankDriveTask)other;
+        return Double.compare(left, castedOther.left) == 0
+            && Double.compare(right, castedOther.right) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(left, right);
+    }
 }
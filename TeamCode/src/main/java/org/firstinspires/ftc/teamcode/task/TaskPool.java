@@ -0,0 +1,79 @@
+package org.firstinspires.ftc.teamcode.task;
+
+import java.util.ArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Recycles task objects of one type so layers emitting a task every tick do not allocate.
+ * A task acquired from the pool stays valid until the end of the tick after the one it was
+ * acquired in: long enough for the layer below to accept it and for the controller to pass it
+ * back up as a completed task. After that it may be handed out again and overwritten, so layers
+ * accepting pooled tasks must not keep references to them, and should read what they need in
+ * {@link org.firstinspires.ftc.teamcode.layer.Layer#acceptTask}. Pooled task types are mutable
+ * variants that are filled in right after being acquired.
+ *
+ * <p>Pools are created with
+ * {@link org.firstinspires.ftc.teamcode.layer.LayerSetupInfo#createTaskPool} and recycled by the
+ * {@link org.firstinspires.ftc.teamcode.RobotController} at the start of every tick.
+ *
+ * @param <T> - the type of task pooled.
+ */
+public final class TaskPool<T extends Task> {
+    /**
+     * Creates a new task when none are free.
+     */
+    private final Supplier<T> factory;
+
+    /**
+     * Tasks that may be handed out.
+     */
+    private final ArrayList<T> free;
+
+    /**
+     * Tasks handed out during the current tick.
+     */
+    private ArrayList<T> current;
+
+    /**
+     * Tasks handed out during the previous tick.
+     */
+    private ArrayList<T> previous;
+
+    /**
+     * Constructs an empty TaskPool.
+     *
+     * @param factory - creates a new task when none are free.
+     */
+    public TaskPool(Supplier<T> factory) {
+        this.factory = factory;
+        free = new ArrayList<>();
+        current = new ArrayList<>();
+        previous = new ArrayList<>();
+    }
+
+    /**
+     * Hands out a task, reusing one no longer in use if possible.
+     * The task's contents are left over from its last use and should be overwritten.
+     *
+     * @return A task valid until the end of the next tick.
+     */
+    public T acquire() {
+        T task = free.isEmpty() ? factory.get() : free.remove(free.size() - 1);
+        current.add(task);
+        return task;
+    }
+
+    /**
+     * Starts a new tick, freeing the tasks handed out during the tick before last.
+     */
+    public void recycle() {
+        // Indexed rather than addAll, which allocates an intermediate array
+        for (int i = 0; i < previous.size(); ++i) {
+            free.add(previous.get(i));
+        }
+        previous.clear();
+        ArrayList<T> emptied = previous;
+        previous = current;
+        current = emptied;
+    }
+}
@@ -1,21 +1,25 @@
 package org.firstinspires.ftc.teamcode.task;
 
+import java.util.Objects;
+
 /**
  * Controls the tower in teleop.
+ * Mutable so that layers emitting one every tick can reuse instances from a {@link TaskPool}, and
+ * compared by value so that repeats of the same powers can be recognized.
  */
-public class TowerTeleopTask implements Task {
+public final class TowerTeleopTask implements ContinuousTask, ValueTask {
     /**
      * The direction and speed to swing the tower in.
      * Negative values lower the tower (towards the front of the robot).
      */
-    private final double towerSwingPower;
+    private double towerSwingPower;
 
     /**
      * The direction and speed to swing the forearm in.
      * Negative values lower the forearm (towards the front of the robot if the tower is fully
      * lowered).
      */
-    private final double forearmSwingPower;
+    private double forearmSwingPower;
 
     /**
      * Constructs a TowerTeleopTask.
@@ -24,8 +28,20 @@ public class TowerTeleopTask implements Task {
      * @param forearmSwingPower - the direction and speed to swing the forearm in.
      */
     public TowerTeleopTask(double towerSwingPower, double forearmSwingPower) {
-        this.towerSwingPower = towerSwingPower;
-        this.forearmSwingPower = forearmSwingPower;
+        set(towerSwingPower, forearmSwingPower);
+    }
+
+    /**
+     * Overwrites the swing powers of this task.
+     *
+     * @param newTowerSwingPower - the direction and speed to swing the tower in.
+     * @param newForearmSwingPower - the direction and speed to swing the forearm in.
+     * @return This TowerTeleopTask.
+     */
+    public TowerTeleopTask set(double newTowerSwingPower, double newForearmSwingPower) {
+        towerSwingPower = newTowerSwingPower;
+        forearmSwingPower = newForearmSwingPower;
+        return this;
     }
 
     /**
@@ -47,4 +63,36 @@ public class TowerTeleopTask implements Task {
     public double getForearmSwingPower() {
         return forearmSwingPower;
     }
+
+    @Override
+    public TowerTeleopTask copy() {
+        return new TowerTeleopTask(towerSwingPower, forearmSwingPower);
+    }
+
+    @Override
+    public void copyFrom(ValueTask other) {
+        TowerTeleopTask castedOther = (TowerTeleopTask)other;
+        set(castedOther.towerSwingPower, castedOther.forearmSwingPower);
+    }
+
+    @Override
+    public void writeValues(ValueWriter writer) {
+        writer.writeDouble(towerSwingPower);
+        writer.writeDouble(forearmSwingPower);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (other == null || other.getClass() != getClass()) {
+            return false;
+        }
+        TowerTeleopTask castedOther = (TowerTeleopTask)other;
+        return Double.compare(towerSwingPower, castedOther.towerSwingPower) == 0
+            && Double.compare(forearmSwingPower, castedOther.forearmSwingPower) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(towerSwingPower, forearmSwingPower);
+    }
 }
@@ -0,0 +1,67 @@
+package org.firstinspires.ftc.teamcode.task;
+
+/**
+ * Interface for tasks that are fully described by their values, so that two instances with equal
+ * values mean the same thing.
+ * Implementations override {@link Object#equals} and {@link Object#hashCode} to compare values,
+ * which lets layers recognize a task they have already processed, such as a mapping layer whose
+ * input has not changed since the last tick. Since such tasks are often pooled and overwritten in
+ * place, they can also copy their values, so a layer can remember one without holding on to an
+ * instance that will be reused. Their values can also be written out one by one, which lets a tick
+ * journal record and check them without knowing each class.
+ */
+public interface ValueTask extends Task {
+    /**
+     * Creates a copy of this task that is not shared with anything else.
+     *
+     * @return A new task of the same class with equal values.
+     */
+    ValueTask copy();
+
+    /**
+     * Returns whether {@link #copyFrom} can overwrite this task with the values of another task.
+     *
+     * @param other - the task to copy the values of.
+     * @return Whether the other task is of the same class and shaped the same way, which is true
+     * unless the implementation says otherwise.
+     */
+    default boolean canCopyFrom(ValueTask other) {
+        return other.getClass() == getClass();
+    }
+
+    /**
+     * Overwrites the values of this task with those of another task.
+     * Must only be called if {@link #canCopyFrom} returns true for the other task.
+     *
+     * @param other - the task to copy the values of.
+     */
+    void copyFrom(ValueTask other);
+
+    /**
+     * Passes every value compared by {@link Object#equals} to a writer, in an order fixed by the
+     * class and the values already written.
+     * Implementations must not allocate, as a journaled stack writes every task it hands down.
+     *
+     * @param writer - the writer to pass the values to.
+     */
+    void writeValues(ValueWriter writer);
+
+    /**
+     * Receives the values of a ValueTask one by one.
+     */
+    interface ValueWriter {
+        /**
+         * Receives a real value.
+         *
+         * @param value - the value.
+         */
+        void writeDouble(double value);
+
+        /**
+         * Receives an integer value, such as a bit set of flags.
+         *
+         * @param value - the value.
+         */
+        void writeInt(int value);
+    }
+}
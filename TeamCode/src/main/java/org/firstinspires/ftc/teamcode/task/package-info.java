@@ -1,7 +1,10 @@
 /**
  * Commands sent to and between {@link org.firstinspires.ftc.teamcode.layer.Layer}s.
- * Tasks are immutable data transfer objects that should not contain any robot control logic
- * themselves. Passing tasks to subordinates are the primary way for Layers to communicate. All
- * tasks should implement the {@link Task} marker interface for type-safety with Layer methods.
+ * Tasks are data transfer objects that should not contain any robot control logic themselves.
+ * Passing tasks to subordinates are the primary way for Layers to communicate. All tasks should
+ * implement the {@link Task} marker interface for type-safety with Layer methods, and tasks that
+ * only matter as the latest command of their type should implement {@link ContinuousTask}. Tasks
+ * fully described by their values should implement {@link ValueTask}, so that layers can recognize
+ * repeats of them.
  */
 package org.firstinspires.ftc.teamcode.task;